@@ -0,0 +1,103 @@
+package com.projet.Cloud.benchmarks;
+
+import com.google.cloud.Timestamp;
+import com.projet.Cloud.model.Role;
+import com.projet.Cloud.model.Signalement;
+import com.projet.Cloud.model.SignalementType;
+import com.projet.Cloud.model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Jeux de données déterministes partagés par les benchmarks
+ */
+final class BenchmarkData {
+
+    private static final String[] STATUSES = {"nouveau", "en_cours", "terminé"};
+
+    private BenchmarkData() {}
+
+    static User user(long id) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername("user" + id);
+        user.setEmail("user" + id + "@example.mg");
+        user.setFirebaseUid("uid-" + id);
+        Role role = new Role("USER");
+        role.setId(1L);
+        user.setRoles(Set.of(role));
+        return user;
+    }
+
+    static List<Signalement> signalements(int count) {
+        Random random = new Random(42);
+        List<Signalement> signalements = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            SignalementType type = new SignalementType("Type " + (i % 10), "#FF4444", "⚠️");
+            type.setId((long) (i % 10) + 1);
+
+            Signalement signalement = new Signalement();
+            signalement.setId((long) i + 1);
+            signalement.setFirebaseId("pg-" + (i + 1));
+            signalement.setUser(user(i % 50 + 1));
+            signalement.setType(type);
+            signalement.setLatitude(-18.8792 + random.nextGaussian() * 0.05);
+            signalement.setLongitude(47.5079 + random.nextGaussian() * 0.05);
+            signalement.setDescription("Signalement de test numéro " + i + " près du marché");
+            signalement.setStatus(STATUSES[i % STATUSES.length]);
+            signalement.setSurfaceM2(random.nextDouble() * 100);
+            signalement.setBudget(Math.round(random.nextDouble() * 1_000_000) / 100.0);
+            signalement.setNiveau(i % 10 + 1);
+            signalement.setUpdatedAt(LocalDateTime.of(2024, 1, 1, 12, 0).plusMinutes(i));
+            signalements.add(signalement);
+        }
+        return signalements;
+    }
+
+    /**
+     * Document Firestore tel que renvoyé par getData(), avec le format de date demandé
+     * (timestamp : com.google.cloud.Timestamp, map : {seconds, nanoseconds}, iso : texte)
+     */
+    static Map<String, Object> signalementDocument(long id, String dateFormat) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("firebaseId", "doc-" + id);
+        data.put("localId", id);
+        data.put("userId", String.valueOf(id % 50 + 1));
+        data.put("typeId", "3");
+        data.put("latitude", -18.8792);
+        data.put("longitude", 47.5079);
+        data.put("description", "Nid de poule sur la route " + id);
+        data.put("surfaceM2", 25L);
+        data.put("budget", "5000.50");
+        data.put("status", "en_cours");
+
+        Object date = switch (dateFormat) {
+            case "timestamp" -> Timestamp.ofTimeSecondsAndNanos(1_704_110_400L + id, 0);
+            case "map" -> Map.of("seconds", 1_704_110_400L + id, "nanoseconds", 0);
+            default -> "2024-01-01T12:00:00";
+        };
+        data.put("createdAt", date);
+        data.put("dateSignalement", date);
+        data.put("updatedAt", date);
+        return data;
+    }
+
+    static Map<String, Object> problemeDocument(long id) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("userId", String.valueOf(id % 50 + 1));
+        data.put("latitude", -18.8792);
+        data.put("longitude", "47.5079");
+        data.put("description", "Problème signalé " + id);
+        data.put("typeId", id % 2 == 0 ? 4L : "4");
+        data.put("status", "ouvert");
+        data.put("createdAt", Timestamp.ofTimeSecondsAndNanos(1_704_110_400L + id, 0));
+        data.put("updatedAt", Timestamp.ofTimeSecondsAndNanos(1_704_110_400L + id, 0));
+        return data;
+    }
+}
@@ -0,0 +1,64 @@
+package com.projet.Cloud.benchmarks;
+
+import com.projet.Cloud.util.FirestoreValues;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversion Map<String, Object> → champs d'entité, exécutée pour chaque ligne importée par SyncService
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FirestoreValuesBenchmark {
+
+    @Param({"timestamp", "map", "iso"})
+    public String dateFormat;
+
+    private Map<String, Object> document;
+
+    @Setup
+    public void setUp() {
+        document = BenchmarkData.signalementDocument(42, dateFormat);
+    }
+
+    /**
+     * Tous les champs lus par syncSignalementsFromFirebase pour une ligne
+     */
+    @Benchmark
+    public void convertSignalementRow(Blackhole blackhole) {
+        blackhole.consume(FirestoreValues.getAsString(document.get("firebaseId")));
+        blackhole.consume(FirestoreValues.extractLong(document.get("userId")));
+        blackhole.consume(FirestoreValues.extractLong(document.get("typeId")));
+        blackhole.consume(FirestoreValues.extractDouble(document.get("latitude")));
+        blackhole.consume(FirestoreValues.extractDouble(document.get("longitude")));
+        blackhole.consume(FirestoreValues.getAsString(document.get("description")));
+        blackhole.consume(FirestoreValues.extractDouble(document.get("surfaceM2")));
+        blackhole.consume(FirestoreValues.extractDouble(document.get("budget")));
+        blackhole.consume(FirestoreValues.getAsString(document.get("status")));
+        blackhole.consume(FirestoreValues.toLocalDateTime(document.get("createdAt")));
+        blackhole.consume(FirestoreValues.toLocalDateTime(document.get("dateSignalement")));
+        blackhole.consume(FirestoreValues.toLocalDateTime(document.get("updatedAt")));
+    }
+
+    @Benchmark
+    public Object toLocalDateTime() {
+        return FirestoreValues.toLocalDateTime(document.get("createdAt"));
+    }
+
+    @Benchmark
+    public Long extractLongFromString() {
+        return FirestoreValues.extractLong(document.get("userId"));
+    }
+
+    @Benchmark
+    public Double extractDoubleFromString() {
+        return FirestoreValues.extractDouble(document.get("budget"));
+    }
+}
@@ -0,0 +1,61 @@
+package com.projet.Cloud.benchmarks;
+
+import com.projet.Cloud.security.JwtAuthorities;
+import com.projet.Cloud.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coût par requête de FirebaseAuthenticationFilter : vérification du JWT puis extraction des rôles
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtFilterBenchmark {
+
+    /** Format du claim roles : liste JSON (login Firebase) ou texte séparé par des virgules (token offline) */
+    @Param({"list", "csv"})
+    public String rolesFormat;
+
+    private String token;
+    private Claims claims;
+
+    @Setup
+    public void setUp() {
+        JwtUtil.init("benchmark-secret-key-with-at-least-256-bits-of-entropy!!");
+
+        Map<String, Object> tokenClaims = new HashMap<>();
+        tokenClaims.put("uid", "42");
+        tokenClaims.put("email", "user42@example.mg");
+        tokenClaims.put("username", "user42");
+        tokenClaims.put("roles", "list".equals(rolesFormat) ? List.of("USER", "MANAGER") : "USER,MANAGER");
+
+        token = JwtUtil.generateToken(tokenClaims, TimeUnit.HOURS.toMillis(1));
+        claims = JwtAuthorities.parseClaims(token);
+    }
+
+    @Benchmark
+    public List<SimpleGrantedAuthority> parseAndExtractAuthorities() {
+        Claims parsed = JwtAuthorities.parseClaims(token);
+        return JwtAuthorities.toAuthorities(JwtAuthorities.extractRoles(parsed));
+    }
+
+    @Benchmark
+    public Claims parseOnly() {
+        return JwtAuthorities.parseClaims(token);
+    }
+
+    @Benchmark
+    public List<SimpleGrantedAuthority> extractAuthoritiesOnly() {
+        return JwtAuthorities.toAuthorities(JwtAuthorities.extractRoles(claims));
+    }
+}
@@ -0,0 +1,50 @@
+package com.projet.Cloud.benchmarks;
+
+import com.projet.Cloud.dto.ProblemeWithUserDTO;
+import com.projet.Cloud.model.User;
+import com.projet.Cloud.util.ProblemeWithUserMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapping des documents 'problemes' en ProblemeWithUserDTO (FirebaseProblemeController.enrichProblemeWithUser),
+ * hors lecture de l'utilisateur en base
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProblemeMappingBenchmark {
+
+    @Param({"1", "100", "1000"})
+    public int documentCount;
+
+    private List<Map<String, Object>> documents;
+    private User user;
+
+    @Setup
+    public void setUp() {
+        documents = new ArrayList<>(documentCount);
+        for (int i = 0; i < documentCount; i++) {
+            documents.add(BenchmarkData.problemeDocument(i));
+        }
+        user = BenchmarkData.user(7);
+    }
+
+    @Benchmark
+    public List<ProblemeWithUserDTO> mapWithUser() {
+        List<ProblemeWithUserDTO> problemes = new ArrayList<>(documents.size());
+        for (int i = 0; i < documents.size(); i++) {
+            ProblemeWithUserDTO dto = ProblemeWithUserMapper.fromDocument(documents.get(i), "doc-" + i);
+            ProblemeWithUserMapper.attachUser(dto, user);
+            problemes.add(dto);
+        }
+        return problemes;
+    }
+}
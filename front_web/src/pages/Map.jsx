@@ -3,7 +3,7 @@ import { MapContainer, TileLayer, Marker, Popup } from "react-leaflet";
 import L from "leaflet";
 import "leaflet/dist/leaflet.css";
 import "../styles/Map.css";
-import { signalementService } from "../services/api.js";
+import { signalementService, liveService } from "../services/api.js";
 
 // Fix default marker icon
 delete L.Icon.Default.prototype._getIconUrl;
@@ -225,11 +225,31 @@ export default function Map() {
   const [error, setError] = useState(null);
   const [tileIndex, setTileIndex] = useState(0);
 
-  // Charger les signalements au montage
+  // Charger les signalements au montage, puis appliquer les changements en direct
   useEffect(() => {
     loadSignalements();
+    return liveService.subscribe({ kind: "signalement" }, {
+      signalement: applyChange,
+      reconnect: loadSignalements,
+    });
   }, []);
 
+  const applyChange = ({ type, id, data }) => {
+    setSignalements((current) => {
+      const others = current.filter((s) => String(s.id) !== String(id));
+      if (type === "DELETED" || type === "REMOVED" || !data) {
+        return others;
+      }
+      const existing = current.find((s) => String(s.id) === String(id));
+      const merged = { ...existing, ...data };
+      // Type changé : l'objet type embarqué n'est plus à jour, typeId fait foi
+      if (existing?.type && String(existing.type.id) !== String(data.typeId)) {
+        merged.type = null;
+      }
+      return [...others, merged];
+    });
+  };
+
   const loadSignalements = async () => {
     try {
       setLoading(true);
@@ -60,8 +60,8 @@ const shouldUseCache = (error) => {
 // Ajouter le token JWT à chaque requête si disponible
 apiClient.interceptors.request.use((config) => {
   const url = config.url || '';
-  // Skip attaching token for login/register endpoints
-  if (url.includes('/api/auth/login') || url.includes('/api/auth/register')) {
+  // Skip attaching token for login/register/refresh endpoints
+  if (url.includes('/api/auth/login') || url.includes('/api/auth/register') || url.includes('/api/auth/refresh')) {
     return config;
   }
   const token = localStorage.getItem('token');
@@ -74,21 +74,57 @@ apiClient.interceptors.request.use((config) => {
   return config;
 });
 
+// Un seul renouvellement à la fois : les requêtes en 401 simultanées attendent le même
+let refreshPromise = null;
+
+const refreshAccessToken = () => {
+  const refreshToken = localStorage.getItem('refreshToken');
+  if (!refreshToken) {
+    return Promise.reject(new Error('no refresh token'));
+  }
+  if (!refreshPromise) {
+    refreshPromise = apiClient.post('/api/auth/refresh', { refreshToken })
+      .then((response) => {
+        localStorage.setItem('token', response.data.token);
+        localStorage.setItem('refreshToken', response.data.refreshToken);
+        return response.data.token;
+      })
+      .finally(() => {
+        refreshPromise = null;
+      });
+  }
+  return refreshPromise;
+};
+
 // Global response interceptor to handle auth errors centrally
 apiClient.interceptors.response.use(
   (response) => response,
-  (error) => {
+  async (error) => {
     const resp = error.response;
 
     // Si 401, gérer la session selon le contexte
     if (resp && resp.status === 401) {
       const isOffline = typeof navigator !== 'undefined' && navigator.onLine === false;
-      const url = error.config?.url || '';
-      const isAuthEndpoint = url.includes('/auth/login') || url.includes('/auth/register');
+      const config = error.config || {};
+      const url = config.url || '';
+      const isAuthEndpoint = url.includes('/auth/login') || url.includes('/auth/register') || url.includes('/auth/refresh');
+
+      // Jeton d'accès expiré : renouvellement silencieux puis nouvel essai (une seule fois)
+      if (!isOffline && !isAuthEndpoint && !config._retried) {
+        try {
+          const token = await refreshAccessToken();
+          config._retried = true;
+          config.headers = { ...config.headers, Authorization: `Bearer ${token}` };
+          return apiClient(config);
+        } catch (e) {
+          // Pas de jeton de rafraîchissement ou session révoquée : reconnexion
+        }
+      }
 
       // Si online et 401 sur endpoint protégé => session invalide, forcer reconnexion
       if (!isOffline && !isAuthEndpoint) {
         localStorage.removeItem('token');
+        localStorage.removeItem('refreshToken');
         localStorage.removeItem('user');
         window.location.href = '/';
       }
@@ -112,6 +148,9 @@ export const authService = {
       });
       if (response.data.token) {
         localStorage.setItem('token', response.data.token);
+        if (response.data.refreshToken) {
+          localStorage.setItem('refreshToken', response.data.refreshToken);
+        }
         // Normaliser les rôles pour garantir un tableau
         let roles = response.data.roles;
         if (!Array.isArray(roles)) {
@@ -234,9 +273,17 @@ export const authService = {
     }
   },
 
-  // Fonction logout
+  // Fonction logout (révocation de la session côté serveur sans attendre la réponse)
   logout: () => {
+    const token = localStorage.getItem('token');
+    const refreshToken = localStorage.getItem('refreshToken');
+    if (token || refreshToken) {
+      // En-tête posé ici : l'intercepteur s'exécute après le nettoyage du stockage
+      const headers = token ? { Authorization: `Bearer ${token}` } : {};
+      apiClient.post('/api/auth/logout', { refreshToken }, { headers }).catch(() => {});
+    }
     localStorage.removeItem('token');
+    localStorage.removeItem('refreshToken');
     localStorage.removeItem('user');
   },
 
@@ -427,6 +474,92 @@ export const signalementService = {
     } catch (error) {
       throw error.response || error;
     }
+  },
+
+  // Changer le statut de plusieurs signalements en une requête (ids et/ou filtre currentStatuses, typeIds, bbox)
+  bulkUpdateStatus: async (status, { ids, currentStatuses, typeIds, bbox } = {}) => {
+    try {
+      const response = await apiClient.post('/api/signalements/bulk-status', {
+        status, ids, currentStatuses, typeIds, bbox
+      });
+      localStorage.removeItem(CACHE_KEYS.signalements);
+      return response.data;
+    } catch (error) {
+      throw error.response || error;
+    }
+  },
+
+  // Commentaires par pages (plus récents d'abord) ; repasser nextCursor tant qu'il n'est pas null
+  getComments: async (firebaseId, { cursor, limit = 20 } = {}) => {
+    try {
+      const response = await apiClient.get(`/api/firebase/signalements/${firebaseId}/comments`, {
+        params: { cursor, limit }
+      });
+      return response.data;
+    } catch (error) {
+      throw error.response || error;
+    }
+  }
+};
+
+// Flux en direct des changements (Server-Sent Events) : remplace le rafraîchissement périodique
+export const liveService = {
+  // handlers : { signalement(event), probleme(event), reconnect() } ; event = { type, id, data }
+  subscribe: ({ kind, status, bbox } = {}, handlers = {}) => {
+    const params = new URLSearchParams();
+    if (kind) params.set('kind', [].concat(kind).join(','));
+    if (status) params.set('status', [].concat(status).join(','));
+    if (bbox) params.set('bbox', bbox);
+
+    let source = null;
+    let opened = false;
+    let stopped = false;
+    let retryTimer = null;
+
+    const retry = (delayMs) => {
+      if (!stopped) retryTimer = setTimeout(connect, delayMs);
+    };
+
+    // EventSource n'envoie pas d'en-tête : ticket court demandé avec le jeton d'accès à chaque connexion
+    const connect = async () => {
+      try {
+        const response = await apiClient.post('/api/live/ticket');
+        params.set('ticket', response.data.ticket);
+      } catch (e) {
+        console.error('❌ Ticket du flux en direct refusé', e);
+        retry(30000);
+        return;
+      }
+      if (stopped) return;
+
+      source = new EventSource(`${API_BASE_URL}/api/live/stream?${params.toString()}`);
+      source.onopen = () => {
+        // Après une coupure (ou une déconnexion pour lenteur), des événements ont pu être perdus
+        if (opened && handlers.reconnect) handlers.reconnect();
+        opened = true;
+      };
+      source.onerror = () => {
+        // Reconnexion du navigateur refusée (ticket expiré) : il abandonne, on redemande un ticket
+        if (source.readyState === EventSource.CLOSED) retry(1000);
+      };
+      ['signalement', 'probleme'].forEach((name) => {
+        source.addEventListener(name, (message) => {
+          if (!handlers[name]) return;
+          try {
+            handlers[name](JSON.parse(message.data));
+          } catch (e) {
+            console.error(`❌ Événement ${name} illisible`, e);
+          }
+        });
+      });
+    };
+
+    connect();
+    return () => {
+      stopped = true;
+      clearTimeout(retryTimer);
+      if (source) source.close();
+    };
   }
 };
 
@@ -1,5 +1,9 @@
 import { ref, computed, watch } from 'vue'
 import { storageService } from '@/services/storage.service'
+import { apiService } from '@/services/api.service'
+
+// Taille maximale d'un envoi groupé (@Size(max = 500) sur BatchCreateProblemesRequest)
+const MAX_BATCH_ITEMS = 500
 
 // Composable pour gérer le stockage hors ligne
 export function useOfflineStorage() {
@@ -50,6 +54,12 @@ export function useOfflineStorage() {
 
     // Ici on pourrait appeler l'API appropriée selon le type d'action
     switch (action.type) {
+      case 'CREATE_PROBLEME':
+        return {
+          success: true,
+          executed: true,
+          result: await apiService.createProbleme(action.payload)
+        }
       case 'CREATE_REPORT':
         console.log('📤 Création de signalement:', action.payload)
         break
@@ -83,7 +93,29 @@ export function useOfflineStorage() {
       const queue = [...offlineQueue.value]
       const results = []
 
-      for (const action of queue) {
+      // Problèmes créés hors ligne : envois groupés de MAX_BATCH_ITEMS au plus, l'id de l'action sert de clé client
+      const problemes = queue.filter(item => item.action?.type === 'CREATE_PROBLEME')
+      for (let start = 0; start < problemes.length; start += MAX_BATCH_ITEMS) {
+        const chunk = problemes.slice(start, start + MAX_BATCH_ITEMS)
+        try {
+          const batch = await apiService.createProblemesBatch(
+            chunk.map(item => ({ ...item.action.payload, clientKey: item.id }))
+          )
+          batch.results.forEach(result => {
+            const item = chunk[result.index]
+            const success = result.status !== 'invalid'
+            results.push({ action: item.id, success, result, error: result.error })
+            // Les éléments invalides ne passeront jamais : on les retire aussi de la file
+            storageService.removeFromOfflineQueue(item.id)
+          })
+        } catch (err) {
+          // Lot refusé ou réseau perdu : ses éléments restent en file pour le prochain essai
+          chunk.forEach(item => results.push({ action: item.id, success: false, error: err.message }))
+          console.error('Erreur lors de l\'envoi groupé des problèmes:', err)
+        }
+      }
+
+      for (const action of queue.filter(item => item.action?.type !== 'CREATE_PROBLEME')) {
         try {
           const result = await executeAction(action)
           results.push({ action: action.id, success: true, result })
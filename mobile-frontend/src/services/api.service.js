@@ -36,22 +36,78 @@ http.interceptors.request.use((config) => {
   return config
 })
 
-// Intercepteur réponses : nettoie le stockage sur 401
+const clearSession = () => {
+  storageService.removeAuthToken()
+  storageService.removeRefreshToken()
+  storageService.removeUserData()
+}
+
+const storeSession = (data) => {
+  if (data?.token) {
+    storageService.setAuthToken(data.token)
+  }
+  if (data?.refreshToken) {
+    storageService.setRefreshToken(data.refreshToken)
+  }
+}
+
+// Un seul échange à la fois : les requêtes parallèles en 401 attendent le même nouveau jeton
+let refreshing = null
+
+const refreshAccessToken = () => {
+  if (!refreshing) {
+    const refreshToken = storageService.getRefreshToken()
+    refreshing = (refreshToken
+      ? axios.post(`${API_BASE_URL}/api/auth/refresh`, { refreshToken }).then((res) => {
+        storeSession(res.data)
+        return res.data.token
+      })
+      : Promise.reject(new Error('Aucun jeton de rafraîchissement'))
+    ).finally(() => {
+      refreshing = null
+    })
+  }
+  return refreshing
+}
+
+// Ces appels ne sont jamais rejoués après un rafraîchissement
+const NO_REFRESH_URLS = ['/api/auth/login', '/api/auth/register', '/api/auth/refresh', '/api/auth/logout']
+
+// Intercepteur réponses : sur 401, un rafraîchissement puis un seul nouvel essai ; sinon nettoie le stockage
 http.interceptors.response.use(
   (response) => response,
-  (error) => {
+  async (error) => {
     const resp = error?.response
+    const config = error?.config
     if (resp && resp.status === 401) {
-      storageService.removeAuthToken()
-      storageService.removeUserData()
+      if (config && !config._retried && !NO_REFRESH_URLS.includes(config.url) && storageService.getRefreshToken()) {
+        config._retried = true
+        try {
+          const token = await refreshAccessToken()
+          config.headers.Authorization = `Bearer ${token}`
+          return await http(config)
+        } catch (retryError) {
+          // Session expirée ou révoquée (401 du refresh) : reconnexion nécessaire
+          if (!retryError?.response || retryError.response.status === 401) {
+            clearSession()
+          }
+          return Promise.reject(retryError?.response || retryError)
+        }
+      }
+      clearSession()
     }
     return Promise.reject(resp || error)
   }
 )
 
+// Même clé pour les nouveaux essais d'une création : le serveur rejoue la première réponse
+const idempotencyHeaders = (key) => (key ? { headers: { 'Idempotency-Key': key } } : {})
+
 const normalizeAuthResponse = (data) => ({
   token: data?.token,
   expiresAt: data?.expiresAt,
+  refreshToken: data?.refreshToken,
+  refreshExpiresAt: data?.refreshExpiresAt,
   user: {
     id: data?.userId ?? null,
     email: data?.email ?? '',
@@ -67,6 +123,7 @@ const normalizeAuthResponse = (data) => ({
 export const ApiService = {
   async login(email, password) {
     const res = await http.post('/api/auth/login', { email, password })
+    storeSession(res.data)
     return normalizeAuthResponse(res.data)
   },
 
@@ -77,6 +134,7 @@ export const ApiService = {
       password,
       role: 'USER'
     })
+    storeSession(res.data)
     return normalizeAuthResponse(res.data)
   },
 
@@ -106,12 +164,26 @@ export const ApiService = {
   },
 
   // Problemes endpoints
-  async createProbleme(data) {
+  async createProbleme(data, idempotencyKey = null) {
     const res = await http.post('/api/problemes', {
       latitude: data.latitude,
       longitude: data.longitude,
       typeId: data.typeId || null,
       description: data.description
+    }, idempotencyHeaders(idempotencyKey))
+    return res.data
+  },
+
+  // Rejoue la file hors ligne en une requête ; clientKey évite les doublons en cas de nouvel essai
+  async createProblemesBatch(items) {
+    const res = await http.post('/api/problemes/batch', {
+      items: items.map(item => ({
+        clientKey: item.clientKey,
+        latitude: item.latitude,
+        longitude: item.longitude,
+        typeId: item.typeId || null,
+        description: item.description
+      }))
     })
     return res.data
   },
@@ -142,7 +214,7 @@ export const ApiService = {
   },
 
   // Signalements endpoints (existing Firestore method)
-  async createSignalement(data) {
+  async createSignalement(data, idempotencyKey = null) {
     // This is a placeholder - actual implementation uses Firebase/Firestore
     const res = await http.post('/api/signalements', {
       latitude: data.latitude,
@@ -154,6 +226,24 @@ export const ApiService = {
       entrepriseConcernee: data.entrepriseConcernee || null,
       isAnonymous: data.isAnonymous || false,
       photos: data.photos || []
+    }, idempotencyHeaders(idempotencyKey))
+    return res.data
+  },
+
+  // Commentaires par pages (plus récents d'abord) ; nextCursor null sur la dernière page
+  async listComments(signalementId, cursor = null, limit = 20) {
+    const res = await http.get(`/api/firebase/signalements/${signalementId}/comments`, {
+      params: { cursor: cursor || undefined, limit }
+    })
+    return res.data
+  },
+
+  // Photo jointe envoyée en multipart (Blob ou File) ; la réponse donne l'URL /api/attachments/{hash}
+  async uploadAttachment(signalementId, file, fileName = 'photo.jpg') {
+    const form = new FormData()
+    form.append('file', file, fileName)
+    const res = await http.post(`/api/firebase/signalements/${signalementId}/attachments`, form, {
+      headers: { 'Content-Type': 'multipart/form-data' }
     })
     return res.data
   },
@@ -183,8 +273,42 @@ export const ApiService = {
       return Array.from(merged.values())
     }
 
+    // Copie locale tenue à jour par le flux de changements : seuls les deltas sont téléchargés
     const getLocal = async () => {
+      const sync = storageService.getSignalementsSync()
+      if (sync?.cursor && Array.isArray(sync.items)) {
+        try {
+          const items = new Map(sync.items.map(item => [String(item.id), item]))
+          let cursor = sync.cursor
+          let hasMore = true
+          while (hasMore) {
+            const res = await http.get('/api/signalements/changes', { params: { since: cursor } })
+            normalizeArray(res.data?.signalements).forEach(item => items.set(String(item.id), item))
+            normalizeArray(res.data?.deleted).forEach(id => items.delete(String(id)))
+            cursor = res.data.cursor
+            hasMore = !!res.data.hasMore
+          }
+          const list = Array.from(items.values())
+          storageService.setSignalementsSync({ cursor, items: list })
+          return list
+        } catch (error) {
+          // 410 (curseur expiré) ou erreur : rechargement complet ci-dessous
+          console.warn('⚠️ Flux de changements indisponible, rechargement complet:', error?.status || error)
+        }
+      }
+
+      // Curseur demandé AVANT la liste : une écriture concurrente sera rejouée au prochain appel
+      let cursor = null
+      try {
+        const head = await http.get('/api/signalements/changes')
+        cursor = head.data?.cursor || null
+      } catch (e) {
+        // Backend sans flux de changements : pas de copie locale
+      }
       const res = await http.get('/api/signalements')
+      if (cursor) {
+        storageService.setSignalementsSync({ cursor, items: normalizeArray(res.data) })
+      }
       return res.data
     }
 
@@ -249,8 +373,15 @@ export const ApiService = {
   },
 
   logout() {
-    storageService.removeAuthToken()
-    storageService.removeUserData()
+    // Révocation du jeton d'accès et de la session côté serveur, sans attendre (hors ligne : ils expireront seuls)
+    const token = storageService.getAuthToken()
+    const refreshToken = storageService.getRefreshToken()
+    if (token || refreshToken) {
+      http.post('/api/auth/logout', refreshToken ? { refreshToken } : null, {
+        headers: token ? { Authorization: `Bearer ${token}` } : {}
+      }).catch(() => {})
+    }
+    clearSession()
   }
 }
 
@@ -9,8 +9,10 @@ export class StorageService {
   // Clés de stockage
   static KEYS = {
     AUTH_TOKEN: 'auth_token',
+    REFRESH_TOKEN: 'refresh_token',
     USER_DATA: 'user_data',
     REPORTS_DATA: 'reports_data',
+    SIGNALEMENTS_SYNC: 'signalements_sync',
     USER_PREFERENCES: 'user_preferences',
     APP_SETTINGS: 'app_settings',
     OFFLINE_QUEUE: 'offline_queue'
@@ -82,6 +84,19 @@ export class StorageService {
     return this.remove(this.KEYS.AUTH_TOKEN)
   }
 
+  // Jeton de rafraîchissement (POST /api/auth/refresh), remplacé à chaque échange
+  static getRefreshToken() {
+    return this.get(this.KEYS.REFRESH_TOKEN)
+  }
+
+  static setRefreshToken(token) {
+    return this.set(this.KEYS.REFRESH_TOKEN, token)
+  }
+
+  static removeRefreshToken() {
+    return this.remove(this.KEYS.REFRESH_TOKEN)
+  }
+
   static getUserData() {
     return this.get(this.KEYS.USER_DATA, null)
   }
@@ -103,6 +118,15 @@ export class StorageService {
     return this.set(this.KEYS.REPORTS_DATA, reports)
   }
 
+  // Copie locale des signalements + curseur du flux de changements
+  static getSignalementsSync() {
+    return this.get(this.KEYS.SIGNALEMENTS_SYNC, null)
+  }
+
+  static setSignalementsSync(sync) {
+    return this.set(this.KEYS.SIGNALEMENTS_SYNC, sync)
+  }
+
   // Méthodes spécifiques aux préférences utilisateur
   static getUserPreferences() {
     return this.get(this.KEYS.USER_PREFERENCES, {
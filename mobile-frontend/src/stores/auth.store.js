@@ -1,6 +1,7 @@
 import { defineStore } from 'pinia'
 import { ref, computed } from 'vue'
 import { storageService } from '@/services/storage.service'
+import { apiService } from '@/services/api.service'
 import { auth, db } from '@/services/firebase.service'
 import { 
   signInWithEmailAndPassword, 
@@ -154,8 +155,8 @@ export const useAuthStore = defineStore('auth', () => {
       await auth.signOut()
       user.value = null
       token.value = null
-      storageService.removeAuthToken()
-      storageService.removeUserData()
+      // Révoque aussi la session du backend (jeton de rafraîchissement) et vide le stockage
+      apiService.logout()
       console.log('✅ Déconnecté de Firebase Auth')
     } catch (error) {
       console.warn('⚠️ Erreur déconnexion Firebase:', error.message)
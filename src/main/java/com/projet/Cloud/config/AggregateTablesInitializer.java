@@ -0,0 +1,69 @@
+package com.projet.Cloud.config;
+
+import com.projet.Cloud.service.HeatmapService;
+import com.projet.Cloud.service.SignalementRollupService;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Remplit les tables d'agrégats tenues à jour par deltas quand elles sont vides alors que des
+ * signalements existent (base antérieure, sans Flyway pour jouer V6__Signalement_Rollups.sql) :
+ * mailles de la heatmap et agrégats journaliers.
+ *
+ * Sans ce remplissage, la première modification d'un ancien signalement retirerait sa
+ * contribution d'une ligne qui ne l'a jamais comptée : agrégats négatifs.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+@RequiredArgsConstructor
+@Slf4j
+public class AggregateTablesInitializer {
+
+    private final DataSource dataSource;
+    private final HeatmapService heatmapService;
+    private final SignalementRollupService rollupService;
+
+    @PostConstruct
+    public void fillEmptyAggregates() {
+        try {
+            if (isEmpty("signalements")) {
+                return;
+            }
+        } catch (SQLException e) {
+            log.warn("⚠️ Remplissage initial des agrégats impossible: {}", e.getMessage());
+            return;
+        }
+        fillIfEmpty("heatmap_cells", "POST /api/admin/heatmap/rebuild", heatmapService::rebuild);
+        // rebuild() des agrégats renseigne aussi resolved_at des signalements terminés avant son ajout
+        fillIfEmpty("signalement_daily_rollups", "POST /api/admin/rollups/rebuild", rollupService::rebuild);
+    }
+
+    private void fillIfEmpty(String table, String endpoint, Runnable rebuild) {
+        try {
+            if (isEmpty(table)) {
+                log.info("📊 Table {} vide: calcul initial", table);
+                rebuild.run();
+            }
+        } catch (Exception e) {
+            // Deux instances démarrées ensemble : la seconde échoue sur la clé primaire, la table est remplie
+            log.warn("⚠️ Remplissage initial de {} impossible ({}): {}", table, endpoint, e.getMessage());
+        }
+    }
+
+    private boolean isEmpty(String table) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT 1 FROM " + table + " LIMIT 1")) {
+            return !rs.next();
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.projet.Cloud.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+
+/**
+ * Configuration pour activer les tâches @Async (seeding en arrière-plan)
+ */
+@Configuration
+@EnableAsync
+public class AsyncConfiguration {
+    // Les méthodes @Async utilisent l'exécuteur applicationTaskExecutor de Spring Boot
+}
@@ -1,40 +1,55 @@
 package com.projet.Cloud.config;
 
 import java.io.FileInputStream;
-import java.io.IOException;
 import java.io.InputStream;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
 
 import com.google.auth.oauth2.GoogleCredentials;
 import com.google.cloud.firestore.Firestore;
 import com.google.firebase.FirebaseApp;
 import com.google.firebase.FirebaseOptions;
+import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.cloud.FirestoreClient;
 import com.google.firebase.messaging.FirebaseMessaging;
 
-import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Beans Firebase initialisés au premier usage : le démarrage ne dépend plus de la lecture
+ * des credentials ni de la disponibilité de Google. Les consommateurs passent par un
+ * ObjectProvider pour ne déclencher l'initialisation qu'au premier appel réel.
+ */
 @Configuration
+@Slf4j
 public class FirebaseConfig {
 
     @Value("${FIREBASE_CREDENTIALS_PATH}")
     private String firebaseConfigPath;
 
-    @PostConstruct
-    public void init() throws IOException {
-        try (InputStream serviceAccount = new FileInputStream(firebaseConfigPath)) {
-            FirebaseOptions options = FirebaseOptions.builder()
-                .setCredentials(GoogleCredentials.fromStream(serviceAccount))
-                .build();
+    @Bean
+    @Lazy
+    public FirebaseApp firebaseApp() {
+        synchronized (FirebaseApp.class) {
+            if (!FirebaseApp.getApps().isEmpty()) {
+                return FirebaseApp.getInstance();
+            }
 
-            if (FirebaseApp.getApps().isEmpty()) {
-                FirebaseApp.initializeApp(options);
+            long start = System.currentTimeMillis();
+            try (InputStream serviceAccount = new FileInputStream(firebaseConfigPath)) {
+                FirebaseOptions options = FirebaseOptions.builder()
+                    .setCredentials(GoogleCredentials.fromStream(serviceAccount))
+                    .build();
+
+                FirebaseApp app = FirebaseApp.initializeApp(options);
+                log.info("🔥 Firebase initialisé en {} ms", System.currentTimeMillis() - start);
+                return app;
+            } catch (Exception e) {
+                throw new RuntimeException("Impossible d'initialiser Firebase. Vérifie le fichier de credentials.", e);
             }
-        } catch (Exception e) {
-            throw new RuntimeException("Impossible d'initialiser Firebase. Vérifie le fichier de credentials.", e);
         }
     }
 
@@ -42,13 +57,20 @@ public class FirebaseConfig {
      * Expose Firestore so Spring can inject it wherever needed.
      */
     @Bean
-    public Firestore firestore() {
-        return FirestoreClient.getFirestore();
+    @Lazy
+    public Firestore firestore(@Lazy FirebaseApp firebaseApp) {
+        return FirestoreClient.getFirestore(firebaseApp);
     }
 
     @Bean
-    public FirebaseMessaging firebaseMessaging() {
-        return FirebaseMessaging.getInstance(FirebaseApp.getInstance());
+    @Lazy
+    public FirebaseMessaging firebaseMessaging(@Lazy FirebaseApp firebaseApp) {
+        return FirebaseMessaging.getInstance(firebaseApp);
     }
-}
 
+    @Bean
+    @Lazy
+    public FirebaseAuth firebaseAuth(@Lazy FirebaseApp firebaseApp) {
+        return FirebaseAuth.getInstance(firebaseApp);
+    }
+}
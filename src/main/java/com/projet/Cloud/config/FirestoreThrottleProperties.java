@@ -0,0 +1,114 @@
+package com.projet.Cloud.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Limites de débit pour les écritures Firestore en masse (sync, seeding).
+ * Les valeurs par défaut suivent la règle 500/50/5 de Firestore : démarrer à 500 écritures/s
+ * puis augmenter d'au plus 50 % toutes les 5 minutes.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "firestore.throttle")
+public class FirestoreThrottleProperties {
+
+    private double initialWritesPerSecond = 500;
+    private double maxWritesPerSecond = 2000;
+    private double minWritesPerSecond = 10;
+    private double rampUpFactor = 1.5;
+    private long rampUpIntervalMs = 300000;  // 5 minutes
+    private double additiveIncrease = 25;     // écritures/s ajoutées à chaque fenêtre sans congestion
+    private double decreaseFactor = 0.5;
+    private long adjustIntervalMs = 1000;
+    private long latencyTargetMs = 1000;
+    private int maxRetries = 5;
+    private long retryBackoffMs = 500;
+
+    public double getInitialWritesPerSecond() {
+        return initialWritesPerSecond;
+    }
+
+    public void setInitialWritesPerSecond(double initialWritesPerSecond) {
+        this.initialWritesPerSecond = initialWritesPerSecond;
+    }
+
+    public double getMaxWritesPerSecond() {
+        return maxWritesPerSecond;
+    }
+
+    public void setMaxWritesPerSecond(double maxWritesPerSecond) {
+        this.maxWritesPerSecond = maxWritesPerSecond;
+    }
+
+    public double getMinWritesPerSecond() {
+        return minWritesPerSecond;
+    }
+
+    public void setMinWritesPerSecond(double minWritesPerSecond) {
+        this.minWritesPerSecond = minWritesPerSecond;
+    }
+
+    public double getRampUpFactor() {
+        return rampUpFactor;
+    }
+
+    public void setRampUpFactor(double rampUpFactor) {
+        this.rampUpFactor = rampUpFactor;
+    }
+
+    public long getRampUpIntervalMs() {
+        return rampUpIntervalMs;
+    }
+
+    public void setRampUpIntervalMs(long rampUpIntervalMs) {
+        this.rampUpIntervalMs = rampUpIntervalMs;
+    }
+
+    public double getAdditiveIncrease() {
+        return additiveIncrease;
+    }
+
+    public void setAdditiveIncrease(double additiveIncrease) {
+        this.additiveIncrease = additiveIncrease;
+    }
+
+    public double getDecreaseFactor() {
+        return decreaseFactor;
+    }
+
+    public void setDecreaseFactor(double decreaseFactor) {
+        this.decreaseFactor = decreaseFactor;
+    }
+
+    public long getAdjustIntervalMs() {
+        return adjustIntervalMs;
+    }
+
+    public void setAdjustIntervalMs(long adjustIntervalMs) {
+        this.adjustIntervalMs = adjustIntervalMs;
+    }
+
+    public long getLatencyTargetMs() {
+        return latencyTargetMs;
+    }
+
+    public void setLatencyTargetMs(long latencyTargetMs) {
+        this.latencyTargetMs = latencyTargetMs;
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    public void setMaxRetries(int maxRetries) {
+        this.maxRetries = maxRetries;
+    }
+
+    public long getRetryBackoffMs() {
+        return retryBackoffMs;
+    }
+
+    public void setRetryBackoffMs(long retryBackoffMs) {
+        this.retryBackoffMs = retryBackoffMs;
+    }
+}
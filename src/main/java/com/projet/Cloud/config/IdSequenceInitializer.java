@@ -0,0 +1,55 @@
+package com.projet.Cloud.config;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Recale les séquences d'IDs (allocation par blocs de 50) sur les données existantes.
+ *
+ * Sans Flyway, ddl-auto crée les séquences à 1 sur une base qui contient déjà des lignes
+ * insérées en IDENTITY : on les avance au-delà du plus grand ID avant toute écriture.
+ * Même opération que V4__Pooled_Id_Sequences.sql, rejouable sans effet de bord.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+@RequiredArgsConstructor
+@Slf4j
+public class IdSequenceInitializer {
+
+    /** Table → séquence, cf. les @SequenceGenerator des entités */
+    static final List<String> TABLES = List.of("users", "signalements", "problemes", "login_attempts", "pending_sync");
+
+    private final DataSource dataSource;
+
+    @PostConstruct
+    public void alignSequences() {
+        try (Connection connection = dataSource.getConnection()) {
+            String product = connection.getMetaData().getDatabaseProductName();
+            if (!"PostgreSQL".equalsIgnoreCase(product)) {
+                log.debug("Recalage des séquences ignoré ({})", product);
+                return;
+            }
+
+            try (Statement statement = connection.createStatement()) {
+                for (String table : TABLES) {
+                    String sequence = table + "_seq";
+                    statement.execute("SELECT setval('" + sequence + "', GREATEST("
+                            + "(SELECT COALESCE(MAX(id), 1) FROM " + table + "), "
+                            + "(SELECT last_value FROM " + sequence + ")))");
+                }
+            }
+            log.info("✓ Séquences d'IDs recalées: {}", TABLES);
+        } catch (SQLException e) {
+            log.warn("⚠️ Recalage des séquences impossible: {}", e.getMessage());
+        }
+    }
+}
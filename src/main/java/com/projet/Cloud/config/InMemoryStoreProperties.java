@@ -0,0 +1,50 @@
+package com.projet.Cloud.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Comportement du store en mémoire (firestore.store=memory) utilisé pour les tests de charge :
+ * latence et taux d'erreur injectés pour approcher le comportement d'un vrai projet Firestore.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "firestore.memory")
+public class InMemoryStoreProperties {
+
+    private long latencyMs = 0;          // Latence ajoutée à chaque appel
+    private long latencyJitterMs = 0;    // Variation aléatoire ajoutée à la latence (0..jitter)
+    private double errorRate = 0.0;      // Probabilité qu'un appel échoue en UNAVAILABLE (0..1)
+    private Long seed;                   // Graine fixe pour des exécutions reproductibles
+
+    public long getLatencyMs() {
+        return latencyMs;
+    }
+
+    public void setLatencyMs(long latencyMs) {
+        this.latencyMs = latencyMs;
+    }
+
+    public long getLatencyJitterMs() {
+        return latencyJitterMs;
+    }
+
+    public void setLatencyJitterMs(long latencyJitterMs) {
+        this.latencyJitterMs = latencyJitterMs;
+    }
+
+    public double getErrorRate() {
+        return errorRate;
+    }
+
+    public void setErrorRate(double errorRate) {
+        this.errorRate = errorRate;
+    }
+
+    public Long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(Long seed) {
+        this.seed = seed;
+    }
+}
@@ -1,8 +1,27 @@
 package com.projet.Cloud.config;
 
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.JedisPoolConfig;
 
+/**
+ * Pool Jedis partagé par les stores qui utilisent Redis (idempotence, cache des sessions).
+ * L'autoconfiguration Redis reste exclue : le pool n'est créé que si l'un d'eux le demande.
+ */
 @Configuration
+@Slf4j
 public class RedisConfig {
-    // Redis configuration placeholder
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnExpression("'${idempotency.store:memory}' == 'redis' or '${session.cache:memory}' == 'redis'")
+    public JedisPool jedisPool(@Value("${spring.data.redis.host:localhost}") String host,
+                               @Value("${spring.data.redis.port:6379}") int port,
+                               @Value("${spring.data.redis.password:}") String password) {
+        log.info("✓ Pool Redis {}:{}", host, port);
+        return new JedisPool(new JedisPoolConfig(), host, port, 2000, password.isBlank() ? null : password);
+    }
 }
@@ -0,0 +1,77 @@
+package com.projet.Cloud.config;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Met en place la recherche plein texte PostgreSQL (même contenu que V5__Full_Text_Search.sql,
+ * rejouable) : configuration french_unaccent, colonnes search_vector générées et index GIN.
+ *
+ * Hors PostgreSQL (H2 en test) ou si l'extension unaccent n'est pas installable,
+ * {@link #isReady()} reste faux et la recherche passe par LIKE.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+@RequiredArgsConstructor
+@Slf4j
+public class SearchIndexInitializer {
+
+    public static final String TS_CONFIG = "french_unaccent";
+
+    private static final String[] TABLES = {"signalements", "problemes"};
+
+    private final DataSource dataSource;
+    private volatile boolean ready;
+
+    @PostConstruct
+    public void createSearchIndexes() {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+
+            String product = connection.getMetaData().getDatabaseProductName();
+            if (!"PostgreSQL".equalsIgnoreCase(product)) {
+                log.debug("Recherche plein texte indisponible sur {} : repli sur LIKE", product);
+                return;
+            }
+
+            statement.execute("CREATE EXTENSION IF NOT EXISTS unaccent");
+            if (!configurationExists(statement)) {
+                statement.execute("CREATE TEXT SEARCH CONFIGURATION " + TS_CONFIG + " (COPY = french)");
+                statement.execute("ALTER TEXT SEARCH CONFIGURATION " + TS_CONFIG
+                        + " ALTER MAPPING FOR hword, hword_part, word WITH unaccent, french_stem");
+            }
+
+            for (String table : TABLES) {
+                statement.execute("ALTER TABLE " + table + " ADD COLUMN IF NOT EXISTS search_vector tsvector "
+                        + "GENERATED ALWAYS AS (to_tsvector('" + TS_CONFIG + "', coalesce(description, ''))) STORED");
+                statement.execute("CREATE INDEX IF NOT EXISTS idx_" + table + "_search ON " + table
+                        + " USING GIN (search_vector)");
+            }
+
+            ready = true;
+            log.info("✓ Recherche plein texte prête ({})", TS_CONFIG);
+        } catch (SQLException e) {
+            log.warn("⚠️ Recherche plein texte indisponible, repli sur LIKE: {}", e.getMessage());
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    private static boolean configurationExists(Statement statement) throws SQLException {
+        try (ResultSet rs = statement.executeQuery(
+                "SELECT 1 FROM pg_ts_config WHERE cfgname = '" + TS_CONFIG + "'")) {
+            return rs.next();
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.projet.Cloud.config;
 
+import jakarta.servlet.DispatcherType;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -57,6 +58,10 @@ public class SecurityConfig {
         configuration.addAllowedHeader("Content-Type");
         configuration.addAllowedHeader("Accept");
         configuration.addAllowedHeader("X-Requested-With");
+        configuration.addAllowedHeader("Idempotency-Key");
+
+        // Lisibles par le client : GET conditionnels et réponses rejouées (Idempotency-Key)
+        configuration.setExposedHeaders(Arrays.asList("ETag", "Last-Modified", "Idempotent-Replayed"));
         
         // Autorise les credentials
         configuration.setAllowCredentials(true);
@@ -80,9 +85,16 @@ public class SecurityConfig {
             .sessionManagement(s ->
                 s.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(auth -> auth
-                .requestMatchers("/public/**", "/api/auth/login", "/api/auth/register", "/api/auth/sync", "/api/init-firestore", "/actuator/**").permitAll()
+                // Fin des réponses en flux (exports) : la requête initiale a déjà été autorisée
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+                .requestMatchers("/public/**", "/api/auth/login", "/api/auth/register", "/api/auth/refresh", "/api/auth/logout", "/api/auth/sync", "/api/init-firestore").permitAll()
+                // Santé et infos publiques (sondes) ; métriques réservées aux admins (compteurs de connexion, latences)
+                .requestMatchers("/actuator/health", "/actuator/health/**", "/actuator/info").permitAll()
+                .requestMatchers("/actuator/**").hasRole("ADMIN")
                 .requestMatchers("/api/signalement-types", "/api/problemes/ouverts", "/api/signalements", "/api/problemes").permitAll()
                 .requestMatchers(HttpMethod.PUT, "/api/signalements/**").permitAll()
+                // Empreinte SHA-256 impossible à deviner ; lisible par une balise <img> sans en-tête
+                .requestMatchers(HttpMethod.GET, "/api/attachments/**").permitAll()
                 .requestMatchers(HttpMethod.POST, "/api/problemes/*/convert").permitAll()
                 .requestMatchers("/api/secure", "/api/auth/user/**", "/api/auth/users", "/api/auth/users/blocked").authenticated()
                 .anyRequest().authenticated()
@@ -1,12 +1,18 @@
 package com.projet.Cloud.controller;
 
 import com.projet.Cloud.service.FirestoreInitializationService;
+import com.projet.Cloud.service.HeatmapService;
+import com.projet.Cloud.service.SignalementRollupService;
+import com.projet.Cloud.util.FirebaseDataSeeder;
+import com.projet.Cloud.util.ScaleDataSeeder;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.HashMap;
 import java.util.Map;
 
 @RestController
@@ -16,6 +22,10 @@ import java.util.Map;
 public class AdminController {
 
     private final FirestoreInitializationService firestoreInitializationService;
+    private final ScaleDataSeeder scaleDataSeeder;
+    private final FirebaseDataSeeder firebaseDataSeeder;
+    private final HeatmapService heatmapService;
+    private final SignalementRollupService signalementRollupService;
 
     /**
      * Initialise manuellement les collections Firestore
@@ -44,4 +54,93 @@ public class AdminController {
     public ResponseEntity<Map<String, Object>> adminInitializeFirestore() {
         return initializeFirestore();
     }
+
+    /**
+     * Lance le seeding Firebase en arrière-plan (ignoré si le marqueur _meta/seed existe, sauf force)
+     * 
+     * POST /api/admin/seed?force=false
+     */
+    @PostMapping("/admin/seed")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> seed(@RequestParam(defaultValue = "false") boolean force) {
+        log.info("🌱 Seeding Firebase demandé (force={})", force);
+        firebaseDataSeeder.seedInBackground(force);
+        
+        Map<String, Object> result = new HashMap<>();
+        result.put("success", true);
+        result.put("message", "Seeding lancé en arrière-plan");
+        result.put("force", force);
+        return ResponseEntity.accepted().body(result);
+    }
+
+    /**
+     * Lance en arrière-plan la génération d'un jeu de données de volumétrie (PostgreSQL + Firestore) ;
+     * 409 si une génération est déjà en cours, 400 si size ou problemeRatio sont hors bornes
+     * 
+     * POST /api/admin/seed/scale?size=1000000&seed=42&problemeRatio=0.2&firestore=true
+     */
+    @PostMapping("/admin/seed/scale")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> seedScale(
+            @RequestParam long size,
+            @RequestParam(defaultValue = "42") long seed,
+            @RequestParam(defaultValue = "0.2") double problemeRatio,
+            @RequestParam(defaultValue = "true") boolean firestore) {
+        log.info("🌱 Seeding de volumétrie demandé: {} signalements (graine {})", size, seed);
+        
+        Map<String, Object> result = new HashMap<>();
+        try {
+            scaleDataSeeder.validate(size, problemeRatio);
+        } catch (IllegalArgumentException e) {
+            result.put("success", false);
+            result.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(result);
+        }
+        if (!scaleDataSeeder.tryStart()) {
+            result.put("success", false);
+            result.put("error", "Seeding de volumétrie déjà en cours");
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(result);
+        }
+        scaleDataSeeder.seedInBackground(size, problemeRatio, seed, firestore);
+        
+        result.put("success", true);
+        result.put("message", "Seeding de volumétrie lancé en arrière-plan");
+        result.put("size", size);
+        result.put("seed", seed);
+        result.put("problemeRatio", problemeRatio);
+        result.put("firestore", firestore);
+        return ResponseEntity.accepted().body(result);
+    }
+
+    /**
+     * Recalcule les grilles de heatmap depuis la table signalements
+     * 
+     * POST /api/admin/heatmap/rebuild
+     */
+    @PostMapping("/admin/heatmap/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> rebuildHeatmap() {
+        log.info("🗺️ Recalcul de la heatmap demandé");
+        
+        Map<String, Object> result = new HashMap<>();
+        result.put("success", true);
+        result.put("cells", heatmapService.rebuild());
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * Recalcule les agrégats journaliers des séries temporelles
+     * 
+     * POST /api/admin/rollups/rebuild
+     */
+    @PostMapping("/admin/rollups/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> rebuildRollups() {
+        log.info("📊 Recalcul des agrégats journaliers demandé");
+        
+        Map<String, Object> result = new HashMap<>();
+        result.put("success", true);
+        result.put("rows", signalementRollupService.rebuild());
+        return ResponseEntity.ok(result);
+    }
 }
@@ -0,0 +1,132 @@
+package com.projet.Cloud.controller;
+
+import com.projet.Cloud.model.Attachment;
+import com.projet.Cloud.service.AttachmentService;
+import com.projet.Cloud.store.BlobStore;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Téléchargement des pièces jointes. Le contenu ne change jamais pour une empreinte donnée :
+ * ETag fort, cache long, et requêtes Range (reprise, lecture progressive) en 206.
+ *
+ * Le fichier est envoyé par sendfile quand Tomcat le propose (aucune copie dans la JVM),
+ * sinon par FileChannel.transferTo vers la sortie de la réponse.
+ */
+@RestController
+@RequestMapping("/api/attachments")
+@RequiredArgsConstructor
+@Slf4j
+public class AttachmentController {
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final AttachmentService attachmentService;
+    private final BlobStore blobStore;
+
+    /**
+     * GET /api/attachments/{hash} (Range: bytes=0-1023 accepté)
+     */
+    @GetMapping("/{hash}")
+    public void download(@PathVariable String hash, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        Optional<Attachment> attachment = attachmentService.find(hash);
+        if (attachment.isEmpty()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        send(attachment.get().getHash(), attachment.get().getContentType(), attachment.get().getSizeBytes(),
+                request, response);
+    }
+
+    /**
+     * Miniature JPEG d'une image ; 404 tant qu'elle n'est pas générée
+     */
+    @GetMapping("/{hash}/thumbnail")
+    public void thumbnail(@PathVariable String hash, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        Optional<String> thumbnailHash = attachmentService.find(hash).map(Attachment::getThumbnailHash);
+        if (thumbnailHash.isEmpty() || !blobStore.exists(thumbnailHash.get())) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        send(thumbnailHash.get(), MediaType.IMAGE_JPEG_VALUE, blobStore.size(thumbnailHash.get()), request, response);
+    }
+
+    private void send(String hash, String contentType, long size,
+                      HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String etag = "\"" + hash + "\"";
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "public, max-age=31536000, immutable");
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null && (ifNoneMatch.contains(etag) || ifNoneMatch.trim().equals("*"))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        long start = 0;
+        long end = size - 1;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (range != null && (ifRange == null || ifRange.equals(etag))) {
+            try {
+                List<HttpRange> ranges = HttpRange.parseRanges(range);
+                // Plusieurs plages : réponse complète (autorisée par la RFC 9110), pas de multipart/byteranges
+                if (ranges.size() == 1) {
+                    start = ranges.get(0).getRangeStart(size);
+                    end = ranges.get(0).getRangeEnd(size);
+                    // HttpRange ne borne pas le début : "bytes=20-" sur 10 octets est insatisfiable
+                    if (start >= size) {
+                        throw new IllegalArgumentException("Plage au-delà de la fin du fichier");
+                    }
+                    response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size);
+                }
+            } catch (IllegalArgumentException e) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+        }
+
+        long length = end - start + 1;
+        response.setContentType(contentType);
+        response.setContentLengthLong(length);
+        if ("HEAD".equalsIgnoreCase(request.getMethod()) || length <= 0) {
+            return;
+        }
+
+        Optional<Path> path = blobStore.localPath(hash);
+        if (path.isPresent() && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, path.get().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+
+        WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+        long sent = blobStore.transferTo(hash, start, length, out);
+        if (sent < length) {
+            log.warn("⚠️ Pièce jointe {} tronquée: {} / {} octets envoyés", hash, sent, length);
+        }
+        response.flushBuffer();
+    }
+}
@@ -2,13 +2,18 @@ package com.projet.Cloud.controller;
 
 import com.projet.Cloud.dto.AuthResponse;
 import com.projet.Cloud.dto.LoginRequest;
+import com.projet.Cloud.dto.ReconciliationReport;
 import com.projet.Cloud.dto.RegisterRequest;
+import com.projet.Cloud.dto.SyncPhaseReport;
 import com.projet.Cloud.dto.UpdateUserRequest;
 import com.projet.Cloud.model.User;
 import com.projet.Cloud.service.AuthService;
 import com.projet.Cloud.service.AuthAttemptService;
 import com.projet.Cloud.service.LocalAuthService;
+import com.projet.Cloud.service.ReconciliationService;
+import com.projet.Cloud.service.RefreshTokenService;
 import com.projet.Cloud.service.SyncService;
+import com.projet.Cloud.service.TokenRevocationService;
 import com.projet.Cloud.service.UserService;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
@@ -31,15 +36,23 @@ public class AuthController {
     private final LocalAuthService localAuthService;
     private final UserService userService;
     private final AuthAttemptService authAttemptService;
+    private final ReconciliationService reconciliationService;
+    private final RefreshTokenService refreshTokenService;
+    private final TokenRevocationService tokenRevocationService;
 
     @Autowired
     public AuthController(AuthService authService, SyncService syncService, LocalAuthService localAuthService, 
-                          UserService userService, AuthAttemptService authAttemptService) {
+                          UserService userService, AuthAttemptService authAttemptService,
+                          ReconciliationService reconciliationService, RefreshTokenService refreshTokenService,
+                          TokenRevocationService tokenRevocationService) {
         this.authService = authService;
         this.syncService = syncService;
         this.localAuthService = localAuthService; // Cast vers LocalAuthService
         this.userService = userService;
         this.authAttemptService = authAttemptService;
+        this.reconciliationService = reconciliationService;
+        this.refreshTokenService = refreshTokenService;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
     @PostMapping("/login")
@@ -56,6 +69,41 @@ public class AuthController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Nouveau jeton d'accès à partir du jeton de rafraîchissement (qui est remplacé)
+     * POST /api/auth/refresh {"refreshToken": "..."}
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refresh(@RequestBody Map<String, String> body) {
+        try {
+            return ResponseEntity.ok(refreshTokenService.refresh(body.get("refreshToken")));
+        } catch (RefreshTokenService.InvalidRefreshTokenException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            response.put("timestamp", System.currentTimeMillis());
+            return ResponseEntity.status(401).body(response);
+        }
+    }
+
+    /**
+     * Déconnexion : révoque le jeton d'accès présenté et la session du jeton de rafraîchissement
+     * POST /api/auth/logout {"refreshToken": "..."}
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<Map<String, Object>> logout(
+            @RequestHeader(value = "Authorization", required = false) String authorization,
+            @RequestBody(required = false) Map<String, String> body) {
+        tokenRevocationService.revokeAccessToken(authorization);
+        if (body != null) {
+            refreshTokenService.revoke(body.get("refreshToken"));
+        }
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("message", "Déconnecté");
+        return ResponseEntity.ok(response);
+    }
+
     @PutMapping("/user/{id}")
     @PreAuthorize("hasRole('USER')") // JWT Auth requise
     public ResponseEntity<User> updateUser(
@@ -63,6 +111,10 @@ public class AuthController {
             @RequestBody UpdateUserRequest request) {
         
         User updatedUser = localAuthService.updateUser(id, request);
+        if (request.getPassword() != null && !request.getPassword().isBlank()) {
+            // Nouveau mot de passe : les sessions ouvertes avec l'ancien ne se renouvellent plus
+            refreshTokenService.revokeAllForUser(id);
+        }
         return ResponseEntity.ok(updatedUser);
     }
 
@@ -75,14 +127,16 @@ public class AuthController {
     public ResponseEntity<Map<String, Object>> forceSync() {
         log.info("🔄 Synchronisation manuelle déclenchée (Firebase ↔ PostgreSQL bidirectionnelle)");
         try {
-            syncService.forceSyncNow();
+            List<SyncPhaseReport> phases = syncService.forceSyncNow();
+            boolean complete = phases.stream().allMatch(phase -> phase.getError() == null && phase.getFailed() == 0);
             
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("message", "Synchronisation bidirectionnelle Firebase ↔ PostgreSQL terminée");
             response.put("timestamp", System.currentTimeMillis());
-            response.put("status", "Terminée");
+            response.put("status", complete ? "Terminée" : "Terminée avec erreurs");
             response.put("direction", "Firebase → PostgreSQL ET PostgreSQL → Firebase");
+            response.put("phases", phases);
             
             log.info("✅ Synchronisation bidirectionnelle lancée avec succès");
             return ResponseEntity.ok(response);
@@ -99,6 +153,43 @@ public class AuthController {
         }
     }
 
+    /**
+     * Vérifier la cohérence PostgreSQL ↔ Firebase sans tout resynchroniser
+     * Compare les empreintes par bucket d'IDs et ne répare que les buckets divergents
+     * POST /api/auth/sync/reconcile?deep=false
+     */
+    @PostMapping("/sync/reconcile")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> reconcileSync(@RequestParam(defaultValue = "false") boolean deep) {
+        log.info("🔍 Réconciliation PostgreSQL ↔ Firebase déclenchée (deep={})", deep);
+        try {
+            List<ReconciliationReport> reports = reconciliationService.reconcileAll(deep);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("deep", deep);
+            response.put("reports", reports);
+            response.put("timestamp", System.currentTimeMillis());
+            return ResponseEntity.ok(response);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "Réconciliation interrompue");
+            response.put("timestamp", System.currentTimeMillis());
+            return ResponseEntity.status(503).body(response);
+        } catch (Exception e) {
+            log.error("❌ Erreur lors de la réconciliation: {}", e.getMessage(), e);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "Erreur lors de la réconciliation");
+            response.put("error", e.getMessage());
+            response.put("timestamp", System.currentTimeMillis());
+            return ResponseEntity.status(500).body(response);
+        }
+    }
+
     /**
      * Récupérer la liste de tous les utilisateurs
      */
@@ -131,4 +222,21 @@ public class AuthController {
         authAttemptService.unlockUser(id);
         return ResponseEntity.ok("Utilisateur débloqué avec succès");
     }
+
+    /**
+     * Déconnecter un utilisateur de partout : sessions et jetons d'accès en cours révoqués
+     * POST /api/auth/user/{id}/revoke-tokens
+     */
+    @PostMapping("/user/{id}/revoke-tokens")
+    @PreAuthorize("hasRole('MANAGER') or hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> revokeUserTokens(@PathVariable Long id) {
+        log.info("Déconnexion forcée de l'utilisateur: {}", id);
+        int sessions = refreshTokenService.revokeAllForUser(id);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("revokedSessions", sessions);
+        response.put("timestamp", System.currentTimeMillis());
+        return ResponseEntity.ok(response);
+    }
 }
\ No newline at end of file
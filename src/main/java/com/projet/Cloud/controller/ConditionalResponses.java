@@ -0,0 +1,34 @@
+package com.projet.Cloud.controller;
+
+import com.projet.Cloud.service.CollectionVersionService;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.function.Supplier;
+
+/**
+ * GET conditionnels (If-None-Match / If-Modified-Since) à partir des versions de collections
+ */
+final class ConditionalResponses {
+
+    private ConditionalResponses() {}
+
+    /**
+     * 304 sans appeler {@code body} si le client a déjà cette version, sinon 200 avec ETag et Last-Modified
+     */
+    static <T> ResponseEntity<T> ifModified(WebRequest request, CollectionVersionService.Tag tag, Supplier<T> body) {
+        if (request.checkNotModified(tag.etag(), tag.lastModified())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(tag.etag())
+                    .lastModified(tag.lastModified())
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(tag.etag())
+                .lastModified(tag.lastModified())
+                .body(body.get());
+    }
+}
@@ -1,11 +1,14 @@
 package com.projet.Cloud.controller;
 
-import com.google.cloud.firestore.*;
-import com.google.firebase.cloud.FirestoreClient;
 import com.projet.Cloud.dto.ConvertProblemeRequest;
 import com.projet.Cloud.dto.ProblemeWithUserDTO;
 import com.projet.Cloud.model.User;
 import com.projet.Cloud.repository.UserRepository;
+import com.projet.Cloud.store.DocumentQuery;
+import com.projet.Cloud.store.DocumentStore;
+import com.projet.Cloud.store.DocumentValues;
+import com.projet.Cloud.store.StoredDocument;
+import com.projet.Cloud.util.ProblemeWithUserMapper;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -26,29 +29,13 @@ import java.util.concurrent.ExecutionException;
 public class FirebaseProblemeController {
 
     private final UserRepository userRepository;
+    private final DocumentStore documentStore;
 
     private ProblemeWithUserDTO enrichProblemeWithUser(Map<String, Object> problemeData, String problemeId) {
         try {
             log.info("🔍 Enrichissement du problème {} avec données utilisateur", problemeId);
             
-            ProblemeWithUserDTO dto = new ProblemeWithUserDTO();
-            
-            dto.setId(problemeId);
-            dto.setUserId(toLong(problemeData.get("userId")));
-            dto.setLatitude(toDouble(problemeData.get("latitude")));
-            dto.setLongitude(toDouble(problemeData.get("longitude")));
-            dto.setDescription((String) problemeData.get("description"));
-            Object typeIdObj = problemeData.get("typeId");
-            if (typeIdObj != null) {
-                if (typeIdObj instanceof Number) {
-                    dto.setTypeId(String.valueOf(((Number) typeIdObj).longValue()));
-                } else {
-                    dto.setTypeId((String) typeIdObj);
-                }
-            }
-            dto.setStatus((String) problemeData.get("status"));
-            dto.setCreatedAt(problemeData.get("createdAt"));  // Garder l'objet tel quel pour JSON
-            dto.setUpdatedAt(problemeData.get("updatedAt"));  // Garder l'objet tel quel pour JSON
+            ProblemeWithUserDTO dto = ProblemeWithUserMapper.fromDocument(problemeData, problemeId);
             
             Long userId = dto.getUserId();
             log.info("   UserId trouvé: {}", userId);
@@ -59,12 +46,7 @@ public class FirebaseProblemeController {
                 
                 if (userOpt.isPresent()) {
                     User user = userOpt.get();
-                    dto.setUser(ProblemeWithUserDTO.UserInfo.builder()
-                            .id(user.getId())
-                            .email(user.getEmail())
-                            .fullName(user.getUsername())
-                            .username(user.getUsername())
-                            .build());
+                    ProblemeWithUserMapper.attachUser(dto, user);
                     log.info("   ✅ Utilisateur enrichi: {}", user.getUsername());
                 }
             }
@@ -78,39 +60,21 @@ public class FirebaseProblemeController {
         }
     }
 
-    private Long toLong(Object obj) {
-        if (obj == null) return null;
-        if (obj instanceof Number) return ((Number) obj).longValue();
-        if (obj instanceof String) return Long.parseLong((String) obj);
-        return null;
-    }
-
-    private Double toDouble(Object obj) {
-        if (obj == null) return null;
-        if (obj instanceof Number) return ((Number) obj).doubleValue();
-        if (obj instanceof String) return Double.parseDouble((String) obj);
-        return null;
-    }
-
     @GetMapping("/ouverts")
     @PreAuthorize("hasRole('MANAGER') or hasRole('ADMIN')")
     public ResponseEntity<List<ProblemeWithUserDTO>> listerProblemesOuverts() {
         try {
             log.info("📋 Récupération des problèmes ouverts depuis Firestore");
-            Firestore firestore = FirestoreClient.getFirestore();
-            
-            QuerySnapshot querySnapshot = firestore.collection("problemes")
-                    .whereEqualTo("status", "ouvert")
-                    .get()
-                    .get();
+            List<StoredDocument> documents = documentStore.query(DocumentQuery.collection("problemes")
+                    .whereEqualTo("status", "ouvert"));
 
             List<ProblemeWithUserDTO> problemes = new ArrayList<>();
-            for (DocumentSnapshot doc : querySnapshot.getDocuments()) {
+            for (StoredDocument doc : documents) {
                 try {
-                    ProblemeWithUserDTO dto = enrichProblemeWithUser(doc.getData(), doc.getId());
+                    ProblemeWithUserDTO dto = enrichProblemeWithUser(doc.data(), doc.id());
                     problemes.add(dto);
                 } catch (Exception e) {
-                    log.error("❌ Erreur enrichissement problème {}: {}", doc.getId(), e.getMessage(), e);
+                    log.error("❌ Erreur enrichissement problème {}: {}", doc.id(), e.getMessage(), e);
                 }
             }
 
@@ -128,13 +92,11 @@ public class FirebaseProblemeController {
     public ResponseEntity<List<ProblemeWithUserDTO>> listerProblemes() {
         try {
             log.info("📋 Récupération de tous les problèmes depuis Firestore");
-            Firestore firestore = FirestoreClient.getFirestore();
-            
-            QuerySnapshot querySnapshot = firestore.collection("problemes").get().get();
+            List<StoredDocument> documents = documentStore.query(DocumentQuery.collection("problemes"));
 
             List<ProblemeWithUserDTO> problemes = new ArrayList<>();
-            for (DocumentSnapshot doc : querySnapshot.getDocuments()) {
-                ProblemeWithUserDTO dto = enrichProblemeWithUser(doc.getData(), doc.getId());
+            for (StoredDocument doc : documents) {
+                ProblemeWithUserDTO dto = enrichProblemeWithUser(doc.data(), doc.id());
                 problemes.add(dto);
             }
 
@@ -152,16 +114,14 @@ public class FirebaseProblemeController {
     public ResponseEntity<ProblemeWithUserDTO> getProbleme(@PathVariable String id) {
         try {
             log.info("🔍 Récupération du problème {} depuis Firestore", id);
-            Firestore firestore = FirestoreClient.getFirestore();
-            
-            DocumentSnapshot doc = firestore.collection("problemes").document(id).get().get();
+            Optional<StoredDocument> doc = documentStore.get("problemes", id);
 
-            if (!doc.exists()) {
+            if (doc.isEmpty()) {
                 log.warn("⚠️ Problème {} introuvable", id);
                 return ResponseEntity.notFound().build();
             }
 
-            ProblemeWithUserDTO dto = enrichProblemeWithUser(doc.getData(), doc.getId());
+            ProblemeWithUserDTO dto = enrichProblemeWithUser(doc.get().data(), id);
             log.info("✅ Problème {} récupéré", id);
             return ResponseEntity.ok(dto);
             
@@ -180,22 +140,19 @@ public class FirebaseProblemeController {
             String newStatus = request.get("status");
             log.info("🔄 Mise à jour du statut du problème {} → {}", id, newStatus);
             
-            Firestore firestore = FirestoreClient.getFirestore();
-            DocumentReference docRef = firestore.collection("problemes").document(id);
-            
-            DocumentSnapshot doc = docRef.get().get();
-            if (!doc.exists()) {
+            Optional<StoredDocument> doc = documentStore.get("problemes", id);
+            if (doc.isEmpty()) {
                 return ResponseEntity.notFound().build();
             }
 
             Map<String, Object> updates = new HashMap<>();
             updates.put("status", newStatus);
-            updates.put("updatedAt", FieldValue.serverTimestamp());
+            updates.put("updatedAt", DocumentValues.serverTimestamp());
             
-            docRef.update(updates).get();
+            documentStore.update("problemes", id, updates);
 
-            Map<String, Object> probleme = new HashMap<>(doc.getData());
-            probleme.put("id", doc.getId());
+            Map<String, Object> probleme = new HashMap<>(doc.get().data());
+            probleme.put("id", id);
             probleme.put("status", newStatus);
 
             log.info("✅ Statut du problème {} mis à jour", id);
@@ -216,16 +173,14 @@ public class FirebaseProblemeController {
         try {
             log.info("🔄 Conversion du problème Firestore {} en signalement", id);
             
-            Firestore firestore = FirestoreClient.getFirestore();
-            
             // 1. Récupérer le problème depuis Firestore
-            DocumentSnapshot problemeDoc = firestore.collection("problemes").document(id).get().get();
-            if (!problemeDoc.exists()) {
+            Optional<StoredDocument> problemeDoc = documentStore.get("problemes", id);
+            if (problemeDoc.isEmpty()) {
                 log.warn("⚠️ Problème {} introuvable", id);
                 return ResponseEntity.notFound().build();
             }
             
-            Map<String, Object> problemeData = problemeDoc.getData();
+            Map<String, Object> problemeData = problemeDoc.get().data();
             
             // 2. Récupérer l'ID du manager
             String managerEmail = authentication.getName();
@@ -247,27 +202,26 @@ public class FirebaseProblemeController {
             signalementData.put("status", "en_attente");
             signalementData.put("managerId", managerId);
             signalementData.put("problemeId", id); // Référence au problème d'origine
-            signalementData.put("createdAt", FieldValue.serverTimestamp());
-            signalementData.put("updatedAt", FieldValue.serverTimestamp());
+            signalementData.put("createdAt", DocumentValues.serverTimestamp());
+            signalementData.put("updatedAt", DocumentValues.serverTimestamp());
             
-            DocumentReference signalementRef = firestore.collection("signalements").document();
-            signalementRef.set(signalementData).get();
+            String signalementId = documentStore.add("signalements", signalementData);
             
-            log.info("   ✅ Signalement créé: {}", signalementRef.getId());
+            log.info("   ✅ Signalement créé: {}", signalementId);
             
             // 4. Mettre à jour le statut du problème à "converti"
             Map<String, Object> updates = new HashMap<>();
             updates.put("status", "converti");
-            updates.put("signalementId", signalementRef.getId());
-            updates.put("updatedAt", FieldValue.serverTimestamp());
+            updates.put("signalementId", signalementId);
+            updates.put("updatedAt", DocumentValues.serverTimestamp());
             
-            firestore.collection("problemes").document(id).update(updates).get();
+            documentStore.update("problemes", id, updates);
             
-            log.info("✅ Problème {} converti en signalement {}", id, signalementRef.getId());
+            log.info("✅ Problème {} converti en signalement {}", id, signalementId);
             
             // 5. Retourner le signalement créé
             Map<String, Object> response = new HashMap<>();
-            response.put("id", signalementRef.getId());
+            response.put("id", signalementId);
             response.put("userId", problemeData.get("userId"));
             response.put("latitude", problemeData.get("latitude"));
             response.put("longitude", problemeData.get("longitude"));
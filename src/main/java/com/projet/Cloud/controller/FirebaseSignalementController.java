@@ -2,14 +2,22 @@ package com.projet.Cloud.controller;
 
 import com.projet.Cloud.dto.CreateSignalementRequest;
 import com.projet.Cloud.dto.UpdateSignalementRequest;
+import com.projet.Cloud.model.Attachment;
+import com.projet.Cloud.service.AttachmentService;
 import com.projet.Cloud.service.FirebaseSignalementService;
+import com.projet.Cloud.store.BlobStore;
 import com.projet.Cloud.service.SignalementService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutionException;
@@ -22,6 +30,7 @@ public class FirebaseSignalementController {
 
     private final FirebaseSignalementService firebaseService;
     private final SignalementService signalementService;
+    private final AttachmentService attachmentService;
 
     /**
      * Créer un signalement dans Firebase
@@ -193,10 +202,17 @@ public class FirebaseSignalementController {
         try {
             Long userId = getCurrentUserId();
             String comment = payload.get("text");
-            
-            firebaseService.addCommentToSignalement(id, userId, comment);
+
+            String commentId = firebaseService.addCommentToSignalement(id, userId, comment);
+            // Recopie en base : les listes PostgreSQL (mode hors ligne) affichent aussi le compteur
+            try {
+                signalementService.recordComment(id, LocalDateTime.now());
+            } catch (Exception e) {
+                log.warn("⚠️ Compteur de commentaires non recopié pour {}: {} (corrigé à la prochaine synchro)",
+                        id, e.getMessage());
+            }
             return ResponseEntity.status(HttpStatus.CREATED)
-                    .body(Map.of("message", "Commentaire ajouté avec succès"));
+                    .body(Map.of("id", commentId, "message", "Commentaire ajouté avec succès"));
         } catch (ExecutionException | InterruptedException e) {
             log.error("Erreur lors de l'ajout du commentaire", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -204,6 +220,30 @@ public class FirebaseSignalementController {
         }
     }
 
+    /**
+     * Commentaires d'un signalement, du plus récent au plus ancien
+     *
+     * GET /api/firebase/signalements/{id}/comments?limit=20&cursor=...
+     */
+    @GetMapping("/signalements/{id}/comments")
+    public ResponseEntity<Map<String, Object>> getComments(
+            @PathVariable String id,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        try {
+            FirebaseSignalementService.CommentPage page = firebaseService.getComments(id, cursor, limit);
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("comments", page.comments());
+            body.put("nextCursor", page.nextCursor());
+            return ResponseEntity.ok(body);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (ExecutionException | InterruptedException e) {
+            log.error("Erreur lors de la récupération des commentaires", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     /**
      * Ajouter une pièce jointe
      */
@@ -225,6 +265,33 @@ public class FirebaseSignalementController {
         }
     }
 
+    /**
+     * Envoyer une pièce jointe (multipart, champ "file") : stockée par le backend et servie
+     * par GET /api/attachments/{hash}, miniature générée en arrière-plan pour les images
+     */
+    @PostMapping(value = "/signalements/{id}/attachments", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<Map<String, Object>> uploadAttachment(
+            @PathVariable String id,
+            @RequestParam("file") MultipartFile file) {
+        try {
+            Attachment attachment = attachmentService.attach(id, file);
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("hash", attachment.getHash());
+            body.put("url", AttachmentService.url(attachment));
+            body.put("contentType", attachment.getContentType());
+            body.put("size", attachment.getSizeBytes());
+            return ResponseEntity.status(HttpStatus.CREATED).body(body);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (BlobStore.BlobTooLargeException e) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(Map.of("error", e.getMessage()));
+        } catch (IOException | ExecutionException | InterruptedException e) {
+            log.error("Erreur lors de l'envoi de la pièce jointe", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Erreur lors de l'envoi de la pièce jointe"));
+        }
+    }
+
     /**
      * Récupérer les statistiques
      */
@@ -0,0 +1,92 @@
+package com.projet.Cloud.controller;
+
+import com.projet.Cloud.dto.SignalementFilter;
+import com.projet.Cloud.security.JwtAuthorities;
+import com.projet.Cloud.service.LiveEventService;
+import com.projet.Cloud.util.JwtUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+@RestController
+@RequestMapping("/api/live")
+@RequiredArgsConstructor
+@Slf4j
+public class LiveController {
+
+    private final LiveEventService liveEventService;
+
+    @Value("${live.ticket-ttl-ms:60000}")
+    private long ticketTtlMs;
+
+    /**
+     * Ticket court pour ouvrir le flux : EventSource ne peut pas envoyer l'en-tête Authorization,
+     * le jeton d'accès ne passe donc pas dans l'URL (journaux des proxys, historique)
+     *
+     * POST /api/live/ticket -> {ticket, expiresIn}
+     */
+    @PostMapping("/ticket")
+    public ResponseEntity<?> ticket(Authentication authentication) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("email", authentication.getName());
+        claims.put("roles", authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+        claims.put(JwtAuthorities.SCOPE_CLAIM, JwtAuthorities.LIVE_STREAM_SCOPE);
+        return ResponseEntity.ok(Map.of(
+                "ticket", JwtUtil.generateToken(claims, ticketTtlMs),
+                "expiresIn", ticketTtlMs / 1000));
+    }
+
+    /**
+     * Flux SSE des changements de signalements et de problèmes (événements "signalement" et
+     * "probleme", données {type, id, data}). REMOVED : l'objet sort du filtre de la connexion.
+     *
+     * GET /api/live/stream?ticket=...&kind=signalement&status=nouveau,en_cours&bbox=47.4,-19.0,47.6,-18.8
+     */
+    @GetMapping("/stream")
+    public ResponseEntity<?> stream(
+            @RequestParam(required = false) List<String> kind,
+            @RequestParam(required = false) List<String> status,
+            @RequestParam(required = false) String bbox) {
+        SignalementFilter filter;
+        Set<String> kinds = null;
+        try {
+            filter = SignalementFilter.of(status, null, bbox, null, null);
+            if (kind != null && !kind.isEmpty()) {
+                kinds = new HashSet<>();
+                for (String k : kind) {
+                    String normalized = k.trim().toLowerCase(Locale.ROOT);
+                    if (!LiveEventService.SIGNALEMENT.equals(normalized) && !LiveEventService.PROBLEME.equals(normalized)) {
+                        throw new IllegalArgumentException("kind inconnu: " + k);
+                    }
+                    kinds.add(normalized);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+
+        SseEmitter emitter = liveEventService.subscribe(kinds, filter);
+        if (emitter == null) {
+            log.warn("⚠️ Connexion SSE refusée: {} connexions ouvertes", liveEventService.getConnectionCount());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header("Retry-After", "30")
+                    .body(Map.of("error", "Trop de connexions en direct, réessayez plus tard"));
+        }
+        return ResponseEntity.ok()
+                .header("X-Accel-Buffering", "no")  // pas de mise en tampon par nginx
+                .body(emitter);
+    }
+}
@@ -1,22 +1,29 @@
 package com.projet.Cloud.controller;
 
+import com.projet.Cloud.dto.BatchCreateProblemesRequest;
+import com.projet.Cloud.dto.BatchProblemeResult;
 import com.projet.Cloud.dto.ConvertProblemeRequest;
 import com.projet.Cloud.dto.CreateProblemeRequest;
 import com.projet.Cloud.model.Probleme;
 import com.projet.Cloud.model.Signalement;
 import com.projet.Cloud.model.User;
 import com.projet.Cloud.repository.UserRepository;
+import com.projet.Cloud.service.CollectionVersionService;
 import com.projet.Cloud.service.ProblemeService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/problemes")
@@ -26,6 +33,7 @@ public class ProblemeController {
 
     private final ProblemeService problemeService;
     private final UserRepository userRepository;
+    private final CollectionVersionService collectionVersionService;
 
     @PostMapping
     @PreAuthorize("hasRole('USER') or hasRole('MANAGER') or hasRole('ADMIN')")
@@ -36,14 +44,44 @@ public class ProblemeController {
         return ResponseEntity.status(HttpStatus.CREATED).body(saved);
     }
 
+    /**
+     * Création en lot de la file hors ligne ; chaque élément porte sa clé client (idempotence)
+     * et reçoit son propre résultat : created, duplicate (déjà reçu) ou invalid
+     */
+    @PostMapping("/batch")
+    @PreAuthorize("hasRole('USER') or hasRole('MANAGER') or hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> creerProblemesEnLot(@Valid @RequestBody BatchCreateProblemesRequest request,
+                                                                   Authentication authentication) {
+        Long userId = extractUserId(authentication);
+        Map<String, Object> response = new LinkedHashMap<>();
+        List<BatchProblemeResult> results;
+        try {
+            results = problemeService.createProblemes(request.getItems(), userId);
+        } catch (DataIntegrityViolationException e) {
+            // Même lot rejoué en parallèle : le second essai verra les clés comme déjà reçues
+            log.warn("⚠️ Lot de problèmes en conflit pour l'utilisateur {}: {}", userId, e.getMessage());
+            response.put("error", "Lot en cours de traitement par une autre requête, réessayez");
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        }
+
+        response.put("total", results.size());
+        response.put("created", results.stream().filter(r -> "created".equals(r.getStatus())).count());
+        response.put("duplicates", results.stream().filter(r -> "duplicate".equals(r.getStatus())).count());
+        response.put("invalid", results.stream().filter(r -> "invalid".equals(r.getStatus())).count());
+        response.put("results", results);
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping
     public ResponseEntity<List<Probleme>> listerProblemes() {
         return ResponseEntity.ok(problemeService.listProblemes());
     }
 
     @GetMapping("/ouverts")
-    public ResponseEntity<List<Probleme>> listerProblemesOuverts() {
-        return ResponseEntity.ok(problemeService.listProblemesOuverts());
+    public ResponseEntity<List<Probleme>> listerProblemesOuverts(WebRequest request) {
+        CollectionVersionService.Tag tag = collectionVersionService.tag(CollectionVersionService.PROBLEMES,
+                CollectionVersionService.SIGNALEMENT_TYPES, CollectionVersionService.USERS);
+        return ConditionalResponses.ifModified(request, tag, problemeService::listProblemesOuverts);
     }
 
     @GetMapping("/user/me")
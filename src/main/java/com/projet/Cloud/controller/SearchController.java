@@ -0,0 +1,68 @@
+package com.projet.Cloud.controller;
+
+import com.projet.Cloud.dto.SearchResult;
+import com.projet.Cloud.dto.SignalementFilter;
+import com.projet.Cloud.service.SearchService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/search")
+@RequiredArgsConstructor
+@Slf4j
+public class SearchController {
+
+    private final SearchService searchService;
+
+    /**
+     * Recherche plein texte dans les descriptions, combinable avec les filtres des exports
+     *
+     * GET /api/search?q=nid de poule&scope=all&status=nouveau&bbox=47.4,-19.0,47.6,-18.8&limit=20
+     */
+    @GetMapping
+    @PreAuthorize("hasRole('MANAGER') or hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> search(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "all") String scope,
+            @RequestParam(required = false) List<String> status,
+            @RequestParam(required = false) List<Long> typeId,
+            @RequestParam(required = false) String bbox,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(defaultValue = "0") int offset) {
+        log.info("🔎 Recherche: \"{}\" ({})", q, scope);
+
+        Map<String, Object> response = new HashMap<>();
+        SearchService.Scope searchScope;
+        SignalementFilter filter;
+        try {
+            if (q.isBlank()) {
+                throw new IllegalArgumentException("q ne peut pas être vide");
+            }
+            searchScope = SearchService.Scope.valueOf(scope.toUpperCase(Locale.ROOT));
+            filter = SignalementFilter.of(status, typeId, bbox, from, to);
+        } catch (IllegalArgumentException e) {
+            response.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+
+        List<SearchResult> results = searchService.search(q, searchScope, filter, limit, offset);
+        response.put("query", q);
+        response.put("scope", searchScope.name().toLowerCase(Locale.ROOT));
+        response.put("mode", searchService.isFullTextEnabled() ? "fulltext" : "like");
+        response.put("count", results.size());
+        response.put("results", results);
+        return ResponseEntity.ok(response);
+    }
+}
@@ -1,19 +1,37 @@
 package com.projet.Cloud.controller;
 
+import com.projet.Cloud.dto.BulkStatusUpdateRequest;
 import com.projet.Cloud.dto.CreateSignalementRequest;
+import com.projet.Cloud.dto.SignalementFilter;
 import com.projet.Cloud.dto.UpdateSignalementRequest;
 import com.projet.Cloud.model.Signalement;
+import com.projet.Cloud.service.CollectionVersionService;
+import com.projet.Cloud.service.HeatmapService;
+import com.projet.Cloud.service.SignalementBulkService;
+import com.projet.Cloud.service.SignalementChangeFeedService;
+import com.projet.Cloud.service.SignalementExportService;
+import com.projet.Cloud.service.SignalementRollupService;
 import com.projet.Cloud.service.SignalementService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/signalements")
@@ -22,6 +40,12 @@ import java.util.List;
 public class SignalementController {
 
     private final SignalementService signalementService;
+    private final SignalementExportService signalementExportService;
+    private final HeatmapService heatmapService;
+    private final SignalementRollupService signalementRollupService;
+    private final CollectionVersionService collectionVersionService;
+    private final SignalementChangeFeedService signalementChangeFeedService;
+    private final SignalementBulkService signalementBulkService;
 
     /**
      * Créer un nouveau signalement
@@ -42,14 +66,55 @@ public class SignalementController {
     }
 
     /**
-     * Récupérer tous les signalements
+     * Récupérer tous les signalements (304 si la liste n'a pas changé depuis l'ETag du client)
      */
     @GetMapping
     @PreAuthorize("hasRole('USER') or hasRole('MANAGER') or hasRole('ADMIN')")
-    public ResponseEntity<List<Signalement>> getAllSignalements() {
+    public ResponseEntity<List<Signalement>> getAllSignalements(WebRequest request) {
         log.info("Récupération de tous les signalements");
-        List<Signalement> signalements = signalementService.getAllSignalements();
-        return ResponseEntity.ok(signalements);
+        // Chaque signalement embarque son type et son utilisateur
+        CollectionVersionService.Tag tag = collectionVersionService.tag(CollectionVersionService.SIGNALEMENTS,
+                CollectionVersionService.SIGNALEMENT_TYPES, CollectionVersionService.USERS);
+        return ConditionalResponses.ifModified(request, tag, signalementService::getAllSignalements);
+    }
+
+    /**
+     * Signalements créés, modifiés ou supprimés depuis un curseur opaque
+     *
+     * Sans {@code since}, renvoie seulement le curseur courant : à demander avant le chargement
+     * complet de la liste, puis à rejouer pour ne télécharger que les deltas.
+     * 410 si le curseur a expiré (journal purgé) : le client recharge toute la liste.
+     */
+    @GetMapping("/changes")
+    @PreAuthorize("hasRole('USER') or hasRole('MANAGER') or hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getChanges(
+            @RequestParam(required = false) String since,
+            @RequestParam(defaultValue = "" + SignalementChangeFeedService.DEFAULT_LIMIT) int limit) {
+        Map<String, Object> response = new HashMap<>();
+        if (since == null || since.isBlank()) {
+            response.put("cursor", signalementChangeFeedService.currentCursor());
+            response.put("signalements", List.of());
+            response.put("deleted", List.of());
+            response.put("hasMore", false);
+            return ResponseEntity.ok(response);
+        }
+
+        try {
+            SignalementChangeFeedService.Changes changes = signalementChangeFeedService.getChanges(since, limit);
+            log.info("Flux de changements: {} modifiés, {} supprimés", changes.signalements().size(), changes.deleted().size());
+            response.put("cursor", changes.cursor());
+            response.put("signalements", changes.signalements());
+            response.put("deleted", changes.deleted());
+            response.put("hasMore", changes.hasMore());
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            response.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        } catch (SignalementChangeFeedService.CursorExpiredException e) {
+            response.put("error", e.getMessage());
+            response.put("resync", true);
+            return ResponseEntity.status(HttpStatus.GONE).body(response);
+        }
     }
 
     /**
@@ -124,6 +189,115 @@ public class SignalementController {
         return ResponseEntity.ok(signalements);
     }
 
+    /**
+     * Exporter les signalements en GeoJSON (FeatureCollection), en flux
+     */
+    @GetMapping("/export.geojson")
+    @PreAuthorize("hasRole('MANAGER') or hasRole('ADMIN')")
+    public ResponseEntity<?> exportGeoJson(
+            @RequestParam(required = false) List<String> status,
+            @RequestParam(required = false) List<Long> typeId,
+            @RequestParam(required = false) String bbox,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        log.info("Export GeoJSON des signalements");
+        SignalementFilter filter;
+        try {
+            filter = SignalementFilter.of(status, typeId, bbox, from, to);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+
+        StreamingResponseBody body = out -> signalementExportService.exportGeoJson(filter, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/geo+json"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"signalements.geojson\"")
+                .body(body);
+    }
+
+    /**
+     * Exporter les signalements en CSV, en flux
+     */
+    @GetMapping("/export.csv")
+    @PreAuthorize("hasRole('MANAGER') or hasRole('ADMIN')")
+    public ResponseEntity<?> exportCsv(
+            @RequestParam(required = false) List<String> status,
+            @RequestParam(required = false) List<Long> typeId,
+            @RequestParam(required = false) String bbox,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        log.info("Export CSV des signalements");
+        SignalementFilter filter;
+        try {
+            filter = SignalementFilter.of(status, typeId, bbox, from, to);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+
+        StreamingResponseBody body = out -> signalementExportService.exportCsv(filter, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("text/csv; charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"signalements.csv\"")
+                .body(body);
+    }
+
+    /**
+     * Grille de densité (nombre, budget et surface cumulés par maille) sur une emprise
+     *
+     * GET /api/signalements/heatmap?bbox=47.4,-19.0,47.6,-18.8&resolution=64
+     */
+    @GetMapping("/heatmap")
+    @PreAuthorize("hasRole('USER') or hasRole('MANAGER') or hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getHeatmap(
+            @RequestParam String bbox,
+            @RequestParam(defaultValue = "64") int resolution) {
+        log.info("Récupération de la heatmap: {} ({} mailles)", bbox, resolution);
+        SignalementFilter area = new SignalementFilter();
+        try {
+            area.setBbox(bbox);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+        return ResponseEntity.ok(heatmapService.getGrid(area, resolution));
+    }
+
+    /**
+     * Série temporelle (nombre, budget, délai moyen de résolution) lue dans les agrégats journaliers
+     *
+     * GET /api/signalements/timeseries?from=2025-01-01&to=2025-12-31&granularity=week&groupBy=type,status
+     */
+    @GetMapping("/timeseries")
+    @PreAuthorize("hasRole('MANAGER') or hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getTimeSeries(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "day") String granularity,
+            @RequestParam(required = false) List<Long> typeId,
+            @RequestParam(required = false) List<String> status,
+            @RequestParam(required = false) List<String> groupBy) {
+        log.info("Récupération de la série temporelle: {} → {} ({})", from, to, granularity);
+
+        Map<String, Object> response = new HashMap<>();
+        SignalementRollupService.Granularity step;
+        try {
+            if (to.isBefore(from)) {
+                throw new IllegalArgumentException("from doit précéder to");
+            }
+            step = SignalementRollupService.Granularity.valueOf(granularity.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            response.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+
+        boolean byType = groupBy != null && groupBy.contains("type");
+        boolean byStatus = groupBy != null && groupBy.contains("status");
+        response.put("from", from.toString());
+        response.put("to", to.toString());
+        response.put("granularity", step.name().toLowerCase(Locale.ROOT));
+        response.put("series", signalementRollupService.getSeries(from, to, step, typeId, status, byType, byStatus));
+        return ResponseEntity.ok(response);
+    }
+
     /**
      * Mettre à jour un signalement
      */
@@ -136,6 +310,44 @@ public class SignalementController {
         return ResponseEntity.ok(signalement);
     }
 
+    /**
+     * Changer le statut de plusieurs signalements en une fois (ids et/ou filtre)
+     *
+     * POST /api/signalements/bulk-status {"status":"terminé","currentStatuses":["en_cours"],"bbox":"47.4,-19.0,47.6,-18.8"}
+     */
+    @PostMapping("/bulk-status")
+    @PreAuthorize("hasRole('MANAGER') or hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> bulkUpdateStatus(@Valid @RequestBody BulkStatusUpdateRequest request) {
+        Map<String, Object> response = new HashMap<>();
+        SignalementBulkService.Result result;
+        try {
+            boolean hasIds = request.getIds() != null && !request.getIds().isEmpty();
+            SignalementFilter filter = SignalementFilter.of(request.getCurrentStatuses(), request.getTypeIds(),
+                    request.getBbox(), null, null);
+            boolean hasFilter = filter.hasBbox()
+                    || (filter.getStatuses() != null && !filter.getStatuses().isEmpty())
+                    || (filter.getTypeIds() != null && !filter.getTypeIds().isEmpty());
+            if (!hasIds && !hasFilter) {
+                throw new IllegalArgumentException("ids ou filtre (currentStatuses, typeIds, bbox) requis");
+            }
+            if (hasIds && request.getIds().size() > SignalementBulkService.MAX_SIGNALEMENTS) {
+                throw new IllegalArgumentException(SignalementBulkService.MAX_SIGNALEMENTS + " ids au plus");
+            }
+            log.info("Mise à jour en masse du statut: {}", request.getStatus());
+            result = signalementBulkService.updateStatus(request.getIds(), filter, request.getStatus());
+        } catch (IllegalArgumentException e) {
+            response.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+
+        response.put("status", request.getStatus());
+        response.put("updated", result.updated());
+        response.put("firestoreUpdated", result.firestoreUpdated());
+        response.put("notifications", result.notified());
+        response.put("durationMs", result.durationMs());
+        return ResponseEntity.ok(response);
+    }
+
     /**
      * Supprimer un signalement
      */
@@ -3,11 +3,13 @@ package com.projet.Cloud.controller;
 import com.projet.Cloud.dto.SignalementTypeDto;
 import com.projet.Cloud.model.SignalementType;
 import com.projet.Cloud.repository.SignalementTypeRepository;
+import com.projet.Cloud.service.CollectionVersionService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -19,18 +21,19 @@ import java.util.stream.Collectors;
 public class SignalementTypeController {
 
     private final SignalementTypeRepository typeRepository;
+    private final CollectionVersionService collectionVersionService;
 
     /**
-     * Récupérer tous les types de signalements
+     * Récupérer tous les types de signalements (304 si inchangés depuis l'ETag du client)
      */
     @GetMapping
-    public ResponseEntity<List<SignalementTypeDto>> getAllTypes() {
+    public ResponseEntity<List<SignalementTypeDto>> getAllTypes(WebRequest request) {
         log.info("Récupération de tous les types de signalements");
-        List<SignalementTypeDto> types = typeRepository.findAll()
+        CollectionVersionService.Tag tag = collectionVersionService.tag(CollectionVersionService.SIGNALEMENT_TYPES);
+        return ConditionalResponses.ifModified(request, tag, () -> typeRepository.findAll()
                 .stream()
                 .map(SignalementTypeDto::fromEntity)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(types);
+                .collect(Collectors.toList()));
     }
 
     /**
@@ -9,6 +9,8 @@ public class AuthResponse {
     private String email;
     private String username;
     private Set<String> roles;
+    private String refreshToken;
+    private Long refreshExpiresAt;
 
     public AuthResponse() {}
     
@@ -43,4 +45,10 @@ public class AuthResponse {
 
     public Set<String> getRoles() { return roles; }
     public void setRoles(Set<String> roles) { this.roles = roles; }
+
+    public String getRefreshToken() { return refreshToken; }
+    public void setRefreshToken(String refreshToken) { this.refreshToken = refreshToken; }
+
+    public Long getRefreshExpiresAt() { return refreshExpiresAt; }
+    public void setRefreshExpiresAt(Long refreshExpiresAt) { this.refreshExpiresAt = refreshExpiresAt; }
 }
@@ -0,0 +1,23 @@
+package com.projet.Cloud.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * File hors ligne rejouée en une requête. Les éléments sont validés un par un :
+ * un élément invalide n'empêche pas la création des autres.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchCreateProblemesRequest {
+
+    @NotEmpty(message = "Au moins un problème est requis")
+    @Size(max = 500, message = "500 problèmes au plus par lot")
+    private List<CreateProblemeRequest> items;
+}
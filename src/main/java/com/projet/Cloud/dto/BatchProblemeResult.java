@@ -0,0 +1,19 @@
+package com.projet.Cloud.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Résultat d'un élément d'un lot, dans l'ordre de la requête
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchProblemeResult {
+    private int index;
+    private String clientKey;
+    private String status;  // created, duplicate, invalid
+    private Long id;
+    private String error;
+}
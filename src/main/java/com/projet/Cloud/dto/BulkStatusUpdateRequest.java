@@ -0,0 +1,31 @@
+package com.projet.Cloud.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Changement de statut en masse : une liste d'ids, ou un filtre (statuts actuels, types, emprise).
+ * Les deux se combinent ; au moins l'un des deux est requis.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkStatusUpdateRequest {
+
+    @NotNull(message = "Le statut est requis")
+    @Pattern(regexp = "nouveau|en_cours|terminé", message = "Le statut doit être: nouveau, en_cours ou terminé")
+    private String status;
+
+    private List<Long> ids;
+
+    private List<String> currentStatuses;
+
+    private List<Long> typeIds;
+
+    private String bbox;  // minLon,minLat,maxLon,maxLat
+}
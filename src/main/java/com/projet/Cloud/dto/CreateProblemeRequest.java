@@ -2,6 +2,7 @@ package com.projet.Cloud.dto;
 
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -24,4 +25,10 @@ public class CreateProblemeRequest {
 
     @NotBlank(message = "La description est requise")
     private String description;
+
+    /**
+     * Clé générée par l'application (file hors ligne) : un rejeu ne crée pas de doublon.
+     */
+    @Size(max = 64, message = "La clé client ne doit pas dépasser 64 caractères")
+    private String clientKey;
 }
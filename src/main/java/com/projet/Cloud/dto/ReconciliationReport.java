@@ -0,0 +1,43 @@
+package com.projet.Cloud.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rapport d'écart PostgreSQL ↔ Firestore pour une collection
+ */
+@Data
+@NoArgsConstructor
+public class ReconciliationReport {
+
+    private String collection;
+    private boolean deep;
+    private int bucketsChecked;
+    private int bucketsMismatched;
+    private int documentsRead;
+    private int rowsRepaired;
+    private int rowsFailed;
+    private List<Long> orphanLocalIds = new ArrayList<>();  // Présents dans Firestore, absents de PostgreSQL
+    private List<BucketDrift> drifts = new ArrayList<>();
+    private long durationMs;
+
+    public ReconciliationReport(String collection, boolean deep) {
+        this.collection = collection;
+        this.deep = deep;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class BucketDrift {
+        private long bucket;
+        private long fromId;
+        private long toId;
+        private String reason;  // hash, count, deep
+        private int repaired;
+    }
+}
@@ -0,0 +1,25 @@
+package com.projet.Cloud.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Résultat de recherche plein texte : un signalement ou un problème, avec son score
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchResult {
+    private String kind;  // signalement, probleme
+    private Long id;
+    private String description;
+    private String status;
+    private Long typeId;
+    private Double latitude;
+    private Double longitude;
+    private LocalDateTime createdAt;
+    private double rank;
+}
@@ -0,0 +1,68 @@
+package com.projet.Cloud.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Filtres communs des exports et de la recherche (tous optionnels)
+ */
+@Data
+@NoArgsConstructor
+public class SignalementFilter {
+
+    private List<String> statuses;
+    private List<Long> typeIds;
+
+    // Emprise géographique, dans l'ordre GeoJSON : minLon, minLat, maxLon, maxLat
+    private Double minLon;
+    private Double minLat;
+    private Double maxLon;
+    private Double maxLat;
+
+    // Bornes sur la date de création : from inclus, to exclu
+    private LocalDateTime from;
+    private LocalDateTime to;
+
+    /**
+     * Construit les filtres depuis les paramètres de requête ; IllegalArgumentException si incohérents
+     */
+    public static SignalementFilter of(List<String> statuses, List<Long> typeIds, String bbox,
+                                       LocalDateTime from, LocalDateTime to) {
+        SignalementFilter filter = new SignalementFilter();
+        filter.setStatuses(statuses);
+        filter.setTypeIds(typeIds);
+        if (bbox != null && !bbox.isBlank()) {
+            filter.setBbox(bbox);
+        }
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new IllegalArgumentException("from doit précéder to");
+        }
+        filter.setFrom(from);
+        filter.setTo(to);
+        return filter;
+    }
+
+    public boolean hasBbox() {
+        return minLon != null && minLat != null && maxLon != null && maxLat != null;
+    }
+
+    /**
+     * Lit une emprise "minLon,minLat,maxLon,maxLat"
+     */
+    public void setBbox(String bbox) {
+        String[] parts = bbox.split(",");
+        if (parts.length != 4) {
+            throw new IllegalArgumentException("bbox attendu: minLon,minLat,maxLon,maxLat");
+        }
+        this.minLon = Double.parseDouble(parts[0].trim());
+        this.minLat = Double.parseDouble(parts[1].trim());
+        this.maxLon = Double.parseDouble(parts[2].trim());
+        this.maxLat = Double.parseDouble(parts[3].trim());
+        if (minLon > maxLon || minLat > maxLat) {
+            throw new IllegalArgumentException("bbox invalide: les minimums doivent précéder les maximums");
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.projet.Cloud.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Bilan d'une phase de synchronisation Firebase ↔ PostgreSQL
+ */
+@Data
+@NoArgsConstructor
+public class SyncPhaseReport {
+
+    private String phase;
+    private long scanned;
+    private long written;
+    private long skipped;
+    private long failed;
+    private long durationMs;
+    private String error;  // null si la phase s'est déroulée jusqu'au bout
+
+    public SyncPhaseReport(String phase) {
+        this.phase = phase;
+    }
+
+    public void incrementScanned() {
+        scanned++;
+    }
+
+    public void incrementWritten() {
+        written++;
+    }
+
+    public void incrementSkipped() {
+        skipped++;
+    }
+
+    public void incrementFailed() {
+        failed++;
+    }
+}
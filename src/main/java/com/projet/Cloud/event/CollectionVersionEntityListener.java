@@ -0,0 +1,49 @@
+package com.projet.Cloud.event;
+
+import com.projet.Cloud.model.Probleme;
+import com.projet.Cloud.model.Signalement;
+import com.projet.Cloud.model.SignalementType;
+import com.projet.Cloud.model.User;
+import com.projet.Cloud.service.CollectionVersionService;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * Incrémente la version de la collection d'une entité à chaque écriture JPA (ETag des listes)
+ */
+@Component
+@RequiredArgsConstructor
+public class CollectionVersionEntityListener {
+
+    private final ObjectProvider<CollectionVersionService> collectionVersionService;  // Résolu au premier usage : le service dépend de JPA
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onWrite(Object entity) {
+        String collection = collectionOf(entity);
+        if (collection != null) {
+            collectionVersionService.getObject().bump(collection);
+        }
+    }
+
+    private static String collectionOf(Object entity) {
+        if (entity instanceof Signalement) {
+            return CollectionVersionService.SIGNALEMENTS;
+        }
+        if (entity instanceof Probleme) {
+            return CollectionVersionService.PROBLEMES;
+        }
+        if (entity instanceof SignalementType) {
+            return CollectionVersionService.SIGNALEMENT_TYPES;
+        }
+        if (entity instanceof User) {
+            return CollectionVersionService.USERS;
+        }
+        return null;
+    }
+}
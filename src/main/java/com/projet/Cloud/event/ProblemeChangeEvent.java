@@ -0,0 +1,16 @@
+package com.projet.Cloud.event;
+
+/**
+ * Création, modification ou suppression d'un problème, publiée après chaque écriture JPA.
+ * {@code before} est null pour une création, {@code after} pour une suppression.
+ */
+public record ProblemeChangeEvent(Type type, ProblemeSnapshot before, ProblemeSnapshot after) {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+
+    public Long problemeId() {
+        return after != null ? after.id() : before.id();
+    }
+}
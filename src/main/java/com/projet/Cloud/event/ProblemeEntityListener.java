@@ -0,0 +1,49 @@
+package com.projet.Cloud.event;
+
+import com.projet.Cloud.model.Probleme;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publie un {@link ProblemeChangeEvent} pour chaque écriture JPA d'un problème
+ * (API, conversion en signalement, import Firebase), sur le modèle de {@link SignalementEntityListener}
+ */
+@Component
+@RequiredArgsConstructor
+public class ProblemeEntityListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PostLoad
+    public void onLoad(Probleme probleme) {
+        probleme.setLoadedState(ProblemeSnapshot.of(probleme));
+    }
+
+    @PostPersist
+    public void onPersist(Probleme probleme) {
+        ProblemeSnapshot after = ProblemeSnapshot.of(probleme);
+        probleme.setLoadedState(after);
+        eventPublisher.publishEvent(new ProblemeChangeEvent(ProblemeChangeEvent.Type.CREATED, null, after));
+    }
+
+    @PostUpdate
+    public void onUpdate(Probleme probleme) {
+        ProblemeSnapshot after = ProblemeSnapshot.of(probleme);
+        ProblemeSnapshot before = probleme.getLoadedState();
+        probleme.setLoadedState(after);
+        eventPublisher.publishEvent(new ProblemeChangeEvent(ProblemeChangeEvent.Type.UPDATED, before, after));
+    }
+
+    @PostRemove
+    public void onRemove(Probleme probleme) {
+        ProblemeSnapshot before = probleme.getLoadedState() != null
+                ? probleme.getLoadedState()
+                : ProblemeSnapshot.of(probleme);
+        eventPublisher.publishEvent(new ProblemeChangeEvent(ProblemeChangeEvent.Type.DELETED, before, null));
+    }
+}
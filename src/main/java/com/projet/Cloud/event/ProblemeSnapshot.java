@@ -0,0 +1,35 @@
+package com.projet.Cloud.event;
+
+import com.projet.Cloud.model.Probleme;
+
+import java.time.LocalDateTime;
+
+/**
+ * Valeurs d'un problème à un instant donné, détachées de l'entité
+ */
+public record ProblemeSnapshot(
+        Long id,
+        String firebaseId,
+        Long typeId,
+        String description,
+        String status,
+        Double latitude,
+        Double longitude,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt,
+        LocalDateTime convertedAt) {
+
+    public static ProblemeSnapshot of(Probleme probleme) {
+        return new ProblemeSnapshot(
+                probleme.getId(),
+                probleme.getFirebaseId(),
+                probleme.getType() != null ? probleme.getType().getId() : null,
+                probleme.getDescription(),
+                probleme.getStatus(),
+                probleme.getLatitude(),
+                probleme.getLongitude(),
+                probleme.getCreatedAt(),
+                probleme.getUpdatedAt(),
+                probleme.getConvertedAt());
+    }
+}
@@ -0,0 +1,16 @@
+package com.projet.Cloud.event;
+
+/**
+ * Création, modification ou suppression d'un signalement, publiée après chaque écriture JPA.
+ * {@code before} est null pour une création, {@code after} pour une suppression.
+ */
+public record SignalementChangeEvent(Type type, SignalementSnapshot before, SignalementSnapshot after) {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+
+    public Long signalementId() {
+        return after != null ? after.id() : before.id();
+    }
+}
@@ -0,0 +1,52 @@
+package com.projet.Cloud.event;
+
+import com.projet.Cloud.model.Signalement;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publie un {@link SignalementChangeEvent} pour chaque écriture JPA d'un signalement, quel que
+ * soit le chemin (API, conversion de problème, import Firebase).
+ *
+ * L'état lu en base est mémorisé au chargement : une modification publie l'avant et l'après,
+ * ce qui permet aux agrégats de retirer l'ancienne contribution avant d'ajouter la nouvelle.
+ */
+@Component
+@RequiredArgsConstructor
+public class SignalementEntityListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PostLoad
+    public void onLoad(Signalement signalement) {
+        signalement.setLoadedState(SignalementSnapshot.of(signalement));
+    }
+
+    @PostPersist
+    public void onPersist(Signalement signalement) {
+        SignalementSnapshot after = SignalementSnapshot.of(signalement);
+        signalement.setLoadedState(after);
+        eventPublisher.publishEvent(new SignalementChangeEvent(SignalementChangeEvent.Type.CREATED, null, after));
+    }
+
+    @PostUpdate
+    public void onUpdate(Signalement signalement) {
+        SignalementSnapshot after = SignalementSnapshot.of(signalement);
+        SignalementSnapshot before = signalement.getLoadedState();
+        signalement.setLoadedState(after);
+        eventPublisher.publishEvent(new SignalementChangeEvent(SignalementChangeEvent.Type.UPDATED, before, after));
+    }
+
+    @PostRemove
+    public void onRemove(Signalement signalement) {
+        SignalementSnapshot before = signalement.getLoadedState() != null
+                ? signalement.getLoadedState()
+                : SignalementSnapshot.of(signalement);
+        eventPublisher.publishEvent(new SignalementChangeEvent(SignalementChangeEvent.Type.DELETED, before, null));
+    }
+}
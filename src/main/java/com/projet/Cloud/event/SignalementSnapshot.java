@@ -0,0 +1,51 @@
+package com.projet.Cloud.event;
+
+import com.projet.Cloud.model.Signalement;
+
+import java.time.LocalDateTime;
+
+/**
+ * Valeurs d'un signalement à un instant donné, détachées de l'entité
+ * (l'entité continue d'évoluer après la publication de l'événement)
+ */
+public record SignalementSnapshot(
+        Long id,
+        String firebaseId,
+        Long typeId,
+        String description,
+        String status,
+        Double latitude,
+        Double longitude,
+        Double budget,
+        Double surfaceM2,
+        LocalDateTime dateSignalement,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt,
+        LocalDateTime resolvedAt) {
+
+    public static SignalementSnapshot of(Signalement signalement) {
+        return new SignalementSnapshot(
+                signalement.getId(),
+                signalement.getFirebaseId(),
+                signalement.getType() != null ? signalement.getType().getId() : null,
+                signalement.getDescription(),
+                signalement.getStatus(),
+                signalement.getLatitude(),
+                signalement.getLongitude(),
+                signalement.getBudget(),
+                signalement.getSurfaceM2(),
+                signalement.getDateSignalement(),
+                signalement.getCreatedAt(),
+                signalement.getUpdatedAt(),
+                signalement.getResolvedAt());
+    }
+
+    /**
+     * Même signalement après un changement de statut appliqué hors entité (mise à jour en masse)
+     */
+    public SignalementSnapshot withStatus(String newStatus, LocalDateTime at) {
+        LocalDateTime resolved = "terminé".equals(newStatus) ? (resolvedAt != null ? resolvedAt : at) : null;
+        return new SignalementSnapshot(id, firebaseId, typeId, description, newStatus, latitude, longitude,
+                budget, surfaceM2, dateSignalement, createdAt, at, resolved);
+    }
+}
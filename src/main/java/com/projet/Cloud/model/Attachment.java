@@ -0,0 +1,38 @@
+package com.projet.Cloud.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Métadonnées d'une pièce jointe stockée dans le BlobStore, identifiée par le SHA-256 de son
+ * contenu. Les signalements y font référence par l'URL /api/attachments/{hash} (champ attachments
+ * du document Firestore).
+ */
+@Entity
+@Table(name = "attachments")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Attachment {
+
+    @Id
+    @Column(length = 64)
+    private String hash;
+
+    @Column(name = "content_type", nullable = false, length = 100)
+    private String contentType;
+
+    @Column(name = "size_bytes", nullable = false)
+    private Long sizeBytes;
+
+    /** Blob de la miniature JPEG, null tant qu'elle n'est pas générée (ou pour un document) */
+    @Column(name = "thumbnail_hash", length = 64)
+    private String thumbnailHash;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,25 @@
+package com.projet.Cloud.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Compteur nommé des journaux de modifications. La ligne est verrouillée par l'UPDATE qui
+ * réserve les numéros jusqu'au commit, ce qui sérialise les écritures concernées.
+ */
+@Entity
+@Table(name = "change_counters")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangeCounter {
+
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    @Column(name = "counter_value", nullable = false)
+    private Long value = 0L;
+}
@@ -0,0 +1,29 @@
+package com.projet.Cloud.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Version d'une collection exposée en liste, partagée par toutes les instances (ETag des listes)
+ */
+@Entity
+@Table(name = "collection_versions")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CollectionVersion {
+
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    @Column(name = "version_value", nullable = false)
+    private Long value = 0L;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+}
@@ -0,0 +1,51 @@
+package com.projet.Cloud.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * Agrégat d'une maille de la grille de densité : nombre de signalements et sommes
+ * budget / surface. Une grille par niveau de résolution, tenue à jour à chaque écriture.
+ */
+@Entity
+@Table(name = "heatmap_cells")
+@IdClass(HeatmapCell.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HeatmapCell {
+
+    @Id
+    @Column(name = "grid_level")
+    private Integer level;
+
+    @Id
+    @Column(name = "cell_x")
+    private Long cellX;  // floor(longitude / taille de maille)
+
+    @Id
+    @Column(name = "cell_y")
+    private Long cellY;  // floor(latitude / taille de maille)
+
+    @Column(name = "report_count", nullable = false)
+    private Long reportCount = 0L;
+
+    @Column(name = "budget_sum", nullable = false)
+    private Double budgetSum = 0.0;
+
+    @Column(name = "surface_sum", nullable = false)
+    private Double surfaceSum = 0.0;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Integer level;
+        private Long cellX;
+        private Long cellY;
+    }
+}
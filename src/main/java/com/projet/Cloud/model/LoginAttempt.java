@@ -13,7 +13,8 @@ import java.time.LocalDateTime;
 public class LoginAttempt {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "login_attempts_seq")
+    @SequenceGenerator(name = "login_attempts_seq", sequenceName = "login_attempts_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
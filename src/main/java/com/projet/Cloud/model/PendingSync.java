@@ -18,7 +18,8 @@ import java.time.LocalDateTime;
 public class PendingSync {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "pending_sync_seq")
+    @SequenceGenerator(name = "pending_sync_seq", sequenceName = "pending_sync_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
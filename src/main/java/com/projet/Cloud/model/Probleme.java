@@ -1,14 +1,21 @@
 package com.projet.Cloud.model;
 
+import com.projet.Cloud.event.CollectionVersionEntityListener;
+import com.projet.Cloud.event.ProblemeEntityListener;
+import com.projet.Cloud.event.ProblemeSnapshot;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "problemes")
+@Table(name = "problemes", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_problemes_user_client_key", columnNames = {"user_id", "client_key"})
+})
+@EntityListeners({ProblemeEntityListener.class, CollectionVersionEntityListener.class})
 public class Probleme {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "problemes_seq")
+    @SequenceGenerator(name = "problemes_seq", sequenceName = "problemes_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.EAGER)
@@ -47,6 +54,14 @@ public class Probleme {
     @Column(name = "firebase_id", unique = true)
     private String firebaseId;
 
+    @Column(name = "client_key", length = 64)
+    private String clientKey; // clé d'idempotence fournie par l'application mobile
+
+    // État lu en base, pour publier l'avant/après des modifications
+    @Transient
+    @com.fasterxml.jackson.annotation.JsonIgnore
+    private ProblemeSnapshot loadedState;
+
     public Long getId() {
         return id;
     }
@@ -142,4 +157,20 @@ public class Probleme {
     public void setFirebaseId(String firebaseId) {
         this.firebaseId = firebaseId;
     }
+
+    public String getClientKey() {
+        return clientKey;
+    }
+
+    public void setClientKey(String clientKey) {
+        this.clientKey = clientKey;
+    }
+
+    public ProblemeSnapshot getLoadedState() {
+        return loadedState;
+    }
+
+    public void setLoadedState(ProblemeSnapshot loadedState) {
+        this.loadedState = loadedState;
+    }
 }
@@ -0,0 +1,51 @@
+package com.projet.Cloud.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Entrée de la liste de révocation des JWT : un jeton précis ({@code jti:<id>}) ou tous les
+ * jetons d'un utilisateur émis avant {@code revokedAt} ({@code user:<email>}). La ligne peut
+ * être supprimée à {@code expiresAt}, quand plus aucun jeton concerné n'est valide.
+ */
+@Entity
+@Table(
+    name = "revoked_tokens",
+    indexes = {
+        @Index(name = "idx_revoked_tokens_revoked_at", columnList = "revoked_at"),
+        @Index(name = "idx_revoked_tokens_expires_at", columnList = "expires_at")
+    }
+)
+public class RevokedToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "revoked_tokens_seq")
+    @SequenceGenerator(name = "revoked_tokens_seq", sequenceName = "revoked_tokens_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "revocation_key", nullable = false)
+    private String revocationKey;
+
+    @Column(name = "revoked_at", nullable = false)
+    private LocalDateTime revokedAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    public RevokedToken() {}
+
+    public RevokedToken(String revocationKey, LocalDateTime revokedAt, LocalDateTime expiresAt) {
+        this.revocationKey = revocationKey;
+        this.revokedAt = revokedAt;
+        this.expiresAt = expiresAt;
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public String getRevocationKey() { return revocationKey; }
+    public void setRevocationKey(String revocationKey) { this.revocationKey = revocationKey; }
+    public LocalDateTime getRevokedAt() { return revokedAt; }
+    public void setRevokedAt(LocalDateTime revokedAt) { this.revokedAt = revokedAt; }
+    public LocalDateTime getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(LocalDateTime expiresAt) { this.expiresAt = expiresAt; }
+}
@@ -3,17 +3,41 @@ package com.projet.Cloud.model;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
+/**
+ * Session ouverte par une connexion : porte le jeton de rafraîchissement, renouvelé à chaque
+ * usage (rotation). Seule l'empreinte SHA-256 du secret est stockée ; l'empreinte précédente
+ * sert à détecter la réutilisation d'un jeton déjà échangé (vol probable → session révoquée).
+ */
 @Entity
-@Table(name = "sessions")
+@Table(name = "sessions", indexes = {
+    @Index(name = "idx_sessions_user_id", columnList = "user_id"),
+    @Index(name = "idx_sessions_expires_at", columnList = "expires_at")
+})
 public class Session {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @Column(name = "user_id")
     private Long userId;
-    private String token;
+
+    private String token;  // empreinte du secret courant
+
+    @Column(name = "expires_at")
     private LocalDateTime expiresAt;
 
+    @Column(name = "previous_token")
+    private String previousToken;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "last_used_at")
+    private LocalDateTime lastUsedAt;
+
+    @Column(name = "revoked_at")
+    private LocalDateTime revokedAt;
+
     // getters and setters
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
@@ -23,4 +47,12 @@ public class Session {
     public void setToken(String token) { this.token = token; }
     public LocalDateTime getExpiresAt() { return expiresAt; }
     public void setExpiresAt(LocalDateTime expiresAt) { this.expiresAt = expiresAt; }
+    public String getPreviousToken() { return previousToken; }
+    public void setPreviousToken(String previousToken) { this.previousToken = previousToken; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+    public LocalDateTime getLastUsedAt() { return lastUsedAt; }
+    public void setLastUsedAt(LocalDateTime lastUsedAt) { this.lastUsedAt = lastUsedAt; }
+    public LocalDateTime getRevokedAt() { return revokedAt; }
+    public void setRevokedAt(LocalDateTime revokedAt) { this.revokedAt = revokedAt; }
 }
@@ -1,14 +1,19 @@
 package com.projet.Cloud.model;
 
+import com.projet.Cloud.event.CollectionVersionEntityListener;
+import com.projet.Cloud.event.SignalementEntityListener;
+import com.projet.Cloud.event.SignalementSnapshot;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "signalements")
+@EntityListeners({SignalementEntityListener.class, CollectionVersionEntityListener.class})
 public class Signalement {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "signalements_seq")
+    @SequenceGenerator(name = "signalements_seq", sequenceName = "signalements_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "firebase_id", unique = true)
@@ -54,6 +59,21 @@ public class Signalement {
 
     private LocalDateTime updatedAt;
 
+    @Column(name = "resolved_at")
+    private LocalDateTime resolvedAt;  // passage au statut "terminé", null sinon
+
+    // Recopie des compteurs du document Firestore (commentaires), pour les listes sans lecture de sous-collection
+    @Column(name = "comment_count")
+    private Integer commentCount = 0;
+
+    @Column(name = "last_comment_at")
+    private LocalDateTime lastCommentAt;
+
+    // État lu en base, pour publier l'avant/après des modifications
+    @Transient
+    @com.fasterxml.jackson.annotation.JsonIgnore
+    private SignalementSnapshot loadedState;
+
     public Signalement() {
         this.dateSignalement = LocalDateTime.now();
         this.createdAt = LocalDateTime.now();
@@ -171,4 +191,51 @@ public class Signalement {
     public void setUpdatedAt(LocalDateTime updatedAt) {
         this.updatedAt = updatedAt;
     }
+
+    public LocalDateTime getResolvedAt() {
+        return resolvedAt;
+    }
+
+    public void setResolvedAt(LocalDateTime resolvedAt) {
+        this.resolvedAt = resolvedAt;
+    }
+
+    public Integer getCommentCount() {
+        return commentCount;
+    }
+
+    public void setCommentCount(Integer commentCount) {
+        this.commentCount = commentCount;
+    }
+
+    public LocalDateTime getLastCommentAt() {
+        return lastCommentAt;
+    }
+
+    public void setLastCommentAt(LocalDateTime lastCommentAt) {
+        this.lastCommentAt = lastCommentAt;
+    }
+
+    /**
+     * Date de résolution renseignée au passage à "terminé", effacée si le signalement est rouvert
+     */
+    @PrePersist
+    @PreUpdate
+    protected void stampResolvedAt() {
+        if ("terminé".equals(status)) {
+            if (resolvedAt == null) {
+                resolvedAt = updatedAt != null ? updatedAt : LocalDateTime.now();
+            }
+        } else {
+            resolvedAt = null;
+        }
+    }
+
+    public SignalementSnapshot getLoadedState() {
+        return loadedState;
+    }
+
+    public void setLoadedState(SignalementSnapshot loadedState) {
+        this.loadedState = loadedState;
+    }
 }
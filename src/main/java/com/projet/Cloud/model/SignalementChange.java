@@ -0,0 +1,39 @@
+package com.projet.Cloud.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entrée du journal des modifications de signalements, lu par le flux de deltas de l'application mobile.
+ * Le numéro de séquence est attribué au commit de l'écriture : il croît dans l'ordre des commits.
+ */
+@Entity
+@Table(name = "signalement_changes", indexes = {
+    @Index(name = "idx_signalement_changes_changed_at", columnList = "changed_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SignalementChange {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+
+    @Id
+    private Long seq;
+
+    @Column(name = "signalement_id", nullable = false)
+    private Long signalementId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "change_type", nullable = false, length = 16)
+    private Type changeType;
+
+    @Column(name = "changed_at", nullable = false)
+    private LocalDateTime changedAt;
+}
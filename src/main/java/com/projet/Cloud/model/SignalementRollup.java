@@ -0,0 +1,55 @@
+package com.projet.Cloud.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Agrégat journalier des signalements par jour de création × type × statut.
+ * Les courbes sur un an lisent au plus quelques milliers de lignes au lieu des signalements.
+ */
+@Entity
+@Table(name = "signalement_daily_rollups")
+@IdClass(SignalementRollup.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SignalementRollup {
+
+    @Id
+    @Column(name = "rollup_day")
+    private LocalDate day;
+
+    @Id
+    @Column(name = "type_id")
+    private Long typeId;
+
+    @Id
+    @Column(length = 32)
+    private String status;
+
+    @Column(name = "report_count", nullable = false)
+    private Long reportCount = 0L;
+
+    @Column(name = "budget_sum", nullable = false)
+    private Double budgetSum = 0.0;
+
+    @Column(name = "resolved_count", nullable = false)
+    private Long resolvedCount = 0L;
+
+    @Column(name = "resolution_seconds_sum", nullable = false)
+    private Long resolutionSecondsSum = 0L;  // somme de (resolvedAt - createdAt)
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private LocalDate day;
+        private Long typeId;
+        private String status;
+    }
+}
@@ -1,11 +1,13 @@
 package com.projet.Cloud.model;
 
+import com.projet.Cloud.event.CollectionVersionEntityListener;
 import jakarta.persistence.*;
 import java.util.Set;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
 @Entity
 @Table(name = "type")
+@EntityListeners(CollectionVersionEntityListener.class)
 public class SignalementType {
 
     @Id
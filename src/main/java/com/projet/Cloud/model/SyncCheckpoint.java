@@ -0,0 +1,42 @@
+package com.projet.Cloud.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Curseur persistant d'une phase de synchronisation PostgreSQL → Firebase.
+ * Permet à une exécution interrompue de reprendre après le dernier id traité.
+ */
+@Entity
+@Table(name = "sync_checkpoints")
+@Data
+@NoArgsConstructor
+public class SyncCheckpoint {
+
+    @Id
+    @Column(length = 64)
+    private String phase;  // ex: "signalements_to_firebase"
+
+    @Column(name = "last_processed_id", nullable = false)
+    private Long lastProcessedId = 0L;
+
+    @Column(name = "run_started_at", nullable = false)
+    private LocalDateTime runStartedAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;  // null tant que l'exécution n'est pas terminée
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public SyncCheckpoint(String phase) {
+        this.phase = phase;
+    }
+
+    public boolean isInProgress() {
+        return runStartedAt != null && completedAt == null;
+    }
+}
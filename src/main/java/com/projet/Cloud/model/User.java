@@ -1,5 +1,6 @@
 package com.projet.Cloud.model;
 
+import com.projet.Cloud.event.CollectionVersionEntityListener;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 import java.util.HashSet;
@@ -10,10 +11,12 @@ import com.projet.Cloud.repository.RoleRepository;
 
 @Entity
 @Table(name = "users")
+@EntityListeners(CollectionVersionEntityListener.class)
 public class User {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
 
     private String username;
@@ -0,0 +1,9 @@
+package com.projet.Cloud.repository;
+
+import com.projet.Cloud.model.ChangeCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ChangeCounterRepository extends JpaRepository<ChangeCounter, String> {
+}
@@ -0,0 +1,19 @@
+package com.projet.Cloud.repository;
+
+import com.projet.Cloud.model.CollectionVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+
+@Repository
+public interface CollectionVersionRepository extends JpaRepository<CollectionVersion, String> {
+
+    // Incrément atomique en base : deux instances qui écrivent ensemble ne perdent aucune version
+    @Modifying
+    @Query("UPDATE CollectionVersion v SET v.value = v.value + 1, v.updatedAt = :now WHERE v.name = :name")
+    int increment(@Param("name") String name, @Param("now") Instant now);
+}
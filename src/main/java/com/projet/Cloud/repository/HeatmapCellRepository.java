@@ -0,0 +1,30 @@
+package com.projet.Cloud.repository;
+
+import com.projet.Cloud.model.HeatmapCell;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface HeatmapCellRepository extends JpaRepository<HeatmapCell, HeatmapCell.Key> {
+
+    // Mailles non vides d'un niveau dans une emprise (bornes incluses)
+    @Query("SELECT c FROM HeatmapCell c WHERE c.level = :level " +
+           "AND c.cellX BETWEEN :minX AND :maxX AND c.cellY BETWEEN :minY AND :maxY " +
+           "AND c.reportCount > 0")
+    List<HeatmapCell> findCells(@Param("level") int level,
+                                @Param("minX") long minX, @Param("maxX") long maxX,
+                                @Param("minY") long minY, @Param("maxY") long maxY);
+
+    // Applique un delta à une maille existante ; 0 si elle n'existe pas encore
+    @Modifying
+    @Query("UPDATE HeatmapCell c SET c.reportCount = c.reportCount + :count, " +
+           "c.budgetSum = c.budgetSum + :budget, c.surfaceSum = c.surfaceSum + :surface " +
+           "WHERE c.level = :level AND c.cellX = :x AND c.cellY = :y")
+    int increment(@Param("level") int level, @Param("x") long x, @Param("y") long y,
+                  @Param("count") long count, @Param("budget") double budget, @Param("surface") double surface);
+}
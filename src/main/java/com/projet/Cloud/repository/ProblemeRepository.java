@@ -2,9 +2,11 @@ package com.projet.Cloud.repository;
 
 import com.projet.Cloud.model.Probleme;
 import com.projet.Cloud.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,4 +15,7 @@ public interface ProblemeRepository extends JpaRepository<Probleme, Long> {
     List<Probleme> findByStatus(String status);
     List<Probleme> findByUser(User user);
     Optional<Probleme> findByFirebaseId(String firebaseId);
+    List<Probleme> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+    Optional<Probleme> findByUserAndClientKey(User user, String clientKey);
+    List<Probleme> findByUserAndClientKeyIn(User user, Collection<String> clientKeys);
 }
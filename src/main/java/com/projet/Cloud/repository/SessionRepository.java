@@ -0,0 +1,33 @@
+package com.projet.Cloud.repository;
+
+import com.projet.Cloud.model.Session;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface SessionRepository extends JpaRepository<Session, Long> {
+
+    // Rotation conditionnelle : un seul échange gagne si le même jeton est présenté deux fois en parallèle
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Session s SET s.previousToken = s.token, s.token = :newToken, s.expiresAt = :expiresAt, " +
+           "s.lastUsedAt = :now WHERE s.id = :id AND s.token = :currentToken AND s.revokedAt IS NULL")
+    int rotate(@Param("id") Long id, @Param("currentToken") String currentToken, @Param("newToken") String newToken,
+               @Param("expiresAt") LocalDateTime expiresAt, @Param("now") LocalDateTime now);
+
+    @Query("SELECT s.id FROM Session s WHERE s.userId = :userId AND s.revokedAt IS NULL")
+    List<Long> findActiveIdsByUserId(@Param("userId") Long userId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Session s SET s.revokedAt = :now WHERE s.id IN :ids AND s.revokedAt IS NULL")
+    int revokeAll(@Param("ids") List<Long> ids, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM Session s WHERE s.expiresAt < :before")
+    int deleteExpiredBefore(@Param("before") LocalDateTime before);
+}
@@ -0,0 +1,28 @@
+package com.projet.Cloud.repository;
+
+import com.projet.Cloud.model.SignalementChange;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface SignalementChangeRepository extends JpaRepository<SignalementChange, Long> {
+
+    // Dernière séquence de chaque signalement modifié après :since, dans l'ordre des séquences
+    @Query("SELECT c.signalementId, MAX(c.seq) FROM SignalementChange c WHERE c.seq > :since " +
+           "GROUP BY c.signalementId ORDER BY MAX(c.seq)")
+    List<Object[]> findLatestSince(@Param("since") long since, Pageable pageable);
+
+    @Query("SELECT MAX(c.seq) FROM SignalementChange c WHERE c.changedAt < :before")
+    Long findMaxSeqBefore(@Param("before") LocalDateTime before);
+
+    @Modifying
+    @Query("DELETE FROM SignalementChange c WHERE c.seq <= :seq")
+    int deleteUpTo(@Param("seq") long seq);
+}
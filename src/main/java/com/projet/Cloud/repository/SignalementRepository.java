@@ -2,18 +2,27 @@ package com.projet.Cloud.repository;
 
 import com.projet.Cloud.model.Signalement;
 import com.projet.Cloud.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface SignalementRepository extends JpaRepository<Signalement, Long> {
 
     java.util.Optional<Signalement> findByFirebaseId(String firebaseId);
+
+    // Lignes visées par incrementCommentCount (document lié par firebase_id ou ID dérivé pg-{id})
+    List<Signalement> findByFirebaseIdOrId(String firebaseId, Long id);
+
+    // Parcours par pages ordonnées sur l'id (reprise de synchronisation)
+    List<Signalement> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
     
     // Récupérer tous les signalements d'un utilisateur
     List<Signalement> findByUser(User user);
@@ -44,4 +53,24 @@ public interface SignalementRepository extends JpaRepository<Signalement, Long>
     
     // Compter les signalements par statut
     long countByStatus(String status);
+
+    // Passage en masse au statut terminé (même règle que Signalement.stampResolvedAt)
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Signalement s SET s.status = :status, s.updatedAt = :now, " +
+           "s.resolvedAt = COALESCE(s.resolvedAt, :now) WHERE s.id IN :ids AND s.status <> :status")
+    int resolveAll(@Param("ids") Collection<Long> ids, @Param("status") String status, @Param("now") LocalDateTime now);
+
+    // Passage en masse à un statut non terminal : la date de résolution est effacée
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Signalement s SET s.status = :status, s.updatedAt = :now, " +
+           "s.resolvedAt = NULL WHERE s.id IN :ids AND s.status <> :status")
+    int reopenAll(@Param("ids") Collection<Long> ids, @Param("status") String status, @Param("now") LocalDateTime now);
+
+    // Commentaire ajouté dans Firestore : incrément atomique, sans passer par l'entité
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Signalement s SET s.commentCount = COALESCE(s.commentCount, 0) + 1, " +
+           "s.lastCommentAt = CASE WHEN s.lastCommentAt IS NULL OR s.lastCommentAt < :at THEN :at ELSE s.lastCommentAt END " +
+           "WHERE s.firebaseId = :firebaseId OR s.id = :localId")
+    int incrementCommentCount(@Param("firebaseId") String firebaseId, @Param("localId") Long localId,
+                              @Param("at") LocalDateTime at);
 }
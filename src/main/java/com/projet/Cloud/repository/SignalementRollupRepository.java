@@ -0,0 +1,29 @@
+package com.projet.Cloud.repository;
+
+import com.projet.Cloud.model.SignalementRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface SignalementRollupRepository extends JpaRepository<SignalementRollup, SignalementRollup.Key> {
+
+    // Agrégats non vides d'une période (bornes incluses)
+    @Query("SELECT r FROM SignalementRollup r WHERE r.day BETWEEN :from AND :to AND r.reportCount > 0 ORDER BY r.day")
+    List<SignalementRollup> findRange(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    // Applique un delta à un agrégat existant ; 0 s'il n'existe pas encore
+    @Modifying
+    @Query("UPDATE SignalementRollup r SET r.reportCount = r.reportCount + :count, " +
+           "r.budgetSum = r.budgetSum + :budget, r.resolvedCount = r.resolvedCount + :resolved, " +
+           "r.resolutionSecondsSum = r.resolutionSecondsSum + :seconds " +
+           "WHERE r.day = :day AND r.typeId = :typeId AND r.status = :status")
+    int increment(@Param("day") LocalDate day, @Param("typeId") Long typeId, @Param("status") String status,
+                  @Param("count") long count, @Param("budget") double budget,
+                  @Param("resolved") long resolved, @Param("seconds") long seconds);
+}
@@ -0,0 +1,9 @@
+package com.projet.Cloud.repository;
+
+import com.projet.Cloud.model.SyncCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface SyncCheckpointRepository extends JpaRepository<SyncCheckpoint, String> {
+}
@@ -1,8 +1,7 @@
 package com.projet.Cloud.security;
 
-import com.projet.Cloud.util.JwtUtil;
+import com.projet.Cloud.service.TokenRevocationService;
 import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
 
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -17,12 +16,20 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.List;
 
 @Component
 public class FirebaseAuthenticationFilter extends OncePerRequestFilter {
 
+    static final String LIVE_STREAM_PATH = "/api/live/stream";
+    static final String TICKET_PARAM = "ticket";
+
+    private final TokenRevocationService tokenRevocationService;
+
+    public FirebaseAuthenticationFilter(TokenRevocationService tokenRevocationService) {
+        this.tokenRevocationService = tokenRevocationService;
+    }
+
     @Override
     protected void doFilterInternal(HttpServletRequest request,
                                     HttpServletResponse response,
@@ -39,71 +46,53 @@ public class FirebaseAuthenticationFilter extends OncePerRequestFilter {
         
         // Laisser passer les requêtes publiques sans vérification du token
         if (requestPath.startsWith("/public/") || 
-            requestPath.startsWith("/actuator/") ||
+            requestPath.equals("/actuator/health") ||
+            requestPath.startsWith("/actuator/health/") ||
+            requestPath.equals("/actuator/info") ||
             requestPath.equals("/api/init-firestore") ||
             requestPath.equals("/api/auth/login") ||
             requestPath.equals("/api/auth/register") ||
+            requestPath.equals("/api/auth/refresh") ||
+            requestPath.equals("/api/auth/logout") ||
             requestPath.equals("/api/auth/sync") ||
             requestPath.equals("/api/signalement-types") ||
             requestPath.equals("/api/problemes/ouverts") ||
             requestPath.equals("/api/signalements") ||
             requestPath.equals("/api/problemes") ||
-            (requestPath.startsWith("/api/signalements/") && method.equals("PUT"))) {
+            (requestPath.startsWith("/api/signalements/") && method.equals("PUT")) ||
+            (requestPath.startsWith("/api/attachments/") && method.equals("GET"))) {
             filterChain.doFilter(request, response);
             return;
         }
 
         String authHeader = request.getHeader("Authorization");
+        // Flux SSE : ticket court en paramètre, obtenu par POST /api/live/ticket avec le jeton d'accès
+        String ticket = LIVE_STREAM_PATH.equals(requestPath) ? request.getParameter(TICKET_PARAM) : null;
+        boolean fromTicket = (authHeader == null || !authHeader.startsWith("Bearer ")) && ticket != null;
 
-        if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            String token = authHeader.substring(7);
+        if ((authHeader != null && authHeader.startsWith("Bearer ")) || fromTicket) {
+            String token = fromTicket ? ticket : authHeader.substring(7);
             try {
                 // Try to parse as JWT token
-                @SuppressWarnings("deprecation")
-                Claims claims = Jwts.parser()
-                        .setSigningKey(JwtUtil.getKey())
-                        .build()
-                        .parseClaimsJws(token)
-                        .getBody();
+                Claims claims = JwtAuthorities.parseClaims(token);
 
-                String email = claims.get("email", String.class);
-                String username = claims.get("username", String.class);
-                
-                // Extract roles from JWT claims (handle List/Set/String)
-                List<String> roles = new ArrayList<>();
-                Object rolesObj = claims.get("roles");
-                if (rolesObj instanceof List<?>) {
-                    for (Object role : (List<?>) rolesObj) {
-                        if (role != null) roles.add(role.toString());
-                    }
-                } else if (rolesObj instanceof java.util.Set<?>) {
-                    for (Object role : (java.util.Set<?>) rolesObj) {
-                        if (role != null) roles.add(role.toString());
-                    }
-                } else if (rolesObj instanceof String) {
-                    String[] parts = ((String) rolesObj).split(",");
-                    for (String part : parts) {
-                        String trimmed = part.trim();
-                        if (!trimmed.isEmpty()) roles.add(trimmed);
-                    }
-                } else if (rolesObj != null) {
-                    roles.add(rolesObj.toString());
+                // Un ticket n'ouvre que le flux SSE, un jeton d'accès ne passe pas dans l'URL
+                if (fromTicket != JwtAuthorities.hasScope(claims, JwtAuthorities.LIVE_STREAM_SCOPE)) {
+                    response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+                    response.getWriter().write("Unauthorized: Invalid token");
+                    return;
                 }
 
-                if (roles.isEmpty()) {
-                    roles.add("USER");
+                // Copie locale de la liste de révocation : quelques sondages, pas de requête SQL
+                if (tokenRevocationService.isRevoked(claims)) {
+                    response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+                    response.getWriter().write("Unauthorized: Revoked token");
+                    return;
                 }
 
-                // Convert roles to authorities
-                List<SimpleGrantedAuthority> authorities = new ArrayList<>();
-                for (String role : roles) {
-                    if (role == null || role.isBlank()) {
-                        continue;
-                    }
-                    // Ensure role has ROLE_ prefix
-                    String roleName = role.startsWith("ROLE_") ? role : "ROLE_" + role;
-                    authorities.add(new SimpleGrantedAuthority(roleName));
-                }
+                String email = claims.get("email", String.class);
+                List<SimpleGrantedAuthority> authorities =
+                        JwtAuthorities.toAuthorities(JwtAuthorities.extractRoles(claims));
 
                 UsernamePasswordAuthenticationToken authentication =
                         new UsernamePasswordAuthenticationToken(
@@ -0,0 +1,229 @@
+package com.projet.Cloud.security;
+
+import com.projet.Cloud.store.IdempotencyRecord;
+import com.projet.Cloud.store.IdempotencyStore;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * En-tête Idempotency-Key sur les créations : un envoi répété avec la même clé (réseau mobile
+ * coupé avant la réponse) reçoit la réponse d'origine, rejouée depuis le store, sans réécrire.
+ *
+ * La clé est propre à l'utilisateur et à la route. Même clé avec un autre corps : 422 ;
+ * première requête encore en cours : 409. Seules les réponses définitives sont mémorisées
+ * (2xx, 409, 422) : après un 401, un 429 ou un 5xx, le client réessaie avec la même clé.
+ * Sans en-tête, rien ne change.
+ */
+@Component
+@Slf4j
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 128;
+    private static final Set<String> PATHS = Set.of(
+            "/api/signalements",
+            "/api/problemes",
+            "/api/firebase/signalements");
+
+    private final IdempotencyStore store;
+    private final Duration ttl;
+    private final Duration lockTtl;
+    private final int maxBodyBytes;
+
+    public IdempotencyFilter(IdempotencyStore store,
+                             @Value("${idempotency.ttl:PT24H}") Duration ttl,
+                             @Value("${idempotency.lock-ttl:PT1M}") Duration lockTtl,
+                             @Value("${idempotency.max-response-bytes:262144}") int maxBodyBytes) {
+        this.store = store;
+        this.ttl = ttl;
+        this.lockTtl = lockTtl;
+        this.maxBodyBytes = maxBodyBytes;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equalsIgnoreCase(request.getMethod())
+                || request.getHeader(HEADER) == null
+                || !PATHS.contains(request.getRequestURI());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String clientKey = request.getHeader(HEADER).trim();
+        if (clientKey.isEmpty() || clientKey.length() > MAX_KEY_LENGTH) {
+            writeError(response, HttpStatus.BAD_REQUEST,
+                    HEADER + " doit contenir entre 1 et " + MAX_KEY_LENGTH + " caractères");
+            return;
+        }
+
+        CachedBodyRequest cachedRequest = new CachedBodyRequest(request);
+        String key = principal() + ":" + request.getRequestURI() + ":" + clientKey;
+        String fingerprint = sha256(cachedRequest.body);
+
+        Optional<IdempotencyRecord> existing = store.reserve(key, fingerprint, lockTtl);
+        if (existing.isPresent()) {
+            IdempotencyRecord record = existing.get();
+            if (!record.fingerprint().equals(fingerprint)) {
+                writeError(response, HttpStatus.UNPROCESSABLE_ENTITY,
+                        "Clé d'idempotence déjà utilisée pour une autre requête");
+            } else if (!record.completed()) {
+                response.setHeader("Retry-After", "1");
+                writeError(response, HttpStatus.CONFLICT, "Requête identique en cours de traitement");
+            } else {
+                replay(response, record);
+            }
+            return;
+        }
+
+        ContentCachingResponseWrapper cachedResponse = new ContentCachingResponseWrapper(response);
+        boolean stored = false;
+        try {
+            filterChain.doFilter(cachedRequest, cachedResponse);
+            int status = cachedResponse.getStatus();
+            byte[] body = cachedResponse.getContentAsByteArray();
+            if (isReplayable(status) && body.length <= maxBodyBytes) {
+                store.complete(key, new IdempotencyRecord(true, fingerprint, status,
+                        cachedResponse.getContentType(), body), ttl);
+                stored = true;
+            }
+            cachedResponse.copyBodyToResponse();
+        } finally {
+            if (!stored) {
+                store.release(key);
+            }
+        }
+    }
+
+    /**
+     * Réponses qui ne changeraient pas en rejouant la même requête ; les autres 4xx dépendent
+     * du jeton, des droits ou d'une limite de débit du moment
+     */
+    static boolean isReplayable(int status) {
+        return (status >= 200 && status < 300) || status == 409 || status == 422;
+    }
+
+    private void replay(HttpServletResponse response, IdempotencyRecord record) throws IOException {
+        log.debug("🔁 Réponse rejouée pour une clé d'idempotence ({})", record.status());
+        response.setStatus(record.status());
+        response.setHeader(REPLAYED_HEADER, "true");
+        if (record.contentType() != null) {
+            response.setContentType(record.contentType());
+        }
+        if (record.body() != null) {
+            response.setContentLength(record.body().length);
+            response.getOutputStream().write(record.body());
+        }
+    }
+
+    private static void writeError(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write("{\"error\":\"" + message.replace("\"", "'") + "\"}");
+    }
+
+    private static String principal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.isAuthenticated() ? authentication.getName() : "anonyme";
+    }
+
+    private static String sha256(byte[] body) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(body));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Corps lu une fois pour l'empreinte, puis relu normalement par le contrôleur
+     */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        private CachedBodyRequest(HttpServletRequest request) throws IOException {
+            super(request);
+            this.body = request.getInputStream().readAllBytes();
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    return input.read(buffer, offset, length);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                    encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.projet.Cloud.security;
+
+import com.projet.Cloud.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Lecture du JWT et extraction des rôles, exécutées à chaque requête authentifiée
+ */
+public final class JwtAuthorities {
+
+    /** Claim des tickets à usage limité ; absent des jetons d'accès */
+    public static final String SCOPE_CLAIM = "scope";
+    /** Ticket du flux SSE, passé en paramètre d'URL (EventSource n'envoie pas d'en-tête) */
+    public static final String LIVE_STREAM_SCOPE = "live:stream";
+
+    private JwtAuthorities() {}
+
+    /**
+     * Vérifie la signature du token et retourne ses claims
+     */
+    @SuppressWarnings("deprecation")
+    public static Claims parseClaims(String token) {
+        return Jwts.parser()
+                .setSigningKey(JwtUtil.getKey())
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+
+    /**
+     * Jeton limité à un usage (ticket) : refusé en en-tête Authorization
+     */
+    public static boolean hasScope(Claims claims, String scope) {
+        return scope.equals(claims.get(SCOPE_CLAIM, String.class));
+    }
+
+    /**
+     * Extract roles from JWT claims (handle List/Set/String)
+     */
+    public static List<String> extractRoles(Claims claims) {
+        List<String> roles = new ArrayList<>();
+        Object rolesObj = claims.get("roles");
+        if (rolesObj instanceof Collection<?>) {
+            for (Object role : (Collection<?>) rolesObj) {
+                if (role != null) roles.add(role.toString());
+            }
+        } else if (rolesObj instanceof String) {
+            String[] parts = ((String) rolesObj).split(",");
+            for (String part : parts) {
+                String trimmed = part.trim();
+                if (!trimmed.isEmpty()) roles.add(trimmed);
+            }
+        } else if (rolesObj != null) {
+            roles.add(rolesObj.toString());
+        }
+
+        if (roles.isEmpty()) {
+            roles.add("USER");
+        }
+        return roles;
+    }
+
+    /**
+     * Convert roles to authorities (ensure role has ROLE_ prefix)
+     */
+    public static List<SimpleGrantedAuthority> toAuthorities(List<String> roles) {
+        List<SimpleGrantedAuthority> authorities = new ArrayList<>();
+        for (String role : roles) {
+            if (role == null || role.isBlank()) {
+                continue;
+            }
+            String roleName = role.startsWith("ROLE_") ? role : "ROLE_" + role;
+            authorities.add(new SimpleGrantedAuthority(roleName));
+        }
+        return authorities;
+    }
+}
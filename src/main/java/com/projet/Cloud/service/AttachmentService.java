@@ -0,0 +1,108 @@
+package com.projet.Cloud.service;
+
+import com.projet.Cloud.model.Attachment;
+import com.projet.Cloud.repository.AttachmentRepository;
+import com.projet.Cloud.store.BlobStore;
+import com.projet.Cloud.store.StoredBlob;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Pièces jointes des signalements : le fichier envoyé est recopié en flux dans le BlobStore
+ * (jamais entièrement en mémoire), dédoublonné par son SHA-256, puis référencé dans le
+ * document Firestore du signalement. Les miniatures des images sont générées en arrière-plan.
+ */
+@Service
+@Slf4j
+public class AttachmentService {
+
+    public static final String URL_PREFIX = "/api/attachments/";
+
+    private final BlobStore blobStore;
+    private final AttachmentRepository attachmentRepository;
+    private final AttachmentThumbnailService thumbnailService;
+    private final FirebaseSignalementService firebaseService;
+
+    @Value("${attachments.max-bytes:20971520}")
+    private long maxBytes;
+
+    @Value("${attachments.allowed-types:image/jpeg,image/png,image/webp,application/pdf}")
+    private List<String> allowedTypes;
+
+    public AttachmentService(BlobStore blobStore,
+                             AttachmentRepository attachmentRepository,
+                             AttachmentThumbnailService thumbnailService,
+                             FirebaseSignalementService firebaseService) {
+        this.blobStore = blobStore;
+        this.attachmentRepository = attachmentRepository;
+        this.thumbnailService = thumbnailService;
+        this.firebaseService = firebaseService;
+    }
+
+    /**
+     * Stocke le fichier et l'ajoute aux pièces jointes du signalement Firestore
+     */
+    public Attachment attach(String signalementId, MultipartFile file)
+            throws IOException, ExecutionException, InterruptedException {
+        Attachment attachment = store(file);
+        firebaseService.addStoredAttachmentToSignalement(signalementId, attachment);
+        log.info("📎 Pièce jointe {} ({} octets) ajoutée au signalement {}",
+                attachment.getHash(), attachment.getSizeBytes(), signalementId);
+        return attachment;
+    }
+
+    public Attachment store(MultipartFile file) throws IOException {
+        String contentType = file.getContentType();
+        if (contentType == null || !allowedTypes.contains(contentType.toLowerCase())) {
+            throw new IllegalArgumentException("Type de fichier non accepté: " + contentType);
+        }
+
+        StoredBlob blob;
+        try (InputStream content = file.getInputStream()) {
+            blob = blobStore.put(content, maxBytes);
+        }
+
+        Optional<Attachment> existing = attachmentRepository.findById(blob.hash());
+        if (existing.isPresent()) {
+            return existing.get();
+        }
+        Attachment attachment = new Attachment(blob.hash(), contentType.toLowerCase(), blob.size(), null,
+                LocalDateTime.now());
+        try {
+            attachment = attachmentRepository.save(attachment);
+        } catch (DataIntegrityViolationException e) {
+            // Même fichier envoyé en parallèle : la première ligne fait foi
+            return attachmentRepository.findById(blob.hash()).orElseThrow(() -> e);
+        }
+
+        if (attachment.getContentType().startsWith("image/")) {
+            thumbnailService.generate(attachment.getHash());
+        }
+        return attachment;
+    }
+
+    public Optional<Attachment> find(String hash) {
+        return attachmentRepository.findById(hash);
+    }
+
+    public static String url(Attachment attachment) {
+        return URL_PREFIX + attachment.getHash();
+    }
+
+    public static String kind(String contentType) {
+        if (contentType.startsWith("image/")) {
+            return "image";
+        }
+        return contentType.startsWith("video/") ? "video" : "document";
+    }
+}
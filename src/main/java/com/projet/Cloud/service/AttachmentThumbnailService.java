@@ -0,0 +1,119 @@
+package com.projet.Cloud.service;
+
+import com.projet.Cloud.model.Attachment;
+import com.projet.Cloud.repository.AttachmentRepository;
+import com.projet.Cloud.store.BlobStore;
+import com.projet.Cloud.store.StoredBlob;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+
+/**
+ * Miniatures JPEG des photos jointes, calculées hors requête.
+ *
+ * L'image est décodée avec sous-échantillonnage (une ligne/colonne sur n) : une photo de
+ * 12 Mpx n'est jamais présente en pleine résolution dans le tas, seulement à environ deux
+ * fois la taille de la miniature.
+ */
+@Service
+@Slf4j
+public class AttachmentThumbnailService {
+
+    private final BlobStore blobStore;
+    private final AttachmentRepository attachmentRepository;
+
+    @Value("${attachments.thumbnail-size:320}")
+    private int thumbnailSize;
+
+    @Value("${attachments.max-pixels:60000000}")
+    private long maxPixels;
+
+    public AttachmentThumbnailService(BlobStore blobStore, AttachmentRepository attachmentRepository) {
+        this.blobStore = blobStore;
+        this.attachmentRepository = attachmentRepository;
+    }
+
+    @Async
+    public void generate(String hash) {
+        Attachment attachment = attachmentRepository.findById(hash).orElse(null);
+        if (attachment == null || attachment.getThumbnailHash() != null) {
+            return;
+        }
+
+        try (InputStream content = blobStore.open(hash);
+             ImageInputStream input = ImageIO.createImageInputStream(content)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                log.debug("Pas de décodeur pour la pièce jointe {} ({})", hash, attachment.getContentType());
+                return;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxPixels) {
+                    log.warn("⚠️ Miniature ignorée pour {}: {}x{} px", hash, width, height);
+                    return;
+                }
+
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = Math.max(1, Math.max(width, height) / (thumbnailSize * 2));
+                param.setSourceSubsampling(step, step, 0, 0);
+                BufferedImage decoded = reader.read(0, param);
+
+                byte[] jpeg = toJpeg(scale(decoded));
+                StoredBlob thumbnail = blobStore.put(new ByteArrayInputStream(jpeg), jpeg.length);
+                attachment.setThumbnailHash(thumbnail.hash());
+                attachmentRepository.save(attachment);
+                log.debug("🖼️ Miniature générée pour {} ({} octets)", hash, jpeg.length);
+            } finally {
+                reader.dispose();
+            }
+        } catch (Exception e) {
+            log.warn("⚠️ Miniature impossible pour la pièce jointe {}: {}", hash, e.getMessage());
+        }
+    }
+
+    private BufferedImage scale(BufferedImage source) {
+        double ratio = Math.min(1.0, (double) thumbnailSize / Math.max(source.getWidth(), source.getHeight()));
+        int width = Math.max(1, (int) Math.round(source.getWidth() * ratio));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * ratio));
+
+        // JPEG sans transparence : fond blanc pour les PNG
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = scaled.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return scaled;
+    }
+
+    private static byte[] toJpeg(BufferedImage image) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        if (!ImageIO.write(image, "jpg", output)) {
+            throw new IllegalStateException("Encodeur JPEG indisponible");
+        }
+        return output.toByteArray();
+    }
+}
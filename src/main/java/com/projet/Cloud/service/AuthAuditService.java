@@ -0,0 +1,300 @@
+package com.projet.Cloud.service;
+
+import com.projet.Cloud.store.DocumentBatch;
+import com.projet.Cloud.store.DocumentStore;
+import com.projet.Cloud.store.DocumentValues;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Journal Firestore des tentatives de connexion (loginAttempts) et des sessions (sessions).
+ *
+ * Les requêtes de connexion ne font que déposer l'événement dans une file bornée ; un thread
+ * dédié l'écrit dans Firestore par lots (WriteBatch) dès que le lot est plein ou que le délai
+ * maximal est écoulé. Si Firestore est indisponible, la file se remplit puis les événements
+ * en trop sont abandonnés et comptés (auth.audit.dropped) : l'audit n'ajoute jamais de
+ * latence à /api/auth/login.
+ */
+@Service
+@Slf4j
+public class AuthAuditService {
+
+    static final String LOGIN_ATTEMPTS = "loginAttempts";
+    static final String SESSIONS = "sessions";
+
+    private static final int MAX_BATCH_WRITES = 500;
+    private static final String AUTO_ID_ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789";
+    private static final int AUTO_ID_LENGTH = 20;
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final DocumentStore documentStore;
+    private final FirestoreRateLimiter firestoreRateLimiter;
+    private final BlockingQueue<AuditEvent> queue;
+    private final MeterRegistry meterRegistry;
+    private final Counter writtenCounter;
+    private final Thread flusher;
+    private volatile boolean running = true;
+
+    @Value("${audit.batch-size:200}")
+    private int batchSize;
+
+    @Value("${audit.flush-ms:2000}")
+    private long flushMs;
+
+    @Value("${audit.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${audit.retry-backoff-ms:5000}")
+    private long retryBackoffMs;
+
+    public AuthAuditService(DocumentStore documentStore,
+                            FirestoreRateLimiter firestoreRateLimiter,
+                            MeterRegistry meterRegistry,
+                            @Value("${audit.buffer-size:10000}") int bufferSize) {
+        this.documentStore = documentStore;
+        this.firestoreRateLimiter = firestoreRateLimiter;
+        this.meterRegistry = meterRegistry;
+        this.queue = new ArrayBlockingQueue<>(bufferSize);
+        this.writtenCounter = Counter.builder("auth.audit.written")
+                .description("Événements d'audit écrits dans Firestore")
+                .register(meterRegistry);
+        meterRegistry.gauge("auth.audit.pending", queue, BlockingQueue::size);
+        this.flusher = new Thread(this::flushLoop, "auth-audit-flusher");
+        this.flusher.setDaemon(true);
+    }
+
+    @PostConstruct
+    public void start() {
+        flusher.start();
+    }
+
+    /**
+     * Tentative de connexion ; adresse IP et User-Agent lus sur la requête en cours
+     */
+    public void recordLoginAttempt(String email, boolean success) {
+        HttpServletRequest request = currentRequest();
+        recordLoginAttempt(email, success, clientIp(request), request != null ? request.getHeader("User-Agent") : null);
+    }
+
+    public void recordLoginAttempt(String email, boolean success, String ipAddress, String userAgent) {
+        Map<String, Object> attempt = new HashMap<>();
+        attempt.put("email", email);
+        attempt.put("success", success);
+        attempt.put("attemptAt", DocumentValues.serverTimestamp());
+        attempt.put("ipAddress", ipAddress);
+        attempt.put("userAgent", userAgent);
+        if (!success) {
+            attempt.put("failureReason", "Invalid credentials");
+        }
+        enqueue(new AuditEvent(LOGIN_ATTEMPTS, autoId(), attempt));
+    }
+
+    /**
+     * Session ouverte par une connexion réussie sur la requête en cours
+     */
+    public String recordSession(Long userId, String email, String mode) {
+        Map<String, Object> session = new HashMap<>();
+        session.put("userId", userId != null ? userId.toString() : null);
+        session.put("email", email);
+        session.put("mode", mode);
+        session.put("loginAt", DocumentValues.serverTimestamp());
+        session.put("ipAddress", clientIp(currentRequest()));
+        session.put("isActive", true);
+        session.put("lastActivityAt", DocumentValues.serverTimestamp());
+        return recordSession(session);
+    }
+
+    /**
+     * Session ouverte ; l'ID du document est attribué tout de suite, l'écriture suit en lot
+     *
+     * @return ID du document de session
+     */
+    public String recordSession(Map<String, Object> session) {
+        String sessionId = autoId();
+        enqueue(new AuditEvent(SESSIONS, sessionId, new HashMap<>(session)));
+        return sessionId;
+    }
+
+    public int getPendingCount() {
+        return queue.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        flusher.interrupt();
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Dernier envoi de ce qui reste, sans nouvel essai
+        List<AuditEvent> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        for (int i = 0; i < remaining.size(); i += MAX_BATCH_WRITES) {
+            List<AuditEvent> chunk = remaining.subList(i, Math.min(i + MAX_BATCH_WRITES, remaining.size()));
+            if (!write(chunk)) {
+                for (AuditEvent event : chunk) {
+                    drop(event.collection(), "shutdown");
+                }
+            }
+        }
+    }
+
+    private void enqueue(AuditEvent event) {
+        if (!queue.offer(event)) {
+            drop(event.collection(), "buffer_full");
+        }
+    }
+
+    private void flushLoop() {
+        int size = Math.min(Math.max(batchSize, 1), MAX_BATCH_WRITES);
+        List<AuditEvent> batch = new ArrayList<>(size);
+        while (running) {
+            try {
+                AuditEvent first = queue.poll(flushMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                // Lot plein ou délai écoulé depuis le premier événement
+                long deadline = System.currentTimeMillis() + flushMs;
+                while (batch.size() < size) {
+                    queue.drainTo(batch, size - batch.size());
+                    long remaining = deadline - System.currentTimeMillis();
+                    if (batch.size() >= size || remaining <= 0) {
+                        break;
+                    }
+                    AuditEvent next = queue.poll(remaining, TimeUnit.MILLISECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                boolean written = write(batch);
+                if (!written) {
+                    retryOrDrop(batch);
+                }
+                batch.clear();
+                if (!written) {
+                    // Firestore indisponible : on laisse la file absorber au lieu d'insister
+                    Thread.sleep(retryBackoffMs);
+                }
+            } catch (InterruptedException e) {
+                // Lot en cours de constitution : il reste en file pour l'envoi final
+                requeue(batch);
+                batch.clear();
+                if (!running) {
+                    return;
+                }
+            } catch (Exception e) {
+                log.warn("⚠️ Audit: erreur inattendue du thread d'écriture: {}", e.getMessage());
+                batch.clear();
+            }
+        }
+    }
+
+    private boolean write(List<AuditEvent> events) {
+        if (events.isEmpty()) {
+            return true;
+        }
+        try {
+            DocumentBatch batch = documentStore.batch();
+            for (AuditEvent event : events) {
+                batch.set(event.collection(), event.id(), event.data());
+            }
+            firestoreRateLimiter.run(events.size(), batch::commit);
+            writtenCounter.increment(events.size());
+            log.debug("📝 Audit: {} événements écrits dans Firestore", events.size());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (Exception e) {
+            log.warn("⚠️ Audit: lot de {} événements non écrit: {}", events.size(), e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Lot en échec : les événements repartent en file jusqu'à maxAttempts, puis sont abandonnés
+     */
+    private void retryOrDrop(List<AuditEvent> events) {
+        for (AuditEvent event : events) {
+            if (event.attempts() + 1 >= maxAttempts) {
+                drop(event.collection(), "firestore_error");
+            } else {
+                enqueue(event.retried());
+            }
+        }
+    }
+
+    private void requeue(List<AuditEvent> events) {
+        for (AuditEvent event : events) {
+            enqueue(event);
+        }
+    }
+
+    private void drop(String collection, String reason) {
+        meterRegistry.counter("auth.audit.dropped", "collection", collection, "reason", reason).increment();
+    }
+
+    /**
+     * ID au format des ID automatiques Firestore, tiré localement : la requête de connexion
+     * ne touche jamais au client Firestore
+     */
+    private static String autoId() {
+        char[] id = new char[AUTO_ID_LENGTH];
+        for (int i = 0; i < id.length; i++) {
+            id[i] = AUTO_ID_ALPHABET.charAt(RANDOM.nextInt(AUTO_ID_ALPHABET.length()));
+        }
+        return new String(id);
+    }
+
+    private static HttpServletRequest currentRequest() {
+        return RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes
+                ? attributes.getRequest()
+                : null;
+    }
+
+    private static String clientIp(HttpServletRequest request) {
+        if (request == null) {
+            return null;
+        }
+        String forwarded = request.getHeader("X-Forwarded-For");
+        if (forwarded != null && !forwarded.isBlank()) {
+            return forwarded.split(",")[0].trim();
+        }
+        return request.getRemoteAddr();
+    }
+
+    private record AuditEvent(String collection, String id, Map<String, Object> data, int attempts) {
+
+        AuditEvent(String collection, String id, Map<String, Object> data) {
+            this(collection, id, data, 0);
+        }
+
+        AuditEvent retried() {
+            return new AuditEvent(collection, id, data, attempts + 1);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.projet.Cloud.service;
+
+import com.projet.Cloud.model.CollectionVersion;
+import com.projet.Cloud.repository.CollectionVersionRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Numéros de version des collections exposées en liste, incrémentés à chaque écriture.
+ *
+ * Les contrôleurs en tirent un ETag / Last-Modified et répondent 304 sans lire les données.
+ * Les versions sont des lignes de {@code collection_versions}, communes à toutes les instances :
+ * une écriture sur un nœud invalide les caches servis par les autres. Chaque instance garde
+ * une copie locale relue au plus toutes les {@code collection-versions.cache-ttl-ms}.
+ */
+@Service
+@Slf4j
+public class CollectionVersionService {
+
+    public static final String SIGNALEMENTS = "signalements";
+    public static final String PROBLEMES = "problemes";
+    public static final String SIGNALEMENT_TYPES = "signalement-types";
+    public static final String USERS = "users";
+
+    private final CollectionVersionRepository versionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private volatile Snapshot snapshot;
+
+    @Value("${collection-versions.cache-ttl-ms:1000}")
+    private long cacheTtlMs;
+
+    public CollectionVersionService(CollectionVersionRepository versionRepository,
+                                    PlatformTransactionManager transactionManager) {
+        this.versionRepository = versionRepository;
+        // Incrément après le commit de l'écriture : la transaction d'origine est terminée
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * ETag faible et date de dernière modification d'un ensemble de collections
+     */
+    public record Tag(String etag, long lastModified) {}
+
+    /**
+     * Crée les lignes au démarrage, pour que les écritures n'aient jamais à les insérer en concurrence
+     */
+    @PostConstruct
+    public void initVersions() {
+        for (String name : List.of(SIGNALEMENTS, PROBLEMES, SIGNALEMENT_TYPES, USERS)) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    if (!versionRepository.existsById(name)) {
+                        versionRepository.saveAndFlush(new CollectionVersion(name, 0L, Instant.now()));
+                    }
+                });
+            } catch (DataIntegrityViolationException e) {
+                log.debug("Version {} déjà créée", name);
+            }
+        }
+    }
+
+    /**
+     * Signale une écriture ; appliquée au commit s'il y a une transaction en cours, pour qu'un
+     * lecteur ne puisse pas associer la nouvelle version aux anciennes données. Les écritures
+     * d'une même transaction ne font qu'un incrément par collection.
+     */
+    public void bump(String collection) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            increment(Set.of(collection));
+            return;
+        }
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof PendingBumps pending) {
+                pending.collections.add(collection);
+                return;
+            }
+        }
+        PendingBumps pending = new PendingBumps();
+        pending.collections.add(collection);
+        TransactionSynchronizationManager.registerSynchronization(pending);
+    }
+
+    public Tag tag(String... collections) {
+        Map<String, CollectionVersion> versions = snapshot().versions();
+        StringBuilder etag = new StringBuilder("W/\"");
+        long lastModified = 0;
+        for (String collection : collections) {
+            CollectionVersion version = versions.get(collection);
+            long value = version != null ? version.getValue() : 0L;
+            long updatedAt = version != null ? version.getUpdatedAt().toEpochMilli() : 0L;
+            // La date distingue deux compteurs égaux après une remise à zéro de la base
+            etag.append(value).append('.').append(Long.toString(updatedAt, 36)).append('-');
+            lastModified = Math.max(lastModified, updatedAt);
+        }
+        if (collections.length > 0) {
+            etag.setLength(etag.length() - 1);
+        }
+        return new Tag(etag.append('"').toString(), lastModified);
+    }
+
+    private void increment(Collection<String> collections) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Instant now = Instant.now();
+                // Ordre fixe : deux transactions ne se verrouillent jamais mutuellement
+                for (String collection : new TreeSet<>(collections)) {
+                    if (versionRepository.increment(collection, now) == 0) {
+                        versionRepository.saveAndFlush(new CollectionVersion(collection, 1L, now));
+                    }
+                }
+            });
+            log.debug("Collections {} modifiées", collections);
+        } catch (RuntimeException e) {
+            // L'écriture est déjà validée : on ne la fait pas échouer pour un ETag
+            log.warn("⚠️ Version de {} non incrémentée: {}", collections, e.getMessage());
+        }
+        snapshot = null;
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current != null && System.nanoTime() - current.loadedAtNanos() < TimeUnit.MILLISECONDS.toNanos(cacheTtlMs)) {
+            return current;
+        }
+        Map<String, CollectionVersion> versions = new HashMap<>();
+        for (CollectionVersion version : versionRepository.findAll()) {
+            versions.put(version.getName(), version);
+        }
+        current = new Snapshot(versions, System.nanoTime());
+        snapshot = current;
+        return current;
+    }
+
+    private record Snapshot(Map<String, CollectionVersion> versions, long loadedAtNanos) {}
+
+    private final class PendingBumps implements TransactionSynchronization {
+        private final Set<String> collections = new TreeSet<>();
+
+        @Override
+        public void afterCommit() {
+            increment(collections);
+        }
+    }
+}
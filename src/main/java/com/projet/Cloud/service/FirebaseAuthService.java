@@ -11,6 +11,7 @@ import com.projet.Cloud.service.AuthService;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseAuthException;
 import com.google.firebase.auth.UserRecord;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 import com.projet.Cloud.model.Role;
@@ -24,11 +25,14 @@ public class FirebaseAuthService implements AuthService {
 
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
+    private final ObjectProvider<FirebaseAuth> firebaseAuth;
     private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
 
-    public FirebaseAuthService(UserRepository userRepository, RoleRepository roleRepository) {
+    public FirebaseAuthService(UserRepository userRepository, RoleRepository roleRepository,
+                               ObjectProvider<FirebaseAuth> firebaseAuth) {
         this.userRepository = userRepository;
         this.roleRepository = roleRepository;
+        this.firebaseAuth = firebaseAuth;
     }
 
     @Override
@@ -54,7 +58,7 @@ public class FirebaseAuthService implements AuthService {
 
         UserRecord firebaseUser;
         try {
-            firebaseUser = FirebaseAuth.getInstance().createUser(firebaseRequest);
+            firebaseUser = firebaseAuth.getObject().createUser(firebaseRequest);
         } catch (FirebaseAuthException e) {
             throw new RuntimeException("Impossible de créer l'utilisateur Firebase: " + e.getMessage());
         }
@@ -136,7 +140,7 @@ public class FirebaseAuthService implements AuthService {
             updateRequest.setPassword(request.getPassword());
         }
 
-        FirebaseAuth.getInstance().updateUser(updateRequest);
+        firebaseAuth.getObject().updateUser(updateRequest);
     }
 
     private String normalizeEmail(String email) {
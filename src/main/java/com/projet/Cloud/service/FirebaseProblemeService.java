@@ -1,11 +1,11 @@
 package com.projet.Cloud.service;
 
-import com.google.cloud.firestore.DocumentReference;
-import com.google.cloud.firestore.DocumentSnapshot;
-import com.google.cloud.firestore.Firestore;
-import com.google.cloud.firestore.QuerySnapshot;
-import com.google.firebase.cloud.FirestoreClient;
 import com.projet.Cloud.model.Probleme;
+import com.projet.Cloud.store.DocumentQuery;
+import com.projet.Cloud.store.DocumentStore;
+import com.projet.Cloud.store.StoredDocument;
+import com.projet.Cloud.util.SyncDocumentIds;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
@@ -17,22 +17,24 @@ import java.util.Map;
 import java.util.concurrent.ExecutionException;
 
 @Service
+@RequiredArgsConstructor
 @Slf4j
 public class FirebaseProblemeService {
 
+    private final DocumentStore documentStore;
+
     /**
      * Récupère tous les problèmes depuis Firebase Firestore
      * Inclut l'ID du document Firebase pour la synchronisation
      */
     public List<Map<String, Object>> getAllProblemes() {
         try {
-            Firestore firestore = FirestoreClient.getFirestore();
-            QuerySnapshot querySnapshot = firestore.collection("problemes").get().get();
+            List<StoredDocument> documents = documentStore.query(DocumentQuery.collection("problemes"));
 
             List<Map<String, Object>> results = new ArrayList<>();
-            for (DocumentSnapshot doc : querySnapshot.getDocuments()) {
-                Map<String, Object> data = new HashMap<>(doc.getData());
-                data.put("firebaseId", doc.getId()); // Ajouter l'ID du document
+            for (StoredDocument doc : documents) {
+                Map<String, Object> data = new HashMap<>(doc.data());
+                data.put("firebaseId", doc.id()); // Ajouter l'ID du document
                 results.add(data);
             }
 
@@ -49,16 +51,13 @@ public class FirebaseProblemeService {
      */
     public List<Map<String, Object>> getOpenProblemes() {
         try {
-            Firestore firestore = FirestoreClient.getFirestore();
-            QuerySnapshot querySnapshot = firestore.collection("problemes")
-                    .whereEqualTo("status", "ouvert")
-                    .get()
-                    .get();
+            List<StoredDocument> documents = documentStore.query(DocumentQuery.collection("problemes")
+                    .whereEqualTo("status", "ouvert"));
 
             List<Map<String, Object>> results = new ArrayList<>();
-            for (DocumentSnapshot doc : querySnapshot.getDocuments()) {
-                Map<String, Object> data = new HashMap<>(doc.getData());
-                data.put("firebaseId", doc.getId());
+            for (StoredDocument doc : documents) {
+                Map<String, Object> data = new HashMap<>(doc.data());
+                data.put("firebaseId", doc.id());
                 results.add(data);
             }
 
@@ -72,15 +71,15 @@ public class FirebaseProblemeService {
     
     /**
      * Créer un problème à partir d'un objet Probleme (pour synchronisation)
+     * L'ID du document est dérivé de l'ID PostgreSQL : rejouer la création est idempotent
      */
     public String createProbleme(Probleme probleme) 
             throws ExecutionException, InterruptedException {
         
         log.info("Création problème dans Firestore depuis PostgreSQL (id={})", probleme.getId());
         
-        Firestore firestore = FirestoreClient.getFirestore();
-        
         Map<String, Object> problemeData = new HashMap<>();
+        problemeData.put("localId", probleme.getId());
         problemeData.put("userId", probleme.getUser().getId().toString());
         problemeData.put("firebaseUid", probleme.getUser().getFirebaseUid());
         problemeData.put("userEmail", probleme.getUser().getEmail());
@@ -96,11 +95,11 @@ public class FirebaseProblemeService {
         problemeData.put("createdAt", probleme.getCreatedAt());
         problemeData.put("updatedAt", probleme.getUpdatedAt());
         
-        DocumentReference docRef = firestore.collection("problemes").document();
-        docRef.set(problemeData).get();
+        String documentId = SyncDocumentIds.fromLocalId(probleme.getId());
+        documentStore.set("problemes", documentId, problemeData);
         
-        log.info("✅ Problème créé dans Firebase: {}", docRef.getId());
-        return docRef.getId();
+        log.info("✅ Problème créé dans Firebase: {}", documentId);
+        return documentId;
     }
     
     /**
@@ -111,9 +110,8 @@ public class FirebaseProblemeService {
         
         log.info("Mise à jour problème dans Firestore: {}", firebaseId);
         
-        Firestore firestore = FirestoreClient.getFirestore();
-        
         Map<String, Object> updates = new HashMap<>();
+        updates.put("localId", probleme.getId());
         updates.put("userId", probleme.getUser().getId().toString());
         updates.put("firebaseUid", probleme.getUser().getFirebaseUid());
         updates.put("userEmail", probleme.getUser().getEmail());
@@ -128,10 +126,7 @@ public class FirebaseProblemeService {
         updates.put("status", probleme.getStatus() != null ? probleme.getStatus() : "ouvert");
         updates.put("updatedAt", LocalDateTime.now());
         
-        firestore.collection("problemes")
-                .document(firebaseId)
-                .update(updates)
-                .get();
+        documentStore.update("problemes", firebaseId, updates);
         
         log.info("✅ Problème mis à jour dans Firebase: {}", firebaseId);
     }
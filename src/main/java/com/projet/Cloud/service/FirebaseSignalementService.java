@@ -1,15 +1,22 @@
 package com.projet.Cloud.service;
 
-import com.google.cloud.firestore.*;
-import com.google.firebase.cloud.FirestoreClient;
+import com.google.cloud.Timestamp;
 import com.projet.Cloud.dto.CreateSignalementRequest;
 import com.projet.Cloud.dto.SignalementTypeDto;
 import com.projet.Cloud.dto.UpdateSignalementRequest;
 import com.projet.Cloud.model.*;
+import com.projet.Cloud.store.DocumentBatch;
+import com.projet.Cloud.store.DocumentQuery;
+import com.projet.Cloud.store.DocumentStore;
+import com.projet.Cloud.store.DocumentValues;
+import com.projet.Cloud.store.StoredDocument;
+import com.projet.Cloud.util.FirestoreValues;
+import com.projet.Cloud.util.SyncDocumentIds;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.concurrent.ExecutionException;
@@ -20,7 +27,12 @@ import java.util.stream.Collectors;
 @Slf4j
 public class FirebaseSignalementService {
 
-    private final Firestore firestore;
+    private static final int MAX_BATCH_WRITES = 500;
+    public static final int MAX_COMMENTS_PAGE = 100;
+
+    private final DocumentStore documentStore;
+    private final FirestoreRateLimiter firestoreRateLimiter;
+    private final AuthAuditService authAuditService;
 
     /**
      * Créer un signalement dans Firestore
@@ -39,17 +51,16 @@ public class FirebaseSignalementService {
         signalementData.put("surfaceM2", request.getSurfaceM2());
         signalementData.put("budget", request.getBudget());
         signalementData.put("status", "nouveau");
-        signalementData.put("dateSignalement", FieldValue.serverTimestamp());
-        signalementData.put("createdAt", FieldValue.serverTimestamp());
+        signalementData.put("dateSignalement", DocumentValues.serverTimestamp());
+        signalementData.put("createdAt", DocumentValues.serverTimestamp());
         signalementData.put("location", createLocationMap(request.getLatitude(), request.getLongitude()));
         signalementData.put("attachments", new ArrayList<>());
         signalementData.put("assignedTo", null);
         
-        DocumentReference docRef = firestore.collection("signalements").document();
-        docRef.set(signalementData).get();
+        String signalementId = documentStore.add("signalements", signalementData);
         
-        log.info("Signalement créé avec l'ID: {}", docRef.getId());
-        return docRef.getId();
+        log.info("Signalement créé avec l'ID: {}", signalementId);
+        return signalementId;
     }
 
     /**
@@ -58,15 +69,9 @@ public class FirebaseSignalementService {
     public Map<String, Object> getSignalementById(String signalementId) 
             throws ExecutionException, InterruptedException {
         
-        DocumentSnapshot document = firestore.collection("signalements")
-                .document(signalementId)
-                .get()
-                .get();
-        
-        if (document.exists()) {
-            return document.getData();
-        }
-        return null;
+        return documentStore.get("signalements", signalementId)
+                .map(StoredDocument::data)
+                .orElse(null);
     }
 
     /**
@@ -75,14 +80,12 @@ public class FirebaseSignalementService {
     public List<Map<String, Object>> getAllSignalements() 
             throws ExecutionException, InterruptedException {
         
-        QuerySnapshot querySnapshot = firestore.collection("signalements")
-                .get()
-                .get();
+        List<StoredDocument> documents = documentStore.query(DocumentQuery.collection("signalements"));
         
-        return querySnapshot.getDocuments().stream()
+        return documents.stream()
                 .map(document -> {
-                    Map<String, Object> data = new HashMap<>(document.getData());
-                    data.put("firebaseId", document.getId());
+                    Map<String, Object> data = new HashMap<>(document.data());
+                    data.put("firebaseId", document.id());
                     return data;
                 })
                 .collect(Collectors.toList());
@@ -94,14 +97,12 @@ public class FirebaseSignalementService {
     public List<Map<String, Object>> getSignalementsByUser(Long userId) 
             throws ExecutionException, InterruptedException {
         
-        QuerySnapshot querySnapshot = firestore.collection("signalements")
+        List<StoredDocument> documents = documentStore.query(DocumentQuery.collection("signalements")
                 .whereEqualTo("userId", userId.toString())
-                .orderBy("createdAt", Query.Direction.DESCENDING)
-                .get()
-                .get();
+                .orderByDescending("createdAt"));
         
-        return querySnapshot.getDocuments().stream()
-                .map(DocumentSnapshot::getData)
+        return documents.stream()
+                .map(StoredDocument::data)
                 .collect(Collectors.toList());
     }
 
@@ -111,14 +112,12 @@ public class FirebaseSignalementService {
     public List<Map<String, Object>> getSignalementsByStatus(String status) 
             throws ExecutionException, InterruptedException {
         
-        QuerySnapshot querySnapshot = firestore.collection("signalements")
+        List<StoredDocument> documents = documentStore.query(DocumentQuery.collection("signalements")
                 .whereEqualTo("status", status)
-                .orderBy("createdAt", Query.Direction.DESCENDING)
-                .get()
-                .get();
+                .orderByDescending("createdAt"));
         
-        return querySnapshot.getDocuments().stream()
-                .map(DocumentSnapshot::getData)
+        return documents.stream()
+                .map(StoredDocument::data)
                 .collect(Collectors.toList());
     }
 
@@ -128,14 +127,12 @@ public class FirebaseSignalementService {
     public List<Map<String, Object>> getSignalementsByType(Long typeId) 
             throws ExecutionException, InterruptedException {
         
-        QuerySnapshot querySnapshot = firestore.collection("signalements")
+        List<StoredDocument> documents = documentStore.query(DocumentQuery.collection("signalements")
                 .whereEqualTo("typeId", typeId.toString())
-                .orderBy("createdAt", Query.Direction.DESCENDING)
-                .get()
-                .get();
+                .orderByDescending("createdAt"));
         
-        return querySnapshot.getDocuments().stream()
-                .map(DocumentSnapshot::getData)
+        return documents.stream()
+                .map(StoredDocument::data)
                 .collect(Collectors.toList());
     }
 
@@ -146,16 +143,14 @@ public class FirebaseSignalementService {
                                                            Double minLon, Double maxLon) 
             throws ExecutionException, InterruptedException {
         
-        QuerySnapshot querySnapshot = firestore.collection("signalements")
+        List<StoredDocument> documents = documentStore.query(DocumentQuery.collection("signalements")
                 .whereGreaterThanOrEqualTo("latitude", minLat)
                 .whereLessThanOrEqualTo("latitude", maxLat)
                 .whereGreaterThanOrEqualTo("longitude", minLon)
-                .whereLessThanOrEqualTo("longitude", maxLon)
-                .get()
-                .get();
+                .whereLessThanOrEqualTo("longitude", maxLon));
         
-        return querySnapshot.getDocuments().stream()
-                .map(DocumentSnapshot::getData)
+        return documents.stream()
+                .map(StoredDocument::data)
                 .collect(Collectors.toList());
     }
 
@@ -185,12 +180,9 @@ public class FirebaseSignalementService {
             updates.put("entrepriseConcernee", request.getEntrepriseConcernee());
         }
         
-        updates.put("updatedAt", FieldValue.serverTimestamp());
+        updates.put("updatedAt", DocumentValues.serverTimestamp());
         
-        firestore.collection("signalements")
-                .document(signalementId)
-                .update(updates)
-                .get();
+        documentStore.update("signalements", signalementId, updates);
     }
 
     /**
@@ -200,10 +192,7 @@ public class FirebaseSignalementService {
             throws ExecutionException, InterruptedException {
         
         log.info("Suppression du signalement: {}", signalementId);
-        firestore.collection("signalements")
-                .document(signalementId)
-                .delete()
-                .get();
+        documentStore.delete("signalements", signalementId);
     }
 
     /**
@@ -220,12 +209,9 @@ public class FirebaseSignalementService {
         typeData.put("iconColor", type.getIconColor());
         typeData.put("iconSymbol", type.getIconSymbol());
         typeData.put("isActive", true);
-        typeData.put("createdAt", FieldValue.serverTimestamp());
+        typeData.put("createdAt", DocumentValues.serverTimestamp());
         
-        firestore.collection("signalementTypes")
-                .document(typeId.toString())
-                .set(typeData, SetOptions.merge())
-                .get();
+        documentStore.merge("signalementTypes", typeId.toString(), typeData);
         
         return typeId.toString();
     }
@@ -236,13 +222,11 @@ public class FirebaseSignalementService {
     public List<Map<String, Object>> getAllSignalementTypes() 
             throws ExecutionException, InterruptedException {
         
-        QuerySnapshot querySnapshot = firestore.collection("signalementTypes")
-                .whereEqualTo("isActive", true)
-                .get()
-                .get();
+        List<StoredDocument> documents = documentStore.query(DocumentQuery.collection("signalementTypes")
+                .whereEqualTo("isActive", true));
         
-        return querySnapshot.getDocuments().stream()
-                .map(DocumentSnapshot::getData)
+        return documents.stream()
+                .map(StoredDocument::data)
                 .collect(Collectors.toList());
     }
 
@@ -263,12 +247,9 @@ public class FirebaseSignalementService {
                 .map(Role::getName)
                 .collect(Collectors.toList()));
         userData.put("isActive", true);
-        userData.put("createdAt", FieldValue.serverTimestamp());
+        userData.put("createdAt", DocumentValues.serverTimestamp());
         
-        firestore.collection("users")
-                .document(userId.toString())
-                .set(userData, SetOptions.merge())
-                .get();
+        documentStore.merge("users", userId.toString(), userData);
         
         return userId.toString();
     }
@@ -279,33 +260,103 @@ public class FirebaseSignalementService {
     public Map<String, Object> getUserById(Long userId) 
             throws ExecutionException, InterruptedException {
         
-        DocumentSnapshot document = firestore.collection("users")
-                .document(userId.toString())
-                .get()
-                .get();
-        
-        if (document.exists()) {
-            return document.getData();
-        }
-        return null;
+        return documentStore.get("users", userId.toString())
+                .map(StoredDocument::data)
+                .orElse(null);
     }
 
     /**
-     * Ajouter un commentaire à un signalement
+     * Page de commentaires, du plus récent au plus ancien ; nextCursor null sur la dernière page
+     */
+    public record CommentPage(List<Map<String, Object>> comments, String nextCursor) {}
+
+    /**
+     * Ajouter un commentaire à un signalement. Le commentaire et les compteurs du document
+     * parent (commentCount, lastCommentAt) sont écrits dans le même lot atomique : les listes
+     * affichent le nombre de commentaires sans lire la sous-collection.
+     *
+     * @return ID du commentaire créé
      */
-    public void addCommentToSignalement(String signalementId, Long userId, String commentText) 
+    public String addCommentToSignalement(String signalementId, Long userId, String commentText)
             throws ExecutionException, InterruptedException {
-        
+
+        String collection = "signalements/" + signalementId + "/comments";
+        String commentId = documentStore.newId(collection);
+
         Map<String, Object> comment = new HashMap<>();
         comment.put("userId", userId.toString());
         comment.put("text", commentText);
-        comment.put("createdAt", FieldValue.serverTimestamp());
-        
-        firestore.collection("signalements")
-                .document(signalementId)
-                .collection("comments")
-                .add(comment)
-                .get();
+        comment.put("createdAt", DocumentValues.serverTimestamp());
+
+        // update échoue si le signalement n'existe pas : aucun commentaire orphelin n'est écrit
+        documentStore.batch()
+                .set(collection, commentId, comment)
+                .update("signalements", signalementId, Map.of(
+                        "commentCount", DocumentValues.increment(1),
+                        "lastCommentAt", DocumentValues.serverTimestamp()))
+                .commit();
+        return commentId;
+    }
+
+    /**
+     * Commentaires d'un signalement par pages, curseur sur la date de création puis l'ID
+     * du document (plusieurs commentaires peuvent partager la même date)
+     */
+    public CommentPage getComments(String signalementId, String cursor, int limit)
+            throws ExecutionException, InterruptedException {
+
+        int size = Math.min(Math.max(limit, 1), MAX_COMMENTS_PAGE);
+        DocumentQuery query = DocumentQuery.collection("signalements/" + signalementId + "/comments")
+                .orderByDescending("createdAt")
+                .orderByDescending(DocumentQuery.DOCUMENT_ID)
+                .limit(size + 1);
+        if (cursor != null && !cursor.isBlank()) {
+            CommentCursor position = decodeCommentCursor(cursor);
+            query.startAfter(position.createdAt(), position.documentId());
+        }
+
+        List<StoredDocument> documents = documentStore.query(query);
+        boolean hasMore = documents.size() > size;
+        if (hasMore) {
+            documents = documents.subList(0, size);
+        }
+
+        List<Map<String, Object>> comments = new ArrayList<>(documents.size());
+        for (StoredDocument document : documents) {
+            Map<String, Object> comment = new LinkedHashMap<>();
+            comment.put("id", document.id());
+            comment.put("userId", document.getString("userId"));
+            comment.put("text", document.getString("text"));
+            comment.put("createdAt", FirestoreValues.toLocalDateTime(document.get("createdAt")));
+            comments.add(comment);
+        }
+
+        String nextCursor = null;
+        StoredDocument last = documents.isEmpty() ? null : documents.get(documents.size() - 1);
+        if (hasMore && last.get("createdAt") instanceof Timestamp lastCreatedAt) {
+            nextCursor = encodeCommentCursor(new CommentCursor(lastCreatedAt, last.id()));
+        }
+        return new CommentPage(comments, nextCursor);
+    }
+
+    record CommentCursor(Timestamp createdAt, String documentId) {}
+
+    static String encodeCommentCursor(CommentCursor cursor) {
+        String plain = "v2." + cursor.createdAt().getSeconds() + "." + cursor.createdAt().getNanos() + "." + cursor.documentId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(plain.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static CommentCursor decodeCommentCursor(String cursor) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\.", 4);
+            if (parts.length != 4 || !"v2".equals(parts[0]) || parts[3].isEmpty()) {
+                throw new IllegalArgumentException();
+            }
+            return new CommentCursor(
+                    Timestamp.ofTimeSecondsAndNanos(Long.parseLong(parts[1]), Integer.parseInt(parts[2])), parts[3]);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Curseur invalide: " + cursor);
+        }
     }
 
     /**
@@ -317,12 +368,33 @@ public class FirebaseSignalementService {
         Map<String, Object> attachment = new HashMap<>();
         attachment.put("url", url);
         attachment.put("type", type); // image, video, document
-        attachment.put("uploadedAt", FieldValue.serverTimestamp());
-        
-        firestore.collection("signalements")
-                .document(signalementId)
-                .update("attachments", FieldValue.arrayUnion(attachment))
-                .get();
+        attachment.put("uploadedAt", DocumentValues.serverTimestamp());
+
+        documentStore.update("signalements", signalementId,
+                Map.of("attachments", DocumentValues.arrayUnion(attachment)));
+    }
+
+    /**
+     * Ajouter une pièce jointe envoyée au backend (BlobStore) ; la miniature est servie
+     * par /api/attachments/{hash}/thumbnail dès qu'elle est générée
+     */
+    public void addStoredAttachmentToSignalement(String signalementId, Attachment stored)
+            throws ExecutionException, InterruptedException {
+
+        String url = AttachmentService.url(stored);
+        Map<String, Object> attachment = new HashMap<>();
+        attachment.put("url", url);
+        attachment.put("type", AttachmentService.kind(stored.getContentType()));
+        attachment.put("hash", stored.getHash());
+        attachment.put("contentType", stored.getContentType());
+        attachment.put("size", stored.getSizeBytes());
+        if (stored.getContentType().startsWith("image/")) {
+            attachment.put("thumbnailUrl", url + "/thumbnail");
+        }
+        attachment.put("uploadedAt", LocalDateTime.now().toString());
+
+        documentStore.update("signalements", signalementId,
+                Map.of("attachments", DocumentValues.arrayUnion(attachment)));
     }
 
     /**
@@ -331,60 +403,37 @@ public class FirebaseSignalementService {
     public Map<String, Object> getDailyStatistics() 
             throws ExecutionException, InterruptedException {
         
-        QuerySnapshot querySnapshot = firestore.collection("statistics")
-                .orderBy("date", Query.Direction.DESCENDING)
-                .limit(1)
-                .get()
-                .get();
+        List<StoredDocument> documents = documentStore.query(DocumentQuery.collection("statistics")
+                .orderByDescending("date")
+                .limit(1));
         
-        if (!querySnapshot.isEmpty()) {
-            return querySnapshot.getDocuments().get(0).getData();
+        if (!documents.isEmpty()) {
+            return documents.get(0).data();
         }
         return new HashMap<>();
     }
 
     /**
-     * Enregistrer une tentative de connexion
+     * Enregistrer une tentative de connexion (écriture Firestore différée, par lots)
      */
-    public void logLoginAttempt(String email, boolean success, String ipAddress, String userAgent) 
-            throws ExecutionException, InterruptedException {
-        
-        Map<String, Object> attempt = new HashMap<>();
-        attempt.put("email", email);
-        attempt.put("success", success);
-        attempt.put("attemptAt", FieldValue.serverTimestamp());
-        attempt.put("ipAddress", ipAddress);
-        attempt.put("userAgent", userAgent);
-        
-        if (!success) {
-            attempt.put("failureReason", "Invalid credentials");
-        }
-        
-        firestore.collection("loginAttempts")
-                .add(attempt)
-                .get();
+    public void logLoginAttempt(String email, boolean success, String ipAddress, String userAgent) {
+        authAuditService.recordLoginAttempt(email, success, ipAddress, userAgent);
     }
 
     /**
-     * Créer une session utilisateur
+     * Créer une session utilisateur ; l'ID est connu tout de suite, le document est écrit en lot
      */
-    public String createSession(Long userId, String firebaseToken, String refreshToken, String ipAddress) 
-            throws ExecutionException, InterruptedException {
-        
+    public String createSession(Long userId, String firebaseToken, String refreshToken, String ipAddress) {
         Map<String, Object> session = new HashMap<>();
         session.put("userId", userId.toString());
         session.put("firebaseToken", firebaseToken);
         session.put("refreshToken", refreshToken);
-        session.put("loginAt", FieldValue.serverTimestamp());
+        session.put("loginAt", DocumentValues.serverTimestamp());
         session.put("ipAddress", ipAddress);
         session.put("isActive", true);
-        session.put("lastActivityAt", FieldValue.serverTimestamp());
-        
-        DocumentReference docRef = firestore.collection("sessions")
-                .add(session)
-                .get();
-        
-        return docRef.getId();
+        session.put("lastActivityAt", DocumentValues.serverTimestamp());
+
+        return authAuditService.recordSession(session);
     }
 
     /**
@@ -403,23 +452,53 @@ public class FirebaseSignalementService {
 
     /**
      * Batch write pour opérations multiples
+     * Découpé en lots de 500 (limite Firestore) et cadencé par le limiteur partagé
      */
     public void batchWriteSignalements(List<Map<String, Object>> signalements) 
             throws ExecutionException, InterruptedException {
         
-        WriteBatch batch = firestore.batch();
-        
-        for (Map<String, Object> signalementData : signalements) {
-            DocumentReference docRef = firestore.collection("signalements").document();
-            signalementData.put("createdAt", FieldValue.serverTimestamp());
-            batch.set(docRef, signalementData);
+        for (int from = 0; from < signalements.size(); from += MAX_BATCH_WRITES) {
+            List<Map<String, Object>> chunk = signalements.subList(from, Math.min(from + MAX_BATCH_WRITES, signalements.size()));
+            DocumentBatch batch = documentStore.batch();
+            
+            for (Map<String, Object> signalementData : chunk) {
+                signalementData.put("createdAt", DocumentValues.serverTimestamp());
+                batch.set("signalements", documentStore.newId("signalements"), signalementData);
+            }
+            
+            firestoreRateLimiter.run(chunk.size(), batch::commit);
         }
-        
-        batch.commit().get();
     }
     
+    /**
+     * Même statut pour plusieurs documents, par lots de 500 cadencés par le limiteur partagé.
+     * Un lot en échec (document absent...) n'empêche pas les suivants ; la réconciliation rattrape l'écart.
+     *
+     * @return nombre de documents mis à jour
+     */
+    public int batchUpdateStatus(List<String> firebaseIds, String status) throws InterruptedException {
+        int written = 0;
+        for (int from = 0; from < firebaseIds.size(); from += MAX_BATCH_WRITES) {
+            List<String> chunk = firebaseIds.subList(from, Math.min(from + MAX_BATCH_WRITES, firebaseIds.size()));
+            DocumentBatch batch = documentStore.batch();
+            for (String firebaseId : chunk) {
+                batch.update("signalements", firebaseId, Map.of(
+                        "status", status,
+                        "updatedAt", DocumentValues.serverTimestamp()));
+            }
+            try {
+                firestoreRateLimiter.run(chunk.size(), batch::commit);
+                written += chunk.size();
+            } catch (ExecutionException e) {
+                log.warn("⚠️ Lot Firestore de {} statuts en échec: {}", chunk.size(), e.getMessage());
+            }
+        }
+        return written;
+    }
+
     /**
      * Créer un signalement à partir d'un objet Signalement (pour synchronisation)
+     * L'ID du document est dérivé de l'ID PostgreSQL : rejouer la création est idempotent
      */
     public String createSignalement(Signalement signalement) 
             throws ExecutionException, InterruptedException {
@@ -427,6 +506,7 @@ public class FirebaseSignalementService {
         log.info("Création signalement dans Firestore depuis PostgreSQL (id={})", signalement.getId());
         
         Map<String, Object> signalementData = new HashMap<>();
+        signalementData.put("localId", signalement.getId());
         signalementData.put("userId", signalement.getUser().getId().toString());
         signalementData.put("firebaseUid", signalement.getUser().getFirebaseUid());
         signalementData.put("userEmail", signalement.getUser().getEmail());
@@ -441,11 +521,11 @@ public class FirebaseSignalementService {
         signalementData.put("createdAt", signalement.getCreatedAt());
         signalementData.put("updatedAt", signalement.getUpdatedAt());
         
-        DocumentReference docRef = firestore.collection("signalements").document();
-        docRef.set(signalementData).get();
+        String documentId = SyncDocumentIds.fromLocalId(signalement.getId());
+        documentStore.set("signalements", documentId, signalementData);
         
-        log.info("✅ Signalement créé dans Firebase: {}", docRef.getId());
-        return docRef.getId();
+        log.info("✅ Signalement créé dans Firebase: {}", documentId);
+        return documentId;
     }
     
     /**
@@ -457,6 +537,7 @@ public class FirebaseSignalementService {
         log.info("Mise à jour signalement dans Firestore: {}", firebaseId);
         
         Map<String, Object> updates = new HashMap<>();
+        updates.put("localId", signalement.getId());
         updates.put("userId", signalement.getUser().getId().toString());
         updates.put("firebaseUid", signalement.getUser().getFirebaseUid());
         updates.put("userEmail", signalement.getUser().getEmail());
@@ -469,10 +550,7 @@ public class FirebaseSignalementService {
         updates.put("status", signalement.getStatus() != null ? signalement.getStatus() : "nouveau");
         updates.put("updatedAt", LocalDateTime.now());
         
-        firestore.collection("signalements")
-                .document(firebaseId)
-                .update(updates)
-                .get();
+        documentStore.update("signalements", firebaseId, updates);
         
         log.info("✅ Signalement mis à jour dans Firebase: {}", firebaseId);
     }
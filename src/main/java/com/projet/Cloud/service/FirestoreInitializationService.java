@@ -1,13 +1,10 @@
 package com.projet.Cloud.service;
 
-import com.google.cloud.firestore.DocumentReference;
-import com.google.cloud.firestore.FieldValue;
-import com.google.cloud.firestore.Firestore;
-import com.google.cloud.firestore.QuerySnapshot;
+import com.projet.Cloud.store.DocumentQuery;
+import com.projet.Cloud.store.DocumentStore;
+import com.projet.Cloud.store.DocumentValues;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.boot.context.event.ApplicationReadyEvent;
-import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
 import java.util.HashMap;
@@ -19,31 +16,26 @@ import java.util.concurrent.ExecutionException;
 @Slf4j
 public class FirestoreInitializationService {
 
-    private final Firestore firestore;
+    private final DocumentStore documentStore;
 
     /**
-     * Initialise les collections Firestore au démarrage de l'application
+     * Crée les collections "problemes" et "signalements" si elles sont vides.
+     * Appelé par la tâche de seeding (FirebaseDataSeeder), plus au démarrage.
      */
-    @EventListener(ApplicationReadyEvent.class)
-    public void initializeFirestoreCollections() {
+    public void initializeFirestoreCollections() throws ExecutionException, InterruptedException {
         log.info("🌱 Initialisation des collections Firestore...");
-        
-        try {
-            initializeProblemes();
-            initializeSignalements();
-            log.info("✅ Collections Firestore initialisées avec succès");
-        } catch (Exception e) {
-            log.error("❌ Erreur lors de l'initialisation des collections Firestore", e);
-        }
+        initializeProblemes();
+        initializeSignalements();
+        log.info("✅ Collections Firestore initialisées avec succès");
     }
 
     /**
      * Initialise la collection "problemes"
      */
     private void initializeProblemes() throws ExecutionException, InterruptedException {
-        QuerySnapshot snapshot = firestore.collection("problemes").limit(1).get().get();
+        long count = documentStore.count(DocumentQuery.collection("problemes").limit(1));
         
-        if (snapshot.isEmpty()) {
+        if (count == 0) {
             log.info("📝 Création de la collection 'problemes' avec un document exemple...");
             
             Map<String, Object> exampleProbleme = new HashMap<>();
@@ -53,16 +45,15 @@ public class FirestoreInitializationService {
             exampleProbleme.put("description", "Exemple de problème - à supprimer");
             exampleProbleme.put("typeId", null);
             exampleProbleme.put("status", "ouvert");
-            exampleProbleme.put("createdAt", FieldValue.serverTimestamp());
-            exampleProbleme.put("updatedAt", FieldValue.serverTimestamp());
+            exampleProbleme.put("createdAt", DocumentValues.serverTimestamp());
+            exampleProbleme.put("updatedAt", DocumentValues.serverTimestamp());
             exampleProbleme.put("_isExample", true);
             
-            DocumentReference docRef = firestore.collection("problemes").document("example");
-            docRef.set(exampleProbleme).get();
+            documentStore.set("problemes", "example", exampleProbleme);
             
             log.info("✅ Collection 'problemes' créée avec succès");
         } else {
-            log.info("✅ Collection 'problemes' existe déjà ({} documents)", snapshot.size());
+            log.info("✅ Collection 'problemes' existe déjà");
         }
     }
 
@@ -70,9 +61,9 @@ public class FirestoreInitializationService {
      * Initialise la collection "signalements"
      */
     private void initializeSignalements() throws ExecutionException, InterruptedException {
-        QuerySnapshot snapshot = firestore.collection("signalements").limit(1).get().get();
+        long count = documentStore.count(DocumentQuery.collection("signalements").limit(1));
         
-        if (snapshot.isEmpty()) {
+        if (count == 0) {
             log.info("📝 Création de la collection 'signalements' avec un document exemple...");
             
             Map<String, Object> exampleSignalement = new HashMap<>();
@@ -87,16 +78,15 @@ public class FirestoreInitializationService {
             exampleSignalement.put("status", "nouveau");
             exampleSignalement.put("userId", "example-manager");
             exampleSignalement.put("createdBy", "system");
-            exampleSignalement.put("createdAt", FieldValue.serverTimestamp());
-            exampleSignalement.put("updatedAt", FieldValue.serverTimestamp());
+            exampleSignalement.put("createdAt", DocumentValues.serverTimestamp());
+            exampleSignalement.put("updatedAt", DocumentValues.serverTimestamp());
             exampleSignalement.put("_isExample", true);
             
-            DocumentReference docRef = firestore.collection("signalements").document("example");
-            docRef.set(exampleSignalement).get();
+            documentStore.set("signalements", "example", exampleSignalement);
             
             log.info("✅ Collection 'signalements' créée avec succès");
         } else {
-            log.info("✅ Collection 'signalements' existe déjà ({} documents)", snapshot.size());
+            log.info("✅ Collection 'signalements' existe déjà");
         }
     }
 
@@ -108,8 +98,7 @@ public class FirestoreInitializationService {
         Map<String, Object> result = new HashMap<>();
         
         try {
-            initializeProblemes();
-            initializeSignalements();
+            initializeFirestoreCollections();
             
             result.put("success", true);
             result.put("message", "Collections Firestore initialisées avec succès");
@@ -0,0 +1,224 @@
+package com.projet.Cloud.service;
+
+import com.google.api.gax.rpc.ApiException;
+import com.google.api.gax.rpc.StatusCode;
+import com.projet.Cloud.config.FirestoreThrottleProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Limiteur de débit adaptatif partagé par toutes les écritures Firestore en masse.
+ *
+ * AIMD : le débit augmente de façon additive tant que les écritures réussissent sous la
+ * latence cible, et il est divisé dès que Firestore signale une saturation
+ * (RESOURCE_EXHAUSTED, UNAVAILABLE, ...) ou que la latence dépasse la cible.
+ * Le plafond suit la règle 500/50/5 : il démarre au débit initial et ne croît que
+ * de 50 % toutes les 5 minutes de trafic continu, dans la limite du maximum configuré.
+ */
+@Service
+@Slf4j
+public class FirestoreRateLimiter {
+
+    private static final Set<StatusCode.Code> RETRYABLE_CODES = EnumSet.of(
+            StatusCode.Code.RESOURCE_EXHAUSTED,
+            StatusCode.Code.UNAVAILABLE,
+            StatusCode.Code.DEADLINE_EXCEEDED,
+            StatusCode.Code.ABORTED
+    );
+
+    private final FirestoreThrottleProperties properties;
+    private final LongSupplier nanoClock;
+    private final Sleeper sleeper;
+
+    private double currentRate;
+    private long nextFreeSlotNanos;
+    private long rampStartNanos = -1;
+    private long lastActivityNanos = -1;
+    private long lastIncreaseNanos;
+    private long lastDecreaseNanos;
+
+    @Autowired
+    public FirestoreRateLimiter(FirestoreThrottleProperties properties) {
+        this(properties, System::nanoTime, nanos -> TimeUnit.NANOSECONDS.sleep(nanos));
+    }
+
+    FirestoreRateLimiter(FirestoreThrottleProperties properties, LongSupplier nanoClock, Sleeper sleeper) {
+        this.properties = properties;
+        this.nanoClock = nanoClock;
+        this.sleeper = sleeper;
+        this.currentRate = startRate();
+        this.lastDecreaseNanos = nanoClock.getAsLong() - TimeUnit.MILLISECONDS.toNanos(properties.getAdjustIntervalMs());
+    }
+
+    /**
+     * Exécute une écriture unitaire et retourne son résultat
+     */
+    public <T> T call(FirestoreCall<T> call) throws ExecutionException, InterruptedException {
+        return call(1, call);
+    }
+
+    /**
+     * Exécute une opération comptant pour {@code writes} écritures (ex: commit d'un WriteBatch)
+     */
+    public <T> T call(int writes, FirestoreCall<T> call) throws ExecutionException, InterruptedException {
+        int attempt = 0;
+        while (true) {
+            acquire(writes);
+            long start = nanoClock.getAsLong();
+            try {
+                T result = call.call();
+                onSuccess(nanoClock.getAsLong() - start);
+                return result;
+            } catch (ExecutionException | RuntimeException e) {
+                if (!isRetryable(e)) {
+                    throw e;
+                }
+                onCongestion();
+                attempt++;
+                if (attempt > properties.getMaxRetries()) {
+                    log.error("❌ Firestore saturé, abandon après {} tentatives: {}", attempt, e.getMessage());
+                    throw e;
+                }
+                long backoffMs = properties.getRetryBackoffMs() * (1L << Math.min(attempt - 1, 6));
+                log.warn("⏳ Firestore saturé ({}), nouvelle tentative {} dans {} ms à {} écritures/s",
+                         e.getMessage(), attempt, backoffMs, Math.round(getCurrentRate()));
+                sleeper.sleep(TimeUnit.MILLISECONDS.toNanos(backoffMs));
+            }
+        }
+    }
+
+    public void run(FirestoreAction action) throws ExecutionException, InterruptedException {
+        run(1, action);
+    }
+
+    public void run(int writes, FirestoreAction action) throws ExecutionException, InterruptedException {
+        call(writes, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Débit courant autorisé (écritures/s)
+     */
+    public synchronized double getCurrentRate() {
+        return currentRate;
+    }
+
+    /**
+     * Plafond courant imposé par la montée en charge 500/50/5
+     */
+    public synchronized double getCurrentCeiling() {
+        return ceilingAt(nanoClock.getAsLong());
+    }
+
+    /**
+     * Réserve le créneau des {@code writes} prochaines écritures puis attend son ouverture
+     */
+    private void acquire(int writes) throws InterruptedException {
+        long waitNanos;
+        synchronized (this) {
+            long now = nanoClock.getAsLong();
+            long idleLimit = TimeUnit.MILLISECONDS.toNanos(properties.getRampUpIntervalMs());
+            if (rampStartNanos < 0 || now - lastActivityNanos > idleLimit) {
+                // Nouveau trafic (ou reprise après une longue pause) : la montée en charge recommence
+                rampStartNanos = now;
+                lastIncreaseNanos = now;
+                currentRate = Math.min(currentRate, startRate());
+            }
+            lastActivityNanos = now;
+
+            long slotStart = Math.max(now, nextFreeSlotNanos);
+            nextFreeSlotNanos = slotStart + (long) (writes * 1_000_000_000d / currentRate);
+            waitNanos = slotStart - now;
+        }
+        if (waitNanos > 0) {
+            sleeper.sleep(waitNanos);
+        }
+    }
+
+    private synchronized void onSuccess(long latencyNanos) {
+        long now = nanoClock.getAsLong();
+        if (latencyNanos > TimeUnit.MILLISECONDS.toNanos(properties.getLatencyTargetMs())) {
+            decrease(now);
+            return;
+        }
+        if (now - lastIncreaseNanos >= TimeUnit.MILLISECONDS.toNanos(properties.getAdjustIntervalMs())) {
+            currentRate = Math.min(ceilingAt(now), currentRate + properties.getAdditiveIncrease());
+            lastIncreaseNanos = now;
+        }
+    }
+
+    private synchronized void onCongestion() {
+        decrease(nanoClock.getAsLong());
+    }
+
+    private void decrease(long now) {
+        // Une seule division par fenêtre : une rafale d'erreurs ne doit pas effondrer le débit
+        if (now - lastDecreaseNanos < TimeUnit.MILLISECONDS.toNanos(properties.getAdjustIntervalMs())) {
+            return;
+        }
+        currentRate = Math.max(properties.getMinWritesPerSecond(), currentRate * properties.getDecreaseFactor());
+        lastDecreaseNanos = now;
+        lastIncreaseNanos = now;
+        log.debug("Débit Firestore réduit à {} écritures/s", Math.round(currentRate));
+    }
+
+    private double startRate() {
+        return Math.min(properties.getInitialWritesPerSecond(), properties.getMaxWritesPerSecond());
+    }
+
+    private double ceilingAt(long now) {
+        if (rampStartNanos < 0) {
+            return startRate();
+        }
+        long steps = (now - rampStartNanos) / TimeUnit.MILLISECONDS.toNanos(properties.getRampUpIntervalMs());
+        double ceiling = properties.getInitialWritesPerSecond() * Math.pow(properties.getRampUpFactor(), steps);
+        return Math.min(properties.getMaxWritesPerSecond(), ceiling);
+    }
+
+    /**
+     * Erreurs indiquant une saturation temporaire de Firestore (à ralentir puis réessayer)
+     */
+    static boolean isRetryable(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (t instanceof ApiException apiException) {
+                return RETRYABLE_CODES.contains(apiException.getStatusCode().getCode());
+            }
+            String message = t.getMessage();
+            if (message != null) {
+                for (StatusCode.Code code : RETRYABLE_CODES) {
+                    if (message.contains(code.name())) {
+                        return true;
+                    }
+                }
+            }
+            if (t.getCause() == t) {
+                break;
+            }
+        }
+        return false;
+    }
+
+    @FunctionalInterface
+    public interface FirestoreCall<T> {
+        T call() throws ExecutionException, InterruptedException;
+    }
+
+    @FunctionalInterface
+    public interface FirestoreAction {
+        void run() throws ExecutionException, InterruptedException;
+    }
+
+    @FunctionalInterface
+    interface Sleeper {
+        void sleep(long nanos) throws InterruptedException;
+    }
+}
@@ -0,0 +1,193 @@
+package com.projet.Cloud.service;
+
+import com.projet.Cloud.dto.SignalementFilter;
+import com.projet.Cloud.event.SignalementChangeEvent;
+import com.projet.Cloud.event.SignalementSnapshot;
+import com.projet.Cloud.model.HeatmapCell;
+import com.projet.Cloud.repository.HeatmapCellRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+
+/**
+ * Grilles de densité des signalements, pré-agrégées par maille pour plusieurs résolutions.
+ *
+ * Chaque écriture d'un signalement applique un delta aux mailles concernées (retrait de
+ * l'ancienne position/valeurs, ajout de la nouvelle) : une carte de toute la ville se lit
+ * en quelques centaines de mailles, quel que soit le nombre de signalements.
+ */
+@Service
+@Slf4j
+public class HeatmapService {
+
+    /** Tailles de maille en degrés, de la plus fine (~110 m) à la plus grossière (~55 km) */
+    static final double[] CELL_SIZES = {0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5};
+
+    public static final int MAX_RESOLUTION = 256;
+
+    private final HeatmapCellRepository heatmapCellRepository;
+    private final TransactionTemplate requiresNew;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public HeatmapService(HeatmapCellRepository heatmapCellRepository, PlatformTransactionManager transactionManager) {
+        this.heatmapCellRepository = heatmapCellRepository;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Mise à jour incrémentale après commit de l'écriture (ou immédiatement hors transaction)
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSignalementChange(SignalementChangeEvent event) {
+        Map<HeatmapCell.Key, double[]> deltas = deltas(event.before(), event.after());
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        // Une autre écriture peut créer la même maille entre-temps : la mise à jour passe au second essai
+        Exception failure = null;
+        for (int attempt = 1; attempt <= 2; attempt++) {
+            try {
+                applyDeltas(deltas);
+                return;
+            } catch (DataIntegrityViolationException e) {
+                failure = e;
+            } catch (Exception e) {
+                failure = e;
+                break;
+            }
+        }
+        log.warn("⚠️ Heatmap non mise à jour pour le signalement #{}: {} (POST /api/admin/heatmap/rebuild pour recalculer)",
+                event.signalementId(), failure.getMessage());
+    }
+
+    /**
+     * Mailles non vides de l'emprise, au niveau le plus fin qui donne au plus
+     * {@code resolution} mailles sur la largeur
+     */
+    public Map<String, Object> getGrid(SignalementFilter bbox, int resolution) {
+        int cellsAcross = Math.min(Math.max(resolution, 1), MAX_RESOLUTION);
+        int level = levelFor((bbox.getMaxLon() - bbox.getMinLon()) / cellsAcross);
+        double size = CELL_SIZES[level];
+
+        List<HeatmapCell> cells = heatmapCellRepository.findCells(level,
+                cellIndex(bbox.getMinLon(), size), cellIndex(bbox.getMaxLon(), size),
+                cellIndex(bbox.getMinLat(), size), cellIndex(bbox.getMaxLat(), size));
+
+        List<Map<String, Object>> features = new ArrayList<>(cells.size());
+        long maxCount = 0;
+        for (HeatmapCell cell : cells) {
+            Map<String, Object> feature = new LinkedHashMap<>();
+            feature.put("lon", (cell.getCellX() + 0.5) * size);
+            feature.put("lat", (cell.getCellY() + 0.5) * size);
+            feature.put("count", cell.getReportCount());
+            feature.put("budget", cell.getBudgetSum());
+            feature.put("surfaceM2", cell.getSurfaceSum());
+            features.add(feature);
+            maxCount = Math.max(maxCount, cell.getReportCount());
+        }
+
+        Map<String, Object> grid = new LinkedHashMap<>();
+        grid.put("level", level);
+        grid.put("cellSize", size);
+        grid.put("bbox", List.of(bbox.getMinLon(), bbox.getMinLat(), bbox.getMaxLon(), bbox.getMaxLat()));
+        grid.put("maxCount", maxCount);
+        grid.put("cells", features);
+        return grid;
+    }
+
+    /**
+     * Recalcule toutes les grilles depuis la table signalements (après un import JDBC
+     * qui ne passe pas par JPA, ou pour corriger une dérive)
+     */
+    public long rebuild() {
+        long start = System.currentTimeMillis();
+        Long cells = requiresNew.execute(status -> {
+            entityManager.createQuery("DELETE FROM HeatmapCell").executeUpdate();
+            long inserted = 0;
+            for (int level = 0; level < CELL_SIZES.length; level++) {
+                double size = CELL_SIZES[level];
+                String x = "CAST(FLOOR(longitude / " + size + ") AS BIGINT)";
+                String y = "CAST(FLOOR(latitude / " + size + ") AS BIGINT)";
+                inserted += entityManager.createNativeQuery(
+                        "INSERT INTO heatmap_cells (grid_level, cell_x, cell_y, report_count, budget_sum, surface_sum) "
+                        + "SELECT " + level + ", " + x + ", " + y + ", COUNT(*), "
+                        + "COALESCE(SUM(budget), 0), COALESCE(SUM(surface_m2), 0) "
+                        + "FROM signalements WHERE latitude IS NOT NULL AND longitude IS NOT NULL "
+                        + "GROUP BY " + x + ", " + y
+                ).executeUpdate();
+            }
+            return inserted;
+        });
+
+        log.info("✅ Heatmap recalculée: {} mailles en {} ms", cells, System.currentTimeMillis() - start);
+        return cells != null ? cells : 0;
+    }
+
+    private void applyDeltas(Map<HeatmapCell.Key, double[]> deltas) {
+        requiresNew.executeWithoutResult(status -> {
+            for (Map.Entry<HeatmapCell.Key, double[]> entry : deltas.entrySet()) {
+                HeatmapCell.Key key = entry.getKey();
+                double[] delta = entry.getValue();
+                int updated = heatmapCellRepository.increment(key.getLevel(), key.getCellX(), key.getCellY(),
+                        (long) delta[0], delta[1], delta[2]);
+                if (updated == 0) {
+                    heatmapCellRepository.saveAndFlush(new HeatmapCell(key.getLevel(), key.getCellX(), key.getCellY(),
+                            (long) delta[0], delta[1], delta[2]));
+                }
+            }
+        });
+    }
+
+    /**
+     * Deltas par maille (nombre, budget, surface) ; les contributions qui s'annulent sont retirées
+     */
+    static Map<HeatmapCell.Key, double[]> deltas(SignalementSnapshot before, SignalementSnapshot after) {
+        Map<HeatmapCell.Key, double[]> deltas = new LinkedHashMap<>();
+        contribute(deltas, before, -1);
+        contribute(deltas, after, 1);
+        deltas.values().removeIf(d -> d[0] == 0 && d[1] == 0 && d[2] == 0);
+        return deltas;
+    }
+
+    private static void contribute(Map<HeatmapCell.Key, double[]> deltas, SignalementSnapshot snapshot, int sign) {
+        if (snapshot == null || snapshot.latitude() == null || snapshot.longitude() == null) {
+            return;
+        }
+        double budget = snapshot.budget() != null ? snapshot.budget() : 0;
+        double surface = snapshot.surfaceM2() != null ? snapshot.surfaceM2() : 0;
+        for (int level = 0; level < CELL_SIZES.length; level++) {
+            HeatmapCell.Key key = new HeatmapCell.Key(level,
+                    cellIndex(snapshot.longitude(), CELL_SIZES[level]),
+                    cellIndex(snapshot.latitude(), CELL_SIZES[level]));
+            double[] delta = deltas.computeIfAbsent(key, k -> new double[3]);
+            delta[0] += sign;
+            delta[1] += sign * budget;
+            delta[2] += sign * surface;
+        }
+    }
+
+    static int levelFor(double targetSize) {
+        for (int level = 0; level < CELL_SIZES.length; level++) {
+            if (CELL_SIZES[level] >= targetSize) {
+                return level;
+            }
+        }
+        return CELL_SIZES.length - 1;
+    }
+
+    static long cellIndex(double coordinate, double size) {
+        return (long) Math.floor(coordinate / size);
+    }
+}
@@ -9,6 +9,7 @@ import com.projet.Cloud.model.User;
 import com.projet.Cloud.repository.AccountLockRepository;
 import com.projet.Cloud.util.JwtUtil;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -31,8 +32,11 @@ public class HybridAuthService implements AuthService {
     private final FirebaseAuthService firebaseAuthService;
     private final LocalAuthService localAuthService;
     private final AuthAttemptService authAttemptService;
+    private final AuthAuditService authAuditService;
+    private final RefreshTokenService refreshTokenService;
 
     private final AccountLockRepository accountLockRepository;
+    private final MeterRegistry meterRegistry;
 
 
     @Value("${firebase.connection.timeout:3000}")
@@ -52,13 +56,19 @@ public class HybridAuthService implements AuthService {
             LocalAuthService localAuthService,
             FirebaseProperties firebaseProps,
             AuthAttemptService authAttemptService,
-            AccountLockRepository accountLockRepository) {
+            AuthAuditService authAuditService,
+            RefreshTokenService refreshTokenService,
+            AccountLockRepository accountLockRepository,
+            MeterRegistry meterRegistry) {
 
         this.firebaseAuthService = firebaseAuthService;
         this.localAuthService = localAuthService;
         this.firebaseProps = firebaseProps;
         this.authAttemptService = authAttemptService;
+        this.authAuditService = authAuditService;
+        this.refreshTokenService = refreshTokenService;
         this.accountLockRepository = accountLockRepository;
+        this.meterRegistry = meterRegistry;
     }
 
 
@@ -69,11 +79,13 @@ public class HybridAuthService implements AuthService {
         // 🔒 1. Vérification AVANT login
         authAttemptService.checkIfLocked(username);
 
+        String mode = "offline";
         try {
             AuthResponse response;
 
             if (isOnline()) {
                 log.info("Mode ONLINE - Firebase");
+                mode = "firebase";
                 try {
                     LoginRequest normalizedRequest = new LoginRequest();
                     normalizedRequest.setEmail(username);
@@ -82,6 +94,7 @@ public class HybridAuthService implements AuthService {
                     syncToLocal(request, response);
                 } catch (Exception e) {
                     log.warn("Firebase auth failed, fallback to local: {}", e.getMessage());
+                    mode = "offline_fallback";
                     response = authenticateOffline(request);
                 }
             } else {
@@ -91,17 +104,32 @@ public class HybridAuthService implements AuthService {
 
             // ✅ 2. Succès → reset compteur
             authAttemptService.loginSucceeded(username);
+            countLogin(mode, "success");
+            // Audit Firestore en file : aucune attente sur la réponse
+            authAuditService.recordLoginAttempt(username, true);
+            authAuditService.recordSession(response.getUserId(), username, mode);
+            // Session côté serveur : renouvellement ensuite sans mot de passe ni BCrypt
+            refreshTokenService.attachRefreshToken(response);
             return response;
 
         } catch (Exception e) {
 
             // ❌ 3. Échec → incrément compteur
             authAttemptService.loginFailed(username);
+            countLogin(mode, "failure");
+            authAuditService.recordLoginAttempt(username, false);
             throw e;
         }
     }
 
 
+    /**
+     * Compteur auth.login par mode (firebase, offline, offline_fallback) et résultat
+     */
+    private void countLogin(String mode, String outcome) {
+        meterRegistry.counter("auth.login", "mode", mode, "outcome", outcome).increment();
+    }
+
     /**
      * Authentification en mode offline via la base PostgreSQL
      */
@@ -0,0 +1,366 @@
+package com.projet.Cloud.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.projet.Cloud.dto.SignalementFilter;
+import com.projet.Cloud.event.ProblemeChangeEvent;
+import com.projet.Cloud.event.ProblemeSnapshot;
+import com.projet.Cloud.event.SignalementChangeEvent;
+import com.projet.Cloud.event.SignalementSnapshot;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Diffusion en Server-Sent Events des changements de signalements et de problèmes
+ * (tableau de bord web), à la place du rafraîchissement périodique des listes.
+ *
+ * Les événements arrivent des écritures JPA après commit (API, conversion, import Firestore)
+ * et sont sérialisés une seule fois. Chaque connexion a sa file bornée, vidée par un petit
+ * pool d'envoi : un client qui ne suit pas remplit sa file et est déconnecté, sans ralentir
+ * les autres. Le navigateur se reconnecte seul et recharge la liste.
+ *
+ * Un envoi bloqué (client qui ne lit plus, fenêtre TCP pleine) au-delà de {@code live.write-timeout-ms}
+ * est abandonné : la connexion est retirée, le thread d'envoi interrompu et remplacé dans le pool
+ * jusqu'à ce que l'écriture échoue. Un client figé n'immobilise donc jamais un thread partagé.
+ */
+@Service
+@Slf4j
+public class LiveEventService {
+
+    public static final String SIGNALEMENT = "signalement";
+    public static final String PROBLEME = "probleme";
+
+    private static final String REMOVED = "REMOVED";
+
+    private final ObjectMapper objectMapper;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final Counter droppedCounter;
+    private final Counter stalledCounter;
+    private final ThreadPoolExecutor senders;
+    private final int senderThreads;
+    private int abandonedSenders;
+
+    @Value("${live.buffer-size:256}")
+    private int bufferSize;
+
+    @Value("${live.max-connections:1000}")
+    private int maxConnections;
+
+    @Value("${live.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${live.write-timeout-ms:10000}")
+    private long writeTimeoutMs;
+
+    public LiveEventService(ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                            @Value("${live.sender-threads:4}") int senderThreads) {
+        this.objectMapper = objectMapper;
+        this.droppedCounter = Counter.builder("live.subscribers.dropped")
+                .description("Connexions SSE fermées faute de suivre le flux")
+                .register(meterRegistry);
+        this.stalledCounter = Counter.builder("live.subscribers.stalled")
+                .description("Connexions SSE abandonnées sur un envoi bloqué")
+                .register(meterRegistry);
+        meterRegistry.gauge("live.subscribers", connections);
+        this.senderThreads = senderThreads;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.senders = new ThreadPoolExecutor(senderThreads, senderThreads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "sse-sender-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Nouvelle connexion ; null si le nombre maximal de connexions est atteint
+     *
+     * @param kinds   signalement, probleme ou null pour les deux
+     * @param filter  statuts et emprise (les autres critères sont ignorés)
+     */
+    public SseEmitter subscribe(Set<String> kinds, SignalementFilter filter) {
+        if (connections.incrementAndGet() > maxConnections) {
+            connections.decrementAndGet();
+            return null;
+        }
+
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(emitter, kinds, filter, new ArrayBlockingQueue<>(bufferSize));
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> close(subscriber));
+        emitter.onError(e -> remove(subscriber));
+        subscribers.add(subscriber);
+
+        // Premier octet envoyé tout de suite : le client sait que le flux est ouvert
+        enqueue(subscriber, Outgoing.comment("connecté"));
+        log.debug("📡 Connexion SSE ouverte ({} actives)", connections.get());
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSignalementChange(SignalementChangeEvent event) {
+        SignalementSnapshot before = event.before();
+        SignalementSnapshot after = event.after();
+        publish(SIGNALEMENT, event.type().name(), event.signalementId(), after,
+                before != null ? new Position(before.status(), before.latitude(), before.longitude()) : null,
+                after != null ? new Position(after.status(), after.latitude(), after.longitude()) : null);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProblemeChange(ProblemeChangeEvent event) {
+        ProblemeSnapshot before = event.before();
+        ProblemeSnapshot after = event.after();
+        publish(PROBLEME, event.type().name(), event.problemeId(), after,
+                before != null ? new Position(before.status(), before.latitude(), before.longitude()) : null,
+                after != null ? new Position(after.status(), after.latitude(), after.longitude()) : null);
+    }
+
+    /**
+     * Commentaire périodique : garde les proxys ouverts et détecte les connexions mortes
+     */
+    @Scheduled(fixedDelayString = "${live.heartbeat-ms:25000}")
+    public void heartbeat() {
+        Outgoing ping = Outgoing.comment("ping");
+        for (Subscriber subscriber : subscribers) {
+            enqueue(subscriber, ping);
+        }
+    }
+
+    /**
+     * Échéance d'écriture : abandonne les connexions dont l'envoi en cours dépasse live.write-timeout-ms
+     */
+    @Scheduled(fixedDelayString = "${live.write-check-ms:1000}")
+    public void abandonStalledSenders() {
+        long now = System.nanoTime();
+        long timeoutNanos = TimeUnit.MILLISECONDS.toNanos(writeTimeoutMs);
+        for (Subscriber subscriber : subscribers) {
+            synchronized (subscriber) {
+                if (subscriber.sender == null || subscriber.stalled || now - subscriber.sendStartedNanos < timeoutNanos) {
+                    continue;
+                }
+                // Le thread bloqué sort du pool le temps que l'écriture échoue : un remplaçant prend la suite
+                subscriber.stalled = true;
+                resizeSenders(1);
+                subscriber.sender.interrupt();
+            }
+            stalledCounter.increment();
+            log.warn("⚠️ Connexion SSE abandonnée: envoi bloqué depuis plus de {} ms", writeTimeoutMs);
+            // Pas de complete() : l'émetteur est verrouillé par l'envoi bloqué
+            remove(subscriber);
+        }
+    }
+
+    public int getConnectionCount() {
+        return connections.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (Subscriber subscriber : subscribers) {
+            close(subscriber);
+        }
+        senders.shutdownNow();
+    }
+
+    /**
+     * Un abonné voit un changement si l'état avant ou après correspond à son filtre ;
+     * un objet qui sort du filtre lui est annoncé comme REMOVED
+     */
+    private void publish(String kind, String type, Long id, Object data, Position before, Position after) {
+        Outgoing full = null;
+        Outgoing removed = null;
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.kinds != null && !subscriber.kinds.contains(kind)) {
+                continue;
+            }
+            if (subscriber.matches(after)) {
+                if (full == null) {
+                    full = Outgoing.event(kind, json(type, id, data));
+                }
+                enqueue(subscriber, full);
+            } else if (subscriber.matches(before)) {
+                if (removed == null) {
+                    removed = Outgoing.event(kind, json(after == null ? type : REMOVED, id, null));
+                }
+                enqueue(subscriber, removed);
+            }
+        }
+    }
+
+    private String json(String type, Long id, Object data) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("type", type);
+        payload.put("id", id);
+        payload.put("data", data);
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Sérialisation de l'événement impossible", e);
+        }
+    }
+
+    private void enqueue(Subscriber subscriber, Outgoing outgoing) {
+        if (subscriber.closed.get()) {
+            return;
+        }
+        if (!subscriber.queue.offer(outgoing)) {
+            // File pleine : le client ne suit pas, on le déconnecte plutôt que de perdre des événements en silence
+            droppedCounter.increment();
+            log.warn("⚠️ Connexion SSE fermée: {} événements en attente", subscriber.queue.size());
+            close(subscriber);
+            return;
+        }
+        if (subscriber.sending.compareAndSet(false, true)) {
+            senders.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            Outgoing outgoing;
+            while (!subscriber.closed.get() && (outgoing = subscriber.queue.poll()) != null) {
+                send(subscriber, outgoing);
+            }
+        } catch (Exception e) {
+            log.debug("Connexion SSE interrompue: {}", e.getMessage());
+            close(subscriber);
+        } finally {
+            subscriber.sending.set(false);
+        }
+        // Un événement a pu arriver entre le dernier poll et la libération du drapeau
+        if (!subscriber.closed.get() && !subscriber.queue.isEmpty() && subscriber.sending.compareAndSet(false, true)) {
+            senders.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void send(Subscriber subscriber, Outgoing outgoing) throws Exception {
+        synchronized (subscriber) {
+            subscriber.sender = Thread.currentThread();
+            subscriber.sendStartedNanos = System.nanoTime();
+        }
+        try {
+            subscriber.emitter.send(outgoing.toEvent());
+        } finally {
+            synchronized (subscriber) {
+                subscriber.sender = null;
+                if (subscriber.stalled) {
+                    // Écriture enfin terminée (ou échouée) : le pool reprend sa taille
+                    subscriber.stalled = false;
+                    resizeSenders(-1);
+                }
+            }
+        }
+    }
+
+    /**
+     * Agrandit le pool d'un thread par envoi abandonné, et le réduit quand cet envoi se termine
+     */
+    private synchronized void resizeSenders(int delta) {
+        abandonedSenders += delta;
+        int size = senderThreads + abandonedSenders;
+        if (delta > 0) {
+            senders.setMaximumPoolSize(size);
+            senders.setCorePoolSize(size);
+        } else {
+            senders.setCorePoolSize(size);
+            senders.setMaximumPoolSize(size);
+        }
+    }
+
+    private void close(Subscriber subscriber) {
+        if (remove(subscriber)) {
+            try {
+                subscriber.emitter.complete();
+            } catch (Exception e) {
+                log.debug("Fermeture SSE: {}", e.getMessage());
+            }
+        }
+    }
+
+    private boolean remove(Subscriber subscriber) {
+        if (!subscriber.closed.compareAndSet(false, true)) {
+            return false;
+        }
+        subscribers.remove(subscriber);
+        subscriber.queue.clear();
+        connections.decrementAndGet();
+        log.debug("📡 Connexion SSE fermée ({} actives)", connections.get());
+        return true;
+    }
+
+    private record Position(String status, Double latitude, Double longitude) {}
+
+    private record Outgoing(String name, String data) {
+
+        static Outgoing event(String name, String data) {
+            return new Outgoing(name, data);
+        }
+
+        static Outgoing comment(String text) {
+            return new Outgoing(null, text);
+        }
+
+        SseEmitter.SseEventBuilder toEvent() {
+            return name == null
+                    ? SseEmitter.event().comment(data)
+                    : SseEmitter.event().name(name).data(data, MediaType.APPLICATION_JSON);
+        }
+    }
+
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        private final Set<String> kinds;
+        private final SignalementFilter filter;
+        private final BlockingQueue<Outgoing> queue;
+        private final AtomicBoolean sending = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        // Envoi en cours, protégés par le moniteur de l'abonné
+        private Thread sender;
+        private long sendStartedNanos;
+        private boolean stalled;
+
+        private Subscriber(SseEmitter emitter, Set<String> kinds, SignalementFilter filter, BlockingQueue<Outgoing> queue) {
+            this.emitter = emitter;
+            this.kinds = kinds;
+            this.filter = filter;
+            this.queue = queue;
+        }
+
+        private boolean matches(Position position) {
+            if (position == null) {
+                return false;
+            }
+            if (filter.getStatuses() != null && !filter.getStatuses().isEmpty()
+                    && !filter.getStatuses().contains(position.status())) {
+                return false;
+            }
+            if (filter.hasBbox()) {
+                return position.latitude() != null && position.longitude() != null
+                        && position.longitude() >= filter.getMinLon() && position.longitude() <= filter.getMaxLon()
+                        && position.latitude() >= filter.getMinLat() && position.latitude() <= filter.getMaxLat();
+            }
+            return true;
+        }
+    }
+}
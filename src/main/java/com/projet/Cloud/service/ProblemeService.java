@@ -1,5 +1,6 @@
 package com.projet.Cloud.service;
 
+import com.projet.Cloud.dto.BatchProblemeResult;
 import com.projet.Cloud.dto.ConvertProblemeRequest;
 import com.projet.Cloud.dto.CreateProblemeRequest;
 import com.projet.Cloud.dto.CreateSignalementRequest;
@@ -10,13 +11,17 @@ import com.projet.Cloud.model.User;
 import com.projet.Cloud.repository.ProblemeRepository;
 import com.projet.Cloud.repository.SignalementTypeRepository;
 import com.projet.Cloud.repository.UserRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.util.List;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -27,12 +32,22 @@ public class ProblemeService {
     private final UserRepository userRepository;
     private final SignalementTypeRepository typeRepository;
     private final SignalementService signalementService;
+    private final Validator validator;
 
     public Probleme createProbleme(CreateProblemeRequest request, Long userId) {
         log.info("Création d'un problème par l'utilisateur {}", userId);
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("Utilisateur introuvable"));
 
+        // Rejeu d'une création déjà reçue : on renvoie le problème existant
+        if (request.getClientKey() != null && !request.getClientKey().isBlank()) {
+            Optional<Probleme> existing = problemeRepository.findByUserAndClientKey(user, request.getClientKey());
+            if (existing.isPresent()) {
+                log.info("Problème déjà créé pour la clé {}", request.getClientKey());
+                return existing.get();
+            }
+        }
+
         SignalementType type = null;
         if (request.getTypeId() != null) {
             type = typeRepository.findById(request.getTypeId())
@@ -47,10 +62,102 @@ public class ProblemeService {
         probleme.setDescription(request.getDescription());
         probleme.setStatus("ouvert");
         probleme.setCreatedAt(LocalDateTime.now());
+        probleme.setClientKey(request.getClientKey());
 
         return problemeRepository.save(probleme);
     }
 
+    /**
+     * Création en lot (file hors ligne de l'application) : utilisateur, types et clés déjà
+     * connues lus une fois, insertions groupées par Hibernate au flush (jdbc.batch_size).
+     * Un élément invalide ou déjà reçu est signalé sans bloquer les autres.
+     */
+    @Transactional
+    public List<BatchProblemeResult> createProblemes(List<CreateProblemeRequest> items, Long userId) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new RuntimeException("Utilisateur introuvable"));
+
+        Set<Long> typeIds = items.stream()
+                .filter(Objects::nonNull)
+                .map(CreateProblemeRequest::getTypeId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, SignalementType> types = typeRepository.findAllById(typeIds).stream()
+                .collect(Collectors.toMap(SignalementType::getId, Function.identity()));
+
+        Set<String> clientKeys = items.stream()
+                .filter(Objects::nonNull)
+                .map(CreateProblemeRequest::getClientKey)
+                .filter(key -> key != null && !key.isBlank())
+                .collect(Collectors.toSet());
+        Map<String, Long> existing = new HashMap<>();
+        if (!clientKeys.isEmpty()) {
+            for (Probleme probleme : problemeRepository.findByUserAndClientKeyIn(user, clientKeys)) {
+                existing.put(probleme.getClientKey(), probleme.getId());
+            }
+        }
+
+        List<BatchProblemeResult> results = new ArrayList<>(items.size());
+        Map<String, Probleme> created = new LinkedHashMap<>();
+        LocalDateTime now = LocalDateTime.now();
+
+        for (int i = 0; i < items.size(); i++) {
+            CreateProblemeRequest item = items.get(i);
+            String error = validate(item, types);
+            String clientKey = item != null ? item.getClientKey() : null;
+            if (error != null) {
+                results.add(new BatchProblemeResult(i, clientKey, "invalid", null, error));
+            } else if (existing.containsKey(clientKey)) {
+                results.add(new BatchProblemeResult(i, clientKey, "duplicate", existing.get(clientKey), null));
+            } else if (created.containsKey(clientKey)) {
+                // Même clé deux fois dans le lot : l'id est connu après l'insertion
+                results.add(new BatchProblemeResult(i, clientKey, "duplicate", null, null));
+            } else {
+                Probleme probleme = new Probleme();
+                probleme.setUser(user);
+                probleme.setType(item.getTypeId() != null ? types.get(item.getTypeId()) : null);
+                probleme.setLatitude(item.getLatitude());
+                probleme.setLongitude(item.getLongitude());
+                probleme.setDescription(item.getDescription());
+                probleme.setStatus("ouvert");
+                probleme.setCreatedAt(now);
+                probleme.setClientKey(clientKey);
+                created.put(clientKey, probleme);
+                results.add(new BatchProblemeResult(i, clientKey, "created", null, null));
+            }
+        }
+
+        problemeRepository.saveAll(created.values());
+
+        for (BatchProblemeResult result : results) {
+            if (result.getId() == null && !"invalid".equals(result.getStatus())) {
+                result.setId(created.get(result.getClientKey()).getId());
+            }
+        }
+        log.info("Lot de {} problèmes pour l'utilisateur {}: {} créés", items.size(), userId, created.size());
+        return results;
+    }
+
+    private String validate(CreateProblemeRequest item, Map<Long, SignalementType> types) {
+        if (item == null) {
+            return "Élément vide";
+        }
+        if (item.getClientKey() == null || item.getClientKey().isBlank()) {
+            return "La clé client est requise";
+        }
+        Set<ConstraintViolation<CreateProblemeRequest>> violations = validator.validate(item);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining(", "));
+        }
+        if (item.getTypeId() != null && !types.containsKey(item.getTypeId())) {
+            return "Type de signalement introuvable";
+        }
+        return null;
+    }
+
     public List<Probleme> listProblemes() {
         return problemeRepository.findAll();
     }
@@ -1,21 +1,28 @@
 package com.projet.Cloud.service;
 
-import com.google.cloud.firestore.DocumentSnapshot;
-import com.google.cloud.firestore.Firestore;
+import com.google.firebase.messaging.BatchResponse;
 import com.google.firebase.messaging.FirebaseMessaging;
 import com.google.firebase.messaging.Message;
 import com.google.firebase.messaging.Notification;
 import com.projet.Cloud.model.Signalement;
+import com.projet.Cloud.store.DocumentStore;
+import com.projet.Cloud.store.StoredDocument;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.ExecutionException;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -28,8 +35,11 @@ public class PushNotificationService {
             Map.entry("terminé", new StatusMessage("✅ Signalement terminé", "Votre signalement %s a été traité et terminé."))
     );
 
-    private final Firestore firestore;
-    private final FirebaseMessaging firebaseMessaging;
+    private static final int MAX_MESSAGES_PER_SEND = 500;
+
+    private final DocumentStore documentStore;
+    private final ObjectProvider<FirebaseMessaging> firebaseMessaging;  // Firebase initialisé au premier envoi
+    private final MeterRegistry meterRegistry;
 
     public void sendStatusChangeNotification(Signalement signalement, String previousStatus) {
         if (signalement == null) {
@@ -49,17 +59,14 @@ public class PushNotificationService {
         }
 
         try {
-            DocumentSnapshot userDoc = firestore.collection("users")
-                    .document(userId.toString())
-                    .get()
-                    .get();
+            Optional<StoredDocument> userDoc = documentStore.get("users", userId.toString());
 
-            if (!userDoc.exists()) {
+            if (userDoc.isEmpty()) {
                 log.warn("⚠️ Aucun document Firestore trouvé pour l'utilisateur {}", userId);
                 return;
             }
 
-            String fcmToken = userDoc.getString("fcmToken");
+            String fcmToken = userDoc.get().getString("fcmToken");
             if (StringUtils.isBlank(fcmToken)) {
                 log.warn("⚠️ Aucun token FCM pour l'utilisateur {}", userId);
                 return;
@@ -92,7 +99,14 @@ public class PushNotificationService {
                     .putData("description", description)
                     .build();
 
-            firebaseMessaging.sendAsync(message).get();
+            Timer.Sample sample = Timer.start(meterRegistry);
+            try {
+                firebaseMessaging.getObject().sendAsync(message).get();
+                sample.stop(meterRegistry.timer("fcm.send", "outcome", "success"));
+            } catch (ExecutionException e) {
+                sample.stop(meterRegistry.timer("fcm.send", "outcome", "failure"));
+                throw e;
+            }
             log.info("✅ Notification push envoyée à user={} pour signalement {} status={}", userId, signalement.getId(), status);
         } catch (InterruptedException interrupted) {
             Thread.currentThread().interrupt();
@@ -102,6 +116,80 @@ public class PushNotificationService {
         }
     }
 
+    /**
+     * Changement de statut en masse : une seule notification par utilisateur, quel que soit
+     * le nombre de ses signalements concernés, envoyées ensemble (sendEach par lots de 500)
+     *
+     * @return nombre de notifications acceptées par FCM
+     */
+    public int sendGroupedStatusNotifications(Map<Long, List<Signalement>> signalementsByUser, String status) {
+        StatusMessage statusMessage = getStatusMessage(status);
+        List<Message> messages = new ArrayList<>();
+
+        for (Map.Entry<Long, List<Signalement>> entry : signalementsByUser.entrySet()) {
+            Long userId = entry.getKey();
+            List<Signalement> signalements = entry.getValue();
+            String fcmToken;
+            try {
+                fcmToken = documentStore.get("users", userId.toString())
+                        .map(doc -> doc.getString("fcmToken"))
+                        .orElse(null);
+            } catch (InterruptedException interrupted) {
+                Thread.currentThread().interrupt();
+                return 0;
+            } catch (ExecutionException e) {
+                log.warn("❌ Lecture du token FCM impossible pour user={}: {}", userId, e.getMessage());
+                continue;
+            }
+            if (StringUtils.isBlank(fcmToken)) {
+                continue;
+            }
+
+            String body = signalements.size() == 1
+                    ? statusMessage.format(Optional.ofNullable(signalements.get(0).getDescription())
+                            .map(String::trim)
+                            .filter(StringUtils::isNotBlank)
+                            .map(desc -> desc.length() > 80 ? desc.substring(0, 80) + "..." : desc)
+                            .orElse("signalement"))
+                    : String.format("%d de vos signalements sont passés au statut « %s ».", signalements.size(), status);
+
+            messages.add(Message.builder()
+                    .setToken(fcmToken)
+                    .setNotification(Notification.builder()
+                            .setTitle(statusMessage.title())
+                            .setBody(body)
+                            .build())
+                    .putData("signalementIds", signalements.stream()
+                            .map(signalement -> Objects.toString(signalement.getId(), ""))
+                            .collect(Collectors.joining(",")))
+                    .putData("userId", userId.toString())
+                    .putData("status", Objects.toString(status, ""))
+                    .putData("count", Integer.toString(signalements.size()))
+                    .build());
+        }
+
+        int sent = 0;
+        for (int from = 0; from < messages.size(); from += MAX_MESSAGES_PER_SEND) {
+            List<Message> chunk = messages.subList(from, Math.min(from + MAX_MESSAGES_PER_SEND, messages.size()));
+            Timer.Sample sample = Timer.start(meterRegistry);
+            try {
+                BatchResponse response = firebaseMessaging.getObject().sendEachAsync(chunk).get();
+                sample.stop(meterRegistry.timer("fcm.send", "outcome", "batch"));
+                sent += response.getSuccessCount();
+            } catch (InterruptedException interrupted) {
+                Thread.currentThread().interrupt();
+                log.warn("❌ Envoi groupé des notifications interrompu");
+                break;
+            } catch (ExecutionException e) {
+                sample.stop(meterRegistry.timer("fcm.send", "outcome", "failure"));
+                log.warn("❌ Échec de l'envoi groupé de {} notifications: {}", chunk.size(), e.getMessage());
+            }
+        }
+        log.info("✅ Notifications groupées: {}/{} envoyées pour {} utilisateurs (statut {})",
+                sent, messages.size(), signalementsByUser.size(), status);
+        return sent;
+    }
+
     private StatusMessage getStatusMessage(String status) {
         if (status == null) {
             return StatusMessage.defaultMessage();
@@ -0,0 +1,347 @@
+package com.projet.Cloud.service;
+
+import com.projet.Cloud.dto.ReconciliationReport;
+import com.projet.Cloud.model.Probleme;
+import com.projet.Cloud.model.Signalement;
+import com.projet.Cloud.repository.ProblemeRepository;
+import com.projet.Cloud.repository.SignalementRepository;
+import com.projet.Cloud.store.DocumentQuery;
+import com.projet.Cloud.store.DocumentStore;
+import com.projet.Cloud.store.StoredDocument;
+import com.projet.Cloud.util.SyncFingerprint;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * Réconciliation PostgreSQL ↔ Firestore par arbre d'empreintes.
+ *
+ * Les lignes sont regroupées en buckets de {@value #BUCKET_SIZE} IDs, eux-mêmes découpés en
+ * {@value #CHILDREN_PER_BUCKET} sous-plages. Les empreintes des deux côtés sont calculées sur le
+ * contenu réel : colonnes synchronisées côté PostgreSQL, projection des mêmes champs côté Firestore
+ * (une lecture paginée, le client mobile écrivant aussi directement dans Firestore). On descend
+ * dans les buckets dont l'empreinte diffère, puis dans leurs sous-plages divergentes, qui seules
+ * sont relues ligne à ligne et réparées en renvoyant la version PostgreSQL.
+ *
+ * Le mode {@code deep} relit toutes les sous-plages sans se fier aux empreintes agrégées.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReconciliationService {
+
+    static final long BUCKET_SIZE = 1000;
+    static final int CHILDREN_PER_BUCKET = 10;
+    private static final long CHILD_SIZE = BUCKET_SIZE / CHILDREN_PER_BUCKET;
+    private static final int LOCAL_PAGE_SIZE = 5000;
+    private static final int REMOTE_PAGE_SIZE = 1000;
+
+    private static final ReconcileTarget SIGNALEMENTS = new ReconcileTarget(
+            "signalements",
+            List.of("userId", "typeId", "latitude", "longitude", "description", "status", "surfaceM2", "budget"),
+            "SELECT s.id, s.user.id, s.type.id, s.latitude, s.longitude, s.description, " +
+            "COALESCE(s.status, 'nouveau'), s.surfaceM2, s.budget " +
+            "FROM Signalement s WHERE s.id > :after AND s.id < :before ORDER BY s.id");
+
+    private static final ReconcileTarget PROBLEMES = new ReconcileTarget(
+            "problemes",
+            List.of("userId", "typeId", "latitude", "longitude", "description", "status"),
+            "SELECT p.id, p.user.id, t.id, p.latitude, p.longitude, p.description, " +
+            "COALESCE(p.status, 'ouvert') " +
+            "FROM Probleme p LEFT JOIN p.type t WHERE p.id > :after AND p.id < :before ORDER BY p.id");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final DocumentStore documentStore;
+    private final SyncService syncService;
+    private final SignalementRepository signalementRepository;
+    private final ProblemeRepository problemeRepository;
+
+    /**
+     * Vérification planifiée (sans relecture complète)
+     */
+    @Scheduled(cron = "${sync.reconcile.cron:0 30 3 * * *}")
+    public void scheduledReconcile() {
+        try {
+            reconcileAll(false);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("⏸️ Réconciliation planifiée interrompue");
+        } catch (Exception e) {
+            log.error("❌ Erreur lors de la réconciliation planifiée: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Réconcilie signalements et problèmes, PostgreSQL faisant foi
+     */
+    public List<ReconciliationReport> reconcileAll(boolean deep) throws ExecutionException, InterruptedException {
+        List<ReconciliationReport> reports = new ArrayList<>();
+        reports.add(reconcile(SIGNALEMENTS, deep, id -> {
+            Signalement signalement = signalementRepository.findById(id).orElse(null);
+            if (signalement != null) {
+                syncService.pushSignalement(signalement);
+            }
+        }));
+        reports.add(reconcile(PROBLEMES, deep, id -> {
+            Probleme probleme = problemeRepository.findById(id).orElse(null);
+            if (probleme != null) {
+                syncService.pushProbleme(probleme);
+            }
+        }));
+        return reports;
+    }
+
+    private ReconciliationReport reconcile(ReconcileTarget target, boolean deep, RowRepair repair)
+            throws ExecutionException, InterruptedException {
+        long start = System.currentTimeMillis();
+        ReconciliationReport report = new ReconciliationReport(target.collection(), deep);
+        log.info("🔍 Réconciliation {} (deep={})", target.collection(), deep);
+
+        Map<Long, BucketDigest> local = computeLocalDigests(target);
+        Map<Long, BucketDigest> remote = computeRemoteDigests(target, report);
+
+        Set<Long> buckets = new TreeSet<>(local.keySet());
+        buckets.addAll(remote.keySet());
+
+        for (Long bucket : buckets) {
+            report.setBucketsChecked(report.getBucketsChecked() + 1);
+            BucketDigest localDigest = local.getOrDefault(bucket, new BucketDigest());
+            BucketDigest remoteDigest = remote.getOrDefault(bucket, new BucketDigest());
+
+            String reason;
+            Set<Integer> children = new TreeSet<>();
+            if (deep) {
+                reason = "deep";
+                children.addAll(allChildren());
+            } else if (localDigest.total.equals(remoteDigest.total)) {
+                continue;
+            } else {
+                reason = localDigest.total.count != remoteDigest.total.count ? "count" : "hash";
+                children.addAll(changedChildren(localDigest, remoteDigest));
+            }
+
+            if (children.isEmpty()) {
+                continue;
+            }
+
+            report.setBucketsMismatched(report.getBucketsMismatched() + 1);
+            int repairedBefore = report.getRowsRepaired();
+
+            for (Integer child : children) {
+                long from = bucketStart(bucket) + child * CHILD_SIZE;
+                repairRange(target, from, from + CHILD_SIZE, repair, report);
+            }
+
+            report.getDrifts().add(new ReconciliationReport.BucketDrift(
+                    bucket, bucketStart(bucket), bucketStart(bucket + 1) - 1, reason,
+                    report.getRowsRepaired() - repairedBefore));
+        }
+
+        report.setDurationMs(System.currentTimeMillis() - start);
+        log.info("✅ Réconciliation {} terminée: {} buckets vérifiés, {} divergents, {} lignes réparées, {} échecs, {} orphelins",
+                 target.collection(), report.getBucketsChecked(), report.getBucketsMismatched(),
+                 report.getRowsRepaired(), report.getRowsFailed(), report.getOrphanLocalIds().size());
+        return report;
+    }
+
+    /**
+     * Relit une sous-plage des deux côtés et renvoie vers Firestore les lignes absentes ou différentes.
+     * Les documents sans ligne PostgreSQL correspondante sont signalés mais jamais supprimés.
+     */
+    private void repairRange(ReconcileTarget target, long from, long to, RowRepair repair,
+                             ReconciliationReport report) throws InterruptedException, ExecutionException {
+        List<StoredDocument> documents = documentStore.query(DocumentQuery.collection(target.collection())
+                .whereGreaterThanOrEqualTo("localId", from)
+                .whereLessThan("localId", to)
+                .select(target.projection()));
+        report.setDocumentsRead(report.getDocumentsRead() + documents.size());
+
+        Map<Long, Long> remote = new HashMap<>();
+        for (StoredDocument document : documents) {
+            Long localId = document.getLong("localId");
+            if (localId != null) {
+                remote.put(localId, remoteFingerprint(target, localId, document.data()));
+            }
+        }
+
+        List<Long> divergent = new ArrayList<>();
+        forEachLocalRow(target, from, to, row -> {
+            Long id = (Long) row[0];
+            Long remoteFingerprint = remote.remove(id);
+            if (remoteFingerprint == null || remoteFingerprint != localFingerprint(row)) {
+                divergent.add(id);
+            }
+        });
+
+        for (Long id : divergent) {
+            try {
+                repair.repair(id);
+                report.setRowsRepaired(report.getRowsRepaired() + 1);
+            } catch (InterruptedException e) {
+                throw e;
+            } catch (Exception e) {
+                log.error("❌ Réparation {} #{} impossible: {}", target.collection(), id, e.getMessage());
+                report.setRowsFailed(report.getRowsFailed() + 1);
+            }
+        }
+
+        report.getOrphanLocalIds().addAll(new TreeSet<>(remote.keySet()));
+    }
+
+    /**
+     * Empreintes PostgreSQL de tous les buckets, en une lecture paginée des colonnes synchronisées
+     */
+    private Map<Long, BucketDigest> computeLocalDigests(ReconcileTarget target) {
+        Map<Long, BucketDigest> digests = new TreeMap<>();
+        forEachLocalRow(target, 1, Long.MAX_VALUE, row -> {
+            long id = (Long) row[0];
+            long fingerprint = localFingerprint(row);
+            BucketDigest digest = digests.computeIfAbsent(Math.floorDiv(id, BUCKET_SIZE), b -> new BucketDigest());
+            digest.total.add(fingerprint);
+            digest.children.computeIfAbsent(childOf(id), c -> new Digest()).add(fingerprint);
+        });
+        return digests;
+    }
+
+    private void forEachLocalRow(ReconcileTarget target, long fromId, long toId, Consumer<Object[]> consumer) {
+        long after = fromId - 1;
+        List<Object[]> page;
+        do {
+            page = entityManager.createQuery(target.localQuery(), Object[].class)
+                    .setParameter("after", after)
+                    .setParameter("before", toId)
+                    .setMaxResults(LOCAL_PAGE_SIZE)
+                    .getResultList();
+            for (Object[] row : page) {
+                consumer.accept(row);
+                after = (Long) row[0];
+            }
+        } while (page.size() == LOCAL_PAGE_SIZE);
+    }
+
+    /**
+     * Empreintes Firestore de tous les buckets, en une lecture paginée de la projection des champs
+     * synchronisés. Les documents sans {@code localId} (jamais rattachés à PostgreSQL) sont ignorés.
+     */
+    private Map<Long, BucketDigest> computeRemoteDigests(ReconcileTarget target, ReconciliationReport report)
+            throws ExecutionException, InterruptedException {
+        Map<Long, BucketDigest> digests = new TreeMap<>();
+        List<StoredDocument> page;
+        StoredDocument last = null;
+        do {
+            DocumentQuery query = DocumentQuery.collection(target.collection())
+                    .orderBy("localId")
+                    .orderBy(DocumentQuery.DOCUMENT_ID)
+                    .select(target.projection())
+                    .limit(REMOTE_PAGE_SIZE);
+            if (last != null) {
+                query.startAfter(last.get("localId"), last.id());
+            }
+            page = documentStore.query(query);
+            report.setDocumentsRead(report.getDocumentsRead() + page.size());
+
+            for (StoredDocument document : page) {
+                Long localId = document.getLong("localId");
+                if (localId == null) {
+                    continue;
+                }
+                long fingerprint = remoteFingerprint(target, localId, document.data());
+                BucketDigest digest = digests.computeIfAbsent(Math.floorDiv(localId, BUCKET_SIZE), b -> new BucketDigest());
+                digest.total.add(fingerprint);
+                digest.children.computeIfAbsent(childOf(localId), c -> new Digest()).add(fingerprint);
+            }
+            if (!page.isEmpty()) {
+                last = page.get(page.size() - 1);
+            }
+        } while (page.size() == REMOTE_PAGE_SIZE);
+        return digests;
+    }
+
+    private static Set<Integer> changedChildren(BucketDigest local, BucketDigest remote) {
+        Set<Integer> changed = new TreeSet<>();
+        for (int child = 0; child < CHILDREN_PER_BUCKET; child++) {
+            Digest localChild = local.children.getOrDefault(child, new Digest());
+            Digest remoteChild = remote.children.getOrDefault(child, new Digest());
+            if (!localChild.equals(remoteChild)) {
+                changed.add(child);
+            }
+        }
+        return changed;
+    }
+
+    private static long localFingerprint(Object[] row) {
+        return SyncFingerprint.of((Long) row[0], Arrays.copyOfRange(row, 1, row.length));
+    }
+
+    private static long remoteFingerprint(ReconcileTarget target, long localId, Map<String, Object> data) {
+        return SyncFingerprint.of(localId, target.fields().stream().map(data::get).toArray());
+    }
+
+    private static long bucketStart(long bucket) {
+        return bucket * BUCKET_SIZE;
+    }
+
+    private static int childOf(long id) {
+        return (int) (Math.floorMod(id, BUCKET_SIZE) / CHILD_SIZE);
+    }
+
+    private static List<Integer> allChildren() {
+        List<Integer> children = new ArrayList<>();
+        for (int child = 0; child < CHILDREN_PER_BUCKET; child++) {
+            children.add(child);
+        }
+        return children;
+    }
+
+    /**
+     * Collection synchronisée : champs comparés (dans l'ordre des colonnes de la requête locale, après l'ID)
+     */
+    private record ReconcileTarget(String collection, List<String> fields, String localQuery) {
+
+        /** Champs lus côté Firestore : l'ID local et les champs comparés */
+        String[] projection() {
+            List<String> projection = new ArrayList<>(fields);
+            projection.add(0, "localId");
+            return projection.toArray(new String[0]);
+        }
+    }
+
+    private static final class Digest {
+        private long count;
+        private long hash;
+
+        void add(long fingerprint) {
+            count++;
+            hash += fingerprint;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Digest digest && digest.count == count && digest.hash == hash;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(count, hash);
+        }
+    }
+
+    private static final class BucketDigest {
+        private final Digest total = new Digest();
+        private final Map<Integer, Digest> children = new TreeMap<>();
+    }
+
+    @FunctionalInterface
+    private interface RowRepair {
+        void repair(Long id) throws ExecutionException, InterruptedException;
+    }
+}
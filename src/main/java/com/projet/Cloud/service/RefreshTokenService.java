@@ -0,0 +1,285 @@
+package com.projet.Cloud.service;
+
+import com.projet.Cloud.dto.AuthResponse;
+import com.projet.Cloud.model.Role;
+import com.projet.Cloud.model.Session;
+import com.projet.Cloud.model.User;
+import com.projet.Cloud.repository.SessionRepository;
+import com.projet.Cloud.repository.UserRepository;
+import com.projet.Cloud.store.CachedSession;
+import com.projet.Cloud.store.SessionCache;
+import com.projet.Cloud.util.JwtUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+
+/**
+ * Jetons de rafraîchissement : un client renouvelle son jeton d'accès d'une heure sans renvoyer
+ * son mot de passe, donc sans nouveau calcul BCrypt.
+ *
+ * Format : {@code <id de session>.<secret aléatoire>}. La session est lue dans le cache (sinon
+ * en base) par son ID, le secret comparé à l'empreinte stockée. Chaque échange remplace le secret
+ * (rotation) ; présenter un secret déjà échangé révoque la session.
+ */
+@Service
+@Slf4j
+public class RefreshTokenService {
+
+    private static final int SECRET_BYTES = 32;
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final SessionRepository sessionRepository;
+    private final SessionCache sessionCache;
+    private final UserRepository userRepository;
+    private final AuthAttemptService authAttemptService;
+    private final TokenRevocationService tokenRevocationService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${jwt.expiration:3600000}")
+    private long accessTokenMs;
+
+    @Value("${jwt.refresh-expiration:2592000000}")
+    private long refreshTokenMs;
+
+    @Value("${session.reuse-grace-ms:10000}")
+    private long reuseGraceMs;
+
+    public RefreshTokenService(SessionRepository sessionRepository,
+                               SessionCache sessionCache,
+                               UserRepository userRepository,
+                               AuthAttemptService authAttemptService,
+                               TokenRevocationService tokenRevocationService,
+                               PlatformTransactionManager transactionManager) {
+        this.sessionRepository = sessionRepository;
+        this.sessionCache = sessionCache;
+        this.userRepository = userRepository;
+        this.authAttemptService = authAttemptService;
+        this.tokenRevocationService = tokenRevocationService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Jeton absent, inconnu, expiré, révoqué ou déjà échangé : le client doit se reconnecter
+     */
+    public static class InvalidRefreshTokenException extends RuntimeException {
+        public InvalidRefreshTokenException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Ouvre une session après une connexion réussie et complète la réponse avec son jeton
+     */
+    public void attachRefreshToken(AuthResponse response) {
+        if (response == null || response.getUserId() == null) {
+            return;
+        }
+        String secret = newSecret();
+        LocalDateTime now = LocalDateTime.now();
+
+        Session session = new Session();
+        session.setUserId(response.getUserId());
+        session.setToken(hash(secret));
+        session.setCreatedAt(now);
+        session.setLastUsedAt(now);
+        session.setExpiresAt(now.plus(Duration.ofMillis(refreshTokenMs)));
+        session = sessionRepository.save(session);
+        sessionCache.put(toCached(session));
+
+        response.setRefreshToken(session.getId() + "." + secret);
+        response.setRefreshExpiresAt(toEpochMillis(session.getExpiresAt()));
+    }
+
+    /**
+     * Échange un jeton de rafraîchissement contre un nouveau jeton d'accès et un nouveau
+     * jeton de rafraîchissement (l'ancien devient inutilisable)
+     */
+    public AuthResponse refresh(String refreshToken) {
+        ParsedToken parsed = parse(refreshToken);
+        String presented = hash(parsed.secret());
+
+        CachedSession session = load(parsed.sessionId());
+        if (session != null && !MessageDigest.isEqual(bytes(session.tokenHash()), bytes(presented))) {
+            // Cache d'une autre instance peut-être en retard : la base tranche
+            sessionCache.evict(parsed.sessionId());
+            session = load(parsed.sessionId());
+        }
+        if (session == null || session.revoked() || session.expiresAt() <= System.currentTimeMillis()) {
+            throw new InvalidRefreshTokenException("Session expirée, reconnectez-vous");
+        }
+        if (!MessageDigest.isEqual(bytes(session.tokenHash()), bytes(presented))) {
+            // Ancien secret rejoué : vol probable, sauf double envoi du client juste après l'échange
+            if (session.previousTokenHash() != null
+                    && MessageDigest.isEqual(bytes(session.previousTokenHash()), bytes(presented))
+                    && System.currentTimeMillis() - session.lastRotatedAt() > reuseGraceMs) {
+                log.warn("🚨 Jeton de rafraîchissement réutilisé pour la session #{} (utilisateur {}): session révoquée",
+                        session.id(), session.userId());
+                revokeSessions(List.of(session.id()));
+            }
+            throw new InvalidRefreshTokenException("Jeton de rafraîchissement invalide");
+        }
+
+        User user = userRepository.findById(session.userId())
+                .orElseThrow(() -> new InvalidRefreshTokenException("Utilisateur introuvable"));
+        authAttemptService.checkIfLocked(user.getEmail());
+
+        String secret = newSecret();
+        String newHash = hash(secret);
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = now.plus(Duration.ofMillis(refreshTokenMs));
+        Integer rotated = transactionTemplate.execute(status ->
+                sessionRepository.rotate(parsed.sessionId(), presented, newHash, expiresAt, now));
+        if (rotated == null || rotated == 0) {
+            // Même jeton échangé en parallèle : seul le premier échange est valable
+            sessionCache.evict(parsed.sessionId());
+            throw new InvalidRefreshTokenException("Jeton de rafraîchissement déjà utilisé");
+        }
+        sessionCache.put(new CachedSession(session.id(), session.userId(), newHash, presented,
+                toEpochMillis(expiresAt), toEpochMillis(now), false));
+
+        AuthResponse response = issueAccessToken(user);
+        response.setRefreshToken(parsed.sessionId() + "." + secret);
+        response.setRefreshExpiresAt(toEpochMillis(expiresAt));
+        return response;
+    }
+
+    /**
+     * Déconnexion : la session du jeton est révoquée (jeton invalide ou inconnu ignoré)
+     */
+    public void revoke(String refreshToken) {
+        ParsedToken parsed;
+        try {
+            parsed = parse(refreshToken);
+        } catch (InvalidRefreshTokenException e) {
+            return;
+        }
+        CachedSession session = load(parsed.sessionId());
+        if (session != null && MessageDigest.isEqual(bytes(session.tokenHash()), bytes(hash(parsed.secret())))) {
+            revokeSessions(List.of(session.id()));
+        }
+    }
+
+    /**
+     * Révoque toutes les sessions d'un utilisateur et ses jetons d'accès en cours
+     * (changement de mot de passe, déconnexion forcée)
+     */
+    public int revokeAllForUser(Long userId) {
+        userRepository.findById(userId)
+                .ifPresent(user -> tokenRevocationService.revokeAllForUser(user.getEmail()));
+        List<Long> ids = sessionRepository.findActiveIdsByUserId(userId);
+        return ids.isEmpty() ? 0 : revokeSessions(ids);
+    }
+
+    /**
+     * Purge quotidienne des sessions expirées
+     */
+    @Scheduled(cron = "${session.purge.cron:0 15 4 * * *}")
+    public void purgeExpired() {
+        Integer removed = transactionTemplate.execute(status ->
+                sessionRepository.deleteExpiredBefore(LocalDateTime.now()));
+        if (removed != null && removed > 0) {
+            log.info("🧹 Sessions expirées supprimées: {}", removed);
+        }
+    }
+
+    /**
+     * Jeton d'accès d'une heure, mêmes claims que ceux émis à la connexion
+     */
+    public AuthResponse issueAccessToken(User user) {
+        Set<String> roleNames = new HashSet<>();
+        for (Role role : user.getRoles()) {
+            roleNames.add(role.getName());
+        }
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("uid", user.getId().toString());
+        claims.put("email", user.getEmail());
+        claims.put("username", user.getUsername());
+        claims.put("roles", new ArrayList<>(roleNames));
+
+        AuthResponse response = new AuthResponse();
+        response.setToken(JwtUtil.generateToken(claims, accessTokenMs));
+        response.setExpiresAt(System.currentTimeMillis() + accessTokenMs);
+        response.setUserId(user.getId());
+        response.setEmail(user.getEmail());
+        response.setUsername(user.getUsername());
+        response.setRoles(roleNames);
+        return response;
+    }
+
+    private int revokeSessions(List<Long> ids) {
+        Integer revoked = transactionTemplate.execute(status -> sessionRepository.revokeAll(ids, LocalDateTime.now()));
+        ids.forEach(sessionCache::evict);
+        return revoked != null ? revoked : 0;
+    }
+
+    private CachedSession load(Long sessionId) {
+        Optional<CachedSession> cached = sessionCache.get(sessionId);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        return sessionRepository.findById(sessionId)
+                .map(RefreshTokenService::toCached)
+                .map(session -> {
+                    if (!session.revoked()) {
+                        sessionCache.put(session);
+                    }
+                    return session;
+                })
+                .orElse(null);
+    }
+
+    private static CachedSession toCached(Session session) {
+        return new CachedSession(session.getId(), session.getUserId(), session.getToken(), session.getPreviousToken(),
+                toEpochMillis(session.getExpiresAt()), toEpochMillis(session.getLastUsedAt()),
+                session.getRevokedAt() != null);
+    }
+
+    private static ParsedToken parse(String refreshToken) {
+        int dot = refreshToken == null ? -1 : refreshToken.indexOf('.');
+        if (dot <= 0 || dot == refreshToken.length() - 1) {
+            throw new InvalidRefreshTokenException("Jeton de rafraîchissement invalide");
+        }
+        try {
+            return new ParsedToken(Long.parseLong(refreshToken.substring(0, dot)), refreshToken.substring(dot + 1));
+        } catch (NumberFormatException e) {
+            throw new InvalidRefreshTokenException("Jeton de rafraîchissement invalide");
+        }
+    }
+
+    private static String newSecret() {
+        byte[] secret = new byte[SECRET_BYTES];
+        RANDOM.nextBytes(secret);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(secret);
+    }
+
+    private static String hash(String secret) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(secret.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime == null ? 0 : dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private record ParsedToken(Long sessionId, String secret) {}
+}
@@ -0,0 +1,161 @@
+package com.projet.Cloud.service;
+
+import com.projet.Cloud.config.SearchIndexInitializer;
+import com.projet.Cloud.dto.SearchResult;
+import com.projet.Cloud.dto.SignalementFilter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Recherche dans les descriptions des signalements et des problèmes.
+ *
+ * Sur PostgreSQL : index GIN sur search_vector (configuration french_unaccent), requête
+ * websearch_to_tsquery et tri par ts_rank_cd. Ailleurs (H2 en test) : LIKE sur la description
+ * sans accents, classé par nombre de termes trouvés.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SearchService {
+
+    public static final int MAX_LIMIT = 100;
+    private static final int MAX_TERMS = 8;
+
+    // Même nombre de caractères des deux côtés : TRANSLATE remplace position par position
+    private static final String ACCENTED = "àâäáãéèêëíìîïóòôöõúùûüçñ";
+    private static final String PLAIN = "aaaaaeeeeiiiiooooouuuucn";
+
+    private final DataSource dataSource;
+    private final SearchIndexInitializer searchIndexInitializer;
+
+    public enum Scope {
+        ALL, SIGNALEMENTS, PROBLEMES
+    }
+
+    public boolean isFullTextEnabled() {
+        return searchIndexInitializer.isReady();
+    }
+
+    /**
+     * Résultats classés par pertinence décroissante puis par date de création décroissante
+     */
+    public List<SearchResult> search(String query, Scope scope, SignalementFilter filter, int limit, int offset) {
+        List<Object> params = new ArrayList<>();
+        List<String> selects = new ArrayList<>();
+        boolean fullText = isFullTextEnabled();
+        List<String> terms = fullText ? List.of() : terms(query);
+
+        if (!fullText && terms.isEmpty()) {
+            return List.of();
+        }
+        if (scope != Scope.PROBLEMES) {
+            selects.add(fullText
+                    ? fullTextSelect("signalement", "signalements", query, filter, params)
+                    : likeSelect("signalement", "signalements", terms, filter, params));
+        }
+        if (scope != Scope.SIGNALEMENTS) {
+            selects.add(fullText
+                    ? fullTextSelect("probleme", "problemes", query, filter, params)
+                    : likeSelect("probleme", "problemes", terms, filter, params));
+        }
+
+        String sql = "SELECT * FROM (" + String.join(" UNION ALL ", selects) + ") r "
+                + "ORDER BY r.score DESC, r.created_at DESC, r.id DESC LIMIT ? OFFSET ?";
+        params.add(Math.min(Math.max(limit, 1), MAX_LIMIT));
+        params.add(Math.max(offset, 0));
+
+        List<SearchResult> results = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int i = 0; i < params.size(); i++) {
+                statement.setObject(i + 1, params.get(i));
+            }
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    Timestamp createdAt = rs.getTimestamp("created_at");
+                    results.add(new SearchResult(
+                            rs.getString("kind"),
+                            rs.getLong("id"),
+                            rs.getString("description"),
+                            rs.getString("status"),
+                            rs.getObject("type_id", Long.class),
+                            rs.getDouble("latitude"),
+                            rs.getDouble("longitude"),
+                            createdAt != null ? createdAt.toLocalDateTime() : null,
+                            rs.getDouble("score")));
+                }
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Recherche impossible: " + e.getMessage(), e);
+        }
+
+        log.debug("🔎 Recherche \"{}\" ({}, {}): {} résultats", query, scope, fullText ? "plein texte" : "LIKE", results.size());
+        return results;
+    }
+
+    private static String fullTextSelect(String kind, String table, String query, SignalementFilter filter,
+                                         List<Object> params) {
+        params.add(query);
+        List<String> clauses = new ArrayList<>();
+        clauses.add("x.search_vector @@ q.query");
+        clauses.addAll(SignalementFilterSql.clauses(filter, "x", params));
+
+        return "SELECT '" + kind + "' AS kind, x.id, x.description, x.status, x.type_id, x.latitude, x.longitude, "
+                + "x.created_at, ts_rank_cd(x.search_vector, q.query) AS score "
+                + "FROM " + table + " x CROSS JOIN websearch_to_tsquery('" + SearchIndexInitializer.TS_CONFIG
+                + "', ?) AS q(query)"
+                + SignalementFilterSql.where(clauses);
+    }
+
+    private static String likeSelect(String kind, String table, List<String> terms, SignalementFilter filter,
+                                     List<Object> params) {
+        String text = "TRANSLATE(LOWER(COALESCE(x.description, '')), '" + ACCENTED + "', '" + PLAIN + "')";
+        List<String> matches = new ArrayList<>();
+        List<String> scores = new ArrayList<>();
+        List<Object> scoreParams = new ArrayList<>();
+        for (String term : terms) {
+            matches.add(text + " LIKE ?");
+            scores.add("CASE WHEN " + text + " LIKE ? THEN 1 ELSE 0 END");
+            scoreParams.add("%" + term + "%");
+        }
+
+        // Les paramètres du score (SELECT) précèdent ceux du WHERE
+        params.addAll(scoreParams);
+        List<String> clauses = new ArrayList<>();
+        clauses.add("(" + String.join(" OR ", matches) + ")");
+        params.addAll(scoreParams);
+        clauses.addAll(SignalementFilterSql.clauses(filter, "x", params));
+
+        return "SELECT '" + kind + "' AS kind, x.id, x.description, x.status, x.type_id, x.latitude, x.longitude, "
+                + "x.created_at, CAST(" + String.join(" + ", scores) + " AS DOUBLE PRECISION) / " + terms.size() + " AS score "
+                + "FROM " + table + " x"
+                + SignalementFilterSql.where(clauses);
+    }
+
+    /**
+     * Termes de la requête en minuscules, sans accents ni ponctuation (donc sans joker LIKE)
+     */
+    static List<String> terms(String query) {
+        String plain = Normalizer.normalize(query == null ? "" : query, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .toLowerCase(Locale.ROOT);
+        return Arrays.stream(plain.split("[^\\p{L}\\p{N}]+"))
+                .filter(term -> term.length() > 1)
+                .distinct()
+                .limit(MAX_TERMS)
+                .toList();
+    }
+}
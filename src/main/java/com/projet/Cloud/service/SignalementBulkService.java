@@ -0,0 +1,164 @@
+package com.projet.Cloud.service;
+
+import com.projet.Cloud.dto.SignalementFilter;
+import com.projet.Cloud.event.SignalementChangeEvent;
+import com.projet.Cloud.event.SignalementSnapshot;
+import com.projet.Cloud.model.Signalement;
+import com.projet.Cloud.repository.SignalementRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Changements de statut en masse (clôture d'un quartier par un manager).
+ *
+ * Un seul UPDATE en base au lieu d'une lecture + sauvegarde par signalement. Les événements
+ * de changement sont publiés à la main (l'UPDATE JPQL ne passe pas par les entity listeners)
+ * pour que heatmap, agrégats, journal des deltas et flux en direct restent à jour.
+ * Après le commit : écritures Firestore par lots de 500 et une notification par utilisateur.
+ */
+@Service
+@Slf4j
+public class SignalementBulkService {
+
+    public static final int MAX_SIGNALEMENTS = 5000;
+
+    private final SignalementRepository signalementRepository;
+    private final FirebaseSignalementService firebaseSignalementService;
+    private final PushNotificationService pushNotificationService;
+    private final CollectionVersionService collectionVersionService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public SignalementBulkService(SignalementRepository signalementRepository,
+                                  FirebaseSignalementService firebaseSignalementService,
+                                  PushNotificationService pushNotificationService,
+                                  CollectionVersionService collectionVersionService,
+                                  ApplicationEventPublisher eventPublisher,
+                                  PlatformTransactionManager transactionManager) {
+        this.signalementRepository = signalementRepository;
+        this.firebaseSignalementService = firebaseSignalementService;
+        this.pushNotificationService = pushNotificationService;
+        this.collectionVersionService = collectionVersionService;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public record Result(int updated, int firestoreUpdated, int notified, long durationMs) {}
+
+    /**
+     * Passe au statut {@code status} les signalements désignés qui ne l'ont pas déjà
+     *
+     * @throws IllegalArgumentException si la sélection dépasse {@link #MAX_SIGNALEMENTS}
+     */
+    public Result updateStatus(List<Long> ids, SignalementFilter filter, String status) {
+        long start = System.currentTimeMillis();
+        LocalDateTime now = LocalDateTime.now();
+
+        List<Signalement> changed = transactionTemplate.execute(tx -> {
+            List<Long> targetIds = selectIds(ids, filter, status);
+            if (targetIds.isEmpty()) {
+                return List.<Signalement>of();
+            }
+            List<Signalement> signalements = signalementRepository.findAllById(targetIds);
+            List<SignalementSnapshot> before = signalements.stream()
+                    .map(s -> s.getLoadedState() != null ? s.getLoadedState() : SignalementSnapshot.of(s))
+                    .toList();
+
+            int updated = "terminé".equals(status)
+                    ? signalementRepository.resolveAll(targetIds, status, now)
+                    : signalementRepository.reopenAll(targetIds, status, now);
+
+            for (SignalementSnapshot snapshot : before) {
+                eventPublisher.publishEvent(new SignalementChangeEvent(SignalementChangeEvent.Type.UPDATED,
+                        snapshot, snapshot.withStatus(status, now)));
+            }
+            collectionVersionService.bump(CollectionVersionService.SIGNALEMENTS);
+            log.info("Statut {} appliqué en masse: {} signalements", status, updated);
+            return signalements;
+        });
+
+        if (changed == null || changed.isEmpty()) {
+            return new Result(0, 0, 0, System.currentTimeMillis() - start);
+        }
+
+        // Les entités sont détachées et portent encore l'ancien statut : seuls les ids, firebaseIds et utilisateurs servent
+        List<String> firebaseIds = new ArrayList<>();
+        Map<Long, List<Signalement>> byUser = new LinkedHashMap<>();
+        for (Signalement signalement : changed) {
+            if (signalement.getFirebaseId() != null && !signalement.getFirebaseId().isBlank()) {
+                firebaseIds.add(signalement.getFirebaseId());
+            }
+            if (signalement.getUser() != null && signalement.getUser().getId() != null) {
+                byUser.computeIfAbsent(signalement.getUser().getId(), k -> new ArrayList<>()).add(signalement);
+            }
+        }
+
+        int firestoreUpdated = 0;
+        try {
+            firestoreUpdated = firebaseSignalementService.batchUpdateStatus(firebaseIds, status);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("⚠️ Synchronisation Firestore interrompue après {} documents", firestoreUpdated);
+        } catch (Exception e) {
+            log.warn("⚠️ Synchronisation Firestore en masse échouée: {}", e.getMessage());
+        }
+        if (firestoreUpdated < changed.size()) {
+            log.info("{} signalements sans document Firestore à jour, rattrapés par la réconciliation",
+                    changed.size() - firestoreUpdated);
+        }
+
+        int notified = 0;
+        try {
+            notified = pushNotificationService.sendGroupedStatusNotifications(byUser, status);
+        } catch (Exception e) {
+            log.warn("⚠️ Notifications groupées non envoyées: {}", e.getMessage());
+        }
+
+        long duration = System.currentTimeMillis() - start;
+        log.info("✅ Mise à jour en masse: {} signalements → {}, {} documents Firestore, {} notifications en {} ms",
+                changed.size(), status, firestoreUpdated, notified, duration);
+        return new Result(changed.size(), firestoreUpdated, notified, duration);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Long> selectIds(List<Long> ids, SignalementFilter filter, String status) {
+        List<Object> params = new ArrayList<>();
+        List<String> clauses = new ArrayList<>();
+        clauses.add("s.status <> ?");
+        params.add(status);
+        if (ids != null && !ids.isEmpty()) {
+            clauses.add("s.id IN (" + SignalementFilterSql.placeholders(ids.size()) + ")");
+            params.addAll(ids);
+        }
+        clauses.addAll(SignalementFilterSql.clauses(filter, "s", params));
+
+        Query query = entityManager.createNativeQuery(
+                "SELECT s.id FROM signalements s" + SignalementFilterSql.where(clauses) + " ORDER BY s.id");
+        for (int i = 0; i < params.size(); i++) {
+            query.setParameter(i + 1, params.get(i));
+        }
+        // Une ligne de plus que le maximum suffit pour refuser
+        query.setMaxResults(MAX_SIGNALEMENTS + 1);
+
+        List<Long> result = new ArrayList<>();
+        for (Object id : (List<Object>) query.getResultList()) {
+            result.add(((Number) id).longValue());
+        }
+        if (result.size() > MAX_SIGNALEMENTS) {
+            throw new IllegalArgumentException("Plus de " + MAX_SIGNALEMENTS + " signalements sélectionnés, affinez le filtre");
+        }
+        return result;
+    }
+}
@@ -0,0 +1,263 @@
+package com.projet.Cloud.service;
+
+import com.projet.Cloud.event.SignalementChangeEvent;
+import com.projet.Cloud.model.ChangeCounter;
+import com.projet.Cloud.model.Signalement;
+import com.projet.Cloud.model.SignalementChange;
+import com.projet.Cloud.repository.ChangeCounterRepository;
+import com.projet.Cloud.repository.SignalementChangeRepository;
+import com.projet.Cloud.repository.SignalementRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.event.spi.EventSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Flux de deltas des signalements pour l'application mobile, qui garde une copie locale
+ * et ne télécharge que ce qui a changé depuis son dernier curseur.
+ *
+ * Chaque écriture JPA ajoute une ligne au journal signalement_changes dans la transaction
+ * même de l'écriture, juste avant son commit. Le numéro est réservé sur la ligne de
+ * change_counters, verrouillée jusqu'au commit : les numéros sont visibles dans l'ordre
+ * où ils ont été attribués et un curseur ne saute jamais une écriture encore en cours.
+ */
+@Service
+@DependsOn("entityManagerFactory")
+@Slf4j
+public class SignalementChangeFeedService {
+
+    public static final int DEFAULT_LIMIT = 500;
+    public static final int MAX_LIMIT = 1000;
+
+    static final String COUNTER = "signalements";
+    static final String PRUNED_COUNTER = "signalements_pruned";
+
+    private static final String CURSOR_PREFIX = "v1.";
+
+    private final SignalementChangeRepository changeRepository;
+    private final ChangeCounterRepository counterRepository;
+    private final SignalementRepository signalementRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${changes.retention-days:30}")
+    private int retentionDays;
+
+    public SignalementChangeFeedService(SignalementChangeRepository changeRepository,
+                                        ChangeCounterRepository counterRepository,
+                                        SignalementRepository signalementRepository,
+                                        PlatformTransactionManager transactionManager) {
+        this.changeRepository = changeRepository;
+        this.counterRepository = counterRepository;
+        this.signalementRepository = signalementRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Changements après un curseur : état courant des signalements créés ou modifiés,
+     * identifiants des supprimés, et curseur à renvoyer au prochain appel
+     */
+    public record Changes(List<Signalement> signalements, List<Long> deleted, String cursor, boolean hasMore) {}
+
+    /**
+     * Curseur trop ancien (journal purgé) ou venant d'une autre base : le client doit tout recharger
+     */
+    public static class CursorExpiredException extends RuntimeException {
+        public CursorExpiredException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Crée les compteurs au démarrage, pour que les écritures n'aient jamais à les insérer en concurrence
+     */
+    @PostConstruct
+    public void initCounters() {
+        for (String name : List.of(COUNTER, PRUNED_COUNTER)) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    if (!counterRepository.existsById(name)) {
+                        counterRepository.saveAndFlush(new ChangeCounter(name, 0L));
+                    }
+                });
+            } catch (DataIntegrityViolationException e) {
+                log.debug("Compteur {} déjà créé", name);
+            }
+        }
+    }
+
+    /**
+     * Appelé pendant le flush de l'écriture : la ligne du journal est ajoutée par Hibernate
+     * avant le commit, sur la même connexion
+     */
+    @EventListener
+    public void onSignalementChange(SignalementChangeEvent event) {
+        Long signalementId = event.signalementId();
+        SignalementChange.Type type = SignalementChange.Type.valueOf(event.type().name());
+        entityManager.unwrap(EventSource.class).getActionQueue().registerProcess(session ->
+                session.doWork(connection -> append(connection, signalementId, type)));
+    }
+
+    /**
+     * Curseur de la tête du journal : à demander AVANT un chargement complet de la liste
+     */
+    public String currentCursor() {
+        return encodeCursor(counterValue(COUNTER));
+    }
+
+    public Changes getChanges(String cursor, int limit) {
+        long since = decodeCursor(cursor);
+        int size = Math.min(Math.max(limit, 1), MAX_LIMIT);
+
+        return transactionTemplate.execute(status -> {
+            long head = counterValue(COUNTER);
+            if (since < counterValue(PRUNED_COUNTER) || since > head) {
+                throw new CursorExpiredException("Curseur expiré, rechargement complet nécessaire");
+            }
+
+            // Une ligne par signalement (sa dernière séquence) : tous ceux dont la dernière
+            // modification précède le nouveau curseur sont dans la page
+            List<Object[]> latest = changeRepository.findLatestSince(since, PageRequest.of(0, size + 1));
+            boolean hasMore = latest.size() > size;
+            if (hasMore) {
+                latest = latest.subList(0, size);
+            }
+
+            List<Long> ids = new ArrayList<>(latest.size());
+            long next = since;
+            for (Object[] row : latest) {
+                ids.add(((Number) row[0]).longValue());
+                next = Math.max(next, ((Number) row[1]).longValue());
+            }
+
+            // L'état courant fait foi : un signalement absent a été supprimé depuis
+            Map<Long, Signalement> current = new HashMap<>();
+            for (Signalement signalement : signalementRepository.findAllById(ids)) {
+                current.put(signalement.getId(), signalement);
+            }
+            List<Signalement> signalements = new ArrayList<>(current.size());
+            List<Long> deleted = new ArrayList<>();
+            for (Long id : ids) {
+                Signalement signalement = current.get(id);
+                if (signalement != null) {
+                    signalements.add(signalement);
+                } else {
+                    deleted.add(id);
+                }
+            }
+
+            return new Changes(signalements, deleted, encodeCursor(next), hasMore);
+        });
+    }
+
+    /**
+     * Purge quotidienne du journal au-delà de la rétention ; les curseurs antérieurs expirent
+     */
+    @Scheduled(cron = "${changes.prune.cron:0 45 3 * * *}")
+    public void prune() {
+        Integer removed = transactionTemplate.execute(status -> {
+            Long upTo = changeRepository.findMaxSeqBefore(LocalDateTime.now().minusDays(retentionDays));
+            return upTo == null ? 0 : expireUpTo(upTo);
+        });
+        if (removed != null && removed > 0) {
+            log.info("🧹 Journal des signalements purgé: {} entrées de plus de {} jours", removed, retentionDays);
+        }
+    }
+
+    /**
+     * Expire tous les curseurs (après un import qui contourne JPA et n'écrit pas le journal)
+     */
+    public void invalidateCursors() {
+        transactionTemplate.executeWithoutResult(status -> expireUpTo(counterValue(COUNTER)));
+        log.info("♻️ Curseurs du flux de signalements expirés, les clients rechargeront la liste");
+    }
+
+    private int expireUpTo(long seq) {
+        ChangeCounter pruned = counterRepository.findById(PRUNED_COUNTER)
+                .orElseGet(() -> new ChangeCounter(PRUNED_COUNTER, 0L));
+        pruned.setValue(Math.max(pruned.getValue(), seq));
+        counterRepository.save(pruned);
+        return changeRepository.deleteUpTo(seq);
+    }
+
+    private long counterValue(String name) {
+        return counterRepository.findById(name).map(ChangeCounter::getValue).orElse(0L);
+    }
+
+    private static void append(Connection connection, Long signalementId, SignalementChange.Type type)
+            throws SQLException {
+        try (PreparedStatement reserve = connection.prepareStatement(
+                "UPDATE change_counters SET counter_value = counter_value + 1 WHERE name = ?")) {
+            reserve.setString(1, COUNTER);
+            if (reserve.executeUpdate() == 0) {
+                // Compteur supprimé à la main : on repart de 1, les curseurs existants deviennent invalides
+                try (PreparedStatement create = connection.prepareStatement(
+                        "INSERT INTO change_counters (name, counter_value) VALUES (?, 1)")) {
+                    create.setString(1, COUNTER);
+                    create.executeUpdate();
+                }
+            }
+        }
+
+        long seq;
+        try (PreparedStatement read = connection.prepareStatement(
+                "SELECT counter_value FROM change_counters WHERE name = ?")) {
+            read.setString(1, COUNTER);
+            try (ResultSet rs = read.executeQuery()) {
+                rs.next();
+                seq = rs.getLong(1);
+            }
+        }
+
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO signalement_changes (seq, signalement_id, change_type, changed_at) VALUES (?, ?, ?, ?)")) {
+            insert.setLong(1, seq);
+            insert.setLong(2, signalementId);
+            insert.setString(3, type.name());
+            insert.setTimestamp(4, Timestamp.valueOf(LocalDateTime.now()));
+            insert.executeUpdate();
+        }
+    }
+
+    static String encodeCursor(long seq) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((CURSOR_PREFIX + seq).getBytes(StandardCharsets.UTF_8));
+    }
+
+    static long decodeCursor(String cursor) {
+        try {
+            String plain = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!plain.startsWith(CURSOR_PREFIX)) {
+                throw new IllegalArgumentException();
+            }
+            long seq = Long.parseLong(plain.substring(CURSOR_PREFIX.length()));
+            if (seq < 0) {
+                throw new IllegalArgumentException();
+            }
+            return seq;
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new IllegalArgumentException("Curseur invalide: " + cursor);
+        }
+    }
+}
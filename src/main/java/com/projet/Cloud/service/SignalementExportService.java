@@ -0,0 +1,191 @@
+package com.projet.Cloud.service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.projet.Cloud.dto.SignalementFilter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Export des signalements en GeoJSON ou CSV, ligne par ligne depuis un curseur JDBC.
+ *
+ * Les lignes ne sont jamais chargées en entités : seules les colonnes exportées sont lues
+ * (pas d'utilisateur sérialisé) et la mémoire reste constante quel que soit le volume.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SignalementExportService {
+
+    private static final int FETCH_SIZE = 1000;
+
+    private static final String SELECT_EXPORT =
+            "SELECT s.id, s.firebase_id, s.type_id, t.libelle, s.latitude, s.longitude, s.description, "
+            + "s.status, s.surface_m2, s.budget, s.niveau, s.date_signalement, s.created_at, s.updated_at "
+            + "FROM signalements s LEFT JOIN type t ON t.id = s.type_id";
+
+    private static final String[] CSV_HEADER = {
+            "id", "firebaseId", "typeId", "type", "latitude", "longitude", "description",
+            "status", "surfaceM2", "budget", "niveau", "dateSignalement", "createdAt", "updatedAt"
+    };
+
+    private final DataSource dataSource;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * FeatureCollection GeoJSON : géométrie Point [longitude, latitude], le reste en propriétés
+     */
+    public long exportGeoJson(SignalementFilter filter, OutputStream out) throws IOException {
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            json.writeStartObject();
+            json.writeStringField("type", "FeatureCollection");
+            json.writeArrayFieldStart("features");
+
+            long rows = stream(filter, rs -> {
+                json.writeStartObject();
+                json.writeStringField("type", "Feature");
+                json.writeNumberField("id", rs.getLong("id"));
+
+                json.writeObjectFieldStart("geometry");
+                json.writeStringField("type", "Point");
+                json.writeArrayFieldStart("coordinates");
+                json.writeNumber(rs.getDouble("longitude"));
+                json.writeNumber(rs.getDouble("latitude"));
+                json.writeEndArray();
+                json.writeEndObject();
+
+                json.writeObjectFieldStart("properties");
+                json.writeStringField("firebaseId", rs.getString("firebase_id"));
+                writeNumber(json, "typeId", rs.getObject("type_id"));
+                json.writeStringField("type", rs.getString("libelle"));
+                json.writeStringField("description", rs.getString("description"));
+                json.writeStringField("status", rs.getString("status"));
+                writeNumber(json, "surfaceM2", rs.getObject("surface_m2"));
+                writeNumber(json, "budget", rs.getObject("budget"));
+                writeNumber(json, "niveau", rs.getObject("niveau"));
+                json.writeStringField("dateSignalement", isoDate(rs.getTimestamp("date_signalement")));
+                json.writeStringField("createdAt", isoDate(rs.getTimestamp("created_at")));
+                json.writeStringField("updatedAt", isoDate(rs.getTimestamp("updated_at")));
+                json.writeEndObject();
+
+                json.writeEndObject();
+            });
+
+            json.writeEndArray();
+            json.writeEndObject();
+            return rows;
+        }
+    }
+
+    /**
+     * CSV (RFC 4180) avec en-tête, séparateur virgule
+     */
+    public long exportCsv(SignalementFilter filter, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(String.join(",", CSV_HEADER));
+        writer.write("\r\n");
+
+        long rows = stream(filter, rs -> {
+            Object[] values = {
+                    rs.getLong("id"), rs.getString("firebase_id"), rs.getObject("type_id"), rs.getString("libelle"),
+                    rs.getDouble("latitude"), rs.getDouble("longitude"), rs.getString("description"),
+                    rs.getString("status"), rs.getObject("surface_m2"), rs.getObject("budget"), rs.getObject("niveau"),
+                    isoDate(rs.getTimestamp("date_signalement")), isoDate(rs.getTimestamp("created_at")),
+                    isoDate(rs.getTimestamp("updated_at"))
+            };
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writer.write(csvField(values[i]));
+            }
+            writer.write("\r\n");
+        });
+
+        writer.flush();
+        return rows;
+    }
+
+    /**
+     * Parcourt les lignes filtrées avec un curseur côté serveur (autocommit désactivé + fetch size,
+     * sinon le pilote PostgreSQL charge tout le résultat en mémoire)
+     */
+    private long stream(SignalementFilter filter, RowWriter rowWriter) throws IOException {
+        List<Object> params = new ArrayList<>();
+        List<String> clauses = SignalementFilterSql.clauses(filter, "s", params);
+        String sql = SELECT_EXPORT + SignalementFilterSql.where(clauses) + " ORDER BY s.id";
+        long start = System.currentTimeMillis();
+        long rows = 0;
+
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            connection.setReadOnly(true);
+            try (PreparedStatement statement = connection.prepareStatement(
+                    sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                statement.setFetchSize(FETCH_SIZE);
+                for (int i = 0; i < params.size(); i++) {
+                    statement.setObject(i + 1, params.get(i));
+                }
+                try (ResultSet rs = statement.executeQuery()) {
+                    while (rs.next()) {
+                        rowWriter.write(rs);
+                        rows++;
+                    }
+                }
+            } finally {
+                connection.rollback();
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Export des signalements interrompu: " + e.getMessage(), e);
+        }
+
+        log.info("📤 Export signalements: {} lignes en {} ms", rows, System.currentTimeMillis() - start);
+        return rows;
+    }
+
+    private static void writeNumber(JsonGenerator json, String field, Object value) throws IOException {
+        if (value instanceof Number number) {
+            json.writeNumberField(field, new BigDecimal(number.toString()));
+        } else {
+            json.writeNullField(field);
+        }
+    }
+
+    private static String isoDate(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime().toString() : null;
+    }
+
+    static String csvField(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(ResultSet rs) throws SQLException, IOException;
+    }
+}
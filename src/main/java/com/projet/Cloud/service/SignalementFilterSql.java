@@ -0,0 +1,58 @@
+package com.projet.Cloud.service;
+
+import com.projet.Cloud.dto.SignalementFilter;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Traduction de {@link SignalementFilter} en clauses SQL paramétrées, pour les tables
+ * signalements et problemes (mêmes noms de colonnes)
+ */
+final class SignalementFilterSql {
+
+    private SignalementFilterSql() {}
+
+    /**
+     * Clauses à combiner par AND ; les valeurs sont ajoutées à {@code params} dans l'ordre des "?"
+     */
+    static List<String> clauses(SignalementFilter filter, String alias, List<Object> params) {
+        List<String> clauses = new ArrayList<>();
+        String a = alias + ".";
+
+        if (filter.getStatuses() != null && !filter.getStatuses().isEmpty()) {
+            clauses.add(a + "status IN (" + placeholders(filter.getStatuses().size()) + ")");
+            params.addAll(filter.getStatuses());
+        }
+        if (filter.getTypeIds() != null && !filter.getTypeIds().isEmpty()) {
+            clauses.add(a + "type_id IN (" + placeholders(filter.getTypeIds().size()) + ")");
+            params.addAll(filter.getTypeIds());
+        }
+        if (filter.hasBbox()) {
+            clauses.add(a + "longitude BETWEEN ? AND ? AND " + a + "latitude BETWEEN ? AND ?");
+            params.add(filter.getMinLon());
+            params.add(filter.getMaxLon());
+            params.add(filter.getMinLat());
+            params.add(filter.getMaxLat());
+        }
+        if (filter.getFrom() != null) {
+            clauses.add(a + "created_at >= ?");
+            params.add(Timestamp.valueOf(filter.getFrom()));
+        }
+        if (filter.getTo() != null) {
+            clauses.add(a + "created_at < ?");
+            params.add(Timestamp.valueOf(filter.getTo()));
+        }
+        return clauses;
+    }
+
+    static String where(List<String> clauses) {
+        return clauses.isEmpty() ? "" : " WHERE " + String.join(" AND ", clauses);
+    }
+
+    static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+}
@@ -0,0 +1,213 @@
+package com.projet.Cloud.service;
+
+import com.projet.Cloud.event.SignalementChangeEvent;
+import com.projet.Cloud.event.SignalementSnapshot;
+import com.projet.Cloud.model.SignalementRollup;
+import com.projet.Cloud.repository.SignalementRollupRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Séries temporelles des signalements, lues dans les agrégats journaliers
+ * (jour de création × type × statut) tenus à jour à chaque écriture.
+ *
+ * Les granularités semaine et mois regroupent les jours en mémoire : une année
+ * représente au plus 365 × types × statuts lignes, jamais les signalements eux-mêmes.
+ */
+@Service
+@Slf4j
+public class SignalementRollupService {
+
+    public enum Granularity {
+        DAY, WEEK, MONTH
+    }
+
+    private final SignalementRollupRepository rollupRepository;
+    private final TransactionTemplate requiresNew;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public SignalementRollupService(SignalementRollupRepository rollupRepository,
+                                    PlatformTransactionManager transactionManager) {
+        this.rollupRepository = rollupRepository;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Mise à jour incrémentale après commit de l'écriture (ou immédiatement hors transaction)
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSignalementChange(SignalementChangeEvent event) {
+        Map<SignalementRollup.Key, long[]> counts = new LinkedHashMap<>();
+        Map<SignalementRollup.Key, Double> budgets = new HashMap<>();
+        contribute(counts, budgets, event.before(), -1);
+        contribute(counts, budgets, event.after(), 1);
+        counts.entrySet().removeIf(e -> e.getValue()[0] == 0 && e.getValue()[1] == 0 && e.getValue()[2] == 0
+                && budgets.getOrDefault(e.getKey(), 0.0) == 0);
+        if (counts.isEmpty()) {
+            return;
+        }
+
+        // Même reprise que la heatmap : un second essai si l'agrégat a été créé en concurrence
+        Exception failure = null;
+        for (int attempt = 1; attempt <= 2; attempt++) {
+            try {
+                applyDeltas(counts, budgets);
+                return;
+            } catch (DataIntegrityViolationException e) {
+                failure = e;
+            } catch (Exception e) {
+                failure = e;
+                break;
+            }
+        }
+        log.warn("⚠️ Agrégats non mis à jour pour le signalement #{}: {} (POST /api/admin/rollups/rebuild pour recalculer)",
+                event.signalementId(), failure.getMessage());
+    }
+
+    /**
+     * Série sur [from, to], regroupée par période et éventuellement par type et/ou statut
+     */
+    public List<Map<String, Object>> getSeries(LocalDate from, LocalDate to, Granularity granularity,
+                                               List<Long> typeIds, List<String> statuses,
+                                               boolean byType, boolean byStatus) {
+        Map<List<Object>, long[]> counts = new TreeMap<>(SignalementRollupService::compareKeys);
+        Map<List<Object>, Double> budgets = new HashMap<>();
+
+        for (SignalementRollup rollup : rollupRepository.findRange(from, to)) {
+            if (typeIds != null && !typeIds.isEmpty() && !typeIds.contains(rollup.getTypeId())) {
+                continue;
+            }
+            if (statuses != null && !statuses.isEmpty() && !statuses.contains(rollup.getStatus())) {
+                continue;
+            }
+            List<Object> key = Arrays.asList(
+                    periodStart(rollup.getDay(), granularity),
+                    byType ? rollup.getTypeId() : null,
+                    byStatus ? rollup.getStatus() : null);
+            long[] c = counts.computeIfAbsent(key, k -> new long[3]);
+            c[0] += rollup.getReportCount();
+            c[1] += rollup.getResolvedCount();
+            c[2] += rollup.getResolutionSecondsSum();
+            budgets.merge(key, rollup.getBudgetSum(), Double::sum);
+        }
+
+        List<Map<String, Object>> series = new ArrayList<>(counts.size());
+        for (Map.Entry<List<Object>, long[]> entry : counts.entrySet()) {
+            List<Object> key = entry.getKey();
+            long[] c = entry.getValue();
+            Map<String, Object> point = new LinkedHashMap<>();
+            point.put("period", key.get(0).toString());
+            if (byType) {
+                point.put("typeId", key.get(1));
+            }
+            if (byStatus) {
+                point.put("status", key.get(2));
+            }
+            point.put("count", c[0]);
+            point.put("budget", budgets.get(key));
+            point.put("resolvedCount", c[1]);
+            point.put("meanResolutionHours", c[1] > 0 ? c[2] / 3600.0 / c[1] : null);
+            series.add(point);
+        }
+        return series;
+    }
+
+    /**
+     * Recalcule tous les agrégats depuis la table signalements (après un import JDBC
+     * qui ne passe pas par JPA, ou pour corriger une dérive)
+     */
+    public long rebuild() {
+        long start = System.currentTimeMillis();
+        Integer rows = requiresNew.execute(status -> {
+            // Signalements terminés avant l'ajout de resolved_at : la dernière modification fait foi
+            entityManager.createNativeQuery(
+                    "UPDATE signalements SET resolved_at = COALESCE(updated_at, created_at) "
+                    + "WHERE status = 'terminé' AND resolved_at IS NULL").executeUpdate();
+
+            entityManager.createQuery("DELETE FROM SignalementRollup").executeUpdate();
+            return entityManager.createNativeQuery(
+                    "INSERT INTO signalement_daily_rollups "
+                    + "(rollup_day, type_id, status, report_count, budget_sum, resolved_count, resolution_seconds_sum) "
+                    + "SELECT CAST(created_at AS DATE), type_id, status, COUNT(*), COALESCE(SUM(budget), 0), "
+                    + "COUNT(resolved_at), COALESCE(SUM(CASE WHEN resolved_at IS NULL THEN 0 ELSE GREATEST(0, "
+                    + "CAST(EXTRACT(EPOCH FROM resolved_at) - EXTRACT(EPOCH FROM created_at) AS BIGINT)) END), 0) "
+                    + "FROM signalements GROUP BY CAST(created_at AS DATE), type_id, status"
+            ).executeUpdate();
+        });
+
+        log.info("✅ Agrégats journaliers recalculés: {} lignes en {} ms", rows, System.currentTimeMillis() - start);
+        return rows != null ? rows : 0;
+    }
+
+    private void applyDeltas(Map<SignalementRollup.Key, long[]> counts, Map<SignalementRollup.Key, Double> budgets) {
+        requiresNew.executeWithoutResult(status -> {
+            for (Map.Entry<SignalementRollup.Key, long[]> entry : counts.entrySet()) {
+                SignalementRollup.Key key = entry.getKey();
+                long[] c = entry.getValue();
+                double budget = budgets.getOrDefault(key, 0.0);
+                int updated = rollupRepository.increment(key.getDay(), key.getTypeId(), key.getStatus(),
+                        c[0], budget, c[1], c[2]);
+                if (updated == 0) {
+                    rollupRepository.saveAndFlush(new SignalementRollup(key.getDay(), key.getTypeId(), key.getStatus(),
+                            c[0], budget, c[1], c[2]));
+                }
+            }
+        });
+    }
+
+    /**
+     * Contribution d'un état (nombre, résolus, secondes de résolution ; budget à part)
+     */
+    static void contribute(Map<SignalementRollup.Key, long[]> counts, Map<SignalementRollup.Key, Double> budgets,
+                           SignalementSnapshot snapshot, int sign) {
+        if (snapshot == null || snapshot.createdAt() == null || snapshot.typeId() == null || snapshot.status() == null) {
+            return;
+        }
+        SignalementRollup.Key key = new SignalementRollup.Key(
+                snapshot.createdAt().toLocalDate(), snapshot.typeId(), snapshot.status());
+        long[] c = counts.computeIfAbsent(key, k -> new long[3]);
+        c[0] += sign;
+        if (snapshot.resolvedAt() != null) {
+            c[1] += sign;
+            c[2] += sign * Math.max(0, Duration.between(snapshot.createdAt(), snapshot.resolvedAt()).getSeconds());
+        }
+        if (snapshot.budget() != null) {
+            budgets.merge(key, sign * snapshot.budget(), Double::sum);
+        }
+    }
+
+    static LocalDate periodStart(LocalDate day, Granularity granularity) {
+        return switch (granularity) {
+            case DAY -> day;
+            case WEEK -> day.with(DayOfWeek.MONDAY);
+            case MONTH -> day.withDayOfMonth(1);
+        };
+    }
+
+    private static int compareKeys(List<Object> a, List<Object> b) {
+        int cmp = ((LocalDate) a.get(0)).compareTo((LocalDate) b.get(0));
+        if (cmp != 0) {
+            return cmp;
+        }
+        cmp = Comparator.nullsFirst(Comparator.<Long>naturalOrder()).compare((Long) a.get(1), (Long) b.get(1));
+        if (cmp != 0) {
+            return cmp;
+        }
+        return Comparator.nullsFirst(Comparator.<String>naturalOrder()).compare((String) a.get(2), (String) b.get(2));
+    }
+}
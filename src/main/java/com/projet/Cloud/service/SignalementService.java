@@ -2,15 +2,20 @@ package com.projet.Cloud.service;
 
 import com.projet.Cloud.dto.CreateSignalementRequest;
 import com.projet.Cloud.dto.UpdateSignalementRequest;
+import com.projet.Cloud.event.SignalementChangeEvent;
+import com.projet.Cloud.event.SignalementSnapshot;
 import com.projet.Cloud.model.Signalement;
 import com.projet.Cloud.model.SignalementType;
 import com.projet.Cloud.model.User;
 import com.projet.Cloud.repository.SignalementRepository;
 import com.projet.Cloud.repository.SignalementTypeRepository;
 import com.projet.Cloud.repository.UserRepository;
+import com.projet.Cloud.util.SyncDocumentIds;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -25,6 +30,8 @@ public class SignalementService {
     private final UserRepository userRepository;
     private final FirebaseSignalementService firebaseSignalementService;
     private final PushNotificationService pushNotificationService;
+    private final CollectionVersionService collectionVersionService;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Créer un nouveau signalement
@@ -195,6 +202,32 @@ public class SignalementService {
         signalementRepository.deleteById(id);
     }
 
+    /**
+     * Recopie en base d'un commentaire ajouté dans Firestore (commentCount, lastCommentAt) ;
+     * le document peut être lié par firebase_id ou par un ID dérivé pg-{id}.
+     *
+     * L'incrément est un UPDATE en masse (aucun commentaire perdu en concurrence) qui ne passe pas
+     * par les listeners JPA : l'événement UPDATED est publié ici, comme pour les mises à jour en masse.
+     */
+    @Transactional
+    public boolean recordComment(String firebaseId, LocalDateTime at) {
+        Long localId = SyncDocumentIds.toLocalId(firebaseId);
+        List<SignalementSnapshot> before = signalementRepository.findByFirebaseIdOrId(firebaseId, localId).stream()
+                .map(s -> s.getLoadedState() != null ? s.getLoadedState() : SignalementSnapshot.of(s))
+                .toList();
+
+        int updated = signalementRepository.incrementCommentCount(firebaseId, localId, at);
+        if (updated > 0) {
+            // Champs du snapshot inchangés : journal des modifications et flux SSE, aucun delta d'agrégat
+            for (SignalementSnapshot snapshot : before) {
+                eventPublisher.publishEvent(new SignalementChangeEvent(SignalementChangeEvent.Type.UPDATED,
+                        snapshot, snapshot));
+            }
+            collectionVersionService.bump(CollectionVersionService.SIGNALEMENTS);
+        }
+        return updated > 0;
+    }
+
     /**
      * Récupérer les statistiques des signalements
      */
@@ -1,22 +1,30 @@
 package com.projet.Cloud.service;
 
-import com.google.cloud.Timestamp;
 import com.projet.Cloud.model.Probleme;
 import com.projet.Cloud.model.Signalement;
 import com.projet.Cloud.model.User;
 import com.projet.Cloud.model.Role;
+import com.projet.Cloud.model.SyncCheckpoint;
 import com.projet.Cloud.repository.ProblemeRepository;
 import com.projet.Cloud.repository.RoleRepository;
 import com.projet.Cloud.repository.SignalementRepository;
 import com.projet.Cloud.repository.SignalementTypeRepository;
+import com.projet.Cloud.repository.SyncCheckpointRepository;
 import com.projet.Cloud.repository.UserRepository;
+import com.projet.Cloud.util.FirestoreValues;
+import com.projet.Cloud.util.SyncDocumentIds;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseAuthException;
 import com.google.firebase.auth.UserRecord;
+import com.projet.Cloud.dto.SyncPhaseReport;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -24,13 +32,16 @@ import org.springframework.transaction.annotation.Transactional;
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.net.Socket;
-import java.time.Instant;
 import java.time.LocalDateTime;
-import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * Service de synchronisation entre Firebase et la base locale
@@ -49,6 +60,19 @@ public class SyncService {
     private final ProblemeRepository problemeRepository;
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
+    private final SyncCheckpointRepository syncCheckpointRepository;
+    private final FirestoreRateLimiter firestoreRateLimiter;
+    private final MeterRegistry meterRegistry;
+    private final ObjectProvider<FirebaseAuth> firebaseAuth;
+    private final CollectionVersionService collectionVersionService;
+
+    private static final String PHASE_TYPES_FROM_FIREBASE = "types_from_firebase";
+    private static final String PHASE_SIGNALEMENTS_FROM_FIREBASE = "signalements_from_firebase";
+    private static final String PHASE_PROBLEMES_FROM_FIREBASE = "problemes_from_firebase";
+    private static final String PHASE_SIGNALEMENTS_TO_FIREBASE = "signalements_to_firebase";
+    private static final String PHASE_PROBLEMES_TO_FIREBASE = "problemes_to_firebase";
+    private static final int SYNC_PAGE_SIZE = 100;
+    private static final int MAX_CONSECUTIVE_FAILURES = 10;
     
     private boolean wasOffline = false;
 
@@ -59,7 +83,12 @@ public class SyncService {
                       SignalementTypeRepository signalementTypeRepository,
                       ProblemeRepository problemeRepository,
                       UserRepository userRepository,
-                      RoleRepository roleRepository) {
+                      RoleRepository roleRepository,
+                      SyncCheckpointRepository syncCheckpointRepository,
+                      FirestoreRateLimiter firestoreRateLimiter,
+                      MeterRegistry meterRegistry,
+                      ObjectProvider<FirebaseAuth> firebaseAuth,
+                      CollectionVersionService collectionVersionService) {
         this.firebaseSignalementService = firebaseSignalementService;
         this.firebaseProblemeService = firebaseProblemeService;
         this.signalementRepository = signalementRepository;
@@ -67,6 +96,11 @@ public class SyncService {
         this.problemeRepository = problemeRepository;
         this.userRepository = userRepository;
         this.roleRepository = roleRepository;
+        this.syncCheckpointRepository = syncCheckpointRepository;
+        this.firestoreRateLimiter = firestoreRateLimiter;
+        this.meterRegistry = meterRegistry;
+        this.firebaseAuth = firebaseAuth;
+        this.collectionVersionService = collectionVersionService;
     }
 
     /**
@@ -89,110 +123,223 @@ public class SyncService {
 
     /**
      * Synchronise les données en attente vers Firebase
+     * Retourne le bilan de chaque phase (aussi publié dans les métriques sync.*)
      */
-    private void syncPendingData() {
+    private List<SyncPhaseReport> syncPendingData() {
+        log.info("Synchronisation des données en attente vers Firebase");
+        List<SyncPhaseReport> reports = new ArrayList<>();
+
+        // Firebase → PostgreSQL (lecture depuis Firebase)
+        reports.add(runPhase(PHASE_TYPES_FROM_FIREBASE, this::syncSignalementTypesFromFirebase));
+        reports.add(runPhase(PHASE_SIGNALEMENTS_FROM_FIREBASE, this::syncSignalementsFromFirebase));
+        reports.add(runPhase(PHASE_PROBLEMES_FROM_FIREBASE, this::syncProblemeFromFirebase));
+
+        // PostgreSQL → Firebase (envoi vers Firebase)
+        reports.add(runPhase(PHASE_SIGNALEMENTS_TO_FIREBASE, this::syncSignalementsToFirebase));
+        reports.add(runPhase(PHASE_PROBLEMES_TO_FIREBASE, this::syncProblemesToFirebase));
+        return reports;
+    }
+
+    /**
+     * Exécute une phase en mesurant sa durée et publie ses compteurs de lignes
+     * (sync.phase : timer par phase et statut, sync.rows : lignes par phase et résultat)
+     */
+    private SyncPhaseReport runPhase(String phase, Consumer<SyncPhaseReport> body) {
+        SyncPhaseReport report = new SyncPhaseReport(phase);
+        Timer.Sample sample = Timer.start(meterRegistry);
         try {
-            log.info("Synchronisation des données en attente vers Firebase");
-            
-            // Firebase → PostgreSQL (lecture depuis Firebase)
-            syncSignalementTypesFromFirebase();
-            syncSignalementsFromFirebase();
-            syncProblemeFromFirebase();
-            
-            // PostgreSQL → Firebase (envoi vers Firebase)
-            syncSignalementsToFirebase();
-            syncProblemesToFirebase();
+            body.accept(report);
         } catch (Exception e) {
-            log.error("Erreur lors de la synchronisation: {}", e.getMessage(), e);
+            log.error("Erreur lors de la synchronisation ({}): {}", phase, e.getMessage(), e);
+            report.setError(e.getMessage());
         }
+
+        String status = report.getError() == null ? "success" : "error";
+        long elapsedNanos = sample.stop(meterRegistry.timer("sync.phase", "phase", phase, "status", status));
+        report.setDurationMs(TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+
+        countRows(phase, "scanned", report.getScanned());
+        countRows(phase, "written", report.getWritten());
+        countRows(phase, "skipped", report.getSkipped());
+        countRows(phase, "failed", report.getFailed());
+        return report;
+    }
+
+    private void countRows(String phase, String outcome, long rows) {
+        meterRegistry.counter("sync.rows", "phase", phase, "outcome", outcome).increment(rows);
     }
     
     /**
      * Synchronise les signalements de PostgreSQL vers Firebase
-     * Envoie tous les signalements qui n'ont pas encore de firebaseId
+     * Parcourt les signalements par id croissant et reprend après le dernier checkpoint
+     * si l'exécution précédente a été interrompue
      */
     @Transactional
-    protected void syncSignalementsToFirebase() {
+    protected void syncSignalementsToFirebase(SyncPhaseReport report) {
         try {
             log.info("🔄 Synchronisation PostgreSQL → Firebase pour signalements...");
-            
-            // Récupérer tous les signalements
-            List<Signalement> allSignalements = signalementRepository.findAll();
-            int syncedCount = 0;
-            int errorCount = 0;
-            
-            for (Signalement signalement : allSignalements) {
-                try {
-                    String firebaseId = signalement.getFirebaseId();
-                    
-                    if (firebaseId == null || firebaseId.isBlank()) {
-                        // Créer dans Firebase si n'existe pas
-                        firebaseId = firebaseSignalementService.createSignalement(signalement);
-                        signalement.setFirebaseId(firebaseId);
-                        signalementRepository.save(signalement);
-                        log.info("✅ Signalement #{} créé dans Firebase: {}", signalement.getId(), firebaseId);
-                        syncedCount++;
-                    } else {
-                        // Mettre à jour dans Firebase si existe déjà
-                        firebaseSignalementService.updateSignalement(firebaseId, signalement);
-                        log.debug("✅ Signalement #{} mis à jour dans Firebase: {}", signalement.getId(), firebaseId);
-                        syncedCount++;
-                    }
-                } catch (Exception e) {
-                    log.error("❌ Erreur sync signalement #{} vers Firebase: {}", signalement.getId(), e.getMessage());
-                    errorCount++;
-                }
-            }
-            
-            log.info("✅ Synchronisation PostgreSQL → Firebase terminée: {} signalements synchronisés, {} erreurs", 
-                     syncedCount, errorCount);
+            pushToFirebase(PHASE_SIGNALEMENTS_TO_FIREBASE, "signalement", report,
+                    cursor -> signalementRepository.findByIdGreaterThanOrderByIdAsc(cursor, PageRequest.of(0, SYNC_PAGE_SIZE)),
+                    Signalement::getId,
+                    this::pushSignalement);
         } catch (Exception e) {
             log.error("❌ Erreur sync signalements PostgreSQL → Firebase: {}", e.getMessage(), e);
+            report.setError(e.getMessage());
+        }
+    }
+
+    /**
+     * Envoie la version PostgreSQL d'un signalement vers Firebase (création ou mise à jour)
+     */
+    public void pushSignalement(Signalement signalement) throws ExecutionException, InterruptedException {
+        String firebaseId = signalement.getFirebaseId();
+
+        if (firebaseId == null || firebaseId.isBlank()) {
+            // Créer dans Firebase si n'existe pas (ID déterministe : un rejeu réécrit le même document)
+            firebaseId = firestoreRateLimiter.call(() -> firebaseSignalementService.createSignalement(signalement));
+            signalement.setFirebaseId(firebaseId);
+            signalementRepository.save(signalement);
+            log.info("✅ Signalement #{} créé dans Firebase: {}", signalement.getId(), firebaseId);
+        } else {
+            // Mettre à jour dans Firebase si existe déjà
+            String documentId = firebaseId;
+            firestoreRateLimiter.run(() -> firebaseSignalementService.updateSignalement(documentId, signalement));
+            log.debug("✅ Signalement #{} mis à jour dans Firebase: {}", signalement.getId(), firebaseId);
         }
     }
     
     /**
      * Synchronise les problèmes de PostgreSQL vers Firebase
-     * Envoie tous les problèmes qui n'ont pas encore de firebaseId
+     * Même reprise sur checkpoint que pour les signalements
      */
     @Transactional
-    protected void syncProblemesToFirebase() {
+    protected void syncProblemesToFirebase(SyncPhaseReport report) {
         try {
             log.info("🔄 Synchronisation PostgreSQL → Firebase pour problèmes...");
-            
-            // Récupérer tous les problèmes
-            List<Probleme> allProblemes = problemeRepository.findAll();
-            int syncedCount = 0;
-            int errorCount = 0;
-            
-            for (Probleme probleme : allProblemes) {
+            pushToFirebase(PHASE_PROBLEMES_TO_FIREBASE, "problème", report,
+                    cursor -> problemeRepository.findByIdGreaterThanOrderByIdAsc(cursor, PageRequest.of(0, SYNC_PAGE_SIZE)),
+                    Probleme::getId,
+                    this::pushProbleme);
+        } catch (Exception e) {
+            log.error("❌ Erreur sync problèmes PostgreSQL → Firebase: {}", e.getMessage(), e);
+            report.setError(e.getMessage());
+        }
+    }
+
+    /**
+     * Envoie la version PostgreSQL d'un problème vers Firebase (création ou mise à jour)
+     */
+    public void pushProbleme(Probleme probleme) throws ExecutionException, InterruptedException {
+        String firebaseId = probleme.getFirebaseId();
+
+        if (firebaseId == null || firebaseId.isBlank()) {
+            firebaseId = firestoreRateLimiter.call(() -> firebaseProblemeService.createProbleme(probleme));
+            probleme.setFirebaseId(firebaseId);
+            problemeRepository.save(probleme);
+            log.info("✅ Problème #{} créé dans Firebase: {}", probleme.getId(), firebaseId);
+        } else {
+            String documentId = firebaseId;
+            firestoreRateLimiter.run(() -> firebaseProblemeService.updateProbleme(documentId, probleme));
+            log.debug("✅ Problème #{} mis à jour dans Firebase: {}", probleme.getId(), firebaseId);
+        }
+    }
+
+    /**
+     * Boucle commune d'envoi vers Firebase avec checkpoint persistant.
+     * Le curseur s'arrête juste avant la première ligne en échec de l'exécution, même si des
+     * lignes suivantes passent : après un crash, une interruption ou une série d'échecs consécutifs
+     * (Firestore indisponible), la reprise renvoie cette ligne puis les suivantes (écritures
+     * idempotentes par ID) au lieu de repartir de la première ligne. Une passe menée jusqu'au bout
+     * malgré des échecs est close : la suivante repart du début et renvoie aussi ces lignes.
+     */
+    private <T> void pushToFirebase(String phase, String label, SyncPhaseReport report,
+                                    Function<Long, List<T>> pageLoader,
+                                    Function<T, Long> idOf,
+                                    FirebasePush<T> push) {
+        SyncCheckpoint checkpoint = startOrResumeCheckpoint(phase);
+        long cursor = checkpoint.getLastProcessedId();
+        long safeCursor = cursor;
+        Long firstFailedId = null;
+        int consecutiveFailures = 0;
+
+        List<T> page;
+        do {
+            page = pageLoader.apply(cursor);
+
+            for (T entity : page) {
+                Long id = idOf.apply(entity);
+                report.incrementScanned();
                 try {
-                    String firebaseId = probleme.getFirebaseId();
-                    
-                    if (firebaseId == null || firebaseId.isBlank()) {
-                        // Créer dans Firebase si n'existe pas
-                        firebaseId = firebaseProblemeService.createProbleme(probleme);
-                        probleme.setFirebaseId(firebaseId);
-                        problemeRepository.save(probleme);
-                        log.info("✅ Problème #{} créé dans Firebase: {}", probleme.getId(), firebaseId);
-                        syncedCount++;
-                    } else {
-                        // Mettre à jour dans Firebase si existe déjà
-                        firebaseProblemeService.updateProbleme(firebaseId, probleme);
-                        log.debug("✅ Problème #{} mis à jour dans Firebase: {}", probleme.getId(), firebaseId);
-                        syncedCount++;
+                    push.push(entity);
+                    report.incrementWritten();
+                    consecutiveFailures = 0;
+                    if (firstFailedId == null) {
+                        safeCursor = id;
                     }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    saveCheckpoint(checkpoint, safeCursor);
+                    log.warn("⏸️ Phase {} interrompue, reprise après #{}", phase, safeCursor);
+                    report.setError("Interrompue, reprise après #" + safeCursor);
+                    return;
                 } catch (Exception e) {
-                    log.error("❌ Erreur sync problème #{} vers Firebase: {}", probleme.getId(), e.getMessage());
-                    errorCount++;
+                    log.error("❌ Erreur sync {} #{} vers Firebase: {}", label, id, e.getMessage());
+                    report.incrementFailed();
+                    if (firstFailedId == null) {
+                        firstFailedId = id;
+                    }
+                    consecutiveFailures++;
+                    if (consecutiveFailures >= MAX_CONSECUTIVE_FAILURES) {
+                        saveCheckpoint(checkpoint, safeCursor);
+                        log.warn("⏸️ Phase {} suspendue après {} échecs consécutifs, reprise après #{}",
+                                 phase, consecutiveFailures, safeCursor);
+                        report.setError("Suspendue après " + consecutiveFailures + " échecs consécutifs");
+                        return;
+                    }
                 }
+                cursor = id;
             }
-            
-            log.info("✅ Synchronisation PostgreSQL → Firebase terminée: {} problèmes synchronisés, {} erreurs", 
-                     syncedCount, errorCount);
-        } catch (Exception e) {
-            log.error("❌ Erreur sync problèmes PostgreSQL → Firebase: {}", e.getMessage(), e);
+
+            saveCheckpoint(checkpoint, safeCursor);
+        } while (page.size() == SYNC_PAGE_SIZE);
+
+        checkpoint.setCompletedAt(LocalDateTime.now());
+        saveCheckpoint(checkpoint, safeCursor);
+
+        log.info("✅ Synchronisation PostgreSQL → Firebase terminée ({}): {} synchronisés, {} erreurs{}",
+                 phase, report.getWritten(), report.getFailed(),
+                 firstFailedId != null ? ", premier échec #" + firstFailedId : "");
+    }
+
+    /**
+     * Reprend l'exécution en cours d'une phase ou en démarre une nouvelle depuis le début
+     */
+    private SyncCheckpoint startOrResumeCheckpoint(String phase) {
+        SyncCheckpoint checkpoint = syncCheckpointRepository.findById(phase)
+                .orElseGet(() -> new SyncCheckpoint(phase));
+
+        if (checkpoint.isInProgress()) {
+            log.info("⏯️ Reprise de la phase {} après #{} (exécution démarrée le {})",
+                     phase, checkpoint.getLastProcessedId(), checkpoint.getRunStartedAt());
+        } else {
+            checkpoint.setLastProcessedId(0L);
+            checkpoint.setRunStartedAt(LocalDateTime.now());
+            checkpoint.setCompletedAt(null);
         }
+
+        checkpoint.setUpdatedAt(LocalDateTime.now());
+        return syncCheckpointRepository.save(checkpoint);
+    }
+
+    private void saveCheckpoint(SyncCheckpoint checkpoint, long lastProcessedId) {
+        checkpoint.setLastProcessedId(lastProcessedId);
+        checkpoint.setUpdatedAt(LocalDateTime.now());
+        syncCheckpointRepository.save(checkpoint);
+    }
+
+    @FunctionalInterface
+    private interface FirebasePush<T> {
+        void push(T entity) throws ExecutionException, InterruptedException;
     }
 
     /**
@@ -200,25 +347,27 @@ public class SyncService {
      * Firebase collection: signalementTypes -> PostgreSQL table: type
      */
     @Transactional
-    protected void syncSignalementTypesFromFirebase() {
+    protected void syncSignalementTypesFromFirebase(SyncPhaseReport report) {
         try {
             log.info("🔄 Synchronisation des types depuis Firebase (signalementTypes) vers PostgreSQL (type)...");
             List<Map<String, Object>> firebaseTypes = firebaseSignalementService.getAllSignalementTypes();
-            int syncedCount = 0;
 
             for (Map<String, Object> data : firebaseTypes) {
-                Long typeId = extractLong(data.get("id"));
+                report.incrementScanned();
+                Long typeId = FirestoreValues.extractLong(data.get("id"));
                 if (typeId == null) {
                     log.warn("⚠️ Type sans ID ignoré");
+                    report.incrementSkipped();
                     continue;
                 }
 
-                String libelle = getAsString(data.get("libelle"));
-                String iconColor = getAsString(data.get("iconColor"));
-                String iconSymbol = getAsString(data.get("iconSymbol"));
+                String libelle = FirestoreValues.getAsString(data.get("libelle"));
+                String iconColor = FirestoreValues.getAsString(data.get("iconColor"));
+                String iconSymbol = FirestoreValues.getAsString(data.get("iconSymbol"));
 
                 if (libelle == null || libelle.isBlank()) {
                     log.warn("⚠️ Type {} sans libellé ignoré", typeId);
+                    report.incrementSkipped();
                     continue;
                 }
 
@@ -237,8 +386,7 @@ public class SyncService {
                 .setParameter("iconColor", iconColor)
                 .setParameter("iconSymbol", iconSymbol)
                 .executeUpdate();
-
-                syncedCount++;
+                report.incrementWritten();
             }
 
             // Mettre à jour la séquence pour les futurs inserts
@@ -246,30 +394,36 @@ public class SyncService {
                 "SELECT setval('type_id_seq', (SELECT MAX(id) FROM type))"
             ).getSingleResult();
 
-            log.info("✅ Synchronisation types terminée: {} types synchronisés (Firebase → PostgreSQL)", syncedCount);
+            // Écritures natives : pas de callback JPA pour invalider les ETags
+            collectionVersionService.bump(CollectionVersionService.SIGNALEMENT_TYPES);
+
+            log.info("✅ Synchronisation types terminée: {} types synchronisés (Firebase → PostgreSQL)", report.getWritten());
         } catch (Exception e) {
             log.error("❌ Erreur sync types Firebase (signalementTypes) -> Postgres (type): {}", e.getMessage(), e);
+            report.setError(e.getMessage());
         }
     }
 
     @Transactional
-    protected void syncSignalementsFromFirebase() {
+    protected void syncSignalementsFromFirebase(SyncPhaseReport report) {
         try {
             List<Map<String, Object>> firebaseSignalements = firebaseSignalementService.getAllSignalements();
-            int syncedCount = 0;
+            List<Signalement> pending = new ArrayList<>();
 
             for (Map<String, Object> data : firebaseSignalements) {
-                String firebaseId = getAsString(data.get("firebaseId"));
+                report.incrementScanned();
+                String firebaseId = FirestoreValues.getAsString(data.get("firebaseId"));
                 if (firebaseId == null || firebaseId.isBlank()) {
+                    report.incrementSkipped();
                     continue;
                 }
 
-                Optional<Signalement> existingOpt = signalementRepository.findByFirebaseId(firebaseId);
+                Optional<Signalement> existingOpt = findLocalSignalement(firebaseId, data);
                 Signalement signalement = existingOpt.orElseGet(Signalement::new);
                 signalement.setFirebaseId(firebaseId);
 
                 User resolvedUser = resolveUser(data);
-                Long typeId = extractLong(data.get("typeId"));
+                Long typeId = FirestoreValues.extractLong(data.get("typeId"));
 
                 if (resolvedUser != null) {
                     signalement.setUser(resolvedUser);
@@ -280,106 +434,162 @@ public class SyncService {
                 }
 
                 if (signalement.getUser() == null || signalement.getType() == null) {
+                    report.incrementSkipped();
                     continue;
                 }
 
-                signalement.setLatitude(extractDouble(data.get("latitude")));
-                signalement.setLongitude(extractDouble(data.get("longitude")));
-                signalement.setDescription(getAsString(data.get("description")));
-                signalement.setSurfaceM2(extractDouble(data.get("surfaceM2")));
-                signalement.setBudget(extractDouble(data.get("budget")));
-                signalement.setStatus(getAsString(data.get("status")) != null ? getAsString(data.get("status")) : "nouveau");
+                signalement.setLatitude(FirestoreValues.extractDouble(data.get("latitude")));
+                signalement.setLongitude(FirestoreValues.extractDouble(data.get("longitude")));
+                signalement.setDescription(FirestoreValues.getAsString(data.get("description")));
+                signalement.setSurfaceM2(FirestoreValues.extractDouble(data.get("surfaceM2")));
+                signalement.setBudget(FirestoreValues.extractDouble(data.get("budget")));
+                signalement.setStatus(FirestoreValues.getAsString(data.get("status")) != null ? FirestoreValues.getAsString(data.get("status")) : "nouveau");
 
-                LocalDateTime createdAt = toLocalDateTime(data.get("createdAt"));
+                LocalDateTime createdAt = FirestoreValues.toLocalDateTime(data.get("createdAt"));
                 if (createdAt != null) {
                     signalement.setCreatedAt(createdAt);
                 }
 
-                LocalDateTime dateSignalement = toLocalDateTime(data.get("dateSignalement"));
+                LocalDateTime dateSignalement = FirestoreValues.toLocalDateTime(data.get("dateSignalement"));
                 if (dateSignalement != null) {
                     signalement.setDateSignalement(dateSignalement);
                 }
 
-                LocalDateTime updatedAt = toLocalDateTime(data.get("updatedAt"));
+                LocalDateTime updatedAt = FirestoreValues.toLocalDateTime(data.get("updatedAt"));
                 if (updatedAt != null) {
                     signalement.setUpdatedAt(updatedAt);
                 }
 
-                signalementRepository.save(signalement);
-                syncedCount++;
+                // Les compteurs du document Firestore font foi (corrige une recopie manquée)
+                Long commentCount = FirestoreValues.extractLong(data.get("commentCount"));
+                if (commentCount != null) {
+                    signalement.setCommentCount(commentCount.intValue());
+                    signalement.setLastCommentAt(FirestoreValues.toLocalDateTime(data.get("lastCommentAt")));
+                }
+
+                // Écritures groupées : les INSERT/UPDATE partent en lots JDBC
+                pending.add(signalement);
+                report.incrementWritten();
+                if (pending.size() == SYNC_PAGE_SIZE) {
+                    signalementRepository.saveAll(pending);
+                    pending.clear();
+                }
             }
+            signalementRepository.saveAll(pending);
 
-            log.info("Synchronisation signalements terminée: {} enregistrements", syncedCount);
+            log.info("Synchronisation signalements terminée: {} enregistrements", report.getWritten());
         } catch (Exception e) {
             log.error("Erreur sync signalements Firebase -> Postgres: {}", e.getMessage(), e);
+            report.setError(e.getMessage());
         }
     }
 
     @Transactional
-    protected void syncProblemeFromFirebase() {
+    protected void syncProblemeFromFirebase(SyncPhaseReport report) {
         try {
             List<Map<String, Object>> firebaseProblemes = firebaseProblemeService.getOpenProblemes();
-            int syncedCount = 0;
+            List<Probleme> pending = new ArrayList<>();
 
             for (Map<String, Object> data : firebaseProblemes) {
-                String firebaseId = getAsString(data.get("firebaseId"));
+                report.incrementScanned();
+                String firebaseId = FirestoreValues.getAsString(data.get("firebaseId"));
                 if (firebaseId == null || firebaseId.isBlank()) {
+                    report.incrementSkipped();
                     continue;
                 }
 
                 // Ignorer les documents exemple
                 if (Boolean.TRUE.equals(data.get("_isExample"))) {
+                    report.incrementSkipped();
                     continue;
                 }
 
-                Optional<Probleme> existingOpt = problemeRepository.findByFirebaseId(firebaseId);
+                Optional<Probleme> existingOpt = findLocalProbleme(firebaseId, data);
                 Probleme probleme = existingOpt.orElseGet(Probleme::new);
                 probleme.setFirebaseId(firebaseId);
 
                 User resolvedUser = resolveUser(data);
                 if (resolvedUser == null) {
                     log.warn("⚠️ Problème {} sans userId valide", firebaseId);
+                    report.incrementSkipped();
                     continue;
                 }
 
                 probleme.setUser(resolvedUser);
 
                 // Type est optionnel
-                Long typeId = extractLong(data.get("typeId"));
+                Long typeId = FirestoreValues.extractLong(data.get("typeId"));
                 if (typeId != null) {
                     signalementTypeRepository.findById(typeId).ifPresent(probleme::setType);
                 }
 
-                String status = getAsString(data.get("status"));
+                String status = FirestoreValues.getAsString(data.get("status"));
                 if (status != null && !"ouvert".equalsIgnoreCase(status)) {
+                    report.incrementSkipped();
                     continue;
                 }
 
-                probleme.setLatitude(extractDouble(data.get("latitude")));
-                probleme.setLongitude(extractDouble(data.get("longitude")));
-                probleme.setDescription(getAsString(data.get("description")));
+                probleme.setLatitude(FirestoreValues.extractDouble(data.get("latitude")));
+                probleme.setLongitude(FirestoreValues.extractDouble(data.get("longitude")));
+                probleme.setDescription(FirestoreValues.getAsString(data.get("description")));
                 probleme.setStatus(status != null ? status : "ouvert");
 
-                LocalDateTime createdAt = toLocalDateTime(data.get("createdAt"));
+                LocalDateTime createdAt = FirestoreValues.toLocalDateTime(data.get("createdAt"));
                 if (createdAt != null) {
                     probleme.setCreatedAt(createdAt);
                 }
 
-                LocalDateTime updatedAt = toLocalDateTime(data.get("updatedAt"));
+                LocalDateTime updatedAt = FirestoreValues.toLocalDateTime(data.get("updatedAt"));
                 if (updatedAt != null) {
                     probleme.setUpdatedAt(updatedAt);
                 }
 
-                problemeRepository.save(probleme);
-                syncedCount++;
+                pending.add(probleme);
+                report.incrementWritten();
+                if (pending.size() == SYNC_PAGE_SIZE) {
+                    problemeRepository.saveAll(pending);
+                    pending.clear();
+                }
             }
+            problemeRepository.saveAll(pending);
 
-            log.info("✅ Synchronisation problèmes terminée: {} enregistrements synced", syncedCount);
+            log.info("✅ Synchronisation problèmes terminée: {} enregistrements synced", report.getWritten());
         } catch (Exception e) {
             log.error("❌ Erreur sync problèmes Firebase -> Postgres: {}", e.getMessage(), e);
+            report.setError(e.getMessage());
         }
     }
 
+    /**
+     * Ligne locale d'un document Firestore : par firebaseId, sinon par l'ID local du document
+     * (pg-N ou champ localId) quand l'envoi a été interrompu entre le set Firestore et
+     * l'enregistrement du firebaseId ; le firebaseId est alors recopié sur la ligne existante
+     */
+    Optional<Signalement> findLocalSignalement(String firebaseId, Map<String, Object> data) {
+        Optional<Signalement> existing = signalementRepository.findByFirebaseId(firebaseId);
+        if (existing.isPresent()) {
+            return existing;
+        }
+        Long localId = localIdOf(firebaseId, data);
+        return localId == null ? Optional.empty() : signalementRepository.findById(localId)
+                .filter(signalement -> signalement.getFirebaseId() == null || signalement.getFirebaseId().isBlank());
+    }
+
+    Optional<Probleme> findLocalProbleme(String firebaseId, Map<String, Object> data) {
+        Optional<Probleme> existing = problemeRepository.findByFirebaseId(firebaseId);
+        if (existing.isPresent()) {
+            return existing;
+        }
+        Long localId = localIdOf(firebaseId, data);
+        return localId == null ? Optional.empty() : problemeRepository.findById(localId)
+                .filter(probleme -> probleme.getFirebaseId() == null || probleme.getFirebaseId().isBlank());
+    }
+
+    private static Long localIdOf(String firebaseId, Map<String, Object> data) {
+        Long localId = SyncDocumentIds.toLocalId(firebaseId);
+        return localId != null ? localId : FirestoreValues.extractLong(data.get("localId"));
+    }
+
     private User resolveUser(Object userObj) {
         if (userObj == null) return null;
 
@@ -390,7 +600,7 @@ public class SyncService {
 
         if (userObj instanceof String) {
             String raw = (String) userObj;
-            Long parsedId = parseLongSafe(raw);
+            Long parsedId = FirestoreValues.parseLongSafe(raw);
             if (parsedId != null) {
                 return userRepository.findById(parsedId).orElse(null);
             }
@@ -405,7 +615,7 @@ public class SyncService {
                 return userRepository.findById(((Number) id).longValue()).orElse(null);
             }
             if (id instanceof String) {
-                Long parsedId = parseLongSafe((String) id);
+                Long parsedId = FirestoreValues.parseLongSafe((String) id);
                 if (parsedId != null) {
                     return userRepository.findById(parsedId).orElse(null);
                 }
@@ -433,7 +643,7 @@ public class SyncService {
         if (existing != null) return existing;
 
         try {
-            UserRecord record = FirebaseAuth.getInstance().getUser(firebaseUid);
+            UserRecord record = firebaseAuth.getObject().getUser(firebaseUid);
             if (record.getEmail() != null && !record.getEmail().isBlank()) {
                 User byEmail = userRepository.findByEmail(record.getEmail()).orElse(null);
                 if (byEmail != null) {
@@ -474,13 +684,13 @@ public class SyncService {
     private Long extractUserId(Object userObj) {
         if (userObj == null) return null;
         if (userObj instanceof Number) return ((Number) userObj).longValue();
-        if (userObj instanceof String) return parseLongSafe((String) userObj);
+        if (userObj instanceof String) return FirestoreValues.parseLongSafe((String) userObj);
         if (userObj instanceof Map) {
             Map<?, ?> map = (Map<?, ?>) userObj;
             Object id = map.get("id");
             if (id == null) id = map.get("userId");
             if (id instanceof Number) return ((Number) id).longValue();
-            if (id instanceof String) return parseLongSafe((String) id);
+            if (id instanceof String) return FirestoreValues.parseLongSafe((String) id);
             Object email = map.get("email");
             if (email instanceof String) {
                 return userRepository.findByEmail((String) email)
@@ -491,64 +701,6 @@ public class SyncService {
         return null;
     }
 
-    private Long extractLong(Object value) {
-        if (value == null) return null;
-        if (value instanceof Number) return ((Number) value).longValue();
-        if (value instanceof String) return parseLongSafe((String) value);
-        return null;
-    }
-
-    private Double extractDouble(Object value) {
-        if (value == null) return null;
-        if (value instanceof Number) return ((Number) value).doubleValue();
-        if (value instanceof String) {
-            try {
-                return Double.parseDouble((String) value);
-            } catch (NumberFormatException e) {
-                return null;
-            }
-        }
-        return null;
-    }
-
-    private String getAsString(Object value) {
-        return value == null ? null : String.valueOf(value);
-    }
-
-    private Long parseLongSafe(String value) {
-        try {
-            return Long.parseLong(value);
-        } catch (NumberFormatException e) {
-            return null;
-        }
-    }
-
-    private LocalDateTime toLocalDateTime(Object value) {
-        if (value == null) return null;
-        if (value instanceof Timestamp) {
-            Timestamp ts = (Timestamp) value;
-            return LocalDateTime.ofInstant(ts.toDate().toInstant(), ZoneId.systemDefault());
-        }
-        if (value instanceof Map) {
-            Map<?, ?> map = (Map<?, ?>) value;
-            Object secondsObj = map.get("seconds");
-            Object nanosObj = map.get("nanoseconds");
-            if (secondsObj instanceof Number) {
-                long seconds = ((Number) secondsObj).longValue();
-                long nanos = nanosObj instanceof Number ? ((Number) nanosObj).longValue() : 0L;
-                return LocalDateTime.ofInstant(Instant.ofEpochSecond(seconds, nanos), ZoneId.systemDefault());
-            }
-        }
-        if (value instanceof String) {
-            try {
-                return LocalDateTime.parse((String) value);
-            } catch (Exception e) {
-                return null;
-            }
-        }
-        return null;
-    }
-
     /**
      * Vérifie la disponibilité d'internet
      */
@@ -564,7 +716,7 @@ public class SyncService {
     /**
      * Force la synchronisation manuelle
      */
-    public void forceSyncNow() {
+    public List<SyncPhaseReport> forceSyncNow() {
         if (!isInternetAvailable()) {
             log.warn("Impossible de synchroniser - Pas de connexion internet");
             throw new RuntimeException("Pas de connexion internet");
@@ -573,7 +725,7 @@ public class SyncService {
         ensureFirebaseAvailable();
 
         log.info("Synchronisation forcée démarrée");
-        syncPendingData();
+        return syncPendingData();
     }
 
     private void ensureFirebaseAvailable() {
@@ -0,0 +1,230 @@
+package com.projet.Cloud.service;
+
+import com.projet.Cloud.model.RevokedToken;
+import com.projet.Cloud.repository.RevokedTokenRepository;
+import com.projet.Cloud.security.JwtAuthorities;
+import com.projet.Cloud.util.BloomFilter;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Révocation des JWT avant leur expiration (déconnexion, changement de mot de passe,
+ * déconnexion forcée par un manager).
+ *
+ * La liste fait foi en base (revoked_tokens) ; chaque instance en garde une copie : un filtre
+ * de Bloom pour écarter en quelques sondages les jetons non révoqués (presque tous), et la table
+ * exacte pour confirmer les positifs. Aucune requête SQL par appel authentifié. Les révocations
+ * des autres instances arrivent par relecture incrémentale toutes les secondes.
+ */
+@Service
+@Slf4j
+public class TokenRevocationService {
+
+    static final String JTI_PREFIX = "jti:";
+    static final String USER_PREFIX = "user:";
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter falsePositiveCounter;
+    private final Object lock = new Object();
+
+    private volatile Snapshot snapshot;
+    private LocalDateTime lastRefresh;
+
+    @Value("${revocation.expected-entries:100000}")
+    private long expectedEntries;
+
+    @Value("${revocation.false-positive-rate:0.001}")
+    private double falsePositiveRate;
+
+    @Value("${revocation.refresh-overlap-ms:10000}")
+    private long refreshOverlapMs;
+
+    @Value("${jwt.expiration:3600000}")
+    private long maxAccessTokenMs;
+
+    public TokenRevocationService(RevokedTokenRepository revokedTokenRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  MeterRegistry meterRegistry) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.falsePositiveCounter = Counter.builder("auth.revocation.false_positives")
+                .description("Jetons signalés par le filtre de Bloom mais absents de la liste exacte")
+                .register(meterRegistry);
+        this.snapshot = new Snapshot(BloomFilter.create(1, 0.5), new ConcurrentHashMap<>());
+        meterRegistry.gauge("auth.revocation.entries", this, service -> service.snapshot.exact().size());
+    }
+
+    /**
+     * Copie locale complète de la liste, avant la première requête
+     */
+    @PostConstruct
+    public void init() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            log.warn("⚠️ Liste de révocation non chargée au démarrage: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Vérification à chaque requête : jeton révoqué par son jti, ou émis avant une révocation
+     * de tous les jetons de l'utilisateur
+     */
+    public boolean isRevoked(Claims claims) {
+        Snapshot current = snapshot;
+        String jti = claims.getId();
+        if (jti != null && current.filter().mightContain(JTI_PREFIX + jti)) {
+            if (current.exact().containsKey(JTI_PREFIX + jti)) {
+                return true;
+            }
+            falsePositiveCounter.increment();
+        }
+
+        String email = normalizeEmail(claims.get("email", String.class));
+        Date issuedAt = claims.getIssuedAt();
+        if (email != null && issuedAt != null && current.filter().mightContain(USER_PREFIX + email)) {
+            Long revokedAt = current.exact().get(USER_PREFIX + email);
+            if (revokedAt == null) {
+                falsePositiveCounter.increment();
+                return false;
+            }
+            // iat est à la seconde : un jeton émis dans la seconde de la révocation est refusé lui aussi
+            return issuedAt.getTime() <= revokedAt;
+        }
+        return false;
+    }
+
+    /**
+     * Révoque le jeton d'accès présenté (en-tête Authorization) ; jeton illisible ou expiré ignoré
+     */
+    public void revokeAccessToken(String authorizationHeader) {
+        if (authorizationHeader == null || !authorizationHeader.startsWith("Bearer ")) {
+            return;
+        }
+        Claims claims;
+        try {
+            claims = JwtAuthorities.parseClaims(authorizationHeader.substring(7));
+        } catch (Exception e) {
+            return;
+        }
+        if (claims.getId() == null || claims.getExpiration() == null) {
+            return;
+        }
+        revoke(JTI_PREFIX + claims.getId(), toLocalDateTime(claims.getExpiration().getTime()));
+    }
+
+    /**
+     * Révoque tous les jetons d'accès déjà émis pour cet utilisateur
+     */
+    public void revokeAllForUser(String email) {
+        String normalized = normalizeEmail(email);
+        if (normalized == null) {
+            return;
+        }
+        revoke(USER_PREFIX + normalized, LocalDateTime.now().plus(Duration.ofMillis(maxAccessTokenMs)));
+        log.info("🔒 Jetons d'accès de {} révoqués", normalized);
+    }
+
+    /**
+     * Relecture incrémentale des révocations faites par les autres instances
+     */
+    @Scheduled(fixedDelayString = "${revocation.refresh-ms:1000}")
+    public void refresh() {
+        synchronized (lock) {
+            if (lastRefresh == null) {
+                rebuild();
+                return;
+            }
+            LocalDateTime now = LocalDateTime.now();
+            // Recouvrement : horloges des instances et transactions encore en cours au dernier passage
+            List<RevokedToken> added = revokedTokenRepository.findRevokedSince(
+                    lastRefresh.minus(Duration.ofMillis(refreshOverlapMs)), now);
+            for (RevokedToken entry : added) {
+                apply(snapshot, entry.getRevocationKey(), toEpochMillis(entry.getRevokedAt()));
+            }
+            lastRefresh = now;
+        }
+    }
+
+    /**
+     * Reconstruction complète : le filtre de Bloom ne sait pas oublier, les entrées expirées
+     * en sortent ici, et sa taille suit le nombre d'entrées
+     */
+    @Scheduled(fixedDelayString = "${revocation.rebuild-ms:3600000}", initialDelayString = "${revocation.rebuild-ms:3600000}")
+    public void rebuild() {
+        synchronized (lock) {
+            LocalDateTime now = LocalDateTime.now();
+            List<RevokedToken> active = revokedTokenRepository.findActive(now);
+            Snapshot rebuilt = new Snapshot(
+                    BloomFilter.create(Math.max(expectedEntries, 2L * active.size()), falsePositiveRate),
+                    new ConcurrentHashMap<>());
+            for (RevokedToken entry : active) {
+                apply(rebuilt, entry.getRevocationKey(), toEpochMillis(entry.getRevokedAt()));
+            }
+            snapshot = rebuilt;
+            lastRefresh = now;
+            log.debug("Liste de révocation rechargée: {} entrées", active.size());
+        }
+    }
+
+    /**
+     * Purge quotidienne des entrées dont tous les jetons concernés ont expiré
+     */
+    @Scheduled(cron = "${revocation.purge.cron:0 30 4 * * *}")
+    public void purgeExpired() {
+        Integer removed = transactionTemplate.execute(status ->
+                revokedTokenRepository.deleteExpiredBefore(LocalDateTime.now()));
+        if (removed != null && removed > 0) {
+            log.info("🧹 Révocations expirées supprimées: {}", removed);
+        }
+    }
+
+    private void revoke(String key, LocalDateTime expiresAt) {
+        LocalDateTime now = LocalDateTime.now();
+        revokedTokenRepository.save(new RevokedToken(key, now, expiresAt));
+        // Effet immédiat sur cette instance, sans attendre la prochaine relecture
+        synchronized (lock) {
+            apply(snapshot, key, toEpochMillis(now));
+        }
+    }
+
+    private static void apply(Snapshot target, String key, long revokedAt) {
+        target.exact().merge(key, revokedAt, Math::max);
+        target.filter().put(key);
+    }
+
+    private static String normalizeEmail(String email) {
+        if (email == null || email.isBlank()) {
+            return null;
+        }
+        return email.trim().toLowerCase();
+    }
+
+    private static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+
+    private record Snapshot(BloomFilter filter, Map<String, Long> exact) {}
+}
@@ -0,0 +1,48 @@
+package com.projet.Cloud.store;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Stockage des pièces jointes adressé par contenu : la clé d'un blob est le SHA-256 de ses octets,
+ * un même fichier envoyé deux fois n'est stocké qu'une fois.
+ *
+ * Implémenté par {@link LocalFileBlobStore} ({@code attachments.store=local}).
+ */
+public interface BlobStore {
+
+    /**
+     * Écrit le flux en entier sans le garder en mémoire
+     *
+     * @throws BlobTooLargeException au-delà de {@code maxBytes}
+     */
+    StoredBlob put(InputStream content, long maxBytes) throws IOException;
+
+    boolean exists(String hash);
+
+    long size(String hash) throws IOException;
+
+    InputStream open(String hash) throws IOException;
+
+    /**
+     * Copie {@code count} octets à partir de {@code position} vers le canal (sans copie en espace
+     * utilisateur quand le canal cible le permet)
+     */
+    long transferTo(String hash, long position, long count, WritableByteChannel target) throws IOException;
+
+    /**
+     * Fichier local du blob, pour un envoi direct par le conteneur (sendfile) ; vide si le store n'est pas local
+     */
+    Optional<Path> localPath(String hash);
+
+    void delete(String hash) throws IOException;
+
+    class BlobTooLargeException extends IOException {
+        public BlobTooLargeException(long maxBytes) {
+            super("Fichier trop volumineux (max " + maxBytes + " octets)");
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.projet.Cloud.store;
+
+/**
+ * Copie en cache d'une ligne de la table sessions (empreintes ; dates en ms epoch)
+ */
+public record CachedSession(
+        Long id,
+        Long userId,
+        String tokenHash,
+        String previousTokenHash,
+        long expiresAt,
+        long lastRotatedAt,
+        boolean revoked) {
+}
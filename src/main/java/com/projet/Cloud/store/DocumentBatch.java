@@ -0,0 +1,22 @@
+package com.projet.Cloud.store;
+
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Écritures groupées appliquées atomiquement au commit (500 opérations max côté Firestore)
+ */
+public interface DocumentBatch {
+
+    DocumentBatch set(String collection, String id, Map<String, Object> data);
+
+    DocumentBatch merge(String collection, String id, Map<String, Object> data);
+
+    DocumentBatch update(String collection, String id, Map<String, Object> updates);
+
+    DocumentBatch delete(String collection, String id);
+
+    int size();
+
+    void commit() throws ExecutionException, InterruptedException;
+}
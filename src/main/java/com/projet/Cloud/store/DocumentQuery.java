@@ -0,0 +1,114 @@
+package com.projet.Cloud.store;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Requête sur une collection : filtres combinés en ET, tri, limite, curseur startAfter et projection
+ */
+public final class DocumentQuery {
+
+    public enum Operator { EQUAL, LESS_THAN, LESS_THAN_OR_EQUAL, GREATER_THAN, GREATER_THAN_OR_EQUAL }
+
+    public record Filter(String field, Operator operator, Object value) {}
+
+    public record Order(String field, boolean descending) {}
+
+    /** Pseudo-champ de tri sur l'ID du document (FieldPath.documentId() de Firestore) */
+    public static final String DOCUMENT_ID = "__name__";
+
+    private final String collection;
+    private final List<Filter> filters = new ArrayList<>();
+    private final List<Order> orders = new ArrayList<>();
+    private List<Object> startAfter = List.of();
+    private List<String> select = List.of();
+    private Integer limit;
+
+    private DocumentQuery(String collection) {
+        this.collection = collection;
+    }
+
+    public static DocumentQuery collection(String collection) {
+        return new DocumentQuery(collection);
+    }
+
+    public DocumentQuery whereEqualTo(String field, Object value) {
+        filters.add(new Filter(field, Operator.EQUAL, value));
+        return this;
+    }
+
+    public DocumentQuery whereLessThan(String field, Object value) {
+        filters.add(new Filter(field, Operator.LESS_THAN, value));
+        return this;
+    }
+
+    public DocumentQuery whereLessThanOrEqualTo(String field, Object value) {
+        filters.add(new Filter(field, Operator.LESS_THAN_OR_EQUAL, value));
+        return this;
+    }
+
+    public DocumentQuery whereGreaterThan(String field, Object value) {
+        filters.add(new Filter(field, Operator.GREATER_THAN, value));
+        return this;
+    }
+
+    public DocumentQuery whereGreaterThanOrEqualTo(String field, Object value) {
+        filters.add(new Filter(field, Operator.GREATER_THAN_OR_EQUAL, value));
+        return this;
+    }
+
+    public DocumentQuery orderBy(String field) {
+        orders.add(new Order(field, false));
+        return this;
+    }
+
+    public DocumentQuery orderByDescending(String field) {
+        orders.add(new Order(field, true));
+        return this;
+    }
+
+    /**
+     * Reprend après le document dont les valeurs de tri sont {@code values} (pagination)
+     */
+    public DocumentQuery startAfter(Object... values) {
+        this.startAfter = List.of(values);
+        return this;
+    }
+
+    /**
+     * Ne renvoie que les champs listés (projection) : moins de données transférées, même nombre de lectures
+     */
+    public DocumentQuery select(String... fields) {
+        this.select = List.of(fields);
+        return this;
+    }
+
+    public DocumentQuery limit(int limit) {
+        this.limit = limit;
+        return this;
+    }
+
+    public String getCollection() {
+        return collection;
+    }
+
+    public List<Filter> getFilters() {
+        return filters;
+    }
+
+    public List<Order> getOrders() {
+        return orders;
+    }
+
+    public List<Object> getStartAfter() {
+        return startAfter;
+    }
+
+    public List<String> getSelect() {
+        return select;
+    }
+
+    public Integer getLimit() {
+        return limit;
+    }
+}
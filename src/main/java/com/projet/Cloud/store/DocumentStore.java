@@ -0,0 +1,52 @@
+package com.projet.Cloud.store;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Accès aux documents Firestore indépendant du client Google.
+ *
+ * Implémenté par {@link FirestoreDocumentStore} (production) et {@link InMemoryDocumentStore}
+ * ({@code firestore.store=memory}) pour les tests de charge sans projet Firebase.
+ * Les collections sont désignées par leur chemin, ex: {@code signalements/abc/comments}.
+ * Les valeurs spéciales (horodatage serveur, incrément, arrayUnion) passent par {@link DocumentValues}.
+ */
+public interface DocumentStore {
+
+    Optional<StoredDocument> get(String collection, String id) throws ExecutionException, InterruptedException;
+
+    List<StoredDocument> query(DocumentQuery query) throws ExecutionException, InterruptedException;
+
+    long count(DocumentQuery query) throws ExecutionException, InterruptedException;
+
+    /**
+     * Crée un document avec un ID généré et retourne cet ID
+     */
+    String add(String collection, Map<String, Object> data) throws ExecutionException, InterruptedException;
+
+    /**
+     * Crée ou remplace entièrement le document
+     */
+    void set(String collection, String id, Map<String, Object> data) throws ExecutionException, InterruptedException;
+
+    /**
+     * Crée le document ou fusionne les champs fournis (SetOptions.merge)
+     */
+    void merge(String collection, String id, Map<String, Object> data) throws ExecutionException, InterruptedException;
+
+    /**
+     * Met à jour les champs fournis ; échoue (NOT_FOUND) si le document n'existe pas
+     */
+    void update(String collection, String id, Map<String, Object> updates) throws ExecutionException, InterruptedException;
+
+    void delete(String collection, String id) throws ExecutionException, InterruptedException;
+
+    /**
+     * Génère un ID de document sans rien écrire (pour les écritures groupées)
+     */
+    String newId(String collection);
+
+    DocumentBatch batch();
+}
@@ -0,0 +1,35 @@
+package com.projet.Cloud.store;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Valeurs spéciales résolues par le store au moment de l'écriture
+ * (équivalents neutres de FieldValue.serverTimestamp(), increment() et arrayUnion())
+ */
+public final class DocumentValues {
+
+    private static final ServerTimestamp SERVER_TIMESTAMP = new ServerTimestamp();
+
+    private DocumentValues() {}
+
+    public static Object serverTimestamp() {
+        return SERVER_TIMESTAMP;
+    }
+
+    public static Object increment(long delta) {
+        return new Increment(delta);
+    }
+
+    public static Object arrayUnion(Object... elements) {
+        return new ArrayUnion(Arrays.asList(elements));
+    }
+
+    static final class ServerTimestamp {
+        private ServerTimestamp() {}
+    }
+
+    record Increment(long delta) {}
+
+    record ArrayUnion(List<Object> elements) {}
+}
@@ -0,0 +1,230 @@
+package com.projet.Cloud.store;
+
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.FieldPath;
+import com.google.cloud.firestore.FieldValue;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.Query;
+import com.google.cloud.firestore.SetOptions;
+import com.google.cloud.firestore.WriteBatch;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Store adossé au client Firestore (par défaut).
+ * Chaque appel réseau est mesuré dans firestore.rpc (tags operation et outcome).
+ */
+@Component
+@ConditionalOnProperty(name = "firestore.store", havingValue = "firestore", matchIfMissing = true)
+public class FirestoreDocumentStore implements DocumentStore {
+
+    private final ObjectProvider<Firestore> firestoreProvider;
+    private final MeterRegistry meterRegistry;
+
+    public FirestoreDocumentStore(ObjectProvider<Firestore> firestoreProvider, MeterRegistry meterRegistry) {
+        this.firestoreProvider = firestoreProvider;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Firebase n'est initialisé qu'au premier accès (voir FirebaseConfig)
+     */
+    private Firestore firestore() {
+        return firestoreProvider.getObject();
+    }
+
+    @Override
+    public Optional<StoredDocument> get(String collection, String id) throws ExecutionException, InterruptedException {
+        DocumentSnapshot snapshot = timed("get", () -> firestore().collection(collection).document(id).get().get());
+        if (!snapshot.exists()) {
+            return Optional.empty();
+        }
+        return Optional.of(new StoredDocument(snapshot.getId(), snapshot.getData()));
+    }
+
+    @Override
+    public List<StoredDocument> query(DocumentQuery query) throws ExecutionException, InterruptedException {
+        return timed("query", () -> toFirestoreQuery(query).get().get()).getDocuments().stream()
+                .map(document -> new StoredDocument(document.getId(), document.getData()))
+                .toList();
+    }
+
+    @Override
+    public long count(DocumentQuery query) throws ExecutionException, InterruptedException {
+        return timed("count", () -> toFirestoreQuery(query).count().get().get()).getCount();
+    }
+
+    @Override
+    public String add(String collection, Map<String, Object> data) throws ExecutionException, InterruptedException {
+        return timed("add", () -> firestore().collection(collection).add(toFirestore(data)).get()).getId();
+    }
+
+    @Override
+    public void set(String collection, String id, Map<String, Object> data) throws ExecutionException, InterruptedException {
+        timed("set", () -> firestore().collection(collection).document(id).set(toFirestore(data)).get());
+    }
+
+    @Override
+    public void merge(String collection, String id, Map<String, Object> data) throws ExecutionException, InterruptedException {
+        timed("merge", () -> firestore().collection(collection).document(id).set(toFirestore(data), SetOptions.merge()).get());
+    }
+
+    @Override
+    public void update(String collection, String id, Map<String, Object> updates) throws ExecutionException, InterruptedException {
+        timed("update", () -> firestore().collection(collection).document(id).update(toFirestore(updates)).get());
+    }
+
+    @Override
+    public void delete(String collection, String id) throws ExecutionException, InterruptedException {
+        timed("delete", () -> firestore().collection(collection).document(id).delete().get());
+    }
+
+    @Override
+    public String newId(String collection) {
+        return firestore().collection(collection).document().getId();
+    }
+
+    @Override
+    public DocumentBatch batch() {
+        return new FirestoreBatch(firestore().batch());
+    }
+
+    /**
+     * Durée d'un appel Firestore, erreurs comprises (outcome=error)
+     */
+    private <T> T timed(String operation, FirestoreRpc<T> rpc) throws ExecutionException, InterruptedException {
+        long start = System.nanoTime();
+        String outcome = "error";
+        try {
+            T result = rpc.call();
+            outcome = "success";
+            return result;
+        } finally {
+            Timer.builder("firestore.rpc")
+                    .tag("operation", operation)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @FunctionalInterface
+    private interface FirestoreRpc<T> {
+        T call() throws ExecutionException, InterruptedException;
+    }
+
+    private Query toFirestoreQuery(DocumentQuery documentQuery) {
+        Query query = firestore().collection(documentQuery.getCollection());
+
+        for (DocumentQuery.Filter filter : documentQuery.getFilters()) {
+            query = switch (filter.operator()) {
+                case EQUAL -> query.whereEqualTo(filter.field(), filter.value());
+                case LESS_THAN -> query.whereLessThan(filter.field(), filter.value());
+                case LESS_THAN_OR_EQUAL -> query.whereLessThanOrEqualTo(filter.field(), filter.value());
+                case GREATER_THAN -> query.whereGreaterThan(filter.field(), filter.value());
+                case GREATER_THAN_OR_EQUAL -> query.whereGreaterThanOrEqualTo(filter.field(), filter.value());
+            };
+        }
+        for (DocumentQuery.Order order : documentQuery.getOrders()) {
+            Query.Direction direction = order.descending() ? Query.Direction.DESCENDING : Query.Direction.ASCENDING;
+            query = DocumentQuery.DOCUMENT_ID.equals(order.field())
+                    ? query.orderBy(FieldPath.documentId(), direction)
+                    : query.orderBy(order.field(), direction);
+        }
+        if (!documentQuery.getStartAfter().isEmpty()) {
+            query = query.startAfter(documentQuery.getStartAfter().toArray());
+        }
+        if (documentQuery.getLimit() != null) {
+            query = query.limit(documentQuery.getLimit());
+        }
+        if (!documentQuery.getSelect().isEmpty()) {
+            query = query.select(documentQuery.getSelect().toArray(new String[0]));
+        }
+        return query;
+    }
+
+    /**
+     * Remplace les valeurs de DocumentValues par les FieldValue Firestore équivalents
+     */
+    static Map<String, Object> toFirestore(Map<String, Object> data) {
+        Map<String, Object> converted = new HashMap<>();
+        data.forEach((field, value) -> converted.put(field, toFirestoreValue(value)));
+        return converted;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object toFirestoreValue(Object value) {
+        if (value instanceof DocumentValues.ServerTimestamp) {
+            return FieldValue.serverTimestamp();
+        }
+        if (value instanceof DocumentValues.Increment increment) {
+            return FieldValue.increment(increment.delta());
+        }
+        if (value instanceof DocumentValues.ArrayUnion union) {
+            return FieldValue.arrayUnion(union.elements().stream().map(FirestoreDocumentStore::toFirestoreValue).toArray());
+        }
+        if (value instanceof Map<?, ?> map) {
+            return toFirestore((Map<String, Object>) map);
+        }
+        return value;
+    }
+
+    private final class FirestoreBatch implements DocumentBatch {
+
+        private final WriteBatch batch;
+        private int size;
+
+        private FirestoreBatch(WriteBatch batch) {
+            this.batch = batch;
+        }
+
+        @Override
+        public DocumentBatch set(String collection, String id, Map<String, Object> data) {
+            batch.set(firestore().collection(collection).document(id), toFirestore(data));
+            size++;
+            return this;
+        }
+
+        @Override
+        public DocumentBatch merge(String collection, String id, Map<String, Object> data) {
+            batch.set(firestore().collection(collection).document(id), toFirestore(data), SetOptions.merge());
+            size++;
+            return this;
+        }
+
+        @Override
+        public DocumentBatch update(String collection, String id, Map<String, Object> updates) {
+            batch.update(firestore().collection(collection).document(id), toFirestore(updates));
+            size++;
+            return this;
+        }
+
+        @Override
+        public DocumentBatch delete(String collection, String id) {
+            batch.delete(firestore().collection(collection).document(id));
+            size++;
+            return this;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public void commit() throws ExecutionException, InterruptedException {
+            timed("batch_commit", () -> batch.commit().get());
+        }
+    }
+}
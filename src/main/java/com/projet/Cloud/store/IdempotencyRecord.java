@@ -0,0 +1,17 @@
+package com.projet.Cloud.store;
+
+/**
+ * Réponse mémorisée pour une clé d'idempotence ; {@code completed} faux tant que
+ * la première requête est en cours d'exécution
+ */
+public record IdempotencyRecord(
+        boolean completed,
+        String fingerprint,
+        int status,
+        String contentType,
+        byte[] body) {
+
+    public static IdempotencyRecord inProgress(String fingerprint) {
+        return new IdempotencyRecord(false, fingerprint, 0, null, null);
+    }
+}
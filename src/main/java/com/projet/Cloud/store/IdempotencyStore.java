@@ -0,0 +1,27 @@
+package com.projet.Cloud.store;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Clés d'idempotence des créations → réponse d'origine, pour rejouer un envoi répété
+ * sans réexécuter l'écriture. Implémentations : mémoire (une instance) ou Redis.
+ */
+public interface IdempotencyStore {
+
+    /**
+     * Réserve la clé pour une exécution ; vide si la réservation a réussi,
+     * sinon l'enregistrement déjà présent (en cours ou terminé)
+     */
+    Optional<IdempotencyRecord> reserve(String key, String fingerprint, Duration lockTtl);
+
+    /**
+     * Mémorise la réponse de l'exécution qui détenait la réservation
+     */
+    void complete(String key, IdempotencyRecord record, Duration ttl);
+
+    /**
+     * Libère une réservation sans réponse à rejouer (erreur serveur : le client peut réessayer)
+     */
+    void release(String key);
+}
@@ -0,0 +1,393 @@
+package com.projet.Cloud.store;
+
+import com.google.cloud.Timestamp;
+import com.projet.Cloud.config.InMemoryStoreProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+
+/**
+ * Store en mémoire reproduisant la sémantique Firestore utilisée par l'application
+ * (filtres, tri, startAfter, merge, update sur document absent, valeurs spéciales).
+ *
+ * Chaque appel peut subir une latence et une erreur UNAVAILABLE injectées
+ * (voir {@link InMemoryStoreProperties}) : le limiteur de débit et les reprises
+ * réagissent alors comme face au vrai service.
+ */
+@Component
+@ConditionalOnProperty(name = "firestore.store", havingValue = "memory")
+@Slf4j
+public class InMemoryDocumentStore implements DocumentStore {
+
+    private static final String ID_ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789";
+
+    private final InMemoryStoreProperties properties;
+    private final Random random;
+    private final Map<String, Map<String, Map<String, Object>>> collections = new ConcurrentHashMap<>();
+
+    public InMemoryDocumentStore(InMemoryStoreProperties properties) {
+        this.properties = properties;
+        this.random = properties.getSeed() != null ? new Random(properties.getSeed()) : new Random();
+        log.warn("⚠️ Store Firestore EN MÉMOIRE actif (latence {} ms, erreurs {} %) - réservé aux tests",
+                 properties.getLatencyMs(), properties.getErrorRate() * 100);
+    }
+
+    @Override
+    public Optional<StoredDocument> get(String collection, String id) throws ExecutionException, InterruptedException {
+        simulateCall();
+        Map<String, Object> data = documents(collection).get(id);
+        return data == null ? Optional.empty() : Optional.of(new StoredDocument(id, deepCopy(data)));
+    }
+
+    @Override
+    public List<StoredDocument> query(DocumentQuery query) throws ExecutionException, InterruptedException {
+        simulateCall();
+        return runQuery(query);
+    }
+
+    @Override
+    public long count(DocumentQuery query) throws ExecutionException, InterruptedException {
+        simulateCall();
+        return runQuery(query).size();
+    }
+
+    @Override
+    public String add(String collection, Map<String, Object> data) throws ExecutionException, InterruptedException {
+        String id = newId(collection);
+        set(collection, id, data);
+        return id;
+    }
+
+    @Override
+    public void set(String collection, String id, Map<String, Object> data) throws ExecutionException, InterruptedException {
+        simulateCall();
+        write(store -> store.applySet(collection, id, data));
+    }
+
+    @Override
+    public void merge(String collection, String id, Map<String, Object> data) throws ExecutionException, InterruptedException {
+        simulateCall();
+        write(store -> store.applyMerge(collection, id, data));
+    }
+
+    @Override
+    public void update(String collection, String id, Map<String, Object> updates) throws ExecutionException, InterruptedException {
+        simulateCall();
+        // Vérification et écriture dans la même section : un delete concurrent ne peut pas s'intercaler
+        synchronized (this) {
+            checkExists(collection, id);
+            applyMerge(collection, id, updates);
+        }
+    }
+
+    @Override
+    public void delete(String collection, String id) throws ExecutionException, InterruptedException {
+        simulateCall();
+        write(store -> store.documents(collection).remove(id));
+    }
+
+    @Override
+    public String newId(String collection) {
+        StringBuilder id = new StringBuilder(20);
+        ThreadLocalRandom localRandom = ThreadLocalRandom.current();
+        for (int i = 0; i < 20; i++) {
+            id.append(ID_ALPHABET.charAt(localRandom.nextInt(ID_ALPHABET.length())));
+        }
+        return id.toString();
+    }
+
+    @Override
+    public DocumentBatch batch() {
+        return new InMemoryBatch();
+    }
+
+    /**
+     * Vide toutes les collections (entre deux scénarios de test)
+     */
+    public void clear() {
+        collections.clear();
+    }
+
+    public int size(String collection) {
+        return documents(collection).size();
+    }
+
+    private Map<String, Map<String, Object>> documents(String collection) {
+        return collections.computeIfAbsent(collection, c -> new ConcurrentHashMap<>());
+    }
+
+    /**
+     * Les écritures sont sérialisées sur le store : update et commit de batch prennent le même verrou
+     */
+    private synchronized void write(Consumer<InMemoryDocumentStore> operation) {
+        operation.accept(this);
+    }
+
+    private void checkExists(String collection, String id) throws ExecutionException {
+        if (!documents(collection).containsKey(id)) {
+            throw new ExecutionException(new IllegalStateException("NOT_FOUND: No document to update: " + collection + "/" + id));
+        }
+    }
+
+    private void applySet(String collection, String id, Map<String, Object> data) {
+        documents(collection).put(id, resolve(data, Map.of()));
+    }
+
+    private void applyMerge(String collection, String id, Map<String, Object> data) {
+        Map<String, Object> existing = documents(collection).getOrDefault(id, Map.of());
+        Map<String, Object> merged = deepCopy(existing);
+        merged.putAll(resolve(data, existing));
+        documents(collection).put(id, merged);
+    }
+
+    /**
+     * Résout les valeurs spéciales par rapport au document existant
+     */
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> resolve(Map<String, Object> data, Map<String, Object> existing) {
+        Map<String, Object> resolved = new HashMap<>();
+        data.forEach((field, value) -> {
+            Object current = existing.get(field);
+            if (value instanceof DocumentValues.ServerTimestamp) {
+                resolved.put(field, Timestamp.now());
+            } else if (value instanceof DocumentValues.Increment increment) {
+                resolved.put(field, increment(current, increment.delta()));
+            } else if (value instanceof DocumentValues.ArrayUnion union) {
+                List<Object> list = current instanceof List<?> currentList ? new ArrayList<>(currentList) : new ArrayList<>();
+                for (Object element : union.elements()) {
+                    Object copy = deepCopyValue(element instanceof Map<?, ?> map ? resolve((Map<String, Object>) map, Map.of()) : element);
+                    if (!list.contains(copy)) {
+                        list.add(copy);
+                    }
+                }
+                resolved.put(field, list);
+            } else if (value instanceof Map<?, ?> map) {
+                Map<String, Object> currentMap = current instanceof Map<?, ?> m ? (Map<String, Object>) m : Map.of();
+                resolved.put(field, resolve((Map<String, Object>) map, currentMap));
+            } else {
+                resolved.put(field, deepCopyValue(value));
+            }
+        });
+        return resolved;
+    }
+
+    private static Object increment(Object current, long delta) {
+        if (current instanceof Double || current instanceof Float) {
+            return ((Number) current).doubleValue() + delta;
+        }
+        return (current instanceof Number number ? number.longValue() : 0L) + delta;
+    }
+
+    private List<StoredDocument> runQuery(DocumentQuery query) {
+        List<Map.Entry<String, Map<String, Object>>> matches = new ArrayList<>();
+        for (Map.Entry<String, Map<String, Object>> entry : documents(query.getCollection()).entrySet()) {
+            if (matchesFilters(entry.getValue(), query.getFilters()) && hasOrderFields(entry, query.getOrders())) {
+                matches.add(entry);
+            }
+        }
+
+        Comparator<Map.Entry<String, Map<String, Object>>> comparator = (a, b) -> compareByOrders(a, b, query.getOrders());
+        matches.sort(comparator.thenComparing(Map.Entry::getKey));
+
+        List<StoredDocument> results = new ArrayList<>();
+        for (Map.Entry<String, Map<String, Object>> entry : matches) {
+            if (!query.getStartAfter().isEmpty() && !isAfterCursor(entry, query)) {
+                continue;
+            }
+            if (query.getLimit() != null && results.size() >= query.getLimit()) {
+                break;
+            }
+            results.add(new StoredDocument(entry.getKey(), project(deepCopy(entry.getValue()), query.getSelect())));
+        }
+        return results;
+    }
+
+    private static Map<String, Object> project(Map<String, Object> data, List<String> fields) {
+        if (!fields.isEmpty()) {
+            data.keySet().retainAll(fields);
+        }
+        return data;
+    }
+
+    private static boolean matchesFilters(Map<String, Object> data, List<DocumentQuery.Filter> filters) {
+        for (DocumentQuery.Filter filter : filters) {
+            Object value = data.get(filter.field());
+            if (value == null || !comparable(value, filter.value())) {
+                return false;
+            }
+            int comparison = compareValues(value, filter.value());
+            boolean matches = switch (filter.operator()) {
+                case EQUAL -> comparison == 0;
+                case LESS_THAN -> comparison < 0;
+                case LESS_THAN_OR_EQUAL -> comparison <= 0;
+                case GREATER_THAN -> comparison > 0;
+                case GREATER_THAN_OR_EQUAL -> comparison >= 0;
+            };
+            if (!matches) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Comme Firestore, un document sans le champ de tri est exclu des résultats
+     */
+    private static boolean hasOrderFields(Map.Entry<String, Map<String, Object>> document, List<DocumentQuery.Order> orders) {
+        for (DocumentQuery.Order order : orders) {
+            if (orderValue(document, order) == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int compareByOrders(Map.Entry<String, Map<String, Object>> a, Map.Entry<String, Map<String, Object>> b,
+                                       List<DocumentQuery.Order> orders) {
+        for (DocumentQuery.Order order : orders) {
+            int comparison = compareValues(orderValue(a, order), orderValue(b, order));
+            if (comparison != 0) {
+                return order.descending() ? -comparison : comparison;
+            }
+        }
+        return 0;
+    }
+
+    private static boolean isAfterCursor(Map.Entry<String, Map<String, Object>> document, DocumentQuery query) {
+        List<Object> cursor = query.getStartAfter();
+        List<DocumentQuery.Order> orders = query.getOrders();
+        for (int i = 0; i < cursor.size() && i < orders.size(); i++) {
+            int comparison = compareValues(orderValue(document, orders.get(i)), cursor.get(i));
+            if (orders.get(i).descending()) {
+                comparison = -comparison;
+            }
+            if (comparison != 0) {
+                return comparison > 0;
+            }
+        }
+        return false;
+    }
+
+    private static Object orderValue(Map.Entry<String, Map<String, Object>> document, DocumentQuery.Order order) {
+        return DocumentQuery.DOCUMENT_ID.equals(order.field()) ? document.getKey() : document.getValue().get(order.field());
+    }
+
+    private static boolean comparable(Object a, Object b) {
+        if (a instanceof Number && b instanceof Number) {
+            return true;
+        }
+        return b != null && a.getClass() == b.getClass() && a instanceof Comparable;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compareValues(Object a, Object b) {
+        if (a instanceof Number x && b instanceof Number y) {
+            return Double.compare(x.doubleValue(), y.doubleValue());
+        }
+        if (a != null && b != null && a.getClass() == b.getClass() && a instanceof Comparable comparable) {
+            return comparable.compareTo(b);
+        }
+        // Types différents : ordre stable par nom de type
+        return String.valueOf(a == null ? null : a.getClass().getName())
+                .compareTo(String.valueOf(b == null ? null : b.getClass().getName()));
+    }
+
+    private void simulateCall() throws InterruptedException, ExecutionException {
+        long latency = properties.getLatencyMs();
+        if (properties.getLatencyJitterMs() > 0) {
+            latency += nextLong(properties.getLatencyJitterMs() + 1);
+        }
+        if (latency > 0) {
+            Thread.sleep(latency);
+        }
+        if (properties.getErrorRate() > 0 && nextDouble() < properties.getErrorRate()) {
+            throw new ExecutionException(new IllegalStateException("UNAVAILABLE: erreur injectée par le store en mémoire"));
+        }
+    }
+
+    private synchronized long nextLong(long bound) {
+        return (long) (random.nextDouble() * bound);
+    }
+
+    private synchronized double nextDouble() {
+        return random.nextDouble();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> deepCopy(Map<String, Object> data) {
+        Map<String, Object> copy = new HashMap<>();
+        data.forEach((field, value) -> copy.put(field, deepCopyValue(value)));
+        return copy;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object deepCopyValue(Object value) {
+        if (value instanceof Map<?, ?> map) {
+            return deepCopy((Map<String, Object>) map);
+        }
+        if (value instanceof List<?> list) {
+            List<Object> copy = new ArrayList<>(list.size());
+            for (Object element : list) {
+                copy.add(deepCopyValue(element));
+            }
+            return copy;
+        }
+        return value;
+    }
+
+    private final class InMemoryBatch implements DocumentBatch {
+
+        private final List<Consumer<InMemoryDocumentStore>> operations = new ArrayList<>();
+        private final List<String[]> updatedDocuments = new ArrayList<>();
+
+        @Override
+        public DocumentBatch set(String collection, String id, Map<String, Object> data) {
+            operations.add(store -> store.applySet(collection, id, data));
+            return this;
+        }
+
+        @Override
+        public DocumentBatch merge(String collection, String id, Map<String, Object> data) {
+            operations.add(store -> store.applyMerge(collection, id, data));
+            return this;
+        }
+
+        @Override
+        public DocumentBatch update(String collection, String id, Map<String, Object> updates) {
+            updatedDocuments.add(new String[]{collection, id});
+            operations.add(store -> store.applyMerge(collection, id, updates));
+            return this;
+        }
+
+        @Override
+        public DocumentBatch delete(String collection, String id) {
+            operations.add(store -> store.documents(collection).remove(id));
+            return this;
+        }
+
+        @Override
+        public int size() {
+            return operations.size();
+        }
+
+        @Override
+        public void commit() throws ExecutionException, InterruptedException {
+            simulateCall();
+            synchronized (InMemoryDocumentStore.this) {
+                // Comme Firestore : un update sur un document absent fait échouer tout le batch
+                for (String[] document : updatedDocuments) {
+                    checkExists(document[0], document[1]);
+                }
+                for (Consumer<InMemoryDocumentStore> operation : operations) {
+                    operation.accept(InMemoryDocumentStore.this);
+                }
+            }
+        }
+    }
+}
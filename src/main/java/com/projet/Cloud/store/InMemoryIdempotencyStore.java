@@ -0,0 +1,76 @@
+package com.projet.Cloud.store;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Store d'idempotence en mémoire, borné en nombre d'entrées : au-delà, les plus anciennes
+ * sont évincées (ordre d'insertion), ainsi que les entrées expirées rencontrées en tête.
+ * Suffit pour une seule instance du backend ; sinon idempotency.store=redis.
+ */
+@Component
+@ConditionalOnProperty(name = "idempotency.store", havingValue = "memory", matchIfMissing = true)
+@Slf4j
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+
+    private final int maxEntries;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>();
+
+    public InMemoryIdempotencyStore(@Value("${idempotency.max-entries:10000}") int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    @Override
+    public synchronized Optional<IdempotencyRecord> reserve(String key, String fingerprint, Duration lockTtl) {
+        long now = System.currentTimeMillis();
+        evict(now);
+        Entry existing = entries.get(key);
+        if (existing != null && existing.expiresAt > now) {
+            return Optional.of(existing.record);
+        }
+        put(key, new Entry(IdempotencyRecord.inProgress(fingerprint), now + lockTtl.toMillis()));
+        return Optional.empty();
+    }
+
+    @Override
+    public synchronized void complete(String key, IdempotencyRecord record, Duration ttl) {
+        put(key, new Entry(record, System.currentTimeMillis() + ttl.toMillis()));
+    }
+
+    @Override
+    public synchronized void release(String key) {
+        entries.remove(key);
+    }
+
+    private void put(String key, Entry entry) {
+        // Réinsertion : l'entrée passe en queue, l'ordre reste celui des dernières écritures
+        entries.remove(key);
+        entries.put(key, entry);
+        while (entries.size() > maxEntries) {
+            Iterator<String> eldest = entries.keySet().iterator();
+            eldest.next();
+            eldest.remove();
+        }
+    }
+
+    private void evict(long now) {
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Entry> eldest = it.next();
+            if (eldest.getValue().expiresAt > now) {
+                break;
+            }
+            it.remove();
+        }
+    }
+
+    private record Entry(IdempotencyRecord record, long expiresAt) {}
+}
@@ -0,0 +1,49 @@
+package com.projet.Cloud.store;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Cache des sessions en mémoire, LRU borné. Suffit pour une seule instance ; avec plusieurs,
+ * une entrée périmée est détectée à l'échange (empreinte différente → relecture en base).
+ */
+@Component
+@ConditionalOnProperty(name = "session.cache", havingValue = "memory", matchIfMissing = true)
+public class InMemorySessionCache implements SessionCache {
+
+    private final Map<Long, CachedSession> sessions;
+
+    public InMemorySessionCache(@Value("${session.cache-max-entries:10000}") int maxEntries) {
+        this.sessions = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, CachedSession> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    @Override
+    public synchronized Optional<CachedSession> get(Long sessionId) {
+        CachedSession session = sessions.get(sessionId);
+        if (session != null && session.expiresAt() <= System.currentTimeMillis()) {
+            sessions.remove(sessionId);
+            return Optional.empty();
+        }
+        return Optional.ofNullable(session);
+    }
+
+    @Override
+    public synchronized void put(CachedSession session) {
+        sessions.put(session.id(), session);
+    }
+
+    @Override
+    public synchronized void evict(Long sessionId) {
+        sessions.remove(sessionId);
+    }
+}
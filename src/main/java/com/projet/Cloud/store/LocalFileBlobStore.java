@@ -0,0 +1,140 @@
+package com.projet.Cloud.store;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Blobs sur le disque local : {@code <dir>/ab/abcdef…}. L'envoi est écrit par morceaux dans un
+ * fichier temporaire du même répertoire (FileChannel.transferFrom) tout en calculant son empreinte,
+ * puis renommé atomiquement sous son SHA-256 ; si ce nom existe déjà, le temporaire est supprimé.
+ */
+@Component
+@ConditionalOnProperty(name = "attachments.store", havingValue = "local", matchIfMissing = true)
+@Slf4j
+public class LocalFileBlobStore implements BlobStore {
+
+    private static final Pattern HASH = Pattern.compile("[0-9a-f]{64}");
+    private static final long CHUNK_BYTES = 1L << 20;
+
+    private final Path root;
+    private final Path tmp;
+
+    public LocalFileBlobStore(@Value("${attachments.dir:./data/attachments}") String dir) throws IOException {
+        this.root = Paths.get(dir).toAbsolutePath().normalize();
+        this.tmp = Files.createDirectories(root.resolve("tmp"));
+        log.info("✓ Pièces jointes stockées dans {}", root);
+    }
+
+    @Override
+    public StoredBlob put(InputStream content, long maxBytes) throws IOException {
+        MessageDigest digest = sha256();
+        Path part = Files.createTempFile(tmp, "upload-", ".part");
+        try {
+            long size = 0;
+            try (ReadableByteChannel source = Channels.newChannel(new DigestInputStream(content, digest));
+                 FileChannel target = FileChannel.open(part, StandardOpenOption.WRITE)) {
+                long written;
+                // Un canal source qui n'est pas un fichier rend au plus ce qu'il a lu : 0 en fin de flux
+                while ((written = target.transferFrom(source, size, CHUNK_BYTES)) > 0) {
+                    size += written;
+                    if (size > maxBytes) {
+                        throw new BlobTooLargeException(maxBytes);
+                    }
+                }
+            }
+
+            String hash = HexFormat.of().formatHex(digest.digest());
+            Path path = path(hash);
+            if (Files.exists(path)) {
+                return new StoredBlob(hash, size, false);
+            }
+            Files.createDirectories(path.getParent());
+            try {
+                Files.move(part, path, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException e) {
+                // Même contenu écrit en parallèle par une autre requête
+                return new StoredBlob(hash, size, false);
+            }
+            return new StoredBlob(hash, size, true);
+        } finally {
+            Files.deleteIfExists(part);
+        }
+    }
+
+    @Override
+    public boolean exists(String hash) {
+        return Files.exists(path(hash));
+    }
+
+    @Override
+    public long size(String hash) throws IOException {
+        return Files.size(path(hash));
+    }
+
+    @Override
+    public InputStream open(String hash) throws IOException {
+        return Files.newInputStream(path(hash));
+    }
+
+    @Override
+    public long transferTo(String hash, long position, long count, WritableByteChannel target) throws IOException {
+        try (FileChannel source = FileChannel.open(path(hash), StandardOpenOption.READ)) {
+            long sent = 0;
+            while (sent < count) {
+                long n = source.transferTo(position + sent, count - sent, target);
+                if (n <= 0) {
+                    break;
+                }
+                sent += n;
+            }
+            return sent;
+        }
+    }
+
+    @Override
+    public Optional<Path> localPath(String hash) {
+        Path path = path(hash);
+        return Files.exists(path) ? Optional.of(path) : Optional.empty();
+    }
+
+    @Override
+    public void delete(String hash) throws IOException {
+        Files.deleteIfExists(path(hash));
+    }
+
+    private Path path(String hash) {
+        if (hash == null || !HASH.matcher(hash).matches()) {
+            throw new IllegalArgumentException("Empreinte de pièce jointe invalide: " + hash);
+        }
+        return root.resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.projet.Cloud.store;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.params.SetParams;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Store d'idempotence partagé entre instances : SET NX pour la réservation, expiration
+ * gérée par Redis (PX). Pool partagé, voir RedisConfig.
+ */
+@Component
+@ConditionalOnProperty(name = "idempotency.store", havingValue = "redis")
+@Slf4j
+public class RedisIdempotencyStore implements IdempotencyStore {
+
+    private static final String PREFIX = "idempotency:";
+
+    private final JedisPool pool;
+    private final ObjectMapper objectMapper;
+
+    public RedisIdempotencyStore(JedisPool pool, ObjectMapper objectMapper) {
+        this.pool = pool;
+        this.objectMapper = objectMapper;
+        log.info("✓ Store d'idempotence Redis");
+    }
+
+    @Override
+    public Optional<IdempotencyRecord> reserve(String key, String fingerprint, Duration lockTtl) {
+        try (Jedis jedis = pool.getResource()) {
+            String reserved = jedis.set(PREFIX + key, write(IdempotencyRecord.inProgress(fingerprint)),
+                    SetParams.setParams().nx().px(lockTtl.toMillis()));
+            if ("OK".equals(reserved)) {
+                return Optional.empty();
+            }
+            String existing = jedis.get(PREFIX + key);
+            // Expirée entre le SET et le GET : la clé est de nouveau libre
+            return existing == null ? reserve(key, fingerprint, lockTtl) : Optional.of(read(existing));
+        }
+    }
+
+    @Override
+    public void complete(String key, IdempotencyRecord record, Duration ttl) {
+        try (Jedis jedis = pool.getResource()) {
+            jedis.set(PREFIX + key, write(record), SetParams.setParams().px(ttl.toMillis()));
+        }
+    }
+
+    @Override
+    public void release(String key) {
+        try (Jedis jedis = pool.getResource()) {
+            jedis.del(PREFIX + key);
+        }
+    }
+
+    private String write(IdempotencyRecord record) {
+        try {
+            return objectMapper.writeValueAsString(record);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Sérialisation de la réponse impossible", e);
+        }
+    }
+
+    private IdempotencyRecord read(String json) {
+        try {
+            return objectMapper.readValue(json, IdempotencyRecord.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Enregistrement d'idempotence illisible", e);
+        }
+    }
+}
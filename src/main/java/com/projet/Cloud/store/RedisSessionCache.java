@@ -0,0 +1,64 @@
+package com.projet.Cloud.store;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.params.SetParams;
+
+import java.util.Optional;
+
+/**
+ * Cache des sessions partagé entre instances ; l'entrée expire avec la session (PX)
+ */
+@Component
+@ConditionalOnProperty(name = "session.cache", havingValue = "redis")
+@Slf4j
+public class RedisSessionCache implements SessionCache {
+
+    private static final String PREFIX = "session:";
+
+    private final JedisPool pool;
+    private final ObjectMapper objectMapper;
+
+    public RedisSessionCache(JedisPool pool, ObjectMapper objectMapper) {
+        this.pool = pool;
+        this.objectMapper = objectMapper;
+        log.info("✓ Cache des sessions Redis");
+    }
+
+    @Override
+    public Optional<CachedSession> get(Long sessionId) {
+        try (Jedis jedis = pool.getResource()) {
+            String json = jedis.get(PREFIX + sessionId);
+            return json == null ? Optional.empty() : Optional.of(objectMapper.readValue(json, CachedSession.class));
+        } catch (JsonProcessingException e) {
+            log.warn("⚠️ Session {} illisible dans Redis: {}", sessionId, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public void put(CachedSession session) {
+        long ttl = session.expiresAt() - System.currentTimeMillis();
+        if (ttl <= 0) {
+            evict(session.id());
+            return;
+        }
+        try (Jedis jedis = pool.getResource()) {
+            jedis.set(PREFIX + session.id(), objectMapper.writeValueAsString(session), SetParams.setParams().px(ttl));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Sérialisation de la session impossible", e);
+        }
+    }
+
+    @Override
+    public void evict(Long sessionId) {
+        try (Jedis jedis = pool.getResource()) {
+            jedis.del(PREFIX + sessionId);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.projet.Cloud.store;
+
+import java.util.Optional;
+
+/**
+ * Cache devant la table sessions, lu à chaque rafraîchissement de jeton. La base reste la
+ * référence : toute écriture de session y passe d'abord, puis met à jour ou évince le cache.
+ * Implémentations : mémoire (une instance) ou Redis ({@code session.cache=redis}).
+ */
+public interface SessionCache {
+
+    Optional<CachedSession> get(Long sessionId);
+
+    /**
+     * Mis en cache jusqu'à l'échéance de la session
+     */
+    void put(CachedSession session);
+
+    void evict(Long sessionId);
+}
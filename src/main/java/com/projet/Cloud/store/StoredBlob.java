@@ -0,0 +1,6 @@
+package com.projet.Cloud.store;
+
+/**
+ * Blob écrit dans le store : empreinte SHA-256 (hex), taille, et faux si le contenu existait déjà
+ */
+public record StoredBlob(String hash, long size, boolean created) {}
@@ -0,0 +1,23 @@
+package com.projet.Cloud.store;
+
+import java.util.Map;
+
+/**
+ * Document lu depuis le store : son ID et une copie de ses champs
+ */
+public record StoredDocument(String id, Map<String, Object> data) {
+
+    public Object get(String field) {
+        return data.get(field);
+    }
+
+    public String getString(String field) {
+        Object value = data.get(field);
+        return value == null ? null : value.toString();
+    }
+
+    public Long getLong(String field) {
+        Object value = data.get(field);
+        return value instanceof Number number ? number.longValue() : null;
+    }
+}
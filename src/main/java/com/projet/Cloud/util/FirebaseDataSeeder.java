@@ -1,46 +1,157 @@
 package com.projet.Cloud.util;
 
-import com.google.cloud.firestore.*;
-import com.projet.Cloud.model.SignalementType;
 import com.projet.Cloud.model.User;
 import com.projet.Cloud.repository.SignalementTypeRepository;
 import com.projet.Cloud.repository.UserRepository;
+import com.projet.Cloud.service.FirestoreInitializationService;
+import com.projet.Cloud.service.FirestoreRateLimiter;
+import com.projet.Cloud.store.DocumentBatch;
+import com.projet.Cloud.store.DocumentQuery;
+import com.projet.Cloud.store.DocumentStore;
+import com.projet.Cloud.store.DocumentValues;
+import com.projet.Cloud.store.StoredDocument;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
 
 import java.util.*;
 import java.util.concurrent.ExecutionException;
-
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Seeding Firestore : tâche explicite, asynchrone et idempotente.
+ *
+ * Un document marqueur (_meta/seed) enregistre la version du seeding terminé : aux démarrages
+ * suivants une seule lecture suffit pour ne rien faire. Augmenter SEED_VERSION relance le seeding.
+ */
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class FirebaseDataSeeder {
 
-    private final Firestore firestore;
+    private static final int USER_BATCH_SIZE = 100;
+    private static final int SEED_VERSION = 1;
+    private static final String META_COLLECTION = "_meta";
+    private static final String SEED_MARKER = "seed";
+    private static final String SCALE_SEED_MARKER = "seed-scale";
+
+    private final DocumentStore documentStore;
+    private final FirestoreRateLimiter firestoreRateLimiter;
+    private final FirestoreInitializationService firestoreInitializationService;
     private final SignalementTypeRepository signalementTypeRepository;
     private final UserRepository userRepository;
+    private final ScaleDataSeeder scaleDataSeeder;
+
+    // Mode volumétrie : 0 = désactivé, sinon nombre de signalements à générer au démarrage
+    @Value("${seed.scale.size:0}")
+    private long scaleSize;
+
+    @Value("${seed.scale.seed:42}")
+    private long scaleSeed;
+
+    @Value("${seed.scale.probleme-ratio:0.2}")
+    private double scaleProblemeRatio;
+
+    @Value("${seed.scale.firestore:true}")
+    private boolean scaleFirestore;
+
+    @Value("${seed.on-startup:true}")
+    private boolean seedOnStartup;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
 
     /**
-     * Initialiser les données Firebase au démarrage
+     * Lance le seeding en arrière-plan une fois l'application prête (seed.on-startup)
+     * Le démarrage n'attend ni Firebase ni les lectures de collections
      */
+    @Async
     @EventListener(ApplicationReadyEvent.class)
-    public void seedFirebaseData() {
+    public void seedOnStartup() {
+        if (!seedOnStartup) {
+            log.info("⏭️ Seeding au démarrage désactivé (seed.on-startup=false)");
+            return;
+        }
+        seedFirebaseData(false);
+    }
+
+    /**
+     * Seeding déclenché explicitement (endpoint admin), sans bloquer la requête
+     */
+    @Async
+    public void seedInBackground(boolean force) {
+        seedFirebaseData(force);
+    }
+
+    /**
+     * Initialiser les données Firebase si le marqueur est absent (ou toujours si force)
+     * Retourne false si le seeding était déjà fait ou déjà en cours
+     */
+    public boolean seedFirebaseData(boolean force) {
+        if (!running.compareAndSet(false, true)) {
+            log.info("⏳ Seeding déjà en cours, demande ignorée");
+            return false;
+        }
         try {
-            log.info("🚀 Démarrage du seeding des données Firebase");
-            
-            seedSignalementTypes();
-            seedRoles();
-            seedUsers();
-            seedProblemes();
-            seedSignalements();
+            boolean seeded = false;
+            if (force || !isMarked(SEED_MARKER, Map.of("version", (long) SEED_VERSION))) {
+                long start = System.currentTimeMillis();
+                log.info("🚀 Démarrage du seeding des données Firebase");
+                
+                seedSignalementTypes();
+                seedRoles();
+                seedUsers();
+                firestoreInitializationService.initializeFirestoreCollections();
+                
+                mark(SEED_MARKER, Map.of("version", (long) SEED_VERSION, "durationMs", System.currentTimeMillis() - start));
+                log.info("✅ Seeding terminé avec succès");
+                seeded = true;
+            } else {
+                log.info("✓ Seeding déjà effectué (version {})", SEED_VERSION);
+            }
             
-            log.info("✅ Seeding terminé avec succès");
-        } catch (ExecutionException | InterruptedException e) {
+            if (scaleSize > 0 && !isMarked(SCALE_SEED_MARKER, Map.of("size", scaleSize, "seed", scaleSeed))) {
+                scaleDataSeeder.seed(scaleSize, scaleProblemeRatio, scaleSeed, scaleFirestore);
+                mark(SCALE_SEED_MARKER, Map.of("size", scaleSize, "seed", scaleSeed));
+                seeded = true;
+            }
+            return seeded;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("❌ Seeding Firebase interrompu");
+            return false;
+        } catch (Exception e) {
             log.error("❌ Erreur lors du seeding Firebase: ", e);
+            return false;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Le marqueur existe et porte les mêmes valeurs (une seule lecture de document)
+     */
+    private boolean isMarked(String marker, Map<String, Object> expected) throws ExecutionException, InterruptedException {
+        Optional<StoredDocument> document = documentStore.get(META_COLLECTION, marker);
+        if (document.isEmpty()) {
+            return false;
+        }
+        for (Map.Entry<String, Object> entry : expected.entrySet()) {
+            Object value = document.get().get(entry.getKey());
+            if (!(value instanceof Number number) || number.longValue() != ((Number) entry.getValue()).longValue()) {
+                return false;
+            }
         }
+        return true;
+    }
+
+    private void mark(String marker, Map<String, Object> values) throws ExecutionException, InterruptedException {
+        Map<String, Object> data = new HashMap<>(values);
+        data.put("completedAt", DocumentValues.serverTimestamp());
+        documentStore.set(META_COLLECTION, marker, data);
     }
 
     /**
@@ -49,12 +160,8 @@ public class FirebaseDataSeeder {
     private void seedSignalementTypes() throws ExecutionException, InterruptedException {
         log.info("📝 Initialisation des types de signalements...");
 
-        // Vérifier si les types existent déjà
-        QuerySnapshot existing = firestore.collection("signalementTypes")
-                .get()
-                .get();
-
-        if (!existing.isEmpty()) {
+        // Vérifier si les types existent déjà (un seul document suffit)
+        if (documentStore.count(DocumentQuery.collection("signalementTypes").limit(1)) > 0) {
             log.info("✓ Types de signalements déjà présents");
             return;
         }
@@ -73,14 +180,12 @@ public class FirebaseDataSeeder {
         types.add(createSignalementType(9L, "Circulation dangereuse", "#DD0000", "🚗"));
         types.add(createSignalementType(10L, "Autre", "#999999", "❓"));
 
-        WriteBatch batch = firestore.batch();
+        DocumentBatch batch = documentStore.batch();
         for (Map<String, Object> typeData : types) {
             Long typeId = (Long) typeData.get("id");
-            DocumentReference docRef = firestore.collection("signalementTypes")
-                    .document(typeId.toString());
-            batch.set(docRef, typeData);
+            batch.set("signalementTypes", typeId.toString(), typeData);
         }
-        batch.commit().get();
+        firestoreRateLimiter.run(types.size(), batch::commit);
 
         log.info("✓ {} types de signalements créés", types.size());
     }
@@ -91,20 +196,16 @@ public class FirebaseDataSeeder {
     private void seedRoles() throws ExecutionException, InterruptedException {
         log.info("👥 Initialisation des rôles...");
 
-        QuerySnapshot existing = firestore.collection("roles")
-                .get()
-                .get();
-
-        if (!existing.isEmpty()) {
+        if (documentStore.count(DocumentQuery.collection("roles").limit(1)) > 0) {
             log.info("✓ Rôles déjà présents");
             return;
         }
 
-        WriteBatch batch = firestore.batch();
+        DocumentBatch batch = documentStore.batch();
 
         // Rôle Admin
         batch.set(
-            firestore.collection("roles").document("admin"),
+            "roles", "admin",
             createRole("admin", "Administrateur système", Arrays.asList(
                 "read:signalements",
                 "create:signalements",
@@ -118,7 +219,7 @@ public class FirebaseDataSeeder {
 
         // Rôle Moderateur
         batch.set(
-            firestore.collection("roles").document("moderateur"),
+            "roles", "moderateur",
             createRole("moderateur", "Modérateur de signalements", Arrays.asList(
                 "read:signalements",
                 "create:signalements",
@@ -130,7 +231,7 @@ public class FirebaseDataSeeder {
 
         // Rôle User
         batch.set(
-            firestore.collection("roles").document("user"),
+            "roles", "user",
             createRole("user", "Utilisateur standard", Arrays.asList(
                 "read:signalements",
                 "create:signalements",
@@ -139,7 +240,7 @@ public class FirebaseDataSeeder {
             ))
         );
 
-        batch.commit().get();
+        firestoreRateLimiter.run(3, batch::commit);
         log.info("✓ 3 rôles créés");
     }
 
@@ -156,116 +257,34 @@ public class FirebaseDataSeeder {
             return;
         }
 
-        WriteBatch batch = firestore.batch();
         int count = 0;
 
-        for (User user : users) {
-            Map<String, Object> userData = new HashMap<>();
-            userData.put("id", user.getId());
-            userData.put("username", user.getUsername());
-            userData.put("email", user.getEmail());
-            userData.put("firebaseUid", user.getFirebaseUid() != null ? user.getFirebaseUid() : "");
-            userData.put("roles", user.getRoles().stream()
-                    .map(role -> role.getName())
-                    .toList());
-            userData.put("isActive", true);
-            userData.put("createdAt", user.getCreatedAt());
-
-            DocumentReference docRef = firestore.collection("users")
-                    .document(user.getId().toString());
-            batch.set(docRef, userData, SetOptions.merge());
-            count++;
-
-            if (count % 100 == 0) {
-                batch.commit().get();
-                batch = firestore.batch();
+        for (int from = 0; from < users.size(); from += USER_BATCH_SIZE) {
+            List<User> chunk = users.subList(from, Math.min(from + USER_BATCH_SIZE, users.size()));
+            DocumentBatch batch = documentStore.batch();
+
+            for (User user : chunk) {
+                Map<String, Object> userData = new HashMap<>();
+                userData.put("id", user.getId());
+                userData.put("username", user.getUsername());
+                userData.put("email", user.getEmail());
+                userData.put("firebaseUid", user.getFirebaseUid() != null ? user.getFirebaseUid() : "");
+                userData.put("roles", user.getRoles().stream()
+                        .map(role -> role.getName())
+                        .toList());
+                userData.put("isActive", true);
+                userData.put("createdAt", user.getCreatedAt());
+
+                batch.merge("users", user.getId().toString(), userData);
+                count++;
             }
-        }
 
-        if (count % 100 != 0) {
-            batch.commit().get();
+            firestoreRateLimiter.run(chunk.size(), batch::commit);
         }
 
         log.info("✓ {} utilisateurs synchronisés", count);
     }
 
-    /**
-     * Initialiser la collection problemes
-     */
-    private void seedProblemes() throws ExecutionException, InterruptedException {
-        log.info("📝 Initialisation de la collection 'problemes'...");
-
-        QuerySnapshot existing = firestore.collection("problemes")
-                .limit(1)
-                .get()
-                .get();
-
-        if (!existing.isEmpty()) {
-            log.info("✓ Collection 'problemes' existe déjà ({} documents)", existing.size());
-            return;
-        }
-
-        // Créer un document exemple pour initialiser la collection
-        Map<String, Object> exampleProbleme = new HashMap<>();
-        exampleProbleme.put("userId", "example-user");
-        exampleProbleme.put("latitude", -18.8792);
-        exampleProbleme.put("longitude", 47.5079);
-        exampleProbleme.put("description", "Exemple de problème - à supprimer");
-        exampleProbleme.put("typeId", null);
-        exampleProbleme.put("status", "ouvert");
-        exampleProbleme.put("createdAt", FieldValue.serverTimestamp());
-        exampleProbleme.put("updatedAt", FieldValue.serverTimestamp());
-        exampleProbleme.put("_isExample", true);
-
-        firestore.collection("problemes")
-                .document("example")
-                .set(exampleProbleme)
-                .get();
-
-        log.info("✓ Collection 'problemes' créée avec un document exemple");
-    }
-
-    /**
-     * Initialiser la collection signalements
-     */
-    private void seedSignalements() throws ExecutionException, InterruptedException {
-        log.info("📝 Initialisation de la collection 'signalements'...");
-
-        QuerySnapshot existing = firestore.collection("signalements")
-                .limit(1)
-                .get()
-                .get();
-
-        if (!existing.isEmpty()) {
-            log.info("✓ Collection 'signalements' existe déjà ({} documents)", existing.size());
-            return;
-        }
-
-        // Créer un document exemple pour initialiser la collection
-        Map<String, Object> exampleSignalement = new HashMap<>();
-        exampleSignalement.put("latitude", -18.8792);
-        exampleSignalement.put("longitude", 47.5079);
-        exampleSignalement.put("typeId", "1");
-        exampleSignalement.put("description", "Exemple de signalement - à supprimer");
-        exampleSignalement.put("surfaceM2", 25);
-        exampleSignalement.put("budget", 5000);
-        exampleSignalement.put("entrepriseConcernee", null);
-        exampleSignalement.put("isAnonymous", false);
-        exampleSignalement.put("status", "nouveau");
-        exampleSignalement.put("userId", "example-manager");
-        exampleSignalement.put("createdBy", "system");
-        exampleSignalement.put("createdAt", FieldValue.serverTimestamp());
-        exampleSignalement.put("updatedAt", FieldValue.serverTimestamp());
-        exampleSignalement.put("_isExample", true);
-
-        firestore.collection("signalements")
-                .document("example")
-                .set(exampleSignalement)
-                .get();
-
-        log.info("✓ Collection 'signalements' créée avec un document exemple");
-    }
-
     /**
      * Helper pour créer un type de signalement
      */
@@ -279,7 +298,7 @@ public class FirebaseDataSeeder {
         type.put("description", "");
         type.put("isActive", true);
         type.put("severity", determineSeverity(id));
-        type.put("createdAt", FieldValue.serverTimestamp());
+        type.put("createdAt", DocumentValues.serverTimestamp());
         return type;
     }
 
@@ -291,7 +310,7 @@ public class FirebaseDataSeeder {
         role.put("name", name);
         role.put("description", description);
         role.put("permissions", permissions);
-        role.put("createdAt", FieldValue.serverTimestamp());
+        role.put("createdAt", DocumentValues.serverTimestamp());
         return role;
     }
 
@@ -315,11 +334,11 @@ public class FirebaseDataSeeder {
         String[] collections = {"signalementTypes", "roles", "users", "problemes", "signalements"};
 
         for (String collectionName : collections) {
-            QuerySnapshot snapshot = firestore.collection(collectionName).get().get();
-            log.info("Collection '{}': {} documents", collectionName, snapshot.size());
+            List<StoredDocument> documents = documentStore.query(DocumentQuery.collection(collectionName));
+            log.info("Collection '{}': {} documents", collectionName, documents.size());
             
-            for (DocumentSnapshot doc : snapshot.getDocuments()) {
-                log.debug("  - {}: {}", doc.getId(), doc.getData());
+            for (StoredDocument doc : documents) {
+                log.debug("  - {}: {}", doc.id(), doc.data());
             }
         }
     }
@@ -0,0 +1,75 @@
+package com.projet.Cloud.util;
+
+import com.google.cloud.Timestamp;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+
+/**
+ * Conversion des valeurs lues dans les documents Firestore (Map<String, Object>)
+ * vers les types des entités PostgreSQL. Appelé pour chaque champ de chaque ligne synchronisée.
+ */
+public final class FirestoreValues {
+
+    private FirestoreValues() {}
+
+    public static Long extractLong(Object value) {
+        if (value == null) return null;
+        if (value instanceof Number) return ((Number) value).longValue();
+        if (value instanceof String) return parseLongSafe((String) value);
+        return null;
+    }
+
+    public static Double extractDouble(Object value) {
+        if (value == null) return null;
+        if (value instanceof Number) return ((Number) value).doubleValue();
+        if (value instanceof String) {
+            try {
+                return Double.parseDouble((String) value);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    public static String getAsString(Object value) {
+        return value == null ? null : String.valueOf(value);
+    }
+
+    public static Long parseLongSafe(String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    public static LocalDateTime toLocalDateTime(Object value) {
+        if (value == null) return null;
+        if (value instanceof Timestamp) {
+            Timestamp ts = (Timestamp) value;
+            return LocalDateTime.ofInstant(ts.toDate().toInstant(), ZoneId.systemDefault());
+        }
+        if (value instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            Object secondsObj = map.get("seconds");
+            Object nanosObj = map.get("nanoseconds");
+            if (secondsObj instanceof Number) {
+                long seconds = ((Number) secondsObj).longValue();
+                long nanos = nanosObj instanceof Number ? ((Number) nanosObj).longValue() : 0L;
+                return LocalDateTime.ofInstant(Instant.ofEpochSecond(seconds, nanos), ZoneId.systemDefault());
+            }
+        }
+        if (value instanceof String) {
+            try {
+                return LocalDateTime.parse((String) value);
+            } catch (Exception e) {
+                return null;
+            }
+        }
+        return null;
+    }
+}
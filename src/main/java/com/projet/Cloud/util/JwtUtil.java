@@ -11,6 +11,7 @@ import java.security.Key;
 import java.util.Base64;
 import java.util.Date;
 import java.util.Map;
+import java.util.UUID;
 
 public class JwtUtil {
 
@@ -37,12 +38,14 @@ public class JwtUtil {
     }
 
 
-    /** Génère un token avec expiration personnalisée */
+    /** Génère un token avec expiration personnalisée (jti unique, clé de la liste de révocation) */
     public static String generateToken(Map<String, Object> claims, long expirationMs) {
         long now = System.currentTimeMillis();
         if (key == null) init(null); // fallback si jamais non initialisé
+        Object jti = claims.get("jti");
         return Jwts.builder()
                 .setClaims(claims)
+                .setId(jti != null ? jti.toString() : UUID.randomUUID().toString())
                 .setIssuedAt(new Date(now))
                 .setExpiration(new Date(now + expirationMs))
                 .signWith(key)
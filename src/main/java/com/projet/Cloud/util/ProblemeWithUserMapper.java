@@ -0,0 +1,59 @@
+package com.projet.Cloud.util;
+
+import com.projet.Cloud.dto.ProblemeWithUserDTO;
+import com.projet.Cloud.model.User;
+
+import java.util.Map;
+
+/**
+ * Construction des ProblemeWithUserDTO à partir des documents Firestore 'problemes'
+ */
+public final class ProblemeWithUserMapper {
+
+    private ProblemeWithUserMapper() {}
+
+    public static ProblemeWithUserDTO fromDocument(Map<String, Object> problemeData, String problemeId) {
+        ProblemeWithUserDTO dto = new ProblemeWithUserDTO();
+
+        dto.setId(problemeId);
+        dto.setUserId(toLong(problemeData.get("userId")));
+        dto.setLatitude(toDouble(problemeData.get("latitude")));
+        dto.setLongitude(toDouble(problemeData.get("longitude")));
+        dto.setDescription((String) problemeData.get("description"));
+        Object typeIdObj = problemeData.get("typeId");
+        if (typeIdObj != null) {
+            if (typeIdObj instanceof Number) {
+                dto.setTypeId(String.valueOf(((Number) typeIdObj).longValue()));
+            } else {
+                dto.setTypeId((String) typeIdObj);
+            }
+        }
+        dto.setStatus((String) problemeData.get("status"));
+        dto.setCreatedAt(problemeData.get("createdAt"));  // Garder l'objet tel quel pour JSON
+        dto.setUpdatedAt(problemeData.get("updatedAt"));  // Garder l'objet tel quel pour JSON
+        return dto;
+    }
+
+    public static void attachUser(ProblemeWithUserDTO dto, User user) {
+        dto.setUser(ProblemeWithUserDTO.UserInfo.builder()
+                .id(user.getId())
+                .email(user.getEmail())
+                .fullName(user.getUsername())
+                .username(user.getUsername())
+                .build());
+    }
+
+    private static Long toLong(Object obj) {
+        if (obj == null) return null;
+        if (obj instanceof Number) return ((Number) obj).longValue();
+        if (obj instanceof String) return Long.parseLong((String) obj);
+        return null;
+    }
+
+    private static Double toDouble(Object obj) {
+        if (obj == null) return null;
+        if (obj instanceof Number) return ((Number) obj).doubleValue();
+        if (obj instanceof String) return Double.parseDouble((String) obj);
+        return null;
+    }
+}
@@ -0,0 +1,423 @@
+package com.projet.Cloud.util;
+
+import com.google.cloud.Timestamp;
+import com.projet.Cloud.model.Role;
+import com.projet.Cloud.model.SignalementType;
+import com.projet.Cloud.repository.RoleRepository;
+import com.projet.Cloud.repository.SignalementTypeRepository;
+import com.projet.Cloud.service.CollectionVersionService;
+import com.projet.Cloud.service.FirestoreRateLimiter;
+import com.projet.Cloud.service.HeatmapService;
+import com.projet.Cloud.service.SignalementChangeFeedService;
+import com.projet.Cloud.service.SignalementRollupService;
+import com.projet.Cloud.store.DocumentBatch;
+import com.projet.Cloud.store.DocumentStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Seeding de volumétrie : des centaines de milliers à des millions de signalements
+ * (et une part de problèmes) générés par {@link SyntheticDataGenerator}.
+ *
+ * PostgreSQL est alimenté en lots JDBC (un commit par lot, mémoire constante) et Firestore
+ * en écritures groupées cadencées par le limiteur, avec les mêmes IDs dérivés que la synchronisation.
+ * Les IDs sont réservés par blocs sur les séquences des entités, comme le fait Hibernate.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ScaleDataSeeder {
+
+    private static final int JDBC_BATCH_SIZE = 1000;
+    private static final int MAX_BATCH_WRITES = 500;
+    private static final int HISTORY_DAYS = 730;
+    private static final int REPORTS_PER_USER = 200;
+    private static final int SEQUENCE_ALLOCATION = 50;  // allocationSize des @SequenceGenerator
+
+    private static final String INSERT_USER =
+            "INSERT INTO users (id, username, email, password, created_at) VALUES (?, ?, ?, ?, ?)";
+    private static final String INSERT_USER_ROLE =
+            "INSERT INTO user_roles (user_id, role_id) VALUES (?, ?)";
+    private static final String INSERT_SIGNALEMENT =
+            "INSERT INTO signalements (id, firebase_id, user_id, type_id, latitude, longitude, description, status, "
+            + "surface_m2, budget, niveau, date_signalement, created_at, updated_at, resolved_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_PROBLEME =
+            "INSERT INTO problemes (id, firebase_id, user_id, type_id, latitude, longitude, description, status, "
+            + "created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final DataSource dataSource;
+    private final DocumentStore documentStore;
+    private final FirestoreRateLimiter firestoreRateLimiter;
+    private final SignalementTypeRepository signalementTypeRepository;
+    private final RoleRepository roleRepository;
+    private final HeatmapService heatmapService;
+    private final SignalementRollupService signalementRollupService;
+    private final CollectionVersionService collectionVersionService;
+    private final SignalementChangeFeedService signalementChangeFeedService;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    @Value("${seed.scale.max-size:5000000}")
+    private long maxSize;
+
+    /**
+     * Génère {@code size} signalements et {@code problemeRatio × size} problèmes
+     *
+     * @param size       nombre de signalements
+     * @param seed       graine : même graine, même jeu de données
+     * @param firestore  écrire aussi les documents Firestore (sinon la synchronisation s'en chargera)
+     * @throws IllegalStateException si un seeding de volumétrie est déjà en cours
+     */
+    public Map<String, Object> seed(long size, double problemeRatio, long seed, boolean firestore)
+            throws SQLException, ExecutionException, InterruptedException {
+        validate(size, problemeRatio);
+        if (!tryStart()) {
+            throw new IllegalStateException("Seeding de volumétrie déjà en cours");
+        }
+        try {
+            return generate(size, problemeRatio, seed, firestore);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Rejette une taille hors de [1, seed.scale.max-size] ou un ratio de problèmes hors de [0, 1]
+     */
+    public void validate(long size, double problemeRatio) {
+        if (size < 1 || size > maxSize) {
+            throw new IllegalArgumentException("size doit être compris entre 1 et " + maxSize);
+        }
+        if (!(problemeRatio >= 0 && problemeRatio <= 1)) {
+            throw new IllegalArgumentException("problemeRatio doit être compris entre 0 et 1");
+        }
+    }
+
+    /**
+     * Réserve l'exécution pour {@link #seedInBackground} ; false si un seeding est déjà en cours
+     */
+    public boolean tryStart() {
+        return running.compareAndSet(false, true);
+    }
+
+    /**
+     * Seeding déclenché par l'endpoint admin après {@link #tryStart()}, sans bloquer la requête ;
+     * libère la réservation à la fin
+     */
+    @Async
+    public void seedInBackground(long size, double problemeRatio, long seed, boolean firestore) {
+        try {
+            generate(size, problemeRatio, seed, firestore);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("❌ Seeding de volumétrie interrompu");
+        } catch (Exception e) {
+            log.error("❌ Erreur lors du seeding de volumétrie", e);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private Map<String, Object> generate(long size, double problemeRatio, long seed, boolean firestore)
+            throws SQLException, ExecutionException, InterruptedException {
+
+        long start = System.currentTimeMillis();
+        List<Long> typeIds = signalementTypeRepository.findAll().stream().map(SignalementType::getId).toList();
+        if (typeIds.isEmpty()) {
+            throw new IllegalStateException("Aucun type de signalement en base : impossible de générer des données");
+        }
+
+        log.info("🌱 Seeding de volumétrie: {} signalements, ratio problèmes {}, graine {}, Firestore {}",
+                size, problemeRatio, seed, firestore);
+
+        Map<Long, String> users = insertUsers(Math.max(10, size / REPORTS_PER_USER), seed);
+        SyntheticDataGenerator generator = new SyntheticDataGenerator(
+                seed, typeIds, new ArrayList<>(users.keySet()), LocalDateTime.now(), HISTORY_DAYS);
+
+        long signalements = insertSignalements(generator, size, users, firestore);
+        long problemes = insertProblemes(generator, Math.round(size * problemeRatio), users, firestore);
+
+        // Les lots JDBC ne passent pas par JPA : les agrégats sont recalculés en une fois
+        heatmapService.rebuild();
+        signalementRollupService.rebuild();
+        signalementChangeFeedService.invalidateCursors();
+        collectionVersionService.bump(CollectionVersionService.USERS);
+        collectionVersionService.bump(CollectionVersionService.SIGNALEMENTS);
+        collectionVersionService.bump(CollectionVersionService.PROBLEMES);
+
+        long durationMs = System.currentTimeMillis() - start;
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("seed", seed);
+        report.put("users", users.size());
+        report.put("signalements", signalements);
+        report.put("problemes", problemes);
+        report.put("firestore", firestore);
+        report.put("durationMs", durationMs);
+        report.put("rowsPerSecond", (signalements + problemes) * 1000 / Math.max(durationMs, 1));
+
+        log.info("✅ Seeding de volumétrie terminé: {}", report);
+        return report;
+    }
+
+    /**
+     * Utilisateurs synthétiques (rôle USER, mot de passe inutilisable) ; retourne id → email
+     */
+    private Map<Long, String> insertUsers(long count, long seed) throws SQLException {
+        Long userRoleId = roleRepository.findByName("USER").map(Role::getId).orElse(null);
+        Map<Long, String> users = new LinkedHashMap<>();
+        String prefix = "synthetic-" + seed + "-" + Long.toString(System.currentTimeMillis(), 36);
+
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement insert = connection.prepareStatement(INSERT_USER);
+                 PreparedStatement link = connection.prepareStatement(INSERT_USER_ROLE)) {
+
+                SequenceIds sequence = new SequenceIds(connection, "users_seq");
+                for (long from = 0; from < count; from += JDBC_BATCH_SIZE) {
+                    for (long i = from; i < Math.min(from + JDBC_BATCH_SIZE, count); i++) {
+                        long id = sequence.next();
+                        String email = prefix + "-" + i + "@synthetic.local";
+                        insert.setLong(1, id);
+                        insert.setString(2, prefix + "-" + i);
+                        insert.setString(3, email);
+                        insert.setString(4, "!synthetic");
+                        insert.setObject(5, LocalDateTime.now());
+                        insert.addBatch();
+                        users.put(id, email);
+                        if (userRoleId != null) {
+                            link.setLong(1, id);
+                            link.setLong(2, userRoleId);
+                            link.addBatch();
+                        }
+                    }
+                    insert.executeBatch();
+                    if (userRoleId != null) {
+                        link.executeBatch();
+                    }
+                    connection.commit();
+                }
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            }
+        }
+
+        log.info("✓ {} utilisateurs synthétiques créés", users.size());
+        return users;
+    }
+
+    private long insertSignalements(SyntheticDataGenerator generator, long count, Map<Long, String> users, boolean firestore)
+            throws SQLException, ExecutionException, InterruptedException {
+
+        long inserted = 0;
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement insert = connection.prepareStatement(INSERT_SIGNALEMENT)) {
+
+                SequenceIds sequence = new SequenceIds(connection, "signalements_seq");
+                for (long from = 0; from < count; from += JDBC_BATCH_SIZE) {
+                    List<SyntheticDataGenerator.SyntheticSignalement> chunk = new ArrayList<>();
+                    List<Long> ids = new ArrayList<>();
+                    for (long i = from; i < Math.min(from + JDBC_BATCH_SIZE, count); i++) {
+                        SyntheticDataGenerator.SyntheticSignalement s = generator.nextSignalement();
+                        long id = sequence.next();
+                        insert.setLong(1, id);
+                        insert.setString(2, firestore ? SyncDocumentIds.fromLocalId(id) : null);
+                        insert.setLong(3, s.userId());
+                        insert.setLong(4, s.typeId());
+                        insert.setDouble(5, s.latitude());
+                        insert.setDouble(6, s.longitude());
+                        insert.setString(7, s.description());
+                        insert.setString(8, s.status());
+                        insert.setDouble(9, s.surfaceM2());
+                        insert.setDouble(10, s.budget());
+                        insert.setInt(11, s.niveau());
+                        insert.setObject(12, s.dateSignalement());
+                        insert.setObject(13, s.createdAt());
+                        insert.setObject(14, s.updatedAt());
+                        if ("terminé".equals(s.status())) {
+                            insert.setObject(15, s.updatedAt());
+                        } else {
+                            insert.setNull(15, Types.TIMESTAMP);
+                        }
+                        insert.addBatch();
+                        chunk.add(s);
+                        ids.add(id);
+                    }
+                    insert.executeBatch();
+                    connection.commit();
+
+                    if (firestore) {
+                        writeSignalementDocuments(ids, chunk, users);
+                    }
+                    inserted += chunk.size();
+                    logProgress("signalements", inserted, count);
+                }
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            }
+        }
+        return inserted;
+    }
+
+    private long insertProblemes(SyntheticDataGenerator generator, long count, Map<Long, String> users, boolean firestore)
+            throws SQLException, ExecutionException, InterruptedException {
+
+        long inserted = 0;
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement insert = connection.prepareStatement(INSERT_PROBLEME)) {
+
+                SequenceIds sequence = new SequenceIds(connection, "problemes_seq");
+                for (long from = 0; from < count; from += JDBC_BATCH_SIZE) {
+                    List<SyntheticDataGenerator.SyntheticProbleme> chunk = new ArrayList<>();
+                    List<Long> ids = new ArrayList<>();
+                    for (long i = from; i < Math.min(from + JDBC_BATCH_SIZE, count); i++) {
+                        SyntheticDataGenerator.SyntheticProbleme p = generator.nextProbleme();
+                        long id = sequence.next();
+                        insert.setLong(1, id);
+                        insert.setString(2, firestore ? SyncDocumentIds.fromLocalId(id) : null);
+                        insert.setLong(3, p.userId());
+                        if (p.typeId() != null) {
+                            insert.setLong(4, p.typeId());
+                        } else {
+                            insert.setNull(4, Types.BIGINT);
+                        }
+                        insert.setDouble(5, p.latitude());
+                        insert.setDouble(6, p.longitude());
+                        insert.setString(7, p.description());
+                        insert.setString(8, p.status());
+                        insert.setObject(9, p.createdAt());
+                        insert.setObject(10, p.updatedAt());
+                        insert.addBatch();
+                        chunk.add(p);
+                        ids.add(id);
+                    }
+                    insert.executeBatch();
+                    connection.commit();
+
+                    if (firestore) {
+                        writeProblemeDocuments(ids, chunk, users);
+                    }
+                    inserted += chunk.size();
+                    logProgress("problèmes", inserted, count);
+                }
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            }
+        }
+        return inserted;
+    }
+
+    /**
+     * Mêmes champs que FirebaseSignalementService.createSignalement(Signalement)
+     */
+    private void writeSignalementDocuments(List<Long> ids, List<SyntheticDataGenerator.SyntheticSignalement> chunk,
+                                           Map<Long, String> users) throws ExecutionException, InterruptedException {
+        for (int from = 0; from < ids.size(); from += MAX_BATCH_WRITES) {
+            DocumentBatch batch = documentStore.batch();
+            for (int i = from; i < Math.min(from + MAX_BATCH_WRITES, ids.size()); i++) {
+                SyntheticDataGenerator.SyntheticSignalement s = chunk.get(i);
+                Map<String, Object> data = new HashMap<>();
+                data.put("localId", ids.get(i));
+                data.put("userId", String.valueOf(s.userId()));
+                data.put("userEmail", users.get(s.userId()));
+                data.put("typeId", String.valueOf(s.typeId()));
+                data.put("latitude", s.latitude());
+                data.put("longitude", s.longitude());
+                data.put("description", s.description());
+                data.put("surfaceM2", s.surfaceM2());
+                data.put("budget", s.budget());
+                data.put("niveau", s.niveau());
+                data.put("status", s.status());
+                data.put("dateSignalement", timestamp(s.dateSignalement()));
+                data.put("createdAt", timestamp(s.createdAt()));
+                data.put("updatedAt", timestamp(s.updatedAt()));
+                batch.set("signalements", SyncDocumentIds.fromLocalId(ids.get(i)), data);
+            }
+            firestoreRateLimiter.run(batch.size(), batch::commit);
+        }
+    }
+
+    /**
+     * Mêmes champs que FirebaseProblemeService.createProbleme(Probleme)
+     */
+    private void writeProblemeDocuments(List<Long> ids, List<SyntheticDataGenerator.SyntheticProbleme> chunk,
+                                        Map<Long, String> users) throws ExecutionException, InterruptedException {
+        for (int from = 0; from < ids.size(); from += MAX_BATCH_WRITES) {
+            DocumentBatch batch = documentStore.batch();
+            for (int i = from; i < Math.min(from + MAX_BATCH_WRITES, ids.size()); i++) {
+                SyntheticDataGenerator.SyntheticProbleme p = chunk.get(i);
+                Map<String, Object> data = new HashMap<>();
+                data.put("localId", ids.get(i));
+                data.put("userId", String.valueOf(p.userId()));
+                data.put("userEmail", users.get(p.userId()));
+                if (p.typeId() != null) {
+                    data.put("typeId", String.valueOf(p.typeId()));
+                }
+                data.put("latitude", p.latitude());
+                data.put("longitude", p.longitude());
+                data.put("description", p.description());
+                data.put("status", p.status());
+                data.put("createdAt", timestamp(p.createdAt()));
+                data.put("updatedAt", timestamp(p.updatedAt()));
+                batch.set("problemes", SyncDocumentIds.fromLocalId(ids.get(i)), data);
+            }
+            firestoreRateLimiter.run(batch.size(), batch::commit);
+        }
+    }
+
+    /**
+     * Réserve les IDs par blocs de {@link #SEQUENCE_ALLOCATION} : un nextval rend la borne haute
+     * du bloc, comme l'optimiseur « pooled » d'Hibernate, donc aucun chevauchement avec l'application
+     */
+    private static final class SequenceIds {
+
+        private final PreparedStatement nextval;
+        private long next;
+        private long high = -1;
+
+        SequenceIds(Connection connection, String sequence) throws SQLException {
+            this.nextval = connection.prepareStatement("SELECT nextval('" + sequence + "')");
+        }
+
+        long next() throws SQLException {
+            if (next > high) {
+                try (ResultSet rs = nextval.executeQuery()) {
+                    rs.next();
+                    high = rs.getLong(1);
+                }
+                next = Math.max(1, high - SEQUENCE_ALLOCATION + 1);
+            }
+            return next++;
+        }
+    }
+
+    private static Timestamp timestamp(LocalDateTime dateTime) {
+        return Timestamp.of(Date.from(dateTime.atZone(ZoneId.systemDefault()).toInstant()));
+    }
+
+    private static void logProgress(String label, long inserted, long total) {
+        if (inserted % 100_000 < JDBC_BATCH_SIZE || inserted == total) {
+            log.info("   {} {}/{}", label, inserted, total);
+        }
+    }
+}
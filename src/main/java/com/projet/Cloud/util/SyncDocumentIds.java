@@ -0,0 +1,37 @@
+package com.projet.Cloud.util;
+
+/**
+ * IDs de documents Firestore déterministes dérivés de la clé primaire PostgreSQL.
+ * Rejouer la création d'une même ligne réécrit le même document au lieu d'en créer un doublon.
+ */
+public final class SyncDocumentIds {
+
+    private static final String LOCAL_PREFIX = "pg-";
+
+    private SyncDocumentIds() {}
+
+    public static String fromLocalId(Long localId) {
+        if (localId == null) {
+            throw new IllegalArgumentException("Impossible de dériver un ID Firestore sans ID local");
+        }
+        return LOCAL_PREFIX + localId;
+    }
+
+    public static boolean isDerived(String documentId) {
+        return documentId != null && documentId.startsWith(LOCAL_PREFIX);
+    }
+
+    /**
+     * ID local d'un document dérivé ({@code pg-42} → 42), null pour un ID généré par Firestore
+     */
+    public static Long toLocalId(String documentId) {
+        if (!isDerived(documentId)) {
+            return null;
+        }
+        try {
+            return Long.parseLong(documentId.substring(LOCAL_PREFIX.length()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
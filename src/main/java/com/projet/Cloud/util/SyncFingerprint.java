@@ -0,0 +1,52 @@
+package com.projet.Cloud.util;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Empreinte du contenu synchronisé d'une ligne, calculée de la même façon côté PostgreSQL
+ * et côté Firestore. Les empreintes d'un bucket se combinent par addition : l'ordre de
+ * lecture n'a pas d'importance et une seule ligne différente change le résultat.
+ */
+public final class SyncFingerprint {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final char SEPARATOR = '\u001F';
+
+    private SyncFingerprint() {}
+
+    /**
+     * Empreinte 64 bits (FNV-1a) de l'ID local et des valeurs normalisées
+     */
+    public static long of(long localId, Object... values) {
+        StringBuilder canonical = new StringBuilder().append(localId);
+        for (Object value : values) {
+            canonical.append(SEPARATOR).append(normalize(value));
+        }
+
+        long hash = FNV_OFFSET;
+        for (byte b : canonical.toString().getBytes(StandardCharsets.UTF_8)) {
+            hash ^= (b & 0xff);
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+
+    /**
+     * Firestore renvoie 5000 en Long quand PostgreSQL le renvoie en Double : on compare
+     * les nombres par leur valeur décimale, et les identifiants indifféremment en texte ou en nombre
+     */
+    static String normalize(Object value) {
+        if (value == null) {
+            return "";
+        }
+        if (value instanceof Number number) {
+            BigDecimal decimal = number instanceof Double || number instanceof Float
+                    ? BigDecimal.valueOf(number.doubleValue())
+                    : new BigDecimal(number.toString());
+            return decimal.stripTrailingZeros().toPlainString();
+        }
+        return value.toString();
+    }
+}
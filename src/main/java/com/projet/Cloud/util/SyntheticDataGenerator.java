@@ -0,0 +1,241 @@
+package com.projet.Cloud.util;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Génère des signalements et problèmes réalistes pour les tests de volumétrie.
+ *
+ * Les points sont regroupés autour des grandes villes (avec des points chauds par ville),
+ * les types suivent une loi de Zipf, les signalements anciens sont plus souvent terminés
+ * et les dates privilégient le passé récent, les jours ouvrés et les heures de pointe.
+ * Même graine, mêmes référentiels et même date de référence → même jeu de données.
+ */
+public class SyntheticDataGenerator {
+
+    private record City(String name, double latitude, double longitude, double spreadKm, int weight) {}
+
+    private static final List<City> CITIES = List.of(
+            new City("Antananarivo", -18.8792, 47.5079, 6.0, 50),
+            new City("Toamasina", -18.1443, 49.3958, 4.0, 12),
+            new City("Antsirabe", -19.8659, 47.0333, 3.0, 10),
+            new City("Fianarantsoa", -21.4536, 47.0857, 3.0, 9),
+            new City("Mahajanga", -15.7167, 46.3167, 3.0, 9),
+            new City("Toliara", -23.3516, 43.6855, 3.0, 6),
+            new City("Antsiranana", -12.2787, 49.2917, 2.5, 4)
+    );
+
+    private static final int HOTSPOTS_PER_CITY = 5;
+    private static final double HOTSPOT_SHARE = 0.4;
+    private static final double KM_PER_DEGREE = 111.0;
+
+    // Poids horaires (0h-23h) : pics le matin et en fin de journée
+    private static final int[] HOUR_WEIGHTS = {1, 1, 1, 1, 1, 2, 4, 8, 10, 9, 7, 6, 6, 6, 6, 7, 8, 10, 9, 7, 5, 4, 2, 1};
+
+    private static final String[] SIGNALEMENT_DESCRIPTIONS = {
+            "Nid de poule sur la chaussée", "Route inondée après la pluie", "Bordure effondrée",
+            "Éclairage public en panne", "Panneau de signalisation arraché", "Trottoir encombré",
+            "Canalisation bouchée", "Dépôt de détritus", "Carrefour dangereux", "Fissures importantes"
+    };
+
+    private static final String[] PROBLEME_DESCRIPTIONS = {
+            "Trou dangereux devant l'école", "Eau stagnante depuis plusieurs jours", "Route impraticable",
+            "Lampadaire tombé", "Câbles électriques au sol", "Caniveau débordant"
+    };
+
+    /**
+     * Signalement généré, prêt à être inséré (les IDs sont attribués par la base)
+     */
+    public record SyntheticSignalement(long userId, long typeId, double latitude, double longitude,
+                                       String description, String status, double surfaceM2, double budget,
+                                       int niveau, LocalDateTime dateSignalement, LocalDateTime createdAt,
+                                       LocalDateTime updatedAt) {}
+
+    public record SyntheticProbleme(long userId, Long typeId, double latitude, double longitude,
+                                    String description, String status, LocalDateTime createdAt,
+                                    LocalDateTime updatedAt) {}
+
+    private final Random random;
+    private final List<Long> userIds;
+    private final List<Long> typesByPopularity;
+    private final double[] typeCumulativeWeights;
+    private final double[][] hotspots;
+    private final int cityWeightTotal;
+    private final LocalDateTime now;
+    private final int historyDays;
+
+    public SyntheticDataGenerator(long seed, List<Long> typeIds, List<Long> userIds,
+                                  LocalDateTime now, int historyDays) {
+        if (typeIds.isEmpty() || userIds.isEmpty()) {
+            throw new IllegalArgumentException("Types et utilisateurs requis pour générer des données");
+        }
+        this.random = new Random(seed);
+        this.userIds = List.copyOf(userIds);
+        this.now = now.truncatedTo(ChronoUnit.SECONDS);
+        this.historyDays = historyDays;
+
+        // Popularité des types : ordre tiré au sort puis loi de Zipf (s = 1.1)
+        List<Long> shuffled = new ArrayList<>(typeIds);
+        Collections.shuffle(shuffled, random);
+        this.typesByPopularity = List.copyOf(shuffled);
+        this.typeCumulativeWeights = new double[shuffled.size()];
+        double total = 0;
+        for (int rank = 0; rank < shuffled.size(); rank++) {
+            total += 1.0 / Math.pow(rank + 1, 1.1);
+            typeCumulativeWeights[rank] = total;
+        }
+
+        // Points chauds fixes par ville (marchés, carrefours...)
+        this.hotspots = new double[CITIES.size() * HOTSPOTS_PER_CITY][];
+        for (int c = 0; c < CITIES.size(); c++) {
+            City city = CITIES.get(c);
+            for (int h = 0; h < HOTSPOTS_PER_CITY; h++) {
+                hotspots[c * HOTSPOTS_PER_CITY + h] = offset(city.latitude(), city.longitude(), city.spreadKm());
+            }
+        }
+        this.cityWeightTotal = CITIES.stream().mapToInt(City::weight).sum();
+    }
+
+    public SyntheticSignalement nextSignalement() {
+        double[] point = nextPoint();
+        int typeRank = nextTypeRank();
+        LocalDateTime createdAt = nextTimestamp();
+        long ageDays = ChronoUnit.DAYS.between(createdAt, now);
+        String status = nextStatus(ageDays);
+
+        double surface = clamp(Math.exp(2.5 + random.nextGaussian() * 0.9), 1, 2000);
+        double unitCost = clamp(Math.exp(3.9 + random.nextGaussian() * 0.5), 10, 500);
+        double budget = Math.round(surface * unitCost * 100) / 100.0;
+        // Les types les plus fréquents (nids de poule...) sont aussi les plus prioritaires
+        int niveau = (int) clamp(Math.round(8 - typeRank * 0.6 + random.nextGaussian() * 1.5), 1, 10);
+
+        LocalDateTime updatedAt = "nouveau".equals(status)
+                ? createdAt
+                : min(createdAt.plusHours(1 + (long) (random.nextDouble() * Math.max(ageDays, 1) * 24)), now);
+
+        return new SyntheticSignalement(
+                nextUserId(), typesByPopularity.get(typeRank),
+                round(point[0]), round(point[1]),
+                SIGNALEMENT_DESCRIPTIONS[random.nextInt(SIGNALEMENT_DESCRIPTIONS.length)],
+                status, Math.round(surface * 100) / 100.0, budget, niveau,
+                createdAt, createdAt, updatedAt);
+    }
+
+    public SyntheticProbleme nextProbleme() {
+        double[] point = nextPoint();
+        LocalDateTime createdAt = nextTimestamp();
+        long ageDays = ChronoUnit.DAYS.between(createdAt, now);
+
+        // Les problèmes récents sont encore ouverts, les anciens ont été convertis ou rejetés
+        double closed = Math.min(0.9, ageDays / 60.0);
+        String status = random.nextDouble() >= closed ? "ouvert" : (random.nextDouble() < 0.8 ? "converti" : "rejete");
+        Long typeId = random.nextDouble() < 0.3 ? typesByPopularity.get(nextTypeRank()) : null;
+
+        return new SyntheticProbleme(nextUserId(), typeId, round(point[0]), round(point[1]),
+                PROBLEME_DESCRIPTIONS[random.nextInt(PROBLEME_DESCRIPTIONS.length)],
+                status, createdAt, "ouvert".equals(status) ? createdAt : min(createdAt.plusDays(1 + random.nextInt(7)), now));
+    }
+
+    private double[] nextPoint() {
+        int pick = random.nextInt(cityWeightTotal);
+        int cityIndex = 0;
+        while (pick >= CITIES.get(cityIndex).weight()) {
+            pick -= CITIES.get(cityIndex).weight();
+            cityIndex++;
+        }
+        City city = CITIES.get(cityIndex);
+
+        if (random.nextDouble() < HOTSPOT_SHARE) {
+            double[] hotspot = hotspots[cityIndex * HOTSPOTS_PER_CITY + random.nextInt(HOTSPOTS_PER_CITY)];
+            return offset(hotspot[0], hotspot[1], 0.3);
+        }
+        return offset(city.latitude(), city.longitude(), city.spreadKm());
+    }
+
+    /**
+     * Décalage gaussien de sigma km autour d'un point
+     */
+    private double[] offset(double latitude, double longitude, double sigmaKm) {
+        double dLat = random.nextGaussian() * sigmaKm / KM_PER_DEGREE;
+        double dLon = random.nextGaussian() * sigmaKm / (KM_PER_DEGREE * Math.cos(Math.toRadians(latitude)));
+        return new double[]{latitude + dLat, longitude + dLon};
+    }
+
+    private int nextTypeRank() {
+        double target = random.nextDouble() * typeCumulativeWeights[typeCumulativeWeights.length - 1];
+        for (int rank = 0; rank < typeCumulativeWeights.length; rank++) {
+            if (target < typeCumulativeWeights[rank]) {
+                return rank;
+            }
+        }
+        return typeCumulativeWeights.length - 1;
+    }
+
+    /**
+     * Âge exponentiel (beaucoup de récent, une longue traîne), week-ends moins chargés
+     */
+    private LocalDateTime nextTimestamp() {
+        while (true) {
+            double ageDays = Math.min(-Math.log(1 - random.nextDouble()) * historyDays / 4.0, historyDays);
+            LocalDateTime day = now.minusDays((long) ageDays).truncatedTo(ChronoUnit.DAYS);
+            DayOfWeek dayOfWeek = day.getDayOfWeek();
+            if ((dayOfWeek == DayOfWeek.SATURDAY || dayOfWeek == DayOfWeek.SUNDAY) && random.nextDouble() < 0.4) {
+                continue;
+            }
+            LocalDateTime timestamp = day.plusHours(nextHour())
+                    .plusMinutes(random.nextInt(60))
+                    .plusSeconds(random.nextInt(60));
+            if (!timestamp.isAfter(now)) {
+                return timestamp;
+            }
+        }
+    }
+
+    private int nextHour() {
+        int total = 0;
+        for (int weight : HOUR_WEIGHTS) {
+            total += weight;
+        }
+        int pick = random.nextInt(total);
+        for (int hour = 0; hour < HOUR_WEIGHTS.length; hour++) {
+            pick -= HOUR_WEIGHTS[hour];
+            if (pick < 0) {
+                return hour;
+            }
+        }
+        return 12;
+    }
+
+    private String nextStatus(long ageDays) {
+        double terminated = Math.min(0.75, ageDays / 365.0);
+        double inProgress = ageDays < 2 ? 0.1 : 0.25;
+        double draw = random.nextDouble();
+        if (draw < terminated) {
+            return "terminé";
+        }
+        return draw < terminated + inProgress ? "en_cours" : "nouveau";
+    }
+
+    private long nextUserId() {
+        // Quelques utilisateurs très actifs, beaucoup d'occasionnels
+        int index = (int) Math.min(userIds.size() - 1, Math.floor(Math.pow(random.nextDouble(), 2.5) * userIds.size()));
+        return userIds.get(index);
+    }
+
+    private static double clamp(double value, double min, double max) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    private static double round(double coordinate) {
+        return Math.round(coordinate * 1_000_000) / 1_000_000.0;
+    }
+
+    private static LocalDateTime min(LocalDateTime a, LocalDateTime b) {
+        return a.isBefore(b) ? a : b;
+    }
+}
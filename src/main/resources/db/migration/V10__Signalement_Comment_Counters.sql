@@ -0,0 +1,7 @@
+-- Migration Flyway : compteurs de commentaires recopiés depuis Firestore (commentCount, lastCommentAt)
+-- Placement: src/main/resources/db/migration/V10__Signalement_Comment_Counters.sql
+
+ALTER TABLE signalements ADD COLUMN IF NOT EXISTS comment_count INTEGER DEFAULT 0;
+ALTER TABLE signalements ADD COLUMN IF NOT EXISTS last_comment_at TIMESTAMP;
+
+UPDATE signalements SET comment_count = 0 WHERE comment_count IS NULL;
@@ -0,0 +1,10 @@
+-- Migration Flyway : jetons de rafraîchissement portés par la table sessions (rotation, révocation)
+-- Placement: src/main/resources/db/migration/V11__Session_Refresh_Tokens.sql
+
+ALTER TABLE sessions ADD COLUMN IF NOT EXISTS previous_token VARCHAR(255);
+ALTER TABLE sessions ADD COLUMN IF NOT EXISTS created_at TIMESTAMP;
+ALTER TABLE sessions ADD COLUMN IF NOT EXISTS last_used_at TIMESTAMP;
+ALTER TABLE sessions ADD COLUMN IF NOT EXISTS revoked_at TIMESTAMP;
+
+CREATE INDEX IF NOT EXISTS idx_sessions_user_id ON sessions (user_id);
+CREATE INDEX IF NOT EXISTS idx_sessions_expires_at ON sessions (expires_at);
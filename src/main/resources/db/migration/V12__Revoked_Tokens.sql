@@ -0,0 +1,14 @@
+-- Migration Flyway : liste de révocation des JWT (jti:<id> ou user:<email>), copiée en mémoire par chaque instance
+-- Placement: src/main/resources/db/migration/V12__Revoked_Tokens.sql
+
+CREATE SEQUENCE IF NOT EXISTS revoked_tokens_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS revoked_tokens (
+    id BIGINT PRIMARY KEY DEFAULT nextval('revoked_tokens_seq'),
+    revocation_key VARCHAR(255) NOT NULL,
+    revoked_at TIMESTAMP NOT NULL,
+    expires_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_revoked_tokens_revoked_at ON revoked_tokens (revoked_at);
+CREATE INDEX IF NOT EXISTS idx_revoked_tokens_expires_at ON revoked_tokens (expires_at);
@@ -0,0 +1,10 @@
+-- Migration Flyway : versions des collections exposées en liste (ETag / 304), communes aux instances
+-- Placement: src/main/resources/db/migration/V13__Collection_Versions.sql
+--
+-- Sans Flyway : table créée par ddl-auto, lignes créées au démarrage par CollectionVersionService
+
+CREATE TABLE IF NOT EXISTS collection_versions (
+    name VARCHAR(64) PRIMARY KEY,
+    version_value BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL
+);
@@ -0,0 +1,18 @@
+-- Migration Flyway : IDs alloués par séquence (blocs de 50) au lieu de IDENTITY
+-- Placement: src/main/resources/db/migration/V4__Pooled_Id_Sequences.sql
+--
+-- Hibernate désactive le batching JDBC des INSERT sur les entités en IDENTITY.
+-- Avec une séquence à pas de 50, chaque appel à nextval réserve 50 IDs côté application.
+-- Les séquences sont positionnées après le plus grand ID existant.
+
+CREATE SEQUENCE IF NOT EXISTS users_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS signalements_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS problemes_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS login_attempts_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS pending_sync_seq INCREMENT BY 50;
+
+SELECT setval('users_seq', COALESCE((SELECT MAX(id) FROM users), 1));
+SELECT setval('signalements_seq', COALESCE((SELECT MAX(id) FROM signalements), 1));
+SELECT setval('problemes_seq', COALESCE((SELECT MAX(id) FROM problemes), 1));
+SELECT setval('login_attempts_seq', COALESCE((SELECT MAX(id) FROM login_attempts), 1));
+SELECT setval('pending_sync_seq', COALESCE((SELECT MAX(id) FROM pending_sync), 1));
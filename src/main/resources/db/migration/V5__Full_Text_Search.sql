@@ -0,0 +1,25 @@
+-- Migration Flyway : recherche plein texte sur les descriptions
+-- Placement: src/main/resources/db/migration/V5__Full_Text_Search.sql
+--
+-- Configuration française insensible aux accents (unaccent puis racinisation),
+-- colonne tsvector générée et index GIN sur signalements et problemes.
+
+CREATE EXTENSION IF NOT EXISTS unaccent;
+
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_ts_config WHERE cfgname = 'french_unaccent') THEN
+        CREATE TEXT SEARCH CONFIGURATION french_unaccent (COPY = french);
+        ALTER TEXT SEARCH CONFIGURATION french_unaccent
+            ALTER MAPPING FOR hword, hword_part, word WITH unaccent, french_stem;
+    END IF;
+END
+$$;
+
+ALTER TABLE signalements ADD COLUMN IF NOT EXISTS search_vector tsvector
+    GENERATED ALWAYS AS (to_tsvector('french_unaccent', coalesce(description, ''))) STORED;
+ALTER TABLE problemes ADD COLUMN IF NOT EXISTS search_vector tsvector
+    GENERATED ALWAYS AS (to_tsvector('french_unaccent', coalesce(description, ''))) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_signalements_search ON signalements USING GIN (search_vector);
+CREATE INDEX IF NOT EXISTS idx_problemes_search ON problemes USING GIN (search_vector);
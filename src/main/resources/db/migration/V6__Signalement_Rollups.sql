@@ -0,0 +1,29 @@
+-- Migration Flyway : date de résolution et agrégats journaliers des signalements
+-- Placement: src/main/resources/db/migration/V6__Signalement_Rollups.sql
+-- Sans Flyway : colonne et table créées par ddl-auto, remplissage par AggregateTablesInitializer
+
+ALTER TABLE signalements ADD COLUMN IF NOT EXISTS resolved_at TIMESTAMP;
+
+-- Signalements déjà terminés : la dernière modification tient lieu de date de résolution
+UPDATE signalements SET resolved_at = COALESCE(updated_at, created_at)
+WHERE status = 'terminé' AND resolved_at IS NULL;
+
+CREATE TABLE IF NOT EXISTS signalement_daily_rollups (
+    rollup_day DATE NOT NULL,
+    type_id BIGINT NOT NULL,
+    status VARCHAR(32) NOT NULL,
+    report_count BIGINT NOT NULL DEFAULT 0,
+    budget_sum DOUBLE PRECISION NOT NULL DEFAULT 0,
+    resolved_count BIGINT NOT NULL DEFAULT 0,
+    resolution_seconds_sum BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (rollup_day, type_id, status)
+);
+
+-- Remplissage initial (ensuite tenu à jour par l'application)
+INSERT INTO signalement_daily_rollups
+    (rollup_day, type_id, status, report_count, budget_sum, resolved_count, resolution_seconds_sum)
+SELECT CAST(created_at AS DATE), type_id, status, COUNT(*), COALESCE(SUM(budget), 0), COUNT(resolved_at),
+       COALESCE(SUM(GREATEST(0, EXTRACT(EPOCH FROM (resolved_at - created_at)))::BIGINT), 0)
+FROM signalements
+GROUP BY CAST(created_at AS DATE), type_id, status
+ON CONFLICT DO NOTHING;
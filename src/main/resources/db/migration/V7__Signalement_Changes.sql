@@ -0,0 +1,22 @@
+-- Migration Flyway : journal des modifications de signalements (flux de deltas mobile)
+-- Placement: src/main/resources/db/migration/V7__Signalement_Changes.sql
+--
+-- Une ligne par écriture, numérotée au commit à partir de change_counters : la ligne du
+-- compteur reste verrouillée jusqu'au commit, les numéros deviennent visibles dans l'ordre.
+
+CREATE TABLE IF NOT EXISTS change_counters (
+    name VARCHAR(64) PRIMARY KEY,
+    counter_value BIGINT NOT NULL DEFAULT 0
+);
+
+INSERT INTO change_counters (name, counter_value) VALUES ('signalements', 0) ON CONFLICT DO NOTHING;
+INSERT INTO change_counters (name, counter_value) VALUES ('signalements_pruned', 0) ON CONFLICT DO NOTHING;
+
+CREATE TABLE IF NOT EXISTS signalement_changes (
+    seq BIGINT PRIMARY KEY,
+    signalement_id BIGINT NOT NULL,
+    change_type VARCHAR(16) NOT NULL,
+    changed_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_signalement_changes_changed_at ON signalement_changes (changed_at);
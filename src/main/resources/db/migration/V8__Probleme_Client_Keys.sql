@@ -0,0 +1,7 @@
+-- Migration Flyway : clé d'idempotence des problèmes créés depuis la file hors ligne mobile
+-- Placement: src/main/resources/db/migration/V8__Probleme_Client_Keys.sql
+
+ALTER TABLE problemes ADD COLUMN IF NOT EXISTS client_key VARCHAR(64);
+
+-- Plusieurs NULL autorisés : seules les créations avec clé sont dédoublonnées
+CREATE UNIQUE INDEX IF NOT EXISTS uk_problemes_user_client_key ON problemes (user_id, client_key);
@@ -0,0 +1,10 @@
+-- Migration Flyway : métadonnées des pièces jointes (contenu dans le BlobStore, adressé par SHA-256)
+-- Placement: src/main/resources/db/migration/V9__Attachments.sql
+
+CREATE TABLE IF NOT EXISTS attachments (
+    hash VARCHAR(64) PRIMARY KEY,
+    content_type VARCHAR(100) NOT NULL,
+    size_bytes BIGINT NOT NULL,
+    thumbnail_hash VARCHAR(64),
+    created_at TIMESTAMP NOT NULL
+);
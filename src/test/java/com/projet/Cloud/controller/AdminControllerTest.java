@@ -0,0 +1,73 @@
+package com.projet.Cloud.controller;
+
+import com.projet.Cloud.service.FirestoreInitializationService;
+import com.projet.Cloud.service.HeatmapService;
+import com.projet.Cloud.service.SignalementRollupService;
+import com.projet.Cloud.util.FirebaseDataSeeder;
+import com.projet.Cloud.util.ScaleDataSeeder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@DisplayName("AdminController Seed Scale Tests")
+public class AdminControllerTest {
+
+    private ScaleDataSeeder scaleDataSeeder;
+    private AdminController controller;
+
+    @BeforeEach
+    public void setUp() {
+        scaleDataSeeder = mock(ScaleDataSeeder.class);
+        controller = new AdminController(mock(FirestoreInitializationService.class), scaleDataSeeder,
+                mock(FirebaseDataSeeder.class), mock(HeatmapService.class), mock(SignalementRollupService.class));
+    }
+
+    @Test
+    @DisplayName("Génération lancée en arrière-plan : 202 avec les paramètres")
+    public void testSeedScaleIsAccepted() {
+        when(scaleDataSeeder.tryStart()).thenReturn(true);
+
+        ResponseEntity<Map<String, Object>> response = controller.seedScale(1000, 7, 0.5, false);
+
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        assertEquals(1000L, response.getBody().get("size"));
+        assertEquals(7L, response.getBody().get("seed"));
+        assertEquals(0.5, response.getBody().get("problemeRatio"));
+        assertEquals(false, response.getBody().get("firestore"));
+        verify(scaleDataSeeder).seedInBackground(1000, 0.5, 7, false);
+    }
+
+    @Test
+    @DisplayName("Génération déjà en cours : 409, rien n'est lancé")
+    public void testConcurrentSeedScaleIsRejected() {
+        when(scaleDataSeeder.tryStart()).thenReturn(false);
+
+        ResponseEntity<Map<String, Object>> response = controller.seedScale(1000, 42, 0.2, true);
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        verify(scaleDataSeeder, never()).seedInBackground(anyLong(), anyDouble(), anyLong(), anyBoolean());
+    }
+
+    @Test
+    @DisplayName("Paramètres hors bornes : 400 sans réserver l'exécution")
+    public void testOutOfBoundsSeedScaleIsRejected() {
+        doThrow(new IllegalArgumentException("size doit être compris entre 1 et 5000000"))
+                .when(scaleDataSeeder).validate(anyLong(), anyDouble());
+
+        ResponseEntity<Map<String, Object>> response = controller.seedScale(100_000_000, 42, 0.2, true);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("size doit être compris entre 1 et 5000000", response.getBody().get("error"));
+        verify(scaleDataSeeder, never()).tryStart();
+    }
+}
@@ -0,0 +1,131 @@
+package com.projet.Cloud.controller;
+
+import com.projet.Cloud.model.Attachment;
+import com.projet.Cloud.service.AttachmentService;
+import com.projet.Cloud.store.LocalFileBlobStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DisplayName("AttachmentController Range Tests")
+public class AttachmentControllerTest {
+
+    private static final byte[] CONTENT = "0123456789".getBytes(StandardCharsets.US_ASCII);
+
+    @TempDir
+    Path dir;
+
+    private AttachmentController controller;
+    private String hash;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        LocalFileBlobStore blobStore = new LocalFileBlobStore(dir.toString());
+        hash = blobStore.put(new ByteArrayInputStream(CONTENT), 1024).hash();
+
+        AttachmentService attachmentService = mock(AttachmentService.class);
+        when(attachmentService.find(hash)).thenReturn(Optional.of(
+                new Attachment(hash, "image/jpeg", (long) CONTENT.length, null, LocalDateTime.now())));
+        when(attachmentService.find("inconnu")).thenReturn(Optional.empty());
+        controller = new AttachmentController(attachmentService, blobStore);
+    }
+
+    private MockHttpServletResponse download(String range, String ifRange) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/attachments/" + hash);
+        if (range != null) {
+            request.addHeader(HttpHeaders.RANGE, range);
+        }
+        if (ifRange != null) {
+            request.addHeader(HttpHeaders.IF_RANGE, ifRange);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        controller.download(hash, request, response);
+        return response;
+    }
+
+    @Test
+    @DisplayName("Sans Range : contenu complet, ETag fort et Accept-Ranges")
+    public void testFullDownload() throws Exception {
+        MockHttpServletResponse response = download(null, null);
+
+        assertEquals(200, response.getStatus());
+        assertArrayEquals(CONTENT, response.getContentAsByteArray());
+        assertEquals("\"" + hash + "\"", response.getHeader(HttpHeaders.ETAG));
+        assertEquals("bytes", response.getHeader(HttpHeaders.ACCEPT_RANGES));
+        assertEquals("image/jpeg", response.getContentType());
+    }
+
+    @Test
+    @DisplayName("Plage simple et plage de fin : 206 avec Content-Range")
+    public void testSingleRange() throws Exception {
+        MockHttpServletResponse middle = download("bytes=2-5", null);
+        assertEquals(206, middle.getStatus());
+        assertEquals("bytes 2-5/10", middle.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertEquals("2345", middle.getContentAsString());
+        assertEquals(4, middle.getContentLengthLong());
+
+        MockHttpServletResponse suffix = download("bytes=-3", null);
+        assertEquals(206, suffix.getStatus());
+        assertEquals("bytes 7-9/10", suffix.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertEquals("789", suffix.getContentAsString());
+    }
+
+    @Test
+    @DisplayName("Plage hors du fichier : 416 avec la taille")
+    public void testUnsatisfiableRange() throws Exception {
+        MockHttpServletResponse response = download("bytes=20-", null);
+
+        assertEquals(416, response.getStatus());
+        assertEquals("bytes */10", response.getHeader(HttpHeaders.CONTENT_RANGE));
+    }
+
+    @Test
+    @DisplayName("Plusieurs plages ou If-Range périmé : réponse complète")
+    public void testRangeIgnored() throws Exception {
+        MockHttpServletResponse multiple = download("bytes=0-1,4-5", null);
+        assertEquals(200, multiple.getStatus());
+        assertArrayEquals(CONTENT, multiple.getContentAsByteArray());
+
+        MockHttpServletResponse stale = download("bytes=0-1", "\"autre\"");
+        assertEquals(200, stale.getStatus());
+        assertNull(stale.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertArrayEquals(CONTENT, stale.getContentAsByteArray());
+    }
+
+    @Test
+    @DisplayName("If-None-Match sur l'empreinte : 304 sans corps")
+    public void testNotModified() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/attachments/" + hash);
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"" + hash + "\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        controller.download(hash, request, response);
+
+        assertEquals(304, response.getStatus());
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    @DisplayName("Empreinte inconnue : 404")
+    public void testUnknownHash() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        controller.download("inconnu", new MockHttpServletRequest("GET", "/api/attachments/inconnu"), response);
+
+        assertEquals(404, response.getStatus());
+    }
+}
@@ -0,0 +1,91 @@
+package com.projet.Cloud.controller;
+
+import com.projet.Cloud.service.CollectionVersionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ConditionalResponses Tests")
+public class ConditionalResponsesTest {
+
+    private static final long LAST_MODIFIED = 1_760_000_000_000L;
+    private static final CollectionVersionService.Tag TAG =
+            new CollectionVersionService.Tag("W/\"12.abc-3.def\"", LAST_MODIFIED);
+
+    private final AtomicInteger bodyCalls = new AtomicInteger();
+    private MockHttpServletRequest request;
+
+    @BeforeEach
+    public void setUp() {
+        request = new MockHttpServletRequest("GET", "/api/signalements");
+    }
+
+    @Test
+    @DisplayName("Première lecture : 200 avec ETag, Last-Modified et no-cache")
+    public void testFirstReadReturnsBodyAndValidators() {
+        ResponseEntity<List<String>> response = call();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(List.of("a", "b"), response.getBody());
+        assertEquals(TAG.etag(), response.getHeaders().getETag());
+        assertEquals(LAST_MODIFIED, response.getHeaders().getLastModified());
+        assertEquals("no-cache", response.getHeaders().getCacheControl());
+        assertEquals(1, bodyCalls.get());
+    }
+
+    @Test
+    @DisplayName("If-None-Match identique : 304 sans lire les données")
+    public void testMatchingEtagReturnsNotModified() {
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, TAG.etag());
+
+        ResponseEntity<List<String>> response = call();
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertNull(response.getBody());
+        assertEquals(TAG.etag(), response.getHeaders().getETag());
+        assertEquals(0, bodyCalls.get());
+    }
+
+    @Test
+    @DisplayName("If-None-Match d'une autre version : 200, même si If-Modified-Since correspond")
+    public void testStaleEtagWinsOverDate() {
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "W/\"11.abc-3.def\"");
+        request.addHeader(HttpHeaders.IF_MODIFIED_SINCE, LAST_MODIFIED);
+
+        ResponseEntity<List<String>> response = call();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(1, bodyCalls.get());
+    }
+
+    @Test
+    @DisplayName("If-Modified-Since seul : 304 à la même date, 200 si la liste a changé depuis")
+    public void testIfModifiedSince() {
+        request.addHeader(HttpHeaders.IF_MODIFIED_SINCE, LAST_MODIFIED);
+        assertEquals(HttpStatus.NOT_MODIFIED, call().getStatusCode());
+
+        request = new MockHttpServletRequest("GET", "/api/signalements");
+        request.addHeader(HttpHeaders.IF_MODIFIED_SINCE, LAST_MODIFIED - 60_000);
+        assertEquals(HttpStatus.OK, call().getStatusCode());
+        assertEquals(1, bodyCalls.get());
+    }
+
+    private ResponseEntity<List<String>> call() {
+        ServletWebRequest webRequest = new ServletWebRequest(request, new MockHttpServletResponse());
+        return ConditionalResponses.ifModified(webRequest, TAG, () -> {
+            bodyCalls.incrementAndGet();
+            return List.of("a", "b");
+        });
+    }
+}
@@ -0,0 +1,114 @@
+package com.projet.Cloud.load;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Latences et erreurs par endpoint, agrégées sur toute la durée d'un tir de charge
+ */
+public class LatencyRecorder {
+
+    private final Map<String, EndpointStats> endpoints = new ConcurrentHashMap<>();
+
+    public void record(String endpoint, long latencyNanos, boolean success) {
+        endpoints.computeIfAbsent(endpoint, e -> new EndpointStats()).add(latencyNanos, success);
+    }
+
+    public long totalRequests() {
+        return endpoints.values().stream().mapToLong(EndpointStats::count).sum();
+    }
+
+    public long totalErrors() {
+        return endpoints.values().stream().mapToLong(EndpointStats::errors).sum();
+    }
+
+    /**
+     * Une ligne par endpoint : débit et percentiles en millisecondes
+     */
+    public List<EndpointReport> report(Duration elapsed) {
+        List<EndpointReport> reports = new ArrayList<>();
+        new TreeMap<>(endpoints).forEach((endpoint, stats) -> reports.add(stats.toReport(endpoint, elapsed)));
+        return reports;
+    }
+
+    public String format(String profile, Duration elapsed) {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format(Locale.ROOT, "%n📊 Profil %s - %d requêtes en %d s (%d erreurs)%n",
+                profile, totalRequests(), elapsed.toSeconds(), totalErrors()));
+        out.append(String.format(Locale.ROOT, "%-40s %8s %7s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requêtes", "erreurs", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms"));
+        for (EndpointReport r : report(elapsed)) {
+            out.append(String.format(Locale.ROOT, "%-40s %8d %7d %9.1f %9.1f %9.1f %9.1f %9.1f%n",
+                    r.endpoint(), r.count(), r.errors(), r.throughput(), r.p50(), r.p95(), r.p99(), r.max()));
+        }
+        return out.toString();
+    }
+
+    /**
+     * CSV comparable d'un tir à l'autre (régression d'un endpoint comme /api/signalements/zone)
+     */
+    public void writeCsv(Path file, Duration elapsed) throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add("endpoint,count,errors,throughput,p50_ms,p95_ms,p99_ms,max_ms");
+        for (EndpointReport r : report(elapsed)) {
+            lines.add(String.format(Locale.ROOT, "%s,%d,%d,%.2f,%.2f,%.2f,%.2f,%.2f",
+                    r.endpoint(), r.count(), r.errors(), r.throughput(), r.p50(), r.p95(), r.p99(), r.max()));
+        }
+        Files.createDirectories(file.getParent());
+        Files.write(file, lines);
+    }
+
+    public record EndpointReport(String endpoint, long count, long errors, double throughput,
+                                 double p50, double p95, double p99, double max) {}
+
+    private static final class EndpointStats {
+
+        private long[] latencies = new long[1024];
+        private int size;
+        private long errors;
+
+        synchronized void add(long latencyNanos, boolean success) {
+            if (size == latencies.length) {
+                latencies = Arrays.copyOf(latencies, size * 2);
+            }
+            latencies[size++] = latencyNanos;
+            if (!success) {
+                errors++;
+            }
+        }
+
+        synchronized long count() {
+            return size;
+        }
+
+        synchronized long errors() {
+            return errors;
+        }
+
+        synchronized EndpointReport toReport(String endpoint, Duration elapsed) {
+            long[] sorted = Arrays.copyOf(latencies, size);
+            Arrays.sort(sorted);
+            double seconds = Math.max(elapsed.toMillis(), 1) / 1000.0;
+            return new EndpointReport(endpoint, size, errors, size / seconds,
+                    percentile(sorted, 50), percentile(sorted, 95), percentile(sorted, 99),
+                    size == 0 ? 0 : sorted[size - 1] / 1_000_000.0);
+        }
+
+        private static double percentile(long[] sorted, double percentile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1_000_000.0;
+        }
+    }
+}
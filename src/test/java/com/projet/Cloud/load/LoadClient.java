@@ -0,0 +1,91 @@
+package com.projet.Cloud.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Client HTTP du harnais : chaque appel est chronométré et enregistré sous son libellé d'endpoint
+ */
+public class LoadClient {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final String baseUrl;
+    private final LatencyRecorder recorder;
+
+    public LoadClient(String baseUrl, LatencyRecorder recorder) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.recorder = recorder;
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .version(HttpClient.Version.HTTP_1_1)
+                .build();
+    }
+
+    public String login(String email, String password) throws IOException, InterruptedException {
+        JsonNode body = post("POST /api/auth/login", "/api/auth/login", null,
+                Map.of("email", email, "password", password));
+        return body != null ? body.path("token").asText(null) : null;
+    }
+
+    public JsonNode register(String username, String email, String password, String role)
+            throws IOException, InterruptedException {
+        return post("POST /api/auth/register", "/api/auth/register", null,
+                Map.of("username", username, "email", email, "password", password, "role", role));
+    }
+
+    public JsonNode get(String endpoint, String path, String token) throws IOException, InterruptedException {
+        return send(endpoint, request(path, token).GET().build());
+    }
+
+    public JsonNode post(String endpoint, String path, String token, Object body) throws IOException, InterruptedException {
+        return send(endpoint, request(path, token)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)))
+                .build());
+    }
+
+    public JsonNode put(String endpoint, String path, String token, Object body) throws IOException, InterruptedException {
+        return send(endpoint, request(path, token)
+                .header("Content-Type", "application/json")
+                .PUT(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)))
+                .build());
+    }
+
+    private HttpRequest.Builder request(String path, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(REQUEST_TIMEOUT);
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder;
+    }
+
+    /**
+     * Retourne le corps JSON si la réponse est en 2xx, null sinon (l'erreur est comptée dans le rapport)
+     */
+    private JsonNode send(String endpoint, HttpRequest request) throws InterruptedException {
+        long start = System.nanoTime();
+        try {
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            boolean success = response.statusCode() / 100 == 2;
+            recorder.record(endpoint, System.nanoTime() - start, success);
+            if (!success || response.body() == null || response.body().isBlank()) {
+                return null;
+            }
+            return objectMapper.readTree(response.body());
+        } catch (IOException e) {
+            recorder.record(endpoint, System.nanoTime() - start, false);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.projet.Cloud.load;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Mélanges de trafic rejoués par le harnais de charge.
+ * Les poids reprennent l'usage observé : le mobile consulte surtout la carte et remonte des problèmes,
+ * le back-office manager filtre, met à jour les statuts et déclenche parfois une synchronisation.
+ */
+public enum LoadProfile {
+
+    MOBILE(false,
+            weight(Action.MAP_ZONE, 55),
+            weight(Action.CREATE_PROBLEME, 15),
+            weight(Action.MY_PROBLEMES, 15),
+            weight(Action.CREATE_SIGNALEMENT, 10),
+            weight(Action.LOGIN, 5)),
+
+    WEB(true,
+            weight(Action.MAP_ZONE, 35),
+            weight(Action.UNRESOLVED, 25),
+            weight(Action.UPDATE_STATUS, 30),
+            weight(Action.LOGIN, 8),
+            weight(Action.SYNC, 2));
+
+    /**
+     * Actions possibles et libellé d'endpoint utilisé dans le rapport
+     */
+    public enum Action {
+        LOGIN("POST /api/auth/login"),
+        CREATE_PROBLEME("POST /api/problemes"),
+        CREATE_SIGNALEMENT("POST /api/signalements"),
+        MY_PROBLEMES("GET /api/problemes/user/me"),
+        MAP_ZONE("GET /api/signalements/zone"),
+        UNRESOLVED("GET /api/signalements/unresolved"),
+        UPDATE_STATUS("PUT /api/signalements/{id}"),
+        SYNC("POST /api/auth/sync");
+
+        private final String endpoint;
+
+        Action(String endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        public String getEndpoint() {
+            return endpoint;
+        }
+    }
+
+    private record Weighted(Action action, int weight) {}
+
+    private final boolean manager;
+    private final List<Action> wheel = new ArrayList<>();
+
+    LoadProfile(boolean manager, Weighted... actions) {
+        this.manager = manager;
+        for (Weighted weighted : actions) {
+            for (int i = 0; i < weighted.weight(); i++) {
+                wheel.add(weighted.action());
+            }
+        }
+    }
+
+    private static Weighted weight(Action action, int weight) {
+        return new Weighted(action, weight);
+    }
+
+    /**
+     * Les utilisateurs web sont des managers (mises à jour de statut), les mobiles des USER
+     */
+    public boolean isManager() {
+        return manager;
+    }
+
+    public Action next(Random random) {
+        return wheel.get(random.nextInt(wheel.size()));
+    }
+
+    /**
+     * "mobile", "web" ou "mixed" (les deux profils en parallèle)
+     */
+    public static List<LoadProfile> parse(String value) {
+        if (value == null || value.isBlank() || value.equalsIgnoreCase("mixed")) {
+            return List.of(MOBILE, WEB);
+        }
+        return List.of(valueOf(value.trim().toUpperCase(Locale.ROOT)));
+    }
+}
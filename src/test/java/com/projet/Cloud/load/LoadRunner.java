@@ -0,0 +1,133 @@
+package com.projet.Cloud.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rejoue un profil de trafic contre une instance en cours d'exécution.
+ *
+ * Chaque utilisateur virtuel se connecte avec son propre compte puis enchaîne des actions tirées
+ * selon les poids du profil, sans temps de réflexion, jusqu'à la fin du tir.
+ */
+public class LoadRunner {
+
+    public static final String PASSWORD = "Load-test-2024!";
+
+    // Boîte englobante autour d'Antananarivo, là où se trouvent les données de test
+    private static final double CENTER_LAT = -18.8792;
+    private static final double CENTER_LON = 47.5079;
+    private static final String[] STATUSES = {"nouveau", "en_cours", "terminé"};
+
+    private final LoadClient client;
+    private final LoadProfile profile;
+    private final List<String> accounts;
+    private final List<Long> typeIds;
+    private final List<Long> signalementIds;
+    private final long seed;
+
+    public LoadRunner(LoadClient client, LoadProfile profile, List<String> accounts,
+                      List<Long> typeIds, List<Long> signalementIds, long seed) {
+        this.client = client;
+        this.profile = profile;
+        this.accounts = accounts;
+        this.typeIds = typeIds;
+        this.signalementIds = signalementIds instanceof CopyOnWriteArrayList<Long> shared ? shared : new CopyOnWriteArrayList<>(signalementIds);
+        this.seed = seed;
+    }
+
+    public void run(int concurrency, Duration duration) throws InterruptedException {
+        long deadline = System.nanoTime() + duration.toNanos();
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        List<Future<?>> users = new ArrayList<>();
+
+        for (int i = 0; i < concurrency; i++) {
+            String email = accounts.get(i % accounts.size());
+            Random random = new Random(seed * 31 + i);
+            users.add(executor.submit(() -> {
+                virtualUser(email, random, deadline);
+                return null;
+            }));
+        }
+
+        executor.shutdown();
+        if (!executor.awaitTermination(duration.toSeconds() + 60, TimeUnit.SECONDS)) {
+            executor.shutdownNow();
+        }
+        for (Future<?> user : users) {
+            if (user.isDone() && !user.isCancelled()) {
+                try {
+                    user.get();
+                } catch (Exception e) {
+                    throw new IllegalStateException("Utilisateur virtuel en échec", e);
+                }
+            }
+        }
+    }
+
+    private void virtualUser(String email, Random random, long deadline) throws Exception {
+        String token = client.login(email, PASSWORD);
+
+        while (System.nanoTime() < deadline && !Thread.currentThread().isInterrupted()) {
+            LoadProfile.Action action = profile.next(random);
+            if (action == LoadProfile.Action.LOGIN || token == null) {
+                String refreshed = client.login(email, PASSWORD);
+                token = refreshed != null ? refreshed : token;
+                continue;
+            }
+            perform(action, token, random);
+        }
+    }
+
+    private void perform(LoadProfile.Action action, String token, Random random) throws Exception {
+        switch (action) {
+            case MAP_ZONE -> {
+                // Boîte de 1 à 10 km de côté, comme un écran de carte mobile ou web
+                double half = 0.005 + random.nextDouble() * 0.045;
+                double lat = CENTER_LAT + random.nextGaussian() * 0.05;
+                double lon = CENTER_LON + random.nextGaussian() * 0.05;
+                client.get(action.getEndpoint(), String.format(Locale.ROOT,
+                        "/api/signalements/zone?minLat=%.5f&maxLat=%.5f&minLon=%.5f&maxLon=%.5f",
+                        lat - half, lat + half, lon - half, lon + half), token);
+            }
+            case CREATE_PROBLEME -> client.post(action.getEndpoint(), "/api/problemes", token, Map.of(
+                    "latitude", CENTER_LAT + random.nextGaussian() * 0.05,
+                    "longitude", CENTER_LON + random.nextGaussian() * 0.05,
+                    "description", "Problème de charge " + random.nextInt(1_000_000)));
+            case CREATE_SIGNALEMENT -> {
+                JsonNode created = client.post(action.getEndpoint(), "/api/signalements", token, Map.of(
+                        "latitude", CENTER_LAT + random.nextGaussian() * 0.05,
+                        "longitude", CENTER_LON + random.nextGaussian() * 0.05,
+                        "typeId", typeIds.get(random.nextInt(typeIds.size())),
+                        "description", "Signalement de charge " + random.nextInt(1_000_000),
+                        "surfaceM2", 1 + random.nextInt(200),
+                        "budget", 100 + random.nextInt(50_000)));
+                if (created != null && created.hasNonNull("id")) {
+                    signalementIds.add(created.get("id").asLong());
+                }
+            }
+            case MY_PROBLEMES -> client.get(action.getEndpoint(), "/api/problemes/user/me", token);
+            case UNRESOLVED -> client.get(action.getEndpoint(), "/api/signalements/unresolved", token);
+            case UPDATE_STATUS -> {
+                if (signalementIds.isEmpty()) {
+                    return;
+                }
+                Long id = signalementIds.get(random.nextInt(signalementIds.size()));
+                client.put(action.getEndpoint(), "/api/signalements/" + id, token,
+                        Map.of("status", STATUSES[random.nextInt(STATUSES.length)]));
+            }
+            case SYNC -> client.post(action.getEndpoint(), "/api/auth/sync", token, Map.of());
+            case LOGIN -> { }
+        }
+    }
+}
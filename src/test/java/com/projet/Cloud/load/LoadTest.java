@@ -0,0 +1,193 @@
+package com.projet.Cloud.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.projet.Cloud.model.Role;
+import com.projet.Cloud.model.SignalementType;
+import com.projet.Cloud.repository.RoleRepository;
+import com.projet.Cloud.repository.SignalementTypeRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tir de charge de bout en bout : démarre l'application sur un port aléatoire (H2 + store
+ * Firestore en mémoire), crée les comptes et un jeu de signalements, puis rejoue les profils
+ * mobile et web. Le rapport par endpoint est écrit dans target/load-reports/<profil>.csv.
+ *
+ * Exclu du build par défaut, lancé avec : mvn test -Pload [-Dload.concurrency=50 -Dload.duration=120 ...]
+ * Avec -Dload.baseUrl=http://hôte:8080 le tir vise une instance existante (rôles et types déjà présents).
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles({"test", "load"})
+@Tag("load")
+@DisplayName("Load Tests")
+@Slf4j
+public class LoadTest {
+
+    private static final int CONCURRENCY = Integer.getInteger("load.concurrency", 20);
+    private static final int DURATION_SECONDS = Integer.getInteger("load.duration", 30);
+    private static final int USERS = Integer.getInteger("load.users", 50);
+    private static final int SIGNALEMENTS = Integer.getInteger("load.signalements", 200);
+    private static final long SEED = Long.getLong("load.seed", 42L);
+    private static final String PROFILE = System.getProperty("load.profile", "mixed");
+    private static final String BASE_URL = System.getProperty("load.baseUrl");
+    private static final double MAX_ERROR_RATE = Double.parseDouble(System.getProperty("load.maxErrorRate", "0.01"));
+    private static final Path REPORT_DIR = Path.of(System.getProperty("load.reportDir", "target/load-reports"));
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private SignalementTypeRepository signalementTypeRepository;
+
+    @Test
+    @DisplayName("Débit et percentiles par endpoint pour les profils mobile et web")
+    public void testTrafficProfiles() throws Exception {
+        String baseUrl = BASE_URL != null ? BASE_URL : "http://localhost:" + port;
+        String runId = Long.toString(System.currentTimeMillis(), 36);
+
+        // 1. Référentiel et comptes
+        if (BASE_URL == null) {
+            seedReferenceData();
+        }
+        LoadClient setupClient = new LoadClient(baseUrl, new LatencyRecorder());
+        List<Long> typeIds = BASE_URL == null ? localTypeIds() : remoteTypeIds(setupClient);
+        assertFalse(typeIds.isEmpty(), "Aucun type de signalement disponible");
+
+        List<String> managers = registerAccounts(setupClient, runId, "manager", "MANAGER", Math.max(1, USERS / 10));
+        List<String> mobileUsers = registerAccounts(setupClient, runId, "mobile", "USER", USERS);
+
+        // 2. Signalements existants, cibles des requêtes de zone et des mises à jour de statut
+        List<Long> signalementIds = new CopyOnWriteArrayList<>(createSignalements(setupClient, managers.get(0), typeIds));
+
+        // 3. Tir : les profils tournent en parallèle, chacun avec sa propre concurrence
+        List<LoadProfile> profiles = LoadProfile.parse(PROFILE);
+        List<Thread> threads = new ArrayList<>();
+        List<Throwable> failures = new CopyOnWriteArrayList<>();
+        List<LatencyRecorder> recorders = new ArrayList<>();
+        Duration duration = Duration.ofSeconds(DURATION_SECONDS);
+
+        for (LoadProfile profile : profiles) {
+            LatencyRecorder recorder = new LatencyRecorder();
+            recorders.add(recorder);
+            LoadRunner runner = new LoadRunner(new LoadClient(baseUrl, recorder), profile,
+                    profile.isManager() ? managers : mobileUsers, typeIds, signalementIds, SEED + profile.ordinal());
+            Thread thread = new Thread(() -> {
+                try {
+                    runner.run(CONCURRENCY, duration);
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            }, "load-" + profile.name().toLowerCase(Locale.ROOT));
+            threads.add(thread);
+        }
+
+        long start = System.nanoTime();
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        // 4. Rapport
+        for (int i = 0; i < profiles.size(); i++) {
+            String name = profiles.get(i).name().toLowerCase(Locale.ROOT);
+            LatencyRecorder recorder = recorders.get(i);
+            log.info("\n{}", recorder.format(name, elapsed));
+            recorder.writeCsv(REPORT_DIR.resolve(name + ".csv"), elapsed);
+
+            assertTrue(recorder.totalRequests() > 0, "Aucune requête pour le profil " + name);
+            double errorRate = (double) recorder.totalErrors() / recorder.totalRequests();
+            assertTrue(errorRate <= MAX_ERROR_RATE,
+                    String.format(Locale.ROOT, "Taux d'erreur %.2f %% pour le profil %s", errorRate * 100, name));
+        }
+        assertTrue(failures.isEmpty(), () -> "Utilisateurs virtuels en échec: " + failures);
+    }
+
+    /**
+     * Rôles et types attendus par l'API ; en production ils viennent des scripts SQL
+     */
+    private void seedReferenceData() {
+        for (String role : List.of("USER", "MANAGER", "ADMIN")) {
+            if (roleRepository.findByName(role).isEmpty()) {
+                roleRepository.save(new Role(role));
+            }
+        }
+        if (signalementTypeRepository.count() == 0) {
+            signalementTypeRepository.save(new SignalementType("Problème critique", "red", "!"));
+            signalementTypeRepository.save(new SignalementType("Travaux en cours", "purple", "car"));
+            signalementTypeRepository.save(new SignalementType("Chaussée dégradée", "red-white", "checkered"));
+        }
+    }
+
+    private List<Long> localTypeIds() {
+        return signalementTypeRepository.findAll().stream().map(SignalementType::getId).toList();
+    }
+
+    /**
+     * Types de l'instance visée : ses identifiants n'ont rien à voir avec ceux de la base H2 locale
+     */
+    private List<Long> remoteTypeIds(LoadClient client) throws Exception {
+        JsonNode types = client.get("setup", "/api/signalement-types", null);
+        assertNotNull(types, "Lecture des types de signalement impossible sur " + BASE_URL);
+        List<Long> ids = new ArrayList<>();
+        for (JsonNode type : types) {
+            if (type.hasNonNull("id")) {
+                ids.add(type.get("id").asLong());
+            }
+        }
+        return ids;
+    }
+
+    private List<String> registerAccounts(LoadClient client, String runId, String prefix, String role, int count)
+            throws Exception {
+        List<String> emails = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String email = String.format(Locale.ROOT, "%s-%s-%d@load.test", prefix, runId, i);
+            JsonNode response = client.register(prefix + "-" + runId + "-" + i, email, LoadRunner.PASSWORD, role);
+            assertNotNull(response, "Impossible de créer le compte " + email);
+            emails.add(email);
+        }
+        return emails;
+    }
+
+    private List<Long> createSignalements(LoadClient client, String managerEmail, List<Long> typeIds) throws Exception {
+        String token = client.login(managerEmail, LoadRunner.PASSWORD);
+        assertNotNull(token, "Connexion du manager impossible");
+
+        Random random = new Random(SEED);
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < SIGNALEMENTS; i++) {
+            JsonNode created = client.post("setup", "/api/signalements", token, Map.of(
+                    "latitude", -18.8792 + random.nextGaussian() * 0.05,
+                    "longitude", 47.5079 + random.nextGaussian() * 0.05,
+                    "typeId", typeIds.get(random.nextInt(typeIds.size())),
+                    "description", "Signalement initial " + i,
+                    "surfaceM2", 1 + random.nextInt(200),
+                    "budget", 100 + random.nextInt(50_000)));
+            if (created != null && created.hasNonNull("id")) {
+                ids.add(created.get("id").asLong());
+            }
+        }
+        return ids;
+    }
+}
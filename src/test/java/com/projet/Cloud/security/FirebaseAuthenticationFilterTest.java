@@ -0,0 +1,117 @@
+package com.projet.Cloud.security;
+
+import com.projet.Cloud.service.TokenRevocationService;
+import com.projet.Cloud.util.JwtUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DisplayName("FirebaseAuthenticationFilter Tests")
+public class FirebaseAuthenticationFilterTest {
+
+    private TokenRevocationService revocationService;
+    private FirebaseAuthenticationFilter filter;
+
+    @BeforeEach
+    public void setUp() {
+        JwtUtil.init("test-secret-key-minimum-256-bits-for-hs512-algorithm-testing");
+        revocationService = mock(TokenRevocationService.class);
+        filter = new FirebaseAuthenticationFilter(revocationService);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private static String token(String scope) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("email", "agent@test.mg");
+        claims.put("roles", List.of("USER"));
+        if (scope != null) {
+            claims.put(JwtAuthorities.SCOPE_CLAIM, scope);
+        }
+        return JwtUtil.generateToken(claims, 60000);
+    }
+
+    private MockHttpServletResponse stream(String ticket, String bearer, MockFilterChain chain) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", FirebaseAuthenticationFilter.LIVE_STREAM_PATH);
+        if (ticket != null) {
+            request.setParameter(FirebaseAuthenticationFilter.TICKET_PARAM, ticket);
+        }
+        if (bearer != null) {
+            request.addHeader("Authorization", "Bearer " + bearer);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    @Test
+    @DisplayName("Flux SSE sans ticket : 401")
+    public void testStreamRequiresTicket() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = stream(null, null, chain);
+
+        assertEquals(401, response.getStatus());
+        assertNull(chain.getRequest());
+    }
+
+    @Test
+    @DisplayName("Ticket du flux en paramètre : connexion authentifiée")
+    public void testStreamAcceptsTicket() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        stream(token(JwtAuthorities.LIVE_STREAM_SCOPE), null, chain);
+
+        assertNotNull(chain.getRequest());
+        assertEquals("agent@test.mg", SecurityContextHolder.getContext().getAuthentication().getName());
+    }
+
+    @Test
+    @DisplayName("Jeton d'accès passé dans l'URL : refusé")
+    public void testAccessTokenRejectedAsTicket() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = stream(token(null), null, chain);
+
+        assertEquals(401, response.getStatus());
+        assertNull(chain.getRequest());
+    }
+
+    @Test
+    @DisplayName("Ticket présenté en en-tête Authorization : refusé")
+    public void testTicketRejectedAsBearer() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/problemes/mine");
+        request.addHeader("Authorization", "Bearer " + token(JwtAuthorities.LIVE_STREAM_SCOPE));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request, response, chain);
+
+        assertEquals(401, response.getStatus());
+        assertNull(chain.getRequest());
+    }
+
+    @Test
+    @DisplayName("Ticket d'un utilisateur révoqué : refusé")
+    public void testRevokedTicketRejected() throws Exception {
+        when(revocationService.isRevoked(any())).thenReturn(true);
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = stream(token(JwtAuthorities.LIVE_STREAM_SCOPE), null, chain);
+
+        assertEquals(401, response.getStatus());
+        assertNull(chain.getRequest());
+    }
+}
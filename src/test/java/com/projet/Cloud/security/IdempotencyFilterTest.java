@@ -0,0 +1,109 @@
+package com.projet.Cloud.security;
+
+import com.projet.Cloud.store.InMemoryIdempotencyStore;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("IdempotencyFilter Tests")
+public class IdempotencyFilterTest {
+
+    private final AtomicInteger calls = new AtomicInteger();
+    private int nextStatus;
+    private IdempotencyFilter filter;
+
+    /** Contrôleur factice : compte les exécutions et répond avec nextStatus */
+    private final HttpServlet controller = new HttpServlet() {
+        @Override
+        protected void service(HttpServletRequest request, HttpServletResponse response) throws IOException {
+            int call = calls.incrementAndGet();
+            request.getInputStream().readAllBytes();
+            response.setStatus(nextStatus);
+            response.setContentType("application/json");
+            response.getOutputStream().write(("{\"id\":" + call + "}").getBytes(StandardCharsets.UTF_8));
+        }
+    };
+
+    @BeforeEach
+    public void setUp() {
+        nextStatus = 201;
+        filter = new IdempotencyFilter(new InMemoryIdempotencyStore(100),
+                Duration.ofHours(24), Duration.ofMinutes(1), 262144);
+    }
+
+    private MockHttpServletResponse post(String key, String body) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/problemes");
+        request.addHeader(IdempotencyFilter.HEADER, key);
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain(controller));
+        return response;
+    }
+
+    @Test
+    @DisplayName("Même clé et même corps : réponse d'origine rejouée sans réexécution")
+    public void testReplaysOriginalResponse() throws Exception {
+        MockHttpServletResponse first = post("k1", "{\"description\":\"trou\"}");
+        MockHttpServletResponse second = post("k1", "{\"description\":\"trou\"}");
+
+        assertEquals(1, calls.get());
+        assertEquals(201, second.getStatus());
+        assertEquals(first.getContentAsString(), second.getContentAsString());
+        assertEquals("true", second.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertNull(first.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+    }
+
+    @Test
+    @DisplayName("Même clé avec un autre corps : 422")
+    public void testKeyReuseWithDifferentBody() throws Exception {
+        post("k1", "{\"description\":\"trou\"}");
+        MockHttpServletResponse reused = post("k1", "{\"description\":\"autre\"}");
+
+        assertEquals(422, reused.getStatus());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    @DisplayName("401 et 429 ne sont pas mémorisés : le nouvel essai est exécuté")
+    public void testTransientClientErrorsAreNotStored() throws Exception {
+        nextStatus = 401;
+        assertEquals(401, post("k1", "{}").getStatus());
+        nextStatus = 429;
+        assertEquals(429, post("k1", "{}").getStatus());
+        nextStatus = 201;
+        MockHttpServletResponse retried = post("k1", "{}");
+
+        assertEquals(201, retried.getStatus());
+        assertEquals(3, calls.get());
+        assertNull(retried.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+    }
+
+    @Test
+    @DisplayName("Seules les réponses définitives sont rejouables")
+    public void testReplayableStatuses() {
+        assertTrue(IdempotencyFilter.isReplayable(200));
+        assertTrue(IdempotencyFilter.isReplayable(201));
+        assertTrue(IdempotencyFilter.isReplayable(409));
+        assertTrue(IdempotencyFilter.isReplayable(422));
+        assertFalse(IdempotencyFilter.isReplayable(400));
+        assertFalse(IdempotencyFilter.isReplayable(401));
+        assertFalse(IdempotencyFilter.isReplayable(403));
+        assertFalse(IdempotencyFilter.isReplayable(404));
+        assertFalse(IdempotencyFilter.isReplayable(429));
+        assertFalse(IdempotencyFilter.isReplayable(503));
+    }
+}
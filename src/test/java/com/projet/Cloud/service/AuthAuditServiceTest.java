@@ -0,0 +1,119 @@
+package com.projet.Cloud.service;
+
+import com.projet.Cloud.config.FirestoreThrottleProperties;
+import com.projet.Cloud.config.InMemoryStoreProperties;
+import com.projet.Cloud.store.InMemoryDocumentStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("AuthAuditService Tests")
+public class AuthAuditServiceTest {
+
+    private final AtomicLong clock = new AtomicLong(TimeUnit.SECONDS.toNanos(1));
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private InMemoryDocumentStore store;
+    private AuthAuditService service;
+
+    private AuthAuditService create(int bufferSize, int maxAttempts) {
+        store = spy(new InMemoryDocumentStore(new InMemoryStoreProperties()));
+        FirestoreRateLimiter limiter = new FirestoreRateLimiter(new FirestoreThrottleProperties(), clock::get, clock::addAndGet);
+        service = new AuthAuditService(store, limiter, registry, bufferSize);
+        ReflectionTestUtils.setField(service, "batchSize", 10);
+        ReflectionTestUtils.setField(service, "flushMs", 20L);
+        ReflectionTestUtils.setField(service, "maxAttempts", maxAttempts);
+        ReflectionTestUtils.setField(service, "retryBackoffMs", 10L);
+        return service;
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (service != null) {
+            service.shutdown();
+        }
+    }
+
+    private double dropped(String reason) {
+        Counter counter = registry.find("auth.audit.dropped").tag("reason", reason).counter();
+        return counter != null ? counter.count() : 0;
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Condition non atteinte en 5 s");
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    @DisplayName("File pleine : événement abandonné et compté, la connexion n'attend pas")
+    public void testBufferOverflowDrops() {
+        create(2, 3);
+
+        service.recordLoginAttempt("a@test.mg", true, "10.0.0.1", "JUnit");
+        service.recordLoginAttempt("b@test.mg", false, "10.0.0.1", "JUnit");
+        service.recordLoginAttempt("c@test.mg", false, "10.0.0.1", "JUnit");
+
+        assertEquals(2, service.getPendingCount());
+        assertEquals(1.0, dropped("buffer_full"));
+    }
+
+    @Test
+    @DisplayName("Arrêt : les événements en file sont écrits en un dernier lot")
+    public void testShutdownFlushesPending() {
+        create(10, 3);
+        service.recordLoginAttempt("a@test.mg", true, "10.0.0.1", "JUnit");
+        String sessionId = service.recordSession(Map.of("email", "a@test.mg"));
+
+        service.shutdown();
+
+        assertEquals(1, store.size(AuthAuditService.LOGIN_ATTEMPTS));
+        assertEquals(1, store.size(AuthAuditService.SESSIONS));
+        assertNotNull(sessionId);
+        assertEquals(0, service.getPendingCount());
+    }
+
+    @Test
+    @DisplayName("Échec Firestore passager : le lot repart en file et est écrit au nouvel essai")
+    public void testFailedBatchIsRetried() throws Exception {
+        create(100, 3);
+        doThrow(new IllegalStateException("UNAVAILABLE")).doCallRealMethod().when(store).batch();
+        service.start();
+
+        for (int i = 0; i < 5; i++) {
+            service.recordLoginAttempt("user" + i + "@test.mg", false, "10.0.0.1", "JUnit");
+        }
+
+        await(() -> store.size(AuthAuditService.LOGIN_ATTEMPTS) == 5);
+        verify(store, atLeast(2)).batch();
+        assertEquals(0.0, dropped("firestore_error"));
+        assertEquals(5.0, registry.find("auth.audit.written").counter().count());
+    }
+
+    @Test
+    @DisplayName("Échecs répétés : abandon après maxAttempts, compté par raison")
+    public void testDroppedAfterMaxAttempts() throws Exception {
+        create(100, 2);
+        doThrow(new IllegalStateException("UNAVAILABLE")).when(store).batch();
+        service.start();
+
+        service.recordLoginAttempt("a@test.mg", false, "10.0.0.1", "JUnit");
+
+        await(() -> dropped("firestore_error") == 1.0);
+        verify(store, times(2)).batch();
+        assertEquals(0, service.getPendingCount());
+        assertEquals(0, store.size(AuthAuditService.LOGIN_ATTEMPTS));
+    }
+}
@@ -0,0 +1,128 @@
+package com.projet.Cloud.service;
+
+import com.projet.Cloud.model.CollectionVersion;
+import com.projet.Cloud.repository.CollectionVersionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@DisplayName("CollectionVersionService Tests")
+public class CollectionVersionServiceTest {
+
+    // Table collection_versions partagée par les deux instances simulées
+    private final Map<String, CollectionVersion> table = new ConcurrentHashMap<>();
+
+    private CollectionVersionRepository repository;
+    private CollectionVersionService nodeA;
+    private CollectionVersionService nodeB;
+
+    @BeforeEach
+    public void setUp() {
+        repository = mock(CollectionVersionRepository.class);
+        when(repository.findAll()).thenAnswer(invocation -> table.values().stream()
+                .map(v -> new CollectionVersion(v.getName(), v.getValue(), v.getUpdatedAt()))
+                .toList());
+        when(repository.existsById(anyString())).thenAnswer(invocation -> table.containsKey(invocation.getArgument(0)));
+        when(repository.saveAndFlush(any())).thenAnswer(invocation -> {
+            CollectionVersion version = invocation.getArgument(0);
+            table.put(version.getName(), version);
+            return version;
+        });
+        when(repository.increment(anyString(), any())).thenAnswer(invocation -> {
+            CollectionVersion version = table.get(invocation.<String>getArgument(0));
+            if (version == null) {
+                return 0;
+            }
+            version.setValue(version.getValue() + 1);
+            version.setUpdatedAt(invocation.getArgument(1));
+            return 1;
+        });
+
+        nodeA = node(0);
+        nodeB = node(0);
+        nodeA.initVersions();
+        nodeB.initVersions();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Une écriture sur une instance change l'ETag servi par l'autre")
+    public void testBumpIsVisibleFromOtherNode() {
+        String before = nodeB.tag(CollectionVersionService.SIGNALEMENTS).etag();
+        assertEquals(before, nodeA.tag(CollectionVersionService.SIGNALEMENTS).etag());
+
+        nodeA.bump(CollectionVersionService.SIGNALEMENTS);
+
+        assertNotEquals(before, nodeB.tag(CollectionVersionService.SIGNALEMENTS).etag());
+        assertEquals(nodeA.tag(CollectionVersionService.SIGNALEMENTS).etag(),
+                nodeB.tag(CollectionVersionService.SIGNALEMENTS).etag());
+        assertEquals(table.get(CollectionVersionService.SIGNALEMENTS).getUpdatedAt().toEpochMilli(),
+                nodeB.tag(CollectionVersionService.SIGNALEMENTS).lastModified());
+    }
+
+    @Test
+    @DisplayName("La copie locale est gardée pendant le TTL puis relue")
+    public void testLocalCopyHonoursTtl() {
+        CollectionVersionService cached = node(60_000);
+        String before = cached.tag(CollectionVersionService.PROBLEMES).etag();
+
+        nodeA.bump(CollectionVersionService.PROBLEMES);
+
+        assertEquals(before, cached.tag(CollectionVersionService.PROBLEMES).etag());
+        ReflectionTestUtils.setField(cached, "cacheTtlMs", 0L);
+        assertNotEquals(before, cached.tag(CollectionVersionService.PROBLEMES).etag());
+    }
+
+    @Test
+    @DisplayName("Dans une transaction : un seul incrément par collection, appliqué au commit")
+    public void testBumpsAreCoalescedUntilCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        for (int i = 0; i < 3; i++) {
+            nodeA.bump(CollectionVersionService.SIGNALEMENTS);
+        }
+        nodeA.bump(CollectionVersionService.USERS);
+        assertEquals(0L, table.get(CollectionVersionService.SIGNALEMENTS).getValue());
+
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCommit();
+        }
+
+        assertEquals(1L, table.get(CollectionVersionService.SIGNALEMENTS).getValue());
+        assertEquals(1L, table.get(CollectionVersionService.USERS).getValue());
+        verify(repository, times(2)).increment(anyString(), any(Instant.class));
+    }
+
+    @Test
+    @DisplayName("Échec de l'incrément : journalisé, jamais propagé à l'écriture validée")
+    public void testIncrementFailureIsSwallowed() {
+        when(repository.increment(anyString(), any())).thenThrow(new IllegalStateException("base indisponible"));
+
+        assertDoesNotThrow(() -> nodeA.bump(CollectionVersionService.USERS));
+    }
+
+    private CollectionVersionService node(long cacheTtlMs) {
+        CollectionVersionService service = new CollectionVersionService(repository, mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(service, "cacheTtlMs", cacheTtlMs);
+        return service;
+    }
+}
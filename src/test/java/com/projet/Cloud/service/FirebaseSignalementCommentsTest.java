@@ -0,0 +1,98 @@
+package com.projet.Cloud.service;
+
+import com.google.cloud.Timestamp;
+import com.projet.Cloud.config.FirestoreThrottleProperties;
+import com.projet.Cloud.config.InMemoryStoreProperties;
+import com.projet.Cloud.store.InMemoryDocumentStore;
+import com.projet.Cloud.store.StoredDocument;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("FirebaseSignalementService commentaires Tests")
+public class FirebaseSignalementCommentsTest {
+
+    private static final String COMMENTS = "signalements/s1/comments";
+
+    private final AtomicLong clock = new AtomicLong(TimeUnit.SECONDS.toNanos(1));
+    private InMemoryDocumentStore store;
+    private FirebaseSignalementService service;
+
+    @BeforeEach
+    public void setUp() throws ExecutionException, InterruptedException {
+        InMemoryStoreProperties properties = new InMemoryStoreProperties();
+        properties.setSeed(42L);
+        store = new InMemoryDocumentStore(properties);
+        FirestoreRateLimiter limiter = new FirestoreRateLimiter(new FirestoreThrottleProperties(), clock::get, clock::addAndGet);
+        service = new FirebaseSignalementService(store, limiter, null);
+
+        Map<String, Object> signalement = new HashMap<>();
+        signalement.put("status", "nouveau");
+        signalement.put("commentCount", 0L);
+        store.set("signalements", "s1", signalement);
+    }
+
+    @Test
+    @DisplayName("Des commentaires de même date en limite de page ne sont pas sautés")
+    public void testPaginationWithTiedTimestamps() throws ExecutionException, InterruptedException {
+        Timestamp same = Timestamp.ofTimeSecondsAndNanos(1_700_000_000L, 0);
+        for (String id : List.of("c1", "c2", "c3", "c4")) {
+            store.set(COMMENTS, id, Map.of("userId", "1", "text", id, "createdAt", same));
+        }
+        store.set(COMMENTS, "c0", Map.of("userId", "1", "text", "c0",
+                "createdAt", Timestamp.ofTimeSecondsAndNanos(1_600_000_000L, 0)));
+
+        Set<Object> seen = new LinkedHashSet<>();
+        List<Integer> pageSizes = new ArrayList<>();
+        String cursor = null;
+        do {
+            FirebaseSignalementService.CommentPage page = service.getComments("s1", cursor, 2);
+            pageSizes.add(page.comments().size());
+            page.comments().forEach(comment -> assertTrue(seen.add(comment.get("id")), "doublon: " + comment.get("id")));
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        assertEquals(List.of("c4", "c3", "c2", "c1", "c0"), new ArrayList<>(seen));
+        assertEquals(List.of(2, 2, 1), pageSizes);
+    }
+
+    @Test
+    @DisplayName("Un commentaire incrémente commentCount et date lastCommentAt")
+    public void testAddCommentUpdatesCounters() throws ExecutionException, InterruptedException {
+        String first = service.addCommentToSignalement("s1", 7L, "Toujours là");
+        service.addCommentToSignalement("s1", 8L, "Réparé ?");
+
+        StoredDocument signalement = store.get("signalements", "s1").orElseThrow();
+        assertEquals(2L, signalement.getLong("commentCount"));
+        assertNotNull(signalement.get("lastCommentAt"));
+        assertEquals(2, store.size(COMMENTS));
+        assertTrue(store.get(COMMENTS, first).isPresent());
+    }
+
+    @Test
+    @DisplayName("Aucun commentaire orphelin sur un signalement absent")
+    public void testAddCommentToMissingSignalementWritesNothing() {
+        assertThrows(ExecutionException.class, () -> service.addCommentToSignalement("absent", 7L, "?"));
+        assertEquals(0, store.size("signalements/absent/comments"));
+    }
+
+    @Test
+    @DisplayName("Curseur illisible refusé")
+    public void testRejectsInvalidCursor() {
+        assertThrows(IllegalArgumentException.class, () -> service.getComments("s1", "pas-un-curseur", 10));
+        String v1 = java.util.Base64.getUrlEncoder().withoutPadding().encodeToString("v1.1.0".getBytes());
+        assertThrows(IllegalArgumentException.class, () -> service.getComments("s1", v1, 10));
+    }
+}
@@ -0,0 +1,73 @@
+package com.projet.Cloud.service;
+
+import com.projet.Cloud.config.FirestoreThrottleProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("FirestoreRateLimiter Tests")
+public class FirestoreRateLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong(TimeUnit.SECONDS.toNanos(1));
+    private FirestoreRateLimiter limiter;
+
+    @BeforeEach
+    public void setUp() {
+        FirestoreThrottleProperties properties = new FirestoreThrottleProperties();
+        limiter = new FirestoreRateLimiter(properties, clock::get, clock::addAndGet);
+    }
+
+    @Test
+    @DisplayName("Divise le débit et réessaie sur RESOURCE_EXHAUSTED")
+    public void testBacksOffOnResourceExhausted() throws ExecutionException, InterruptedException {
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = limiter.call(() -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new ExecutionException(new RuntimeException("RESOURCE_EXHAUSTED: quota exceeded"));
+            }
+            return "ok";
+        });
+
+        assertEquals("ok", result);
+        assertEquals(2, attempts.get());
+        assertEquals(250, limiter.getCurrentRate(), 0.001);
+    }
+
+    @Test
+    @DisplayName("Ne réessaie pas les erreurs hors saturation")
+    public void testDoesNotRetryOtherErrors() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(ExecutionException.class, () -> limiter.call(() -> {
+            attempts.incrementAndGet();
+            throw new ExecutionException(new IllegalStateException("PERMISSION_DENIED"));
+        }));
+
+        assertEquals(1, attempts.get());
+        assertEquals(500, limiter.getCurrentRate(), 0.001);
+    }
+
+    @Test
+    @DisplayName("Le plafond suit la règle 500/50/5")
+    public void testCeilingRampsUpEveryFiveMinutes() throws ExecutionException, InterruptedException {
+        limiter.run(() -> { });
+        assertEquals(500, limiter.getCurrentCeiling(), 0.001);
+
+        // Trafic continu pendant 5 minutes
+        for (int i = 0; i < 300; i++) {
+            clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+            limiter.run(() -> { });
+        }
+
+        assertEquals(750, limiter.getCurrentCeiling(), 0.001);
+        assertTrue(limiter.getCurrentRate() <= limiter.getCurrentCeiling());
+    }
+}
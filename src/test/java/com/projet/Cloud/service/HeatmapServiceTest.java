@@ -0,0 +1,60 @@
+package com.projet.Cloud.service;
+
+import com.projet.Cloud.event.SignalementSnapshot;
+import com.projet.Cloud.model.HeatmapCell;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("HeatmapService Tests")
+public class HeatmapServiceTest {
+
+    private static SignalementSnapshot snapshot(double lat, double lon, Double budget, String status) {
+        LocalDateTime now = LocalDateTime.now();
+        return new SignalementSnapshot(1L, null, 1L, null, status, lat, lon, budget, 10.0, now, now, now, null);
+    }
+
+    @Test
+    @DisplayName("Une création ajoute une contribution par niveau")
+    public void testCreateAddsOneCellPerLevel() {
+        Map<HeatmapCell.Key, double[]> deltas = HeatmapService.deltas(null, snapshot(-18.91, 47.52, 1000.0, "nouveau"));
+
+        assertEquals(HeatmapService.CELL_SIZES.length, deltas.size());
+        deltas.values().forEach(d -> {
+            assertEquals(1, d[0]);
+            assertEquals(1000.0, d[1], 0.001);
+            assertEquals(10.0, d[2], 0.001);
+        });
+    }
+
+    @Test
+    @DisplayName("Un changement de statut ne touche pas la grille")
+    public void testStatusChangeIsNoOp() {
+        Map<HeatmapCell.Key, double[]> deltas = HeatmapService.deltas(
+                snapshot(-18.91, 47.52, 1000.0, "nouveau"),
+                snapshot(-18.91, 47.52, 1000.0, "en_cours"));
+
+        assertTrue(deltas.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Un déplacement retire l'ancienne maille et ajoute la nouvelle")
+    public void testMoveTransfersContribution() {
+        Map<HeatmapCell.Key, double[]> deltas = HeatmapService.deltas(
+                snapshot(-18.9105, 47.5205, 500.0, "nouveau"),
+                snapshot(-18.9155, 47.5205, 500.0, "nouveau"));
+
+        HeatmapCell.Key oldFine = new HeatmapCell.Key(0, HeatmapService.cellIndex(47.5205, 0.001), HeatmapService.cellIndex(-18.9105, 0.001));
+        HeatmapCell.Key newFine = new HeatmapCell.Key(0, HeatmapService.cellIndex(47.5205, 0.001), HeatmapService.cellIndex(-18.9155, 0.001));
+        assertEquals(-1, deltas.get(oldFine)[0]);
+        assertEquals(1, deltas.get(newFine)[0]);
+
+        // Les mailles grossières contiennent les deux positions : rien à changer
+        int coarsest = HeatmapService.CELL_SIZES.length - 1;
+        assertTrue(deltas.keySet().stream().noneMatch(k -> k.getLevel() == coarsest));
+    }
+}
@@ -0,0 +1,137 @@
+package com.projet.Cloud.service;
+
+import com.projet.Cloud.dto.BatchProblemeResult;
+import com.projet.Cloud.dto.CreateProblemeRequest;
+import com.projet.Cloud.model.Probleme;
+import com.projet.Cloud.model.User;
+import com.projet.Cloud.repository.ProblemeRepository;
+import com.projet.Cloud.repository.SignalementTypeRepository;
+import com.projet.Cloud.repository.UserRepository;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@DisplayName("ProblemeService Batch Tests")
+public class ProblemeBatchTest {
+
+    private final AtomicLong ids = new AtomicLong(100);
+    private ProblemeRepository problemeRepository;
+    private ProblemeService service;
+    private User user;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        problemeRepository = mock(ProblemeRepository.class);
+        UserRepository userRepository = mock(UserRepository.class);
+        SignalementTypeRepository typeRepository = mock(SignalementTypeRepository.class);
+
+        user = new User();
+        user.setId(1L);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(typeRepository.findAllById(any())).thenReturn(List.of());
+        when(problemeRepository.findByUserAndClientKeyIn(eq(user), anyCollection())).thenReturn(List.of());
+        // Identifiants attribués à l'insertion, comme Hibernate au flush
+        when(problemeRepository.saveAll(any())).thenAnswer(invocation -> {
+            List<Probleme> saved = new ArrayList<>();
+            for (Probleme probleme : (Iterable<Probleme>) invocation.getArgument(0)) {
+                probleme.setId(ids.incrementAndGet());
+                saved.add(probleme);
+            }
+            return saved;
+        });
+
+        service = new ProblemeService(problemeRepository, userRepository, typeRepository,
+                mock(SignalementService.class), Validation.buildDefaultValidatorFactory().getValidator());
+    }
+
+    private static CreateProblemeRequest item(String clientKey) {
+        return new CreateProblemeRequest(-18.91, 47.52, null, "Nid de poule", clientKey);
+    }
+
+    private static Probleme existing(long id, String clientKey) {
+        Probleme probleme = new Probleme();
+        probleme.setId(id);
+        probleme.setClientKey(clientKey);
+        return probleme;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Probleme> savedProblemes() {
+        ArgumentCaptor<Iterable<Probleme>> captor = ArgumentCaptor.forClass(Iterable.class);
+        verify(problemeRepository).saveAll(captor.capture());
+        List<Probleme> saved = new ArrayList<>();
+        captor.getValue().forEach(saved::add);
+        return saved;
+    }
+
+    @Test
+    @DisplayName("Même clé deux fois dans le lot : une seule insertion, même id pour les deux")
+    public void testDuplicateKeyWithinBatch() {
+        List<BatchProblemeResult> results = service.createProblemes(
+                List.of(item("k1"), item("k2"), item("k1")), 1L);
+
+        assertEquals(List.of("created", "created", "duplicate"),
+                results.stream().map(BatchProblemeResult::getStatus).toList());
+        assertEquals(2, savedProblemes().size());
+        assertNotNull(results.get(0).getId());
+        assertEquals(results.get(0).getId(), results.get(2).getId());
+        assertNotEquals(results.get(0).getId(), results.get(1).getId());
+    }
+
+    @Test
+    @DisplayName("Clé reçue dans un lot précédent : doublon avec l'id existant, pas d'insertion")
+    public void testDuplicateKeyAcrossBatches() {
+        when(problemeRepository.findByUserAndClientKeyIn(eq(user), anyCollection()))
+                .thenReturn(List.of(existing(7L, "k1")));
+
+        List<BatchProblemeResult> results = service.createProblemes(List.of(item("k1"), item("k2")), 1L);
+
+        assertEquals("duplicate", results.get(0).getStatus());
+        assertEquals(7L, results.get(0).getId());
+        assertEquals("created", results.get(1).getStatus());
+        List<Probleme> saved = savedProblemes();
+        assertEquals(1, saved.size());
+        assertEquals("k2", saved.get(0).getClientKey());
+    }
+
+    @Test
+    @DisplayName("Élément invalide signalé sans bloquer les autres")
+    public void testInvalidItemDoesNotBlockBatch() {
+        CreateProblemeRequest noLatitude = item("k3");
+        noLatitude.setLatitude(null);
+
+        List<BatchProblemeResult> results = service.createProblemes(
+                Arrays.asList(item(null), noLatitude, null, item("k4")), 1L);
+
+        assertEquals(List.of("invalid", "invalid", "invalid", "created"),
+                results.stream().map(BatchProblemeResult::getStatus).toList());
+        assertEquals("La clé client est requise", results.get(0).getError());
+        assertEquals("La latitude est requise", results.get(1).getError());
+        assertNull(results.get(1).getId());
+        assertEquals(1, savedProblemes().size());
+    }
+
+    @Test
+    @DisplayName("Création unitaire rejouée : problème existant renvoyé, rien d'inséré")
+    public void testSingleCreateReplay() {
+        Probleme probleme = existing(9L, "k1");
+        when(problemeRepository.findByUserAndClientKey(user, "k1")).thenReturn(Optional.of(probleme));
+
+        assertSame(probleme, service.createProbleme(item("k1"), 1L));
+        verify(problemeRepository, never()).save(any());
+    }
+}
@@ -0,0 +1,208 @@
+package com.projet.Cloud.service;
+
+import com.projet.Cloud.config.InMemoryStoreProperties;
+import com.projet.Cloud.dto.ReconciliationReport;
+import com.projet.Cloud.model.Signalement;
+import com.projet.Cloud.repository.ProblemeRepository;
+import com.projet.Cloud.repository.SignalementRepository;
+import com.projet.Cloud.store.InMemoryDocumentStore;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@DisplayName("ReconciliationService Tests")
+public class ReconciliationServiceTest {
+
+    private final List<Object[]> localRows = new ArrayList<>();
+
+    private InMemoryDocumentStore store;
+    private SyncService syncService;
+    private SignalementRepository signalementRepository;
+    private ReconciliationService reconciliationService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() throws Exception {
+        store = new InMemoryDocumentStore(new InMemoryStoreProperties());
+        syncService = mock(SyncService.class);
+        signalementRepository = mock(SignalementRepository.class);
+        reconciliationService = new ReconciliationService(store, syncService, signalementRepository,
+                mock(ProblemeRepository.class));
+
+        EntityManager entityManager = mock(EntityManager.class);
+        when(entityManager.createQuery(anyString(), eq(Object[].class)))
+                .thenAnswer(invocation -> localQuery(invocation.getArgument(0)));
+        ReflectionTestUtils.setField(reconciliationService, "entityManager", entityManager);
+
+        // La réparation renvoie la version PostgreSQL vers Firestore
+        when(signalementRepository.findById(any())).thenAnswer(invocation -> {
+            Signalement signalement = new Signalement();
+            signalement.setId(invocation.getArgument(0));
+            return Optional.of(signalement);
+        });
+        doAnswer(invocation -> {
+            Signalement signalement = invocation.getArgument(0);
+            store.set("signalements", "pg-" + signalement.getId(), document(row(signalement.getId())));
+            return null;
+        }).when(syncService).pushSignalement(any());
+
+        for (long id = 1; id <= 250; id++) {
+            localRows.add(row(id));
+            store.set("signalements", "pg-" + id, document(row(id)));
+        }
+        localRows.add(row(1500));
+        store.set("signalements", "pg-1500", document(row(1500)));
+    }
+
+    @Test
+    @DisplayName("Bases synchronisées : une seule lecture de projection, aucune réparation")
+    public void testInSyncReadsProjectionOnly() throws ExecutionException, InterruptedException {
+        ReconciliationReport report = signalements(false);
+
+        assertEquals(2, report.getBucketsChecked());
+        assertEquals(0, report.getBucketsMismatched());
+        assertEquals(251, report.getDocumentsRead());
+        verifyNoInteractions(syncService);
+    }
+
+    @Test
+    @DisplayName("Document modifié dans Firestore sans changer le nombre : seule sa sous-plage est relue et réparée")
+    public void testContentDriftDescendsIntoOneChild() throws ExecutionException, InterruptedException {
+        Map<String, Object> edited = document(row(142));
+        edited.put("status", "terminé");
+        store.set("signalements", "pg-142", edited);
+
+        ReconciliationReport report = signalements(false);
+
+        assertEquals(1, report.getBucketsMismatched());
+        assertEquals("hash", report.getDrifts().get(0).getReason());
+        assertEquals(0, report.getDrifts().get(0).getBucket());
+        assertEquals(1, report.getRowsRepaired());
+        // Projection complète + sous-plage [100, 200)
+        assertEquals(251 + 100, report.getDocumentsRead());
+        verify(syncService).pushSignalement(argThat(signalement -> signalement.getId() == 142L));
+        assertEquals("nouveau", store.get("signalements", "pg-142").orElseThrow().getString("status"));
+
+        assertEquals(0, signalements(false).getBucketsMismatched());
+    }
+
+    @Test
+    @DisplayName("Document absent de Firestore : divergence de nombre et renvoi de la ligne")
+    public void testMissingDocumentIsPushed() throws ExecutionException, InterruptedException {
+        store.delete("signalements", "pg-1500");
+
+        ReconciliationReport report = signalements(false);
+
+        assertEquals("count", report.getDrifts().get(0).getReason());
+        assertEquals(1, report.getDrifts().get(0).getBucket());
+        assertEquals(1, report.getRowsRepaired());
+        assertTrue(store.get("signalements", "pg-1500").isPresent());
+    }
+
+    @Test
+    @DisplayName("Document sans ligne PostgreSQL : signalé comme orphelin, jamais supprimé")
+    public void testOrphanDocumentIsReported() throws ExecutionException, InterruptedException {
+        store.set("signalements", "pg-7042", document(row(7042)));
+
+        ReconciliationReport report = signalements(false);
+
+        assertEquals(List.of(7042L), report.getOrphanLocalIds());
+        assertEquals(0, report.getRowsRepaired());
+        assertTrue(store.get("signalements", "pg-7042").isPresent());
+    }
+
+    @Test
+    @DisplayName("Échec de réparation compté, le bucket reste divergent au passage suivant")
+    public void testFailedRepairIsRetriedNextRun() throws Exception {
+        store.delete("signalements", "pg-3");
+        doThrow(new ExecutionException(new RuntimeException("UNAVAILABLE"))).when(syncService).pushSignalement(any());
+
+        ReconciliationReport report = signalements(false);
+
+        assertEquals(1, report.getRowsFailed());
+        assertEquals(0, report.getRowsRepaired());
+        assertEquals(1, signalements(false).getBucketsMismatched());
+    }
+
+    @Test
+    @DisplayName("Mode deep : toutes les sous-plages relues même quand les empreintes concordent")
+    public void testDeepReadsEveryChild() throws ExecutionException, InterruptedException {
+        ReconciliationReport report = signalements(true);
+
+        assertEquals(2, report.getBucketsMismatched());
+        assertTrue(report.getDrifts().stream().allMatch(drift -> "deep".equals(drift.getReason())));
+        assertEquals(251 * 2, report.getDocumentsRead());
+        assertEquals(0, report.getRowsRepaired());
+    }
+
+    private ReconciliationReport signalements(boolean deep) throws ExecutionException, InterruptedException {
+        return reconciliationService.reconcileAll(deep).get(0);
+    }
+
+    /**
+     * Requête JPQL simulée : lignes d'ID strictement entre :after et :before, paginées
+     */
+    @SuppressWarnings("unchecked")
+    private TypedQuery<Object[]> localQuery(String jpql) {
+        TypedQuery<Object[]> query = mock(TypedQuery.class);
+        Map<String, Object> parameters = new HashMap<>();
+        int[] maxResults = {Integer.MAX_VALUE};
+        when(query.setParameter(anyString(), any())).thenAnswer(invocation -> {
+            parameters.put(invocation.getArgument(0), invocation.getArgument(1));
+            return query;
+        });
+        when(query.setMaxResults(anyInt())).thenAnswer(invocation -> {
+            maxResults[0] = invocation.getArgument(0);
+            return query;
+        });
+        when(query.getResultList()).thenAnswer(invocation -> {
+            if (!jpql.contains("FROM Signalement")) {
+                return List.of();
+            }
+            long after = (Long) parameters.get("after");
+            long before = (Long) parameters.get("before");
+            return localRows.stream()
+                    .filter(row -> (Long) row[0] > after && (Long) row[0] < before)
+                    .limit(maxResults[0])
+                    .toList();
+        });
+        return query;
+    }
+
+    private static Object[] row(long id) {
+        return new Object[]{id, 5L, 1L, -18.9, 47.5, "Signalement " + id, "nouveau", 12.0, 5000.0};
+    }
+
+    private static Map<String, Object> document(Object[] row) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("localId", row[0]);
+        data.put("userId", row[1]);
+        data.put("typeId", row[2]);
+        data.put("latitude", row[3]);
+        data.put("longitude", row[4]);
+        data.put("description", row[5]);
+        data.put("status", row[6]);
+        data.put("surfaceM2", row[7]);
+        // Firestore renvoie les nombres entiers en Long : l'empreinte doit rester identique
+        data.put("budget", 5000L);
+        data.put("createdAt", "2026-01-01");
+        return data;
+    }
+}
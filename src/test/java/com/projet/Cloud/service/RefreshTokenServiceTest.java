@@ -0,0 +1,207 @@
+package com.projet.Cloud.service;
+
+import com.projet.Cloud.dto.AuthResponse;
+import com.projet.Cloud.model.Session;
+import com.projet.Cloud.model.User;
+import com.projet.Cloud.repository.SessionRepository;
+import com.projet.Cloud.repository.UserRepository;
+import com.projet.Cloud.store.CachedSession;
+import com.projet.Cloud.store.InMemorySessionCache;
+import com.projet.Cloud.util.JwtUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@DisplayName("RefreshTokenService Tests")
+public class RefreshTokenServiceTest {
+
+    private final Map<Long, Session> sessions = new HashMap<>();
+    private final AtomicLong sessionIds = new AtomicLong();
+    private SessionRepository sessionRepository;
+    private InMemorySessionCache sessionCache;
+    private TokenRevocationService tokenRevocationService;
+    private RefreshTokenService service;
+
+    @BeforeEach
+    public void setUp() {
+        JwtUtil.init("test-secret-key-minimum-256-bits-for-hs512-algorithm-testing");
+        sessionRepository = mock(SessionRepository.class);
+        mockSessionTable();
+        sessionCache = new InMemorySessionCache(100);
+
+        User user = new User();
+        user.setId(1L);
+        user.setEmail("agent@test.mg");
+        user.setUsername("agent");
+        tokenRevocationService = mock(TokenRevocationService.class);
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+
+        service = new RefreshTokenService(sessionRepository, sessionCache, userRepository,
+                mock(AuthAttemptService.class), tokenRevocationService,
+                mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(service, "accessTokenMs", 3600000L);
+        ReflectionTestUtils.setField(service, "refreshTokenMs", 86400000L);
+        ReflectionTestUtils.setField(service, "reuseGraceMs", 10000L);
+    }
+
+    /** Table sessions en mémoire, mêmes conditions que les UPDATE JPQL du repository */
+    private void mockSessionTable() {
+        when(sessionRepository.save(any(Session.class))).thenAnswer(invocation -> {
+            Session session = invocation.getArgument(0);
+            if (session.getId() == null) {
+                session.setId(sessionIds.incrementAndGet());
+            }
+            sessions.put(session.getId(), session);
+            return session;
+        });
+        when(sessionRepository.findById(any())).thenAnswer(invocation ->
+                Optional.ofNullable(sessions.get(invocation.<Long>getArgument(0))));
+        when(sessionRepository.rotate(any(), any(), any(), any(), any())).thenAnswer(invocation -> {
+            Session session = sessions.get(invocation.<Long>getArgument(0));
+            if (session == null || session.getRevokedAt() != null
+                    || !Objects.equals(session.getToken(), invocation.getArgument(1))) {
+                return 0;
+            }
+            session.setPreviousToken(session.getToken());
+            session.setToken(invocation.getArgument(2));
+            session.setExpiresAt(invocation.getArgument(3));
+            session.setLastUsedAt(invocation.getArgument(4));
+            return 1;
+        });
+        when(sessionRepository.revokeAll(anyList(), any())).thenAnswer(invocation -> {
+            int revoked = 0;
+            for (Long id : invocation.<List<Long>>getArgument(0)) {
+                Session session = sessions.get(id);
+                if (session != null && session.getRevokedAt() == null) {
+                    session.setRevokedAt(invocation.getArgument(1));
+                    revoked++;
+                }
+            }
+            return revoked;
+        });
+        when(sessionRepository.findActiveIdsByUserId(any())).thenAnswer(invocation -> sessions.values().stream()
+                .filter(s -> s.getUserId().equals(invocation.getArgument(0)) && s.getRevokedAt() == null)
+                .map(Session::getId)
+                .toList());
+    }
+
+    private String login() {
+        AuthResponse response = new AuthResponse();
+        response.setUserId(1L);
+        service.attachRefreshToken(response);
+        return response.getRefreshToken();
+    }
+
+    @Test
+    @DisplayName("Échange : nouveau jeton d'accès et nouveau secret sur la même session")
+    public void testRotation() {
+        String first = login();
+
+        AuthResponse refreshed = service.refresh(first);
+
+        assertNotNull(refreshed.getToken());
+        String second = refreshed.getRefreshToken();
+        assertNotEquals(first, second);
+        assertEquals(first.substring(0, first.indexOf('.')), second.substring(0, second.indexOf('.')));
+        assertNotNull(service.refresh(second).getRefreshToken());
+        assertNull(sessions.get(1L).getRevokedAt());
+    }
+
+    @Test
+    @DisplayName("Ancien secret rejoué dans le délai de grâce : refusé sans révoquer la session")
+    public void testReuseWithinGrace() {
+        String first = login();
+        String second = service.refresh(first).getRefreshToken();
+
+        assertThrows(RefreshTokenService.InvalidRefreshTokenException.class, () -> service.refresh(first));
+
+        assertNull(sessions.get(1L).getRevokedAt());
+        assertNotNull(service.refresh(second).getRefreshToken());
+    }
+
+    @Test
+    @DisplayName("Ancien secret rejoué après le délai de grâce : session révoquée, nouveau secret inutilisable")
+    public void testReuseAfterGraceRevokesSession() {
+        ReflectionTestUtils.setField(service, "reuseGraceMs", -1L);
+        String first = login();
+        String second = service.refresh(first).getRefreshToken();
+
+        assertThrows(RefreshTokenService.InvalidRefreshTokenException.class, () -> service.refresh(first));
+
+        assertNotNull(sessions.get(1L).getRevokedAt());
+        assertTrue(sessionCache.get(1L).isEmpty());
+        assertThrows(RefreshTokenService.InvalidRefreshTokenException.class, () -> service.refresh(second));
+    }
+
+    @Test
+    @DisplayName("Cache d'une autre instance en retard : la base tranche")
+    public void testStaleCacheReadsDatabase() {
+        String first = login();
+        String second = service.refresh(first).getRefreshToken();
+        // Cette instance n'a pas vu la rotation : le cache porte encore l'empreinte du premier secret
+        sessionCache.evict(1L);
+        Session row = sessions.get(1L);
+        sessionCache.put(new CachedSession(row.getId(), row.getUserId(), row.getPreviousToken(),
+                null, System.currentTimeMillis() + 60000, 0, false));
+
+        assertNotNull(service.refresh(second).getRefreshToken());
+    }
+
+    @Test
+    @DisplayName("Jeton mal formé, session inconnue ou expirée : refusé")
+    public void testInvalidTokens() {
+        assertThrows(RefreshTokenService.InvalidRefreshTokenException.class, () -> service.refresh(null));
+        assertThrows(RefreshTokenService.InvalidRefreshTokenException.class, () -> service.refresh("abc"));
+        assertThrows(RefreshTokenService.InvalidRefreshTokenException.class, () -> service.refresh("42.secret"));
+
+        String token = login();
+        sessionCache.evict(1L);
+        sessions.get(1L).setExpiresAt(LocalDateTime.now().minusSeconds(1));
+        assertThrows(RefreshTokenService.InvalidRefreshTokenException.class, () -> service.refresh(token));
+    }
+
+    @Test
+    @DisplayName("Déconnexion : la session du jeton est révoquée, un secret erroné est ignoré")
+    public void testLogoutRevokesSession() {
+        String token = login();
+        String other = login();
+
+        service.revoke(token.substring(0, token.indexOf('.')) + ".mauvais-secret");
+        assertNull(sessions.get(1L).getRevokedAt());
+
+        service.revoke(token);
+        assertNotNull(sessions.get(1L).getRevokedAt());
+        assertThrows(RefreshTokenService.InvalidRefreshTokenException.class, () -> service.refresh(token));
+        assertNotNull(service.refresh(other).getRefreshToken());
+    }
+
+    @Test
+    @DisplayName("Changement de mot de passe : toutes les sessions et les jetons d'accès de l'utilisateur révoqués")
+    public void testRevokeAllForUser() {
+        String first = login();
+        String second = login();
+
+        assertEquals(2, service.revokeAllForUser(1L));
+
+        verify(tokenRevocationService).revokeAllForUser("agent@test.mg");
+        assertThrows(RefreshTokenService.InvalidRefreshTokenException.class, () -> service.refresh(first));
+        assertThrows(RefreshTokenService.InvalidRefreshTokenException.class, () -> service.refresh(second));
+        assertEquals(0, service.revokeAllForUser(1L));
+    }
+}
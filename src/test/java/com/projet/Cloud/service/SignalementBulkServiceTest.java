@@ -0,0 +1,180 @@
+package com.projet.Cloud.service;
+
+import com.projet.Cloud.dto.SignalementFilter;
+import com.projet.Cloud.event.SignalementChangeEvent;
+import com.projet.Cloud.model.Signalement;
+import com.projet.Cloud.model.User;
+import com.projet.Cloud.repository.SignalementRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@DisplayName("SignalementBulkService Tests")
+public class SignalementBulkServiceTest {
+
+    private SignalementRepository signalementRepository;
+    private FirebaseSignalementService firebaseSignalementService;
+    private PushNotificationService pushNotificationService;
+    private CollectionVersionService collectionVersionService;
+    private ApplicationEventPublisher eventPublisher;
+    private EntityManager entityManager;
+    private Query selection;
+    private SignalementBulkService service;
+
+    @BeforeEach
+    public void setUp() {
+        signalementRepository = mock(SignalementRepository.class);
+        firebaseSignalementService = mock(FirebaseSignalementService.class);
+        pushNotificationService = mock(PushNotificationService.class);
+        collectionVersionService = mock(CollectionVersionService.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        entityManager = mock(EntityManager.class);
+        selection = mock(Query.class);
+        when(entityManager.createNativeQuery(anyString())).thenReturn(selection);
+
+        service = new SignalementBulkService(signalementRepository, firebaseSignalementService,
+                pushNotificationService, collectionVersionService, eventPublisher, mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(service, "entityManager", entityManager);
+    }
+
+    private static Signalement signalement(long id, long userId, String status, LocalDateTime resolvedAt) {
+        User user = new User();
+        user.setId(userId);
+        Signalement signalement = new Signalement();
+        signalement.setId(id);
+        signalement.setUser(user);
+        signalement.setStatus(status);
+        signalement.setResolvedAt(resolvedAt);
+        signalement.setFirebaseId("fb-" + id);
+        return signalement;
+    }
+
+    private static SignalementFilter noFilter() {
+        return SignalementFilter.of(null, null, null, null, null);
+    }
+
+    private void select(List<Long> ids, List<Signalement> signalements) {
+        when(selection.getResultList()).thenReturn(new ArrayList<>(ids));
+        when(signalementRepository.findAllById(ids)).thenReturn(signalements);
+    }
+
+    private List<SignalementChangeEvent> publishedEvents(int expected) {
+        ArgumentCaptor<SignalementChangeEvent> captor = ArgumentCaptor.forClass(SignalementChangeEvent.class);
+        verify(eventPublisher, times(expected)).publishEvent(captor.capture());
+        return captor.getAllValues();
+    }
+
+    @Test
+    @DisplayName("Clôture en masse : un UPDATE, un événement par signalement avec l'état avant et après")
+    public void testResolvePublishesEvents() throws Exception {
+        select(List.of(1L, 2L), List.of(signalement(1L, 10L, "en_cours", null), signalement(2L, 11L, "nouveau", null)));
+        when(signalementRepository.resolveAll(anyList(), eq("terminé"), any())).thenReturn(2);
+        when(firebaseSignalementService.batchUpdateStatus(anyList(), eq("terminé"))).thenReturn(2);
+        when(pushNotificationService.sendGroupedStatusNotifications(anyMap(), eq("terminé"))).thenReturn(2);
+
+        SignalementBulkService.Result result = service.updateStatus(List.of(1L, 2L), noFilter(), "terminé");
+
+        assertEquals(2, result.updated());
+        assertEquals(2, result.firestoreUpdated());
+        assertEquals(2, result.notified());
+        verify(signalementRepository, never()).reopenAll(anyList(), anyString(), any());
+        verify(collectionVersionService).bump(CollectionVersionService.SIGNALEMENTS);
+        verify(firebaseSignalementService).batchUpdateStatus(List.of("fb-1", "fb-2"), "terminé");
+
+        List<SignalementChangeEvent> events = publishedEvents(2);
+        SignalementChangeEvent first = events.get(0);
+        assertEquals(SignalementChangeEvent.Type.UPDATED, first.type());
+        assertEquals(1L, first.signalementId());
+        assertEquals("en_cours", first.before().status());
+        assertEquals("terminé", first.after().status());
+        assertNotNull(first.after().resolvedAt());
+        assertEquals("nouveau", events.get(1).before().status());
+    }
+
+    @Test
+    @DisplayName("Réouverture en masse : date de résolution effacée dans l'événement")
+    public void testReopenClearsResolvedAt() {
+        LocalDateTime resolvedAt = LocalDateTime.now().minusDays(2);
+        select(List.of(3L), List.of(signalement(3L, 10L, "terminé", resolvedAt)));
+        when(signalementRepository.reopenAll(anyList(), eq("en_cours"), any())).thenReturn(1);
+
+        SignalementBulkService.Result result = service.updateStatus(List.of(3L), noFilter(), "en_cours");
+
+        assertEquals(1, result.updated());
+        verify(signalementRepository, never()).resolveAll(anyList(), anyString(), any());
+        SignalementChangeEvent event = publishedEvents(1).get(0);
+        assertEquals(resolvedAt, event.before().resolvedAt());
+        assertNull(event.after().resolvedAt());
+    }
+
+    @Test
+    @DisplayName("Signalements déjà au statut demandé : exclus de la sélection, aucun événement")
+    public void testStatusGuard() {
+        select(List.of(), List.of());
+
+        SignalementBulkService.Result result = service.updateStatus(List.of(1L, 2L), noFilter(), "terminé");
+
+        assertEquals(0, result.updated());
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(entityManager).createNativeQuery(sql.capture());
+        assertTrue(sql.getValue().contains("s.status <> ?"));
+        verify(selection).setParameter(1, "terminé");
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+        verify(collectionVersionService, never()).bump(anyString());
+        verifyNoInteractions(firebaseSignalementService, pushNotificationService);
+    }
+
+    @Test
+    @DisplayName("Sélection trop large : refusée avant toute écriture")
+    public void testSelectionTooLarge() {
+        List<Long> ids = new ArrayList<>();
+        for (long id = 1; id <= SignalementBulkService.MAX_SIGNALEMENTS + 1; id++) {
+            ids.add(id);
+        }
+        when(selection.getResultList()).thenReturn(ids);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> service.updateStatus(null, noFilter(), "terminé"));
+        verify(selection).setMaxResults(SignalementBulkService.MAX_SIGNALEMENTS + 1);
+        verify(signalementRepository, never()).resolveAll(anyList(), anyString(), any());
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    @DisplayName("Échec Firestore : la mise à jour en base et les notifications sont conservées")
+    public void testFirestoreFailureDoesNotFailUpdate() throws Exception {
+        select(List.of(1L, 2L), List.of(signalement(1L, 10L, "nouveau", null), signalement(2L, 10L, "nouveau", null)));
+        when(signalementRepository.reopenAll(anyList(), eq("en_cours"), any())).thenReturn(2);
+        when(firebaseSignalementService.batchUpdateStatus(anyList(), anyString())).thenThrow(new RuntimeException("quota"));
+        when(pushNotificationService.sendGroupedStatusNotifications(anyMap(), eq("en_cours"))).thenReturn(1);
+
+        SignalementBulkService.Result result = service.updateStatus(List.of(1L, 2L), noFilter(), "en_cours");
+
+        assertEquals(2, result.updated());
+        assertEquals(0, result.firestoreUpdated());
+        assertEquals(1, result.notified());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<Long, List<Signalement>>> byUser = ArgumentCaptor.forClass(Map.class);
+        verify(pushNotificationService).sendGroupedStatusNotifications(byUser.capture(), eq("en_cours"));
+        assertEquals(1, byUser.getValue().size());
+        assertEquals(2, byUser.getValue().get(10L).size());
+    }
+}
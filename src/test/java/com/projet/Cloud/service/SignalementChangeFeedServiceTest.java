@@ -0,0 +1,126 @@
+package com.projet.Cloud.service;
+
+import com.projet.Cloud.model.ChangeCounter;
+import com.projet.Cloud.model.Signalement;
+import com.projet.Cloud.repository.ChangeCounterRepository;
+import com.projet.Cloud.repository.SignalementChangeRepository;
+import com.projet.Cloud.repository.SignalementRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@DisplayName("SignalementChangeFeedService Tests")
+public class SignalementChangeFeedServiceTest {
+
+    private final Map<String, Long> counters = new HashMap<>();
+    private SignalementChangeRepository changeRepository;
+    private SignalementRepository signalementRepository;
+    private SignalementChangeFeedService service;
+
+    @BeforeEach
+    public void setUp() {
+        changeRepository = mock(SignalementChangeRepository.class);
+        signalementRepository = mock(SignalementRepository.class);
+        ChangeCounterRepository counterRepository = mock(ChangeCounterRepository.class);
+        when(counterRepository.findById(any())).thenAnswer(invocation ->
+                Optional.ofNullable(counters.get(invocation.<String>getArgument(0)))
+                        .map(value -> new ChangeCounter(invocation.getArgument(0), value)));
+        when(counterRepository.save(any())).thenAnswer(invocation -> {
+            ChangeCounter counter = invocation.getArgument(0);
+            counters.put(counter.getName(), counter.getValue());
+            return counter;
+        });
+
+        service = new SignalementChangeFeedService(changeRepository, counterRepository,
+                signalementRepository, mock(PlatformTransactionManager.class));
+        counters.put(SignalementChangeFeedService.COUNTER, 10L);
+        counters.put(SignalementChangeFeedService.PRUNED_COUNTER, 3L);
+    }
+
+    private static Signalement signalement(long id) {
+        Signalement signalement = new Signalement();
+        signalement.setId(id);
+        return signalement;
+    }
+
+    @Test
+    @DisplayName("Curseur encodé puis décodé : même séquence")
+    public void testCursorRoundTrip() {
+        assertEquals(42L, SignalementChangeFeedService.decodeCursor(SignalementChangeFeedService.encodeCursor(42L)));
+        assertThrows(IllegalArgumentException.class, () -> SignalementChangeFeedService.decodeCursor("pas-un-curseur"));
+        assertThrows(IllegalArgumentException.class, () -> SignalementChangeFeedService.decodeCursor(null));
+    }
+
+    @Test
+    @DisplayName("Curseur antérieur à la purge : expiré (410)")
+    public void testPrunedCursorExpires() {
+        String cursor = SignalementChangeFeedService.encodeCursor(2L);
+
+        assertThrows(SignalementChangeFeedService.CursorExpiredException.class, () -> service.getChanges(cursor, 100));
+        verify(changeRepository, never()).findLatestSince(anyLong(), any());
+    }
+
+    @Test
+    @DisplayName("Curseur au-delà de la tête (autre base) : expiré")
+    public void testCursorAheadOfHeadExpires() {
+        String cursor = SignalementChangeFeedService.encodeCursor(11L);
+
+        assertThrows(SignalementChangeFeedService.CursorExpiredException.class, () -> service.getChanges(cursor, 100));
+    }
+
+    @Test
+    @DisplayName("Page de changements : supprimés séparés, curseur avancé à la dernière séquence lue")
+    public void testChangesPage() {
+        when(changeRepository.findLatestSince(eq(5L), any(Pageable.class))).thenReturn(List.of(
+                new Object[]{1L, 6L}, new Object[]{2L, 8L}, new Object[]{3L, 9L}));
+        when(signalementRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(signalement(1L)));
+
+        SignalementChangeFeedService.Changes changes = service.getChanges(SignalementChangeFeedService.encodeCursor(5L), 2);
+
+        assertEquals(1, changes.signalements().size());
+        assertEquals(1L, changes.signalements().get(0).getId());
+        assertEquals(List.of(2L), changes.deleted());
+        assertTrue(changes.hasMore());
+        assertEquals(8L, SignalementChangeFeedService.decodeCursor(changes.cursor()));
+    }
+
+    @Test
+    @DisplayName("Aucun changement : même curseur, pas de page suivante")
+    public void testNoChangesKeepsCursor() {
+        when(changeRepository.findLatestSince(eq(10L), any(Pageable.class))).thenReturn(List.of());
+
+        SignalementChangeFeedService.Changes changes = service.getChanges(service.currentCursor(), 100);
+
+        assertTrue(changes.signalements().isEmpty());
+        assertTrue(changes.deleted().isEmpty());
+        assertFalse(changes.hasMore());
+        assertEquals(service.currentCursor(), changes.cursor());
+    }
+
+    @Test
+    @DisplayName("Invalidation après import : les curseurs existants expirent, la tête reste valide")
+    public void testInvalidateCursors() {
+        String before = SignalementChangeFeedService.encodeCursor(7L);
+
+        service.invalidateCursors();
+
+        assertEquals(10L, counters.get(SignalementChangeFeedService.PRUNED_COUNTER));
+        verify(changeRepository).deleteUpTo(10L);
+        assertThrows(SignalementChangeFeedService.CursorExpiredException.class, () -> service.getChanges(before, 100));
+        when(changeRepository.findLatestSince(eq(10L), any(Pageable.class))).thenReturn(List.of());
+        assertDoesNotThrow(() -> service.getChanges(service.currentCursor(), 100));
+    }
+}
@@ -0,0 +1,145 @@
+package com.projet.Cloud.service;
+
+import com.projet.Cloud.event.SignalementSnapshot;
+import com.projet.Cloud.model.SignalementRollup;
+import com.projet.Cloud.repository.SignalementRollupRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DisplayName("SignalementRollupService Tests")
+public class SignalementRollupServiceTest {
+
+    private static final LocalDateTime CREATED = LocalDateTime.of(2024, 3, 14, 9, 30);
+
+    private static SignalementSnapshot snapshot(String status, Double budget, LocalDateTime resolvedAt) {
+        return new SignalementSnapshot(1L, null, 2L, null, status, -18.91, 47.52, budget, 10.0,
+                CREATED, CREATED, CREATED, resolvedAt);
+    }
+
+    private static SignalementRollup.Key key(String status) {
+        return new SignalementRollup.Key(CREATED.toLocalDate(), 2L, status);
+    }
+
+    @Test
+    @DisplayName("Création : +1 au jour de création, budget ajouté")
+    public void testCreateContribution() {
+        Map<SignalementRollup.Key, long[]> counts = new LinkedHashMap<>();
+        Map<SignalementRollup.Key, Double> budgets = new HashMap<>();
+
+        SignalementRollupService.contribute(counts, budgets, snapshot("nouveau", 1500.0, null), 1);
+
+        assertArrayEquals(new long[]{1, 0, 0}, counts.get(key("nouveau")));
+        assertEquals(1500.0, budgets.get(key("nouveau")), 0.001);
+    }
+
+    @Test
+    @DisplayName("Résolution : la ligne passe d'un statut à l'autre avec la durée de résolution")
+    public void testResolveMovesBetweenStatuses() {
+        Map<SignalementRollup.Key, long[]> counts = new LinkedHashMap<>();
+        Map<SignalementRollup.Key, Double> budgets = new HashMap<>();
+
+        SignalementRollupService.contribute(counts, budgets, snapshot("en_cours", 1500.0, null), -1);
+        SignalementRollupService.contribute(counts, budgets, snapshot("terminé", 1500.0, CREATED.plusHours(2)), 1);
+
+        assertArrayEquals(new long[]{-1, 0, 0}, counts.get(key("en_cours")));
+        assertArrayEquals(new long[]{1, 1, 7200}, counts.get(key("terminé")));
+        assertEquals(-1500.0, budgets.get(key("en_cours")), 0.001);
+        assertEquals(1500.0, budgets.get(key("terminé")), 0.001);
+    }
+
+    @Test
+    @DisplayName("Suppression d'un signalement résolu : tout est retiré, durée négative bornée à 0")
+    public void testDeleteResolvedContribution() {
+        Map<SignalementRollup.Key, long[]> counts = new LinkedHashMap<>();
+        Map<SignalementRollup.Key, Double> budgets = new HashMap<>();
+
+        // Horloges décalées : résolution enregistrée avant la création
+        SignalementRollupService.contribute(counts, budgets, snapshot("terminé", null, CREATED.minusMinutes(1)), -1);
+
+        assertArrayEquals(new long[]{-1, -1, 0}, counts.get(key("terminé")));
+        assertNull(budgets.get(key("terminé")));
+    }
+
+    @Test
+    @DisplayName("Snapshot sans type, statut ou date de création : ignoré")
+    public void testIncompleteSnapshotIgnored() {
+        Map<SignalementRollup.Key, long[]> counts = new LinkedHashMap<>();
+        SignalementSnapshot noType = new SignalementSnapshot(1L, null, null, null, "nouveau", null, null,
+                null, null, CREATED, CREATED, CREATED, null);
+
+        SignalementRollupService.contribute(counts, new HashMap<>(), noType, 1);
+        SignalementRollupService.contribute(counts, new HashMap<>(), null, 1);
+
+        assertTrue(counts.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Début de période : lundi pour la semaine, 1er pour le mois")
+    public void testPeriodStart() {
+        LocalDate thursday = LocalDate.of(2024, 3, 14);
+
+        assertEquals(thursday, SignalementRollupService.periodStart(thursday, SignalementRollupService.Granularity.DAY));
+        assertEquals(LocalDate.of(2024, 3, 11), SignalementRollupService.periodStart(thursday, SignalementRollupService.Granularity.WEEK));
+        assertEquals(LocalDate.of(2024, 3, 1), SignalementRollupService.periodStart(thursday, SignalementRollupService.Granularity.MONTH));
+        // Semaine à cheval sur deux années
+        assertEquals(LocalDate.of(2024, 12, 30),
+                SignalementRollupService.periodStart(LocalDate.of(2025, 1, 2), SignalementRollupService.Granularity.WEEK));
+    }
+
+    @Test
+    @DisplayName("Série mensuelle : jours regroupés, filtre de statut, moyenne de résolution en heures")
+    public void testMonthlySeries() {
+        SignalementRollupRepository repository = mock(SignalementRollupRepository.class);
+        LocalDate from = LocalDate.of(2024, 3, 1);
+        LocalDate to = LocalDate.of(2024, 4, 30);
+        when(repository.findRange(from, to)).thenReturn(List.of(
+                new SignalementRollup(LocalDate.of(2024, 3, 4), 1L, "terminé", 2L, 100.0, 2L, 7200L),
+                new SignalementRollup(LocalDate.of(2024, 3, 20), 2L, "terminé", 1L, 50.0, 1L, 14400L),
+                new SignalementRollup(LocalDate.of(2024, 3, 20), 2L, "nouveau", 5L, 0.0, 0L, 0L),
+                new SignalementRollup(LocalDate.of(2024, 4, 2), 1L, "terminé", 1L, 10.0, 1L, 3600L)));
+        SignalementRollupService service = new SignalementRollupService(repository, mock(PlatformTransactionManager.class));
+
+        List<Map<String, Object>> series = service.getSeries(from, to, SignalementRollupService.Granularity.MONTH,
+                null, List.of("terminé"), false, false);
+
+        assertEquals(2, series.size());
+        Map<String, Object> march = series.get(0);
+        assertEquals("2024-03-01", march.get("period"));
+        assertEquals(3L, march.get("count"));
+        assertEquals(150.0, (Double) march.get("budget"), 0.001);
+        assertEquals(3L, march.get("resolvedCount"));
+        assertEquals(2.0, (Double) march.get("meanResolutionHours"), 0.001);
+        assertEquals("2024-04-01", series.get(1).get("period"));
+        assertFalse(march.containsKey("typeId"));
+    }
+
+    @Test
+    @DisplayName("Série par type : un point par période et par type, dans l'ordre")
+    public void testSeriesByType() {
+        SignalementRollupRepository repository = mock(SignalementRollupRepository.class);
+        LocalDate day = LocalDate.of(2024, 3, 4);
+        when(repository.findRange(day, day)).thenReturn(List.of(
+                new SignalementRollup(day, 2L, "nouveau", 1L, 0.0, 0L, 0L),
+                new SignalementRollup(day, 1L, "nouveau", 4L, 0.0, 0L, 0L)));
+        SignalementRollupService service = new SignalementRollupService(repository, mock(PlatformTransactionManager.class));
+
+        List<Map<String, Object>> series = service.getSeries(day, day, SignalementRollupService.Granularity.DAY,
+                null, null, true, false);
+
+        assertEquals(List.of(1L, 2L), series.stream().map(p -> p.get("typeId")).toList());
+        assertEquals(4L, series.get(0).get("count"));
+        assertNull(series.get(0).get("meanResolutionHours"));
+    }
+}
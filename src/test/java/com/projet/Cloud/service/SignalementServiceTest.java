@@ -0,0 +1,73 @@
+package com.projet.Cloud.service;
+
+import com.projet.Cloud.event.SignalementChangeEvent;
+import com.projet.Cloud.model.Signalement;
+import com.projet.Cloud.repository.SignalementRepository;
+import com.projet.Cloud.repository.SignalementTypeRepository;
+import com.projet.Cloud.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@DisplayName("SignalementService Comment Tests")
+public class SignalementServiceTest {
+
+    private static final LocalDateTime AT = LocalDateTime.of(2026, 3, 1, 10, 0);
+
+    private SignalementRepository signalementRepository;
+    private CollectionVersionService collectionVersionService;
+    private ApplicationEventPublisher eventPublisher;
+    private SignalementService service;
+
+    @BeforeEach
+    public void setUp() {
+        signalementRepository = mock(SignalementRepository.class);
+        collectionVersionService = mock(CollectionVersionService.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        service = new SignalementService(signalementRepository, mock(SignalementTypeRepository.class),
+                mock(UserRepository.class), mock(FirebaseSignalementService.class),
+                mock(PushNotificationService.class), collectionVersionService, eventPublisher);
+    }
+
+    @Test
+    @DisplayName("Commentaire recopié : événement UPDATED publié malgré l'UPDATE en masse")
+    public void testRecordCommentPublishesUpdated() {
+        Signalement signalement = new Signalement();
+        signalement.setId(42L);
+        signalement.setStatus("en_cours");
+        when(signalementRepository.findByFirebaseIdOrId("pg-42", 42L)).thenReturn(List.of(signalement));
+        when(signalementRepository.incrementCommentCount("pg-42", 42L, AT)).thenReturn(1);
+
+        assertTrue(service.recordComment("pg-42", AT));
+
+        ArgumentCaptor<SignalementChangeEvent> event = ArgumentCaptor.forClass(SignalementChangeEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(SignalementChangeEvent.Type.UPDATED, event.getValue().type());
+        assertEquals(42L, event.getValue().signalementId());
+        // Aucun champ agrégé ne bouge : heatmap et séries ne reçoivent aucun delta
+        assertEquals(event.getValue().before(), event.getValue().after());
+        verify(collectionVersionService).bump(CollectionVersionService.SIGNALEMENTS);
+    }
+
+    @Test
+    @DisplayName("Document inconnu : ni événement ni nouvelle version")
+    public void testRecordCommentOnUnknownDocument() {
+        when(signalementRepository.findByFirebaseIdOrId(anyString(), any())).thenReturn(List.of());
+        when(signalementRepository.incrementCommentCount(anyString(), any(), any())).thenReturn(0);
+
+        assertFalse(service.recordComment("abc", AT));
+
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+        verify(collectionVersionService, never()).bump(anyString());
+    }
+}
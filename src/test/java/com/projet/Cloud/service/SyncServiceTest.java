@@ -0,0 +1,195 @@
+package com.projet.Cloud.service;
+
+import com.google.firebase.auth.FirebaseAuth;
+import com.projet.Cloud.config.FirestoreThrottleProperties;
+import com.projet.Cloud.dto.SyncPhaseReport;
+import com.projet.Cloud.model.Signalement;
+import com.projet.Cloud.model.SignalementType;
+import com.projet.Cloud.model.SyncCheckpoint;
+import com.projet.Cloud.model.User;
+import com.projet.Cloud.repository.ProblemeRepository;
+import com.projet.Cloud.repository.RoleRepository;
+import com.projet.Cloud.repository.SignalementRepository;
+import com.projet.Cloud.repository.SignalementTypeRepository;
+import com.projet.Cloud.repository.SyncCheckpointRepository;
+import com.projet.Cloud.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Pageable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@DisplayName("SyncService Tests")
+public class SyncServiceTest {
+
+    private final AtomicLong clock = new AtomicLong(TimeUnit.SECONDS.toNanos(1));
+
+    private FirebaseSignalementService firebaseSignalementService;
+    private SignalementRepository signalementRepository;
+    private SignalementTypeRepository signalementTypeRepository;
+    private UserRepository userRepository;
+    private SyncCheckpointRepository syncCheckpointRepository;
+    private SyncService syncService;
+
+    private User user;
+    private SignalementType type;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        firebaseSignalementService = mock(FirebaseSignalementService.class);
+        signalementRepository = mock(SignalementRepository.class);
+        signalementTypeRepository = mock(SignalementTypeRepository.class);
+        userRepository = mock(UserRepository.class);
+        syncCheckpointRepository = mock(SyncCheckpointRepository.class);
+
+        FirestoreRateLimiter limiter = new FirestoreRateLimiter(new FirestoreThrottleProperties(), clock::get, clock::addAndGet);
+        syncService = new SyncService(firebaseSignalementService, mock(FirebaseProblemeService.class),
+                signalementRepository, signalementTypeRepository, mock(ProblemeRepository.class), userRepository,
+                mock(RoleRepository.class), syncCheckpointRepository, limiter, new SimpleMeterRegistry(),
+                (ObjectProvider<FirebaseAuth>) mock(ObjectProvider.class), mock(CollectionVersionService.class));
+
+        user = new User();
+        user.setId(5L);
+        type = new SignalementType();
+        type.setId(1L);
+        when(userRepository.findById(5L)).thenReturn(Optional.of(user));
+        when(signalementTypeRepository.findById(1L)).thenReturn(Optional.of(type));
+    }
+
+    @Test
+    @DisplayName("Envoi interrompu après le set Firestore : l'import retrouve la ligne pg-N sans doublon")
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public void testImportAfterInterruptedPushReusesLocalRow() throws Exception {
+        // Ligne #7 envoyée (document pg-7 écrit) mais firebaseId jamais enregistré : crash avant le save
+        Signalement row = new Signalement();
+        row.setId(7L);
+        row.setUser(user);
+        row.setType(type);
+        row.setDescription("Nid de poule");
+
+        Map<String, Object> document = new HashMap<>();
+        document.put("firebaseId", "pg-7");
+        document.put("localId", 7L);
+        document.put("userId", "5");
+        document.put("typeId", "1");
+        document.put("description", "Nid de poule");
+        document.put("status", "nouveau");
+        when(firebaseSignalementService.getAllSignalements()).thenReturn(List.of(document));
+        when(signalementRepository.findByFirebaseId("pg-7")).thenReturn(Optional.empty());
+        when(signalementRepository.findById(7L)).thenReturn(Optional.of(row));
+
+        SyncPhaseReport report = new SyncPhaseReport("signalements_from_firebase");
+        syncService.syncSignalementsFromFirebase(report);
+
+        ArgumentCaptor<List<Signalement>> saved = ArgumentCaptor.forClass((Class) List.class);
+        verify(signalementRepository).saveAll(saved.capture());
+        assertNull(report.getError());
+        assertEquals(1, saved.getValue().size());
+        assertSame(row, saved.getValue().get(0));
+        assertEquals("pg-7", row.getFirebaseId());
+
+        // Reprise de l'envoi : mise à jour du même document, aucune nouvelle création
+        syncService.pushSignalement(row);
+        verify(firebaseSignalementService, never()).createSignalement(any(Signalement.class));
+        verify(firebaseSignalementService).updateSignalement(eq("pg-7"), same(row));
+    }
+
+    @Test
+    @DisplayName("Un ID local déjà lié à un autre document n'est pas réutilisé")
+    public void testDerivedIdIgnoredWhenRowAlreadyLinked() {
+        Signalement other = new Signalement();
+        other.setId(7L);
+        other.setFirebaseId("abc123");
+        when(signalementRepository.findByFirebaseId(anyString())).thenReturn(Optional.empty());
+        when(signalementRepository.findById(7L)).thenReturn(Optional.of(other));
+
+        assertTrue(syncService.findLocalSignalement("pg-7", Map.of()).isEmpty());
+        assertTrue(syncService.findLocalSignalement("xyz", Map.of("localId", 7L)).isEmpty());
+        assertTrue(syncService.findLocalSignalement("xyz", Map.of()).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Phase suspendue : le checkpoint reste avant la première ligne en échec")
+    public void testCheckpointStopsBeforeFirstFailureOnSuspend() throws Exception {
+        // #1 passe, #2 échoue, #3 passe, puis #4 à #13 échouent : suspension après 10 échecs consécutifs
+        List<Long> saved = pushRows(13, Set.of(2L, 4L, 5L, 6L, 7L, 8L, 9L, 10L, 11L, 12L, 13L), null);
+
+        assertEquals(1L, saved.get(saved.size() - 1));
+        assertTrue(saved.stream().allMatch(id -> id <= 1L));
+    }
+
+    @Test
+    @DisplayName("Phase interrompue : la reprise renvoie la ligne en échec")
+    public void testCheckpointStopsBeforeFirstFailureOnInterrupt() throws Exception {
+        List<Long> saved = pushRows(4, Set.of(2L), 4L);
+
+        assertEquals(1L, saved.get(saved.size() - 1));
+        assertTrue(Thread.interrupted());
+    }
+
+    @Test
+    @DisplayName("Sans échec : le checkpoint suit la dernière ligne envoyée")
+    public void testCheckpointFollowsSuccessfulPushes() throws Exception {
+        List<Long> saved = pushRows(3, Set.of(), null);
+
+        assertEquals(3L, saved.get(saved.size() - 1));
+    }
+
+    /**
+     * Lance la phase signalements → Firebase sur les lignes #1..#count et retourne les
+     * valeurs successives du checkpoint enregistré
+     */
+    private List<Long> pushRows(long count, Set<Long> failing, Long interruptedAt) throws Exception {
+        List<Signalement> rows = new ArrayList<>();
+        for (long id = 1; id <= count; id++) {
+            Signalement row = new Signalement();
+            row.setId(id);
+            row.setFirebaseId("pg-" + id);
+            rows.add(row);
+        }
+        when(signalementRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any(Pageable.class)))
+                .thenAnswer(invocation -> {
+                    long cursor = invocation.getArgument(0);
+                    return rows.stream().filter(row -> row.getId() > cursor).toList();
+                });
+        doAnswer(invocation -> {
+            long id = Long.parseLong(invocation.<String>getArgument(0).substring(3));
+            if (interruptedAt != null && id == interruptedAt) {
+                throw new InterruptedException();
+            }
+            if (failing.contains(id)) {
+                throw new ExecutionException(new IllegalArgumentException("INVALID_ARGUMENT"));
+            }
+            return null;
+        }).when(firebaseSignalementService).updateSignalement(anyString(), any(Signalement.class));
+
+        List<Long> saved = new ArrayList<>();
+        when(syncCheckpointRepository.findById(anyString())).thenReturn(Optional.empty());
+        when(syncCheckpointRepository.save(any(SyncCheckpoint.class))).thenAnswer(invocation -> {
+            SyncCheckpoint checkpoint = invocation.getArgument(0);
+            saved.add(checkpoint.getLastProcessedId());
+            return checkpoint;
+        });
+
+        syncService.syncSignalementsToFirebase(new SyncPhaseReport("signalements_to_firebase"));
+        return saved;
+    }
+}
@@ -0,0 +1,138 @@
+package com.projet.Cloud.service;
+
+import com.projet.Cloud.model.RevokedToken;
+import com.projet.Cloud.repository.RevokedTokenRepository;
+import com.projet.Cloud.security.JwtAuthorities;
+import com.projet.Cloud.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@DisplayName("TokenRevocationService Tests")
+public class TokenRevocationServiceTest {
+
+    private final List<RevokedToken> table = new CopyOnWriteArrayList<>();
+    private RevokedTokenRepository repository;
+    private TokenRevocationService service;
+
+    @BeforeEach
+    public void setUp() {
+        JwtUtil.init("test-secret-key-minimum-256-bits-for-hs512-algorithm-testing");
+        repository = mock(RevokedTokenRepository.class);
+        when(repository.save(any(RevokedToken.class))).thenAnswer(invocation -> {
+            table.add(invocation.getArgument(0));
+            return invocation.getArgument(0);
+        });
+        when(repository.findActive(any())).thenAnswer(invocation -> table.stream()
+                .filter(entry -> entry.getExpiresAt().isAfter(invocation.getArgument(0)))
+                .toList());
+        when(repository.findRevokedSince(any(), any())).thenAnswer(invocation -> table.stream()
+                .filter(entry -> !entry.getRevokedAt().isBefore(invocation.getArgument(0))
+                        && !entry.getRevokedAt().isAfter(invocation.getArgument(1)))
+                .toList());
+
+        service = new TokenRevocationService(repository, mock(PlatformTransactionManager.class), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "expectedEntries", 1000L);
+        ReflectionTestUtils.setField(service, "falsePositiveRate", 0.001);
+        ReflectionTestUtils.setField(service, "refreshOverlapMs", 10000L);
+        ReflectionTestUtils.setField(service, "maxAccessTokenMs", 3600000L);
+        service.init();
+    }
+
+    private static String token(String email) {
+        return JwtUtil.generateToken(Map.of("email", email, "roles", List.of("USER")), 3600000);
+    }
+
+    private static Claims claims(String token) {
+        return JwtAuthorities.parseClaims(token);
+    }
+
+    @Test
+    @DisplayName("Déconnexion : le jeton présenté est révoqué, les autres restent valides")
+    public void testLogoutRevokesPresentedToken() {
+        String presented = token("agent@test.mg");
+        String other = token("agent@test.mg");
+
+        service.revokeAccessToken("Bearer " + presented);
+
+        assertTrue(service.isRevoked(claims(presented)));
+        assertFalse(service.isRevoked(claims(other)));
+        assertEquals(TokenRevocationService.JTI_PREFIX + claims(presented).getId(), table.get(0).getRevocationKey());
+    }
+
+    @Test
+    @DisplayName("En-tête absent, sans Bearer ou jeton illisible : rien n'est révoqué")
+    public void testLogoutIgnoresInvalidHeader() {
+        service.revokeAccessToken(null);
+        service.revokeAccessToken("Basic abc");
+        service.revokeAccessToken("Bearer pas-un-jwt");
+
+        assertTrue(table.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Changement de mot de passe : tous les jetons déjà émis pour l'utilisateur sont révoqués")
+    public void testRevokeAllForUser() {
+        String first = token("agent@test.mg");
+        String second = token("agent@test.mg");
+        String otherUser = token("autre@test.mg");
+
+        service.revokeAllForUser("  Agent@Test.MG ");
+
+        assertTrue(service.isRevoked(claims(first)));
+        assertTrue(service.isRevoked(claims(second)));
+        assertFalse(service.isRevoked(claims(otherUser)));
+        assertEquals(TokenRevocationService.USER_PREFIX + "agent@test.mg", table.get(0).getRevocationKey());
+    }
+
+    @Test
+    @DisplayName("Jeton émis après la révocation de l'utilisateur (nouvelle connexion) : valide")
+    public void testTokenIssuedAfterUserRevocation() {
+        LocalDateTime now = LocalDateTime.now();
+        table.add(new RevokedToken(TokenRevocationService.USER_PREFIX + "agent@test.mg",
+                now.minusMinutes(5), now.plusMinutes(55)));
+        service.rebuild();
+
+        assertFalse(service.isRevoked(claims(token("agent@test.mg"))));
+    }
+
+    @Test
+    @DisplayName("Révocation faite par une autre instance : visible après la relecture incrémentale")
+    public void testRefreshPicksUpOtherInstances() {
+        String presented = token("agent@test.mg");
+        LocalDateTime now = LocalDateTime.now();
+        table.add(new RevokedToken(TokenRevocationService.JTI_PREFIX + claims(presented).getId(),
+                now, now.plusHours(1)));
+
+        assertFalse(service.isRevoked(claims(presented)));
+        service.refresh();
+        assertTrue(service.isRevoked(claims(presented)));
+    }
+
+    @Test
+    @DisplayName("Reconstruction : les entrées expirées sortent de la liste")
+    public void testRebuildForgetsExpiredEntries() {
+        String presented = token("agent@test.mg");
+        service.revokeAccessToken("Bearer " + presented);
+        RevokedToken entry = table.get(0);
+        table.clear();
+        table.add(new RevokedToken(entry.getRevocationKey(), entry.getRevokedAt(), LocalDateTime.now().minusSeconds(1)));
+
+        service.rebuild();
+
+        assertFalse(service.isRevoked(claims(presented)));
+    }
+}
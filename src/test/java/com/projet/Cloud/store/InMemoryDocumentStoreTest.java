@@ -0,0 +1,95 @@
+package com.projet.Cloud.store;
+
+import com.projet.Cloud.config.InMemoryStoreProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("InMemoryDocumentStore Tests")
+public class InMemoryDocumentStoreTest {
+
+    private InMemoryStoreProperties properties;
+    private InMemoryDocumentStore store;
+
+    @BeforeEach
+    public void setUp() {
+        properties = new InMemoryStoreProperties();
+        properties.setSeed(42L);
+        store = new InMemoryDocumentStore(properties);
+    }
+
+    @Test
+    @DisplayName("Filtre, trie et pagine comme Firestore")
+    public void testQueryFiltersOrdersAndPaginates() throws ExecutionException, InterruptedException {
+        for (long i = 1; i <= 5; i++) {
+            store.set("signalements", "s" + i, Map.of("status", i % 2 == 0 ? "nouveau" : "en_cours", "localId", i));
+        }
+        store.set("signalements", "sans-id", Map.of("status", "nouveau"));
+
+        List<StoredDocument> page = store.query(DocumentQuery.collection("signalements")
+                .whereEqualTo("status", "en_cours")
+                .orderByDescending("localId")
+                .startAfter(5L)
+                .limit(1));
+
+        assertEquals(1, page.size());
+        assertEquals("s3", page.get(0).id());
+        assertEquals(3, store.count(DocumentQuery.collection("signalements").whereGreaterThan("localId", 2)));
+    }
+
+    @Test
+    @DisplayName("La projection ne renvoie que les champs demandés")
+    public void testQuerySelectsFields() throws ExecutionException, InterruptedException {
+        store.set("signalements", "s1", Map.of("localId", 1L, "status", "nouveau", "description", "Nid de poule"));
+
+        StoredDocument document = store.query(DocumentQuery.collection("signalements")
+                .select("localId", "status")).get(0);
+
+        assertEquals(Map.of("localId", 1L, "status", "nouveau"), document.data());
+        assertEquals("Nid de poule", store.get("signalements", "s1").orElseThrow().getString("description"));
+    }
+
+    @Test
+    @DisplayName("Merge fusionne et résout les valeurs spéciales")
+    public void testMergeResolvesSentinels() throws ExecutionException, InterruptedException {
+        store.set("signalements", "s1", Map.of("description", "Nid de poule", "views", 1L));
+
+        store.merge("signalements", "s1", Map.of(
+                "views", DocumentValues.increment(2),
+                "attachments", DocumentValues.arrayUnion(Map.of("url", "a.jpg")),
+                "updatedAt", DocumentValues.serverTimestamp()));
+
+        StoredDocument document = store.get("signalements", "s1").orElseThrow();
+        assertEquals("Nid de poule", document.getString("description"));
+        assertEquals(3L, document.getLong("views"));
+        assertEquals(1, ((List<?>) document.get("attachments")).size());
+        assertNotNull(document.get("updatedAt"));
+    }
+
+    @Test
+    @DisplayName("Un update sur un document absent fait échouer tout le batch")
+    public void testBatchIsAtomic() {
+        DocumentBatch batch = store.batch()
+                .set("problemes", "p1", Map.of("status", "ouvert"))
+                .update("problemes", "absent", Map.of("status", "converti"));
+
+        ExecutionException error = assertThrows(ExecutionException.class, batch::commit);
+        assertTrue(error.getCause().getMessage().startsWith("NOT_FOUND"));
+        assertEquals(0, store.size("problemes"));
+    }
+
+    @Test
+    @DisplayName("Injecte des erreurs UNAVAILABLE selon le taux configuré")
+    public void testInjectsErrors() {
+        properties.setErrorRate(1.0);
+
+        ExecutionException error = assertThrows(ExecutionException.class, () -> store.get("users", "1"));
+        assertTrue(error.getCause().getMessage().startsWith("UNAVAILABLE"));
+    }
+}
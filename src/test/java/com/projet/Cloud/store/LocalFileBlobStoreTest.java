@@ -0,0 +1,94 @@
+package com.projet.Cloud.store;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("LocalFileBlobStore Tests")
+public class LocalFileBlobStoreTest {
+
+    private static final byte[] CONTENT = "photo de la chaussée abîmée".getBytes(StandardCharsets.UTF_8);
+
+    @TempDir
+    Path dir;
+
+    private LocalFileBlobStore store;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        store = new LocalFileBlobStore(dir.toString());
+    }
+
+    private static String sha256(byte[] bytes) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+    }
+
+    private long temporaryFiles() throws IOException {
+        try (Stream<Path> files = Files.list(dir.resolve("tmp"))) {
+            return files.count();
+        }
+    }
+
+    @Test
+    @DisplayName("Blob rangé sous le SHA-256 de son contenu, stocké une seule fois")
+    public void testPutIsContentAddressed() throws Exception {
+        StoredBlob first = store.put(new ByteArrayInputStream(CONTENT), 1024);
+        StoredBlob second = store.put(new ByteArrayInputStream(CONTENT), 1024);
+
+        assertEquals(sha256(CONTENT), first.hash());
+        assertEquals(CONTENT.length, first.size());
+        assertTrue(first.created());
+        assertEquals(first.hash(), second.hash());
+        assertFalse(second.created());
+        assertArrayEquals(CONTENT, Files.readAllBytes(dir.resolve(first.hash().substring(0, 2)).resolve(first.hash())));
+        assertEquals(0, temporaryFiles());
+    }
+
+    @Test
+    @DisplayName("Envoi trop volumineux : refusé sans laisser de fichier")
+    public void testPutTooLarge() throws Exception {
+        assertThrows(BlobStore.BlobTooLargeException.class,
+                () -> store.put(new ByteArrayInputStream(CONTENT), CONTENT.length - 1));
+
+        assertEquals(0, temporaryFiles());
+        assertFalse(store.exists(sha256(CONTENT)));
+    }
+
+    @Test
+    @DisplayName("Empreinte mal formée refusée (pas de chemin hors du répertoire)")
+    public void testInvalidHashRejected() throws Exception {
+        String upper = sha256(CONTENT).toUpperCase();
+
+        assertThrows(IllegalArgumentException.class, () -> store.exists("../../etc/passwd"));
+        assertThrows(IllegalArgumentException.class, () -> store.exists(upper));
+        assertThrows(IllegalArgumentException.class, () -> store.open("abc"));
+        assertThrows(IllegalArgumentException.class, () -> store.delete(null));
+    }
+
+    @Test
+    @DisplayName("transferTo copie exactement la plage demandée")
+    public void testTransferRange() throws Exception {
+        String hash = store.put(new ByteArrayInputStream(CONTENT), 1024).hash();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long sent = store.transferTo(hash, 2, 5, Channels.newChannel(out));
+
+        assertEquals(5, sent);
+        assertArrayEquals(Arrays.copyOfRange(CONTENT, 2, 7), out.toByteArray());
+    }
+}
@@ -0,0 +1,63 @@
+package com.projet.Cloud.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("BloomFilter Tests")
+public class BloomFilterTest {
+
+    @Test
+    @DisplayName("Aucun faux négatif sur les clés ajoutées")
+    public void testNoFalseNegatives() {
+        BloomFilter filter = BloomFilter.create(10_000, 0.001);
+        String[] keys = new String[10_000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = "jti:" + UUID.randomUUID();
+            filter.put(keys[i]);
+        }
+
+        for (String key : keys) {
+            assertTrue(filter.mightContain(key), key);
+        }
+    }
+
+    @Test
+    @DisplayName("Taux de faux positifs proche de la cible à pleine capacité")
+    public void testFalsePositiveRate() {
+        BloomFilter filter = BloomFilter.create(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("user:" + i + "@example.com");
+        }
+
+        int positives = 0;
+        int probes = 100_000;
+        for (int i = 0; i < probes; i++) {
+            if (filter.mightContain("jti:" + UUID.randomUUID())) {
+                positives++;
+            }
+        }
+        // Cible 1 % : marge large pour un test déterministe en pratique
+        assertTrue(positives < probes * 0.02, "faux positifs: " + positives);
+    }
+
+    @Test
+    @DisplayName("Dimensionnement : ~9,6 bits et 7 sondages par clé pour 1 %")
+    public void testSizing() {
+        BloomFilter filter = BloomFilter.create(100_000, 0.01);
+
+        assertEquals(7, filter.hashCount());
+        assertTrue(filter.bitCount() >= 958_000 && filter.bitCount() <= 960_000, "bits: " + filter.bitCount());
+        assertFalse(filter.mightContain("jti:absent"));
+    }
+
+    @Test
+    @DisplayName("Taux de faux positifs invalide refusé")
+    public void testRejectsInvalidRate() {
+        assertThrows(IllegalArgumentException.class, () -> BloomFilter.create(100, 0));
+        assertThrows(IllegalArgumentException.class, () -> BloomFilter.create(100, 1));
+    }
+}